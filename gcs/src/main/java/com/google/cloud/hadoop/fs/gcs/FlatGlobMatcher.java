@@ -0,0 +1,122 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.fs.gcs;
+
+import static com.google.cloud.hadoop.gcsio.GoogleCloudStorage.PATH_DELIMITER;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hadoop.fs.GlobExpander;
+import org.apache.hadoop.fs.GlobPattern;
+
+/**
+ * Glob pattern compiled for matching of object names returned by the flat listing.
+ *
+ * <p>Pattern is expanded and compiled once, then object names are matched against it directly, so
+ * listed objects do not need to be converted to {@link org.apache.hadoop.fs.FileStatus} and
+ * accumulated to be globbed by the Hadoop {@code Globber}.
+ *
+ * <p>Similarly to the Hadoop {@code Globber}, each component of the pattern path is matched against
+ * the corresponding component of the object name, and only objects with the same number of
+ * components as in the pattern are matched. Objects with more components match as their parent
+ * directory, that can be implicit.
+ */
+class FlatGlobMatcher {
+
+  private static final Splitter PATH_SPLITTER = Splitter.on(PATH_DELIMITER).omitEmptyStrings();
+
+  private final ImmutableList<ImmutableList<GlobPattern>> patterns;
+  private final boolean hasWildcard;
+
+  private FlatGlobMatcher(ImmutableList<ImmutableList<GlobPattern>> patterns, boolean hasWildcard) {
+    this.patterns = patterns;
+    this.hasWildcard = hasWildcard;
+  }
+
+  /**
+   * Compiles glob pattern of the object path without bucket, e.g. {@code /dir/*}{@code /part-*}.
+   */
+  static FlatGlobMatcher compile(String pathPattern) throws IOException {
+    ImmutableList.Builder<ImmutableList<GlobPattern>> patterns = ImmutableList.builder();
+    boolean hasWildcard = false;
+    // Expand curly braces that contain path delimiters, so each expanded pattern has
+    // a fixed number of components.
+    for (String expandedPattern : GlobExpander.expand(pathPattern)) {
+      ImmutableList.Builder<GlobPattern> componentPatterns = ImmutableList.builder();
+      for (String component : PATH_SPLITTER.split(expandedPattern)) {
+        GlobPattern componentPattern = new GlobPattern(component);
+        hasWildcard |= componentPattern.hasWildcard();
+        componentPatterns.add(componentPattern);
+      }
+      patterns.add(componentPatterns.build());
+    }
+    return new FlatGlobMatcher(patterns.build(), hasWildcard);
+  }
+
+  /** Returns whether any of the expanded patterns has a wildcard. */
+  boolean hasWildcard() {
+    return hasWildcard;
+  }
+
+  /**
+   * Returns whether the pattern is a single literal path: it does not have wildcards and curly
+   * braces did not expand it into multiple patterns.
+   */
+  boolean isLiteralPath() {
+    return !hasWildcard && patterns.size() <= 1;
+  }
+
+  /**
+   * Returns names of the objects that match the pattern: either the {@code objectName} itself or
+   * names of its parent directories (with a trailing delimiter).
+   */
+  List<String> match(String objectName) {
+    // Directory object names have a trailing delimiter that is not a part of the last component.
+    int nameEnd =
+        objectName.endsWith(PATH_DELIMITER) ? objectName.length() - 1 : objectName.length();
+    List<String> matchedNames = new ArrayList<>(1);
+    for (List<GlobPattern> componentPatterns : patterns) {
+      int componentStart = 0;
+      boolean matches = true;
+      for (GlobPattern componentPattern : componentPatterns) {
+        if (componentStart > nameEnd) {
+          // Object has less components than pattern
+          matches = false;
+          break;
+        }
+        int componentEnd = objectName.indexOf(PATH_DELIMITER, componentStart);
+        if (componentEnd < 0 || componentEnd > nameEnd) {
+          componentEnd = nameEnd;
+        }
+        if (!componentPattern.matches(objectName.substring(componentStart, componentEnd))) {
+          matches = false;
+          break;
+        }
+        componentStart = componentEnd + 1;
+      }
+      if (matches) {
+        String matchedName =
+            componentStart > nameEnd ? objectName : objectName.substring(0, componentStart);
+        if (!matchedNames.contains(matchedName)) {
+          matchedNames.add(matchedName);
+        }
+      }
+    }
+    return matchedNames;
+  }
+}
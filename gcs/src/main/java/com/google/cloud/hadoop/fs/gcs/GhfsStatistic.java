@@ -0,0 +1,68 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.fs.gcs;
+
+/** Statistics of the GCS connector that are reported by {@link GhfsStorageStatistics}. */
+public enum GhfsStatistic {
+  CHECKSUM_VALIDATED_BYTES(
+      "gcs_checksum_validated_bytes",
+      "Number of bytes of the objects with successfully validated CRC32C checksum"),
+  CHECKSUM_MISMATCHES(
+      "gcs_checksum_mismatches", "Number of object reads that failed CRC32C checksum validation"),
+  GRPC_CHANNELS("gcs_grpc_channels", "Number of gRPC channels in the channel pool"),
+  GRPC_CHANNEL_REPLACEMENTS(
+      "gcs_grpc_channel_replacements",
+      "Number of gRPC channels that were replaced because they were stalled, failing or slow"),
+  GRPC_ACTIVE_REQUESTS(
+      "gcs_grpc_active_requests", "Number of requests in progress on the gRPC channel pool"),
+  GRPC_COMPLETED_REQUESTS(
+      "gcs_grpc_completed_requests", "Number of requests completed by the gRPC channel pool"),
+  GRPC_FAILED_REQUESTS(
+      "gcs_grpc_failed_requests", "Number of requests failed on the gRPC channel pool"),
+  GRPC_PENDING_RESPONSES(
+      "gcs_grpc_pending_responses",
+      "Number of response messages requested on the gRPC channel pool and not received yet"),
+  GRPC_RECEIVED_BYTES(
+      "gcs_grpc_received_bytes", "Number of response bytes received by the gRPC channel pool");
+
+  private final String symbol;
+  private final String description;
+
+  GhfsStatistic(String symbol, String description) {
+    this.symbol = symbol;
+    this.description = description;
+  }
+
+  /** Returns name of the statistic in {@link GhfsStorageStatistics}. */
+  public String getSymbol() {
+    return symbol;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  /** Returns statistic with the given symbol, or null if there is no such statistic. */
+  public static GhfsStatistic fromSymbol(String symbol) {
+    for (GhfsStatistic statistic : values()) {
+      if (statistic.symbol.equals(symbol)) {
+        return statistic;
+      }
+    }
+    return null;
+  }
+}
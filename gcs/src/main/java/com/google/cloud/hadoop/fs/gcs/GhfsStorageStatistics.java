@@ -0,0 +1,124 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.fs.gcs;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.cloud.hadoop.gcsio.GrpcChannelPoolStats;
+import com.google.common.collect.ImmutableMap;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import org.apache.hadoop.fs.StorageStatistics;
+
+/**
+ * Storage statistics of a {@link GoogleHadoopFileSystemBase} instance.
+ *
+ * <p>gRPC channel pool statistics are read from the channel pool when queried, they are zero if
+ * gRPC is not enabled and are not affected by {@link #reset()}.
+ */
+public class GhfsStorageStatistics extends StorageStatistics {
+
+  /** Name of the GCS connector storage statistics. */
+  public static final String NAME = "GhfsStorageStatistics";
+
+  private static final ImmutableMap<GhfsStatistic, ToLongFunction<GrpcChannelPoolStats>>
+      GRPC_CHANNEL_POOL_STATISTICS =
+          ImmutableMap.<GhfsStatistic, ToLongFunction<GrpcChannelPoolStats>>builder()
+              .put(GhfsStatistic.GRPC_CHANNELS, GrpcChannelPoolStats::getChannels)
+              .put(
+                  GhfsStatistic.GRPC_CHANNEL_REPLACEMENTS,
+                  GrpcChannelPoolStats::getReplacedChannels)
+              .put(GhfsStatistic.GRPC_ACTIVE_REQUESTS, GrpcChannelPoolStats::getActiveRequests)
+              .put(
+                  GhfsStatistic.GRPC_COMPLETED_REQUESTS,
+                  GrpcChannelPoolStats::getCompletedRequests)
+              .put(GhfsStatistic.GRPC_FAILED_REQUESTS, GrpcChannelPoolStats::getFailedRequests)
+              .put(
+                  GhfsStatistic.GRPC_PENDING_RESPONSES, GrpcChannelPoolStats::getPendingResponses)
+              .put(GhfsStatistic.GRPC_RECEIVED_BYTES, GrpcChannelPoolStats::getReceivedBytes)
+              .build();
+
+  private final Map<GhfsStatistic, AtomicLong> counters = new EnumMap<>(GhfsStatistic.class);
+
+  private final Supplier<GrpcChannelPoolStats> grpcChannelPoolStatsSupplier;
+
+  public GhfsStorageStatistics() {
+    this(() -> null);
+  }
+
+  /**
+   * @param grpcChannelPoolStatsSupplier supplies current gRPC channel pool statistics, or {@code
+   *     null} if gRPC is not enabled
+   */
+  public GhfsStorageStatistics(Supplier<GrpcChannelPoolStats> grpcChannelPoolStatsSupplier) {
+    super(NAME);
+    this.grpcChannelPoolStatsSupplier =
+        checkNotNull(grpcChannelPoolStatsSupplier, "grpcChannelPoolStatsSupplier can't be null");
+    for (GhfsStatistic statistic : GhfsStatistic.values()) {
+      if (!GRPC_CHANNEL_POOL_STATISTICS.containsKey(statistic)) {
+        counters.put(statistic, new AtomicLong());
+      }
+    }
+  }
+
+  /** Increments the statistic by the given value. */
+  public void increment(GhfsStatistic statistic, long value) {
+    checkArgument(
+        counters.containsKey(statistic), "%s statistic can not be incremented", statistic);
+    counters.get(statistic).addAndGet(value);
+  }
+
+  /** Returns current value of the statistic. */
+  public long get(GhfsStatistic statistic) {
+    ToLongFunction<GrpcChannelPoolStats> grpcStatistic =
+        GRPC_CHANNEL_POOL_STATISTICS.get(statistic);
+    if (grpcStatistic == null) {
+      return counters.get(statistic).get();
+    }
+    GrpcChannelPoolStats grpcStats = grpcChannelPoolStatsSupplier.get();
+    return grpcStats == null ? 0 : grpcStatistic.applyAsLong(grpcStats);
+  }
+
+  @Override
+  public Iterator<LongStatistic> getLongStatistics() {
+    return Arrays.stream(GhfsStatistic.values())
+        .map(s -> new LongStatistic(s.getSymbol(), get(s)))
+        .iterator();
+  }
+
+  @Override
+  public Long getLong(String key) {
+    GhfsStatistic statistic = GhfsStatistic.fromSymbol(key);
+    return statistic == null ? null : get(statistic);
+  }
+
+  @Override
+  public boolean isTracked(String key) {
+    return GhfsStatistic.fromSymbol(key) != null;
+  }
+
+  @Override
+  public void reset() {
+    counters.values().forEach(counter -> counter.set(0));
+  }
+}
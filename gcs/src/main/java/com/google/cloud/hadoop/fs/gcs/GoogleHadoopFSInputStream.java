@@ -16,7 +16,10 @@
 
 package com.google.cloud.hadoop.fs.gcs;
 
+import com.google.cloud.hadoop.gcsio.GoogleCloudStorageReadChannel;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageReadOptions;
+import com.google.cloud.hadoop.gcsio.VectoredIORange;
+import com.google.cloud.hadoop.gcsio.VectoredReadChannel;
 import com.google.common.base.Preconditions;
 import com.google.common.flogger.GoogleLogger;
 import java.io.IOException;
@@ -24,11 +27,13 @@ import java.net.URI;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SeekableByteChannel;
+import java.util.List;
+import java.util.function.IntFunction;
 import org.apache.hadoop.fs.FSInputStream;
 import org.apache.hadoop.fs.FileSystem;
 
 /** A seekable and positionable FSInputStream that provides read access to a file. */
-class GoogleHadoopFSInputStream extends FSInputStream {
+class GoogleHadoopFSInputStream extends FSInputStream implements VectoredReadable {
 
   private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
 
@@ -45,6 +50,12 @@ class GoogleHadoopFSInputStream extends FSInputStream {
   // numbers of bytes read.
   private final FileSystem.Statistics statistics;
 
+  // Storage statistics of the parent GoogleHadoopFileSystemBase.
+  private final GhfsStorageStatistics storageStatistics;
+
+  // Whether statistics of the channel were already added to the storage statistics.
+  private boolean channelStatisticsRecorded = false;
+
   // Used for single-byte reads.
   private final byte[] singleReadBuf = new byte[1];
 
@@ -66,6 +77,7 @@ class GoogleHadoopFSInputStream extends FSInputStream {
         "GoogleHadoopFSInputStream(gcsPath: %s, readOptions: %s)", gcsPath, readOptions);
     this.gcsPath = gcsPath;
     this.statistics = statistics;
+    this.storageStatistics = ghfs.getStorageStatistics();
     this.totalBytesRead = 0;
     this.channel = ghfs.getGcsFs().open(gcsPath, readOptions);
   }
@@ -152,6 +164,48 @@ class GoogleHadoopFSInputStream extends FSInputStream {
     return result;
   }
 
+  @Override
+  public void readVectored(
+      List<? extends VectoredIORange> ranges, IntFunction<ByteBuffer> allocate)
+      throws IOException {
+    logger.atFiner().log("readVectored(ranges: %s)", ranges);
+    if (!channel.isOpen()) {
+      throw new ClosedChannelException();
+    }
+
+    if (channel instanceof VectoredReadChannel) {
+      for (VectoredIORange range : ranges) {
+        range.getData().thenAccept(buffer -> statistics.incrementBytesRead(buffer.remaining()));
+      }
+      statistics.incrementReadOps(ranges.size());
+      ((VectoredReadChannel) channel).readVectored(ranges, allocate);
+      return;
+    }
+
+    // Fall back to positional reads if the underlying channel does not support vectored reads.
+    for (VectoredIORange range : ranges) {
+      ByteBuffer buffer = allocate.apply(range.getLength());
+      try {
+        if (buffer.hasArray()) {
+          readFully(
+              range.getOffset(),
+              buffer.array(),
+              buffer.arrayOffset() + buffer.position(),
+              range.getLength());
+          buffer.position(buffer.position() + range.getLength());
+        } else {
+          byte[] data = new byte[range.getLength()];
+          readFully(range.getOffset(), data, 0, data.length);
+          buffer.put(data);
+        }
+        buffer.flip();
+        range.getData().complete(buffer);
+      } catch (IOException e) {
+        range.getData().completeExceptionally(e);
+      }
+    }
+  }
+
   /**
    * Gets the current position within the file being read.
    *
@@ -201,8 +255,25 @@ class GoogleHadoopFSInputStream extends FSInputStream {
     logger.atFiner().log("close(): %s", gcsPath);
     if (channel != null) {
       logger.atFiner().log("Closing '%s' file with %d total bytes read", gcsPath, totalBytesRead);
-      channel.close();
+      try {
+        channel.close();
+      } finally {
+        recordChannelStatistics();
+      }
+    }
+  }
+
+  /** Adds checksum validation statistics of the channel to the file system storage statistics. */
+  private void recordChannelStatistics() {
+    if (channelStatisticsRecorded || !(channel instanceof GoogleCloudStorageReadChannel)) {
+      return;
     }
+    channelStatisticsRecorded = true;
+    GoogleCloudStorageReadChannel readChannel = (GoogleCloudStorageReadChannel) channel;
+    storageStatistics.increment(
+        GhfsStatistic.CHECKSUM_VALIDATED_BYTES, readChannel.getChecksumValidatedBytes());
+    storageStatistics.increment(
+        GhfsStatistic.CHECKSUM_MISMATCHES, readChannel.getChecksumMismatchCount());
   }
 
   /**
@@ -29,6 +29,7 @@ import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration
 import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_WORKING_DIRECTORY;
 import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.PERMISSIONS_TO_REPORT;
 import static com.google.cloud.hadoop.gcsio.CreateFileOptions.DEFAULT_OVERWRITE;
+import static com.google.cloud.hadoop.gcsio.GoogleCloudStorage.PATH_DELIMITER;
 import static com.google.cloud.hadoop.util.HadoopCredentialConfiguration.GROUP_IMPERSONATION_SERVICE_ACCOUNT_SUFFIX;
 import static com.google.cloud.hadoop.util.HadoopCredentialConfiguration.IMPERSONATION_SERVICE_ACCOUNT_SUFFIX;
 import static com.google.cloud.hadoop.util.HadoopCredentialConfiguration.USER_IMPERSONATION_SERVICE_ACCOUNT_SUFFIX;
@@ -39,6 +40,7 @@ import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.flogger.LazyArgs.lazy;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newFixedThreadPool;
 
 import com.google.api.client.auth.oauth2.Credential;
@@ -48,13 +50,17 @@ import com.google.cloud.hadoop.fs.gcs.auth.GcsDelegationTokens;
 import com.google.cloud.hadoop.gcsio.CreateFileOptions;
 import com.google.cloud.hadoop.gcsio.CreateObjectOptions;
 import com.google.cloud.hadoop.gcsio.FileInfo;
+import com.google.cloud.hadoop.gcsio.ForwardingGoogleCloudStorage;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorage;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorage.ListPage;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageFileSystem;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageFileSystemOptions;
+import com.google.cloud.hadoop.gcsio.GoogleCloudStorageImpl;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageItemInfo;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageOptions;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageReadOptions;
+import com.google.cloud.hadoop.gcsio.GoogleCloudStorageReadOptions.Fadvise;
+import com.google.cloud.hadoop.gcsio.GrpcChannelPoolStats;
 import com.google.cloud.hadoop.gcsio.ListFileOptions;
 import com.google.cloud.hadoop.gcsio.StorageResourceId;
 import com.google.cloud.hadoop.gcsio.UpdatableItemInfo;
@@ -74,7 +80,6 @@ import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
 import com.google.common.flogger.GoogleLogger;
 import com.google.common.io.BaseEncoding;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
@@ -82,6 +87,7 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.nio.file.DirectoryNotEmptyException;
@@ -89,22 +95,22 @@ import java.security.GeneralSecurityException;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.annotation.Nullable;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.ContentSummary;
 import org.apache.hadoop.fs.FSDataInputStream;
@@ -114,10 +120,13 @@ import org.apache.hadoop.fs.FileChecksum;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.GlobPattern;
+import org.apache.hadoop.fs.LocatedFileStatus;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.PathFilter;
+import org.apache.hadoop.fs.RemoteIterator;
 import org.apache.hadoop.fs.XAttrSetFlag;
 import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.io.IOUtils;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.hadoop.security.token.Token;
@@ -243,6 +252,13 @@ public abstract class GoogleHadoopFileSystemBase extends FileSystem
   private static final ThreadFactory DAEMON_THREAD_FACTORY =
       new ThreadFactoryBuilder().setNameFormat("ghfs-thread-%d").setDaemon(true).build();
 
+  /** Executor that prefetches next pages of the listings returned as iterators. */
+  private final ExecutorService listingExecutor = newCachedThreadPool(DAEMON_THREAD_FACTORY);
+
+  /** Storage statistics of this file system instance. */
+  private final GhfsStorageStatistics storageStatistics =
+      new GhfsStorageStatistics(this::getGrpcChannelPoolStats);
+
   @VisibleForTesting GlobAlgorithm globAlgorithm = GCS_GLOB_ALGORITHM.getDefault();
 
   private GcsFileChecksumType checksumType = GCS_FILE_CHECKSUM_TYPE.getDefault();
@@ -385,6 +401,31 @@ public abstract class GoogleHadoopFileSystemBase extends FileSystem
   @Override
   public abstract String getScheme();
 
+  @Override
+  public GhfsStorageStatistics getStorageStatistics() {
+    return storageStatistics;
+  }
+
+  /**
+   * Returns request metrics of the gRPC channel pool, or {@code null} if GCS FS is not initialized
+   * or gRPC is not enabled.
+   */
+  @Nullable
+  private GrpcChannelPoolStats getGrpcChannelPoolStats() {
+    Supplier<GoogleCloudStorageFileSystem> gcsFs = gcsFsSupplier;
+    // Do not trigger lazy initialization of the GCS FS just to report statistics
+    if (!gcsFsInitialized || gcsFs == null) {
+      return null;
+    }
+    GoogleCloudStorage gcs = gcsFs.get().getGcs();
+    while (gcs instanceof ForwardingGoogleCloudStorage) {
+      gcs = ((ForwardingGoogleCloudStorage) gcs).getDelegate();
+    }
+    return gcs instanceof GoogleCloudStorageImpl
+        ? ((GoogleCloudStorageImpl) gcs).getGrpcChannelPoolStats()
+        : null;
+  }
+
   /**
    * Overridden to make root its own parent. This is POSIX compliant, but more importantly guards
    * against poor directory accounting in the PathData class of Hadoop 2's FsShell.
@@ -875,6 +916,130 @@ public abstract class GoogleHadoopFileSystemBase extends FileSystem
     return status.toArray(new FileStatus[0]);
   }
 
+  /**
+   * Lists file status page by page. Next page of the listing is fetched in the background while
+   * the caller consumes the current one.
+   *
+   * @see #listStatus(Path)
+   */
+  @Override
+  public RemoteIterator<FileStatus> listStatusIterator(Path hadoopPath) throws IOException {
+    checkArgument(hadoopPath != null, "hadoopPath must not be null");
+
+    checkOpen();
+
+    logger.atFiner().log("listStatusIterator(hadoopPath: %s)", hadoopPath);
+
+    URI gcsPath = getGcsPath(hadoopPath);
+    String userName = getUgiUserName();
+    try {
+      return new PrefetchingListIterator<>(
+          pageToken -> {
+            ListPage<FileInfo> infoPage =
+                getGcsFs().listFileInfoPage(gcsPath, LIST_OPTIONS, pageToken);
+            List<FileStatus> statusPage = new ArrayList<>(infoPage.getItems().size());
+            for (FileInfo fileInfo : infoPage.getItems()) {
+              statusPage.add(getFileStatus(fileInfo, userName));
+            }
+            return new ListPage<>(statusPage, infoPage.getNextPageToken());
+          },
+          listingExecutor);
+    } catch (FileNotFoundException fnfe) {
+      throw (FileNotFoundException)
+          new FileNotFoundException(
+                  String.format(
+                      "listStatusIterator(hadoopPath: %s): '%s' does not exist.",
+                      hadoopPath, gcsPath))
+              .initCause(fnfe);
+    }
+  }
+
+  /**
+   * Lists located file status page by page. Next page of the listing is fetched in the background
+   * while the caller consumes the current one.
+   *
+   * @see #listStatusIterator(Path)
+   */
+  @Override
+  public RemoteIterator<LocatedFileStatus> listLocatedStatus(Path hadoopPath) throws IOException {
+    RemoteIterator<FileStatus> statusIterator = listStatusIterator(hadoopPath);
+    return new RemoteIterator<LocatedFileStatus>() {
+      @Override
+      public boolean hasNext() throws IOException {
+        return statusIterator.hasNext();
+      }
+
+      @Override
+      public LocatedFileStatus next() throws IOException {
+        return toLocatedFileStatus(statusIterator.next());
+      }
+    };
+  }
+
+  /**
+   * Lists statuses of files under the given path. If {@code recursive} is {@code true}, then all
+   * files under the path are listed by a single flat prefix listing instead of listing each
+   * subdirectory separately.
+   */
+  @Override
+  public RemoteIterator<LocatedFileStatus> listFiles(Path hadoopPath, boolean recursive)
+      throws IOException {
+    checkArgument(hadoopPath != null, "hadoopPath must not be null");
+
+    checkOpen();
+
+    logger.atFiner().log("listFiles(hadoopPath: %s, recursive: %b)", hadoopPath, recursive);
+
+    URI gcsPath = getGcsPath(hadoopPath);
+    if (!recursive || StorageResourceId.fromUriPath(gcsPath, true).isRoot()) {
+      return super.listFiles(hadoopPath, recursive);
+    }
+
+    URI dirPath = UriPaths.toDirectory(gcsPath);
+    String userName = getUgiUserName();
+    PrefetchingListIterator<LocatedFileStatus> filesIterator =
+        new PrefetchingListIterator<>(
+            pageToken -> {
+              ListPage<FileInfo> infoPage =
+                  getGcsFs().listFileInfoForPrefixPage(dirPath, LIST_OPTIONS, pageToken);
+              List<LocatedFileStatus> statusPage = new ArrayList<>(infoPage.getItems().size());
+              for (FileInfo fileInfo : infoPage.getItems()) {
+                if (!fileInfo.isDirectory()) {
+                  statusPage.add(toLocatedFileStatus(getFileStatus(fileInfo, userName)));
+                }
+              }
+              return new ListPage<>(statusPage, infoPage.getNextPageToken());
+            },
+            listingExecutor);
+    if (filesIterator.hasNext()) {
+      return filesIterator;
+    }
+
+    // Path is a file, an empty directory or does not exist.
+    FileStatus status = getFileStatus(hadoopPath);
+    List<LocatedFileStatus> files =
+        status.isFile()
+            ? ImmutableList.of(toLocatedFileStatus(status))
+            : ImmutableList.of();
+    Iterator<LocatedFileStatus> filesListIterator = files.iterator();
+    return new RemoteIterator<LocatedFileStatus>() {
+      @Override
+      public boolean hasNext() {
+        return filesListIterator.hasNext();
+      }
+
+      @Override
+      public LocatedFileStatus next() {
+        return filesListIterator.next();
+      }
+    };
+  }
+
+  private LocatedFileStatus toLocatedFileStatus(FileStatus status) throws IOException {
+    return new LocatedFileStatus(
+        status, status.isFile() ? getFileBlockLocations(status, 0, status.getLen()) : null);
+  }
+
   /**
    * Sets the current working directory to the given path.
    *
@@ -1143,51 +1308,52 @@ public abstract class GoogleHadoopFileSystemBase extends FileSystem
       prefixUri = UriPaths.toDirectory(prefixUri);
     }
 
-    // Get everything matching the non-glob prefix.
+    FlatGlobMatcher globMatcher = FlatGlobMatcher.compile(fixedPath.toUri().getPath());
+
+    // If there are no path delimiters after the non-glob prefix, then only objects and
+    // directories right "under" the prefix could match, so there is no need to list objects in
+    // these directories.
+    boolean recursive = pathString.indexOf(PATH_DELIMITER, prefixString.length()) >= 0;
+    String bucketName = StorageResourceId.fromUriPath(prefixUri, true).getBucketName();
+    String userName = getUgiUserName();
+
+    // Get everything matching the non-glob prefix and match it against the glob page by page,
+    // so only matched file statuses are retained. Statuses are de-duplicated by path, because
+    // the same implicit directory could be matched by many objects inside of it.
     logger.atFiner().log("Listing everything with '%s' prefix", prefixUri);
-    List<FileStatus> matchedStatuses = null;
+    Map<Path, FileStatus> matchedStatuses = new TreeMap<>();
     String pageToken = null;
     do {
       ListPage<FileInfo> infoPage =
-          getGcsFs().listFileInfoForPrefixPage(prefixUri, LIST_OPTIONS, pageToken);
-
-      Collection<FileStatus> statusPage =
-          toFileStatusesWithImplicitDirectories(infoPage.getItems());
-
-      // TODO: refactor to use GlobPattern and PathFilter directly without helper FS
-      FileSystem helperFileSystem =
-          InMemoryGlobberFileSystem.createInstance(getConf(), getWorkingDirectory(), statusPage);
-      FileStatus[] matchedStatusPage = helperFileSystem.globStatus(fixedPath, filter);
-      if (matchedStatusPage != null) {
-        Collections.addAll(
-            (matchedStatuses == null ? matchedStatuses = new ArrayList<>() : matchedStatuses),
-            matchedStatusPage);
+          getGcsFs().listFileInfoForPrefixPage(prefixUri, LIST_OPTIONS, recursive, pageToken);
+      for (FileInfo fileInfo : infoPage.getItems()) {
+        String objectName = StorageResourceId.fromUriPath(fileInfo.getPath(), true).getObjectName();
+        for (String matchedName : globMatcher.match(objectName)) {
+          FileInfo matchedInfo =
+              matchedName.equals(objectName)
+                  ? fileInfo
+                  : FileInfo.fromItemInfo(
+                      GoogleCloudStorageItemInfo.createInferredDirectory(
+                          new StorageResourceId(bucketName, matchedName)));
+          Path matchedPath = getHadoopPath(matchedInfo.getPath());
+          FileStatus matchedStatus = matchedStatuses.get(matchedPath);
+          // Real directory takes precedence over the implicit directory with the same path
+          if ((matchedStatus == null
+                  || (isImplicitDirectory(matchedStatus) && !matchedInfo.isInferredDirectory()))
+              && filter.accept(matchedPath)) {
+            matchedStatuses.put(matchedPath, getFileStatus(matchedInfo, userName));
+          }
+        }
       }
-
       pageToken = infoPage.getNextPageToken();
     } while (pageToken != null);
 
-    if (matchedStatuses == null || matchedStatuses.isEmpty()) {
-      return matchedStatuses == null ? null : new FileStatus[0];
+    if (matchedStatuses.isEmpty()) {
+      // Similarly to the Hadoop Globber, return null only if pattern is a single literal path
+      // and nothing matched it.
+      return globMatcher.isLiteralPath() ? null : new FileStatus[0];
     }
-
-    matchedStatuses.sort(
-        ((Comparator<FileStatus>) Comparator.<FileStatus>naturalOrder())
-            // Place duplicate implicit directories after real directory
-            .thenComparingInt((FileStatus f) -> isImplicitDirectory(f) ? 1 : 0));
-
-    // Remove duplicate file statuses that could be in the matchedStatuses
-    // because of pagination and implicit directories
-    List<FileStatus> filteredStatuses = new ArrayList<>(matchedStatuses.size());
-    FileStatus lastAdded = null;
-    for (FileStatus fileStatus : matchedStatuses) {
-      if (lastAdded == null || lastAdded.compareTo(fileStatus) != 0) {
-        filteredStatuses.add(fileStatus);
-        lastAdded = fileStatus;
-      }
-    }
-
-    return filteredStatuses.toArray(new FileStatus[0]);
+    return matchedStatuses.values().toArray(new FileStatus[0]);
   }
 
   private static boolean isImplicitDirectory(FileStatus curr) {
@@ -1195,42 +1361,6 @@ public abstract class GoogleHadoopFileSystemBase extends FileSystem
     return curr.isDir() && curr.getModificationTime() == 0;
   }
 
-  /** Helper method that converts {@link FileInfo} collection to {@link FileStatus} collection. */
-  private Collection<FileStatus> toFileStatusesWithImplicitDirectories(
-      Collection<FileInfo> fileInfos) throws IOException {
-    List<FileStatus> fileStatuses = new ArrayList<>(fileInfos.size());
-    Set<URI> filePaths = Sets.newHashSetWithExpectedSize(fileInfos.size());
-    String userName = getUgiUserName();
-    for (FileInfo fileInfo : fileInfos) {
-      filePaths.add(fileInfo.getPath());
-      fileStatuses.add(getFileStatus(fileInfo, userName));
-    }
-
-    // The flow for populating this doesn't bother to populate metadata entries for parent
-    // directories but we know the parent directories are expected to exist, so we'll just
-    // populate the missing entries explicitly here. Necessary for getFileStatus(parentOfInfo)
-    // to work when using an instance of this class.
-    for (FileInfo fileInfo : fileInfos) {
-      URI parentPath = UriPaths.getParentPath(fileInfo.getPath());
-      while (parentPath != null && !parentPath.equals(GoogleCloudStorageFileSystem.GCS_ROOT)) {
-        if (!filePaths.contains(parentPath)) {
-          logger.atFiner().log("Adding fake entry for missing parent path '%s'", parentPath);
-          StorageResourceId id = StorageResourceId.fromUriPath(parentPath, true);
-
-          GoogleCloudStorageItemInfo fakeItemInfo =
-              GoogleCloudStorageItemInfo.createInferredDirectory(id);
-          FileInfo fakeFileInfo = FileInfo.fromItemInfo(fakeItemInfo);
-
-          filePaths.add(parentPath);
-          fileStatuses.add(getFileStatus(fakeFileInfo, userName));
-        }
-        parentPath = UriPaths.getParentPath(parentPath);
-      }
-    }
-
-    return fileStatuses;
-  }
-
   /** Helper method to get the UGI short user name */
   private static String getUgiUserName() throws IOException {
     UserGroupInformation ugi = UserGroupInformation.getCurrentUser();
@@ -1570,7 +1700,31 @@ public abstract class GoogleHadoopFileSystemBase extends FileSystem
   public void copyToLocalFile(boolean delSrc, Path src, Path dst)
       throws IOException {
     logger.atFiner().log("copyToLocalFile(delSrc: %b, src: %s, dst: %s)", delSrc, src, dst);
-    super.copyToLocalFile(delSrc, src, dst);
+    GoogleCloudStorageReadOptions readChannelOptions =
+        getGcsFs().getOptions().getCloudStorageOptions().getReadChannelOptions();
+    if (readChannelOptions.getParallelDownloadConnections() <= 0
+        || getFileStatus(src).isDirectory()) {
+      super.copyToLocalFile(delSrc, src, dst);
+      return;
+    }
+
+    // Download file over multiple connections regardless of its size.
+    GoogleCloudStorageReadOptions copyReadOptions =
+        readChannelOptions.toBuilder()
+            .setFadvise(Fadvise.SEQUENTIAL)
+            .setReadAheadBlockCount(0)
+            .setParallelDownloadMinObjectSize(0)
+            .build();
+    FileSystem localFs = getLocal(getConf());
+    Path localDst = localFs.isDirectory(dst) ? new Path(dst, src.getName()) : dst;
+    try (InputStream in =
+            new GoogleHadoopFSInputStream(this, getGcsPath(src), copyReadOptions, statistics);
+        OutputStream out = localFs.create(localDst, /* overwrite= */ true)) {
+      IOUtils.copyBytes(in, out, getConf(), /* close= */ false);
+    }
+    if (delSrc) {
+      delete(src, /* recursive= */ false);
+    }
   }
 
   @Override
@@ -1606,6 +1760,8 @@ public abstract class GoogleHadoopFileSystemBase extends FileSystem
       gcsFsSupplier = null;
     }
 
+    listingExecutor.shutdownNow();
+
     stopDelegationTokens();
   }
 
@@ -155,6 +155,26 @@ public class GoogleHadoopFileSystemConfiguration {
           "fs.gs.performance.cache.max.entry.age.ms",
           PerformanceCachingGoogleCloudStorageOptions.MAX_ENTRY_AGE_MILLIS_DEFAULT);
 
+  /**
+   * Configuration key for maximum number of GoogleCloudStorageItemInfo entries in the performance
+   * cache, least recently used entries are evicted when it is exceeded. If set to 0, the number of
+   * entries is not bounded.
+   */
+  public static final HadoopConfigurationProperty<Long> GCS_PERFORMANCE_CACHE_MAX_ENTRIES =
+      new HadoopConfigurationProperty<>(
+          "fs.gs.performance.cache.max.entries",
+          PerformanceCachingGoogleCloudStorageOptions.MAX_ENTRIES_DEFAULT);
+
+  /**
+   * Configuration key for maximum number of milliseconds a "not found" result will remain "valid"
+   * in the performance cache. If set to 0, "not found" results are not cached.
+   */
+  public static final HadoopConfigurationProperty<Long>
+      GCS_PERFORMANCE_CACHE_NEGATIVE_ENTRY_AGE_MILLIS =
+          new HadoopConfigurationProperty<>(
+              "fs.gs.performance.cache.negative.entry.age.ms",
+              PerformanceCachingGoogleCloudStorageOptions.NEGATIVE_ENTRY_AGE_MILLIS_DEFAULT);
+
   /**
    * If true, executes GCS requests in {@code listStatus} and {@code getFileStatus} methods in
    * parallel to reduce latency.
@@ -198,6 +218,15 @@ public class GoogleHadoopFileSystemConfiguration {
   public static final HadoopConfigurationProperty<Integer> GCS_BATCH_THREADS =
       new HadoopConfigurationProperty<>("fs.gs.batch.threads", 15);
 
+  /**
+   * Configuration key for enabling adaptive adjustment of the number of requests per batch and the
+   * number of batches executed in parallel, up to the configured maximums, based on observed batch
+   * latency and throttling responses.
+   */
+  public static final HadoopConfigurationProperty<Boolean> GCS_BATCH_ADAPTIVE_ENABLE =
+      new HadoopConfigurationProperty<>(
+          "fs.gs.batch.adaptive.enable", GoogleCloudStorageOptions.BATCH_ADAPTIVE_ENABLED_DEFAULT);
+
   /**
    * Configuration key for enabling the use of Rewrite requests for copy operations. Rewrite request
    * has the same effect as Copy request, but it can handle moving large objects that may
@@ -213,6 +242,13 @@ public class GoogleHadoopFileSystemConfiguration {
   public static final HadoopConfigurationProperty<Long> GCS_REWRITE_MAX_BYTES_PER_CALL =
       new HadoopConfigurationProperty<>("fs.gs.rewrite.max.bytes.per.call", 512 * 1024 * 1024L);
 
+  /**
+   * Configuration key for specifying max number of concurrently executed rewrite operations that
+   * require multiple rewrite requests to complete.
+   */
+  public static final HadoopConfigurationProperty<Integer> GCS_REWRITE_MAX_CONCURRENT =
+      new HadoopConfigurationProperty<>("fs.gs.rewrite.max.concurrent", 8);
+
   /** Configuration key for number of items to return per call to the list* GCS RPCs. */
   public static final HadoopConfigurationProperty<Long> GCS_MAX_LIST_ITEMS_PER_CALL =
       new HadoopConfigurationProperty<>("fs.gs.list.max.items.per.call", 1024L);
@@ -275,6 +311,14 @@ public class GoogleHadoopFileSystemConfiguration {
   public static final HadoopConfigurationProperty<PipeType> GCS_OUTPUT_STREAM_PIPE_TYPE =
       new HadoopConfigurationProperty<>("fs.gs.outputstream.pipe.type", PipeType.IO_STREAM_PIPE);
 
+  /**
+   * Configuration key for setting number of pipe buffers in the buffer queue pipe. Each output
+   * stream can hold up to this number of pipe buffers in memory.
+   */
+  public static final HadoopConfigurationProperty<Integer>
+      GCS_OUTPUT_STREAM_PIPE_BUFFER_QUEUE_CAPACITY =
+          new HadoopConfigurationProperty<>("fs.gs.outputstream.pipe.buffer.queue.capacity", 8);
+
   /** Configuration key for setting GCS upload chunk size. */
   // chunk size etc. Get the following value from GCSWC class in a better way. For now, we hard code
   // it to a known good value.
@@ -286,10 +330,48 @@ public class GoogleHadoopFileSystemConfiguration {
   public static final HadoopConfigurationProperty<Integer> GCS_OUTPUT_STREAM_UPLOAD_CACHE_SIZE =
       new HadoopConfigurationProperty<>("fs.gs.outputstream.upload.cache.size", 0);
 
+  /**
+   * Configuration key for the local directory to which upload cache spills data that does not fit
+   * into the in-memory upload cache.
+   */
+  public static final HadoopConfigurationProperty<String>
+      GCS_OUTPUT_STREAM_UPLOAD_CACHE_SPILL_DIRECTORY =
+          new HadoopConfigurationProperty<>("fs.gs.outputstream.upload.cache.spill.directory");
+
+  /** Configuration key for the maximum size of the upload cache spill file of one stream. */
+  public static final HadoopConfigurationProperty<Long>
+      GCS_OUTPUT_STREAM_UPLOAD_CACHE_SPILL_MAX_SIZE =
+          new HadoopConfigurationProperty<>(
+              "fs.gs.outputstream.upload.cache.spill.max.size",
+              AsyncWriteChannelOptions.UPLOAD_CACHE_SPILL_MAX_SIZE_DEFAULT);
+
   /** Configuration key for enabling GCS direct upload. */
   public static final HadoopConfigurationProperty<Boolean> GCS_OUTPUT_STREAM_DIRECT_UPLOAD_ENABLE =
       new HadoopConfigurationProperty<>("fs.gs.outputstream.direct.upload.enable", false);
 
+  /**
+   * Configuration key for the maximum size of the objects that are uploaded with direct upload
+   * instead of resumable upload when direct upload is not enabled for all objects.
+   */
+  public static final HadoopConfigurationProperty<Integer>
+      GCS_OUTPUT_STREAM_DIRECT_UPLOAD_THRESHOLD =
+          new HadoopConfigurationProperty<>("fs.gs.outputstream.direct.upload.threshold", 0);
+
+  /**
+   * Configuration key for the number of parts uploaded concurrently by parallel composite upload.
+   * If 0, then parallel composite upload is disabled.
+   */
+  public static final HadoopConfigurationProperty<Integer>
+      GCS_OUTPUT_STREAM_PARALLEL_COMPOSITE_UPLOAD_CONCURRENCY =
+          new HadoopConfigurationProperty<>(
+              "fs.gs.outputstream.parallel.composite.upload.concurrency", 0);
+
+  /** Configuration key for the size of the parts uploaded by parallel composite upload. */
+  public static final HadoopConfigurationProperty<Integer>
+      GCS_OUTPUT_STREAM_PARALLEL_COMPOSITE_UPLOAD_PART_SIZE =
+          new HadoopConfigurationProperty<>(
+              "fs.gs.outputstream.parallel.composite.upload.part.size", 32 * 1024 * 1024);
+
   /**
    * Configuration key for the minimal time interval between consecutive sync/hsync/hflush calls.
    */
@@ -334,6 +416,23 @@ public class GoogleHadoopFileSystemConfiguration {
   public static final HadoopConfigurationProperty<Fadvise> GCS_INPUT_STREAM_FADVISE =
       new HadoopConfigurationProperty<>("fs.gs.inputstream.fadvise", Fadvise.AUTO);
 
+  /** Number of the recent reads used to detect access pattern in {@code ADAPTIVE} fadvise mode. */
+  public static final HadoopConfigurationProperty<Integer>
+      GCS_INPUT_STREAM_FADVISE_ADAPTIVE_WINDOW_SIZE =
+          new HadoopConfigurationProperty<>(
+              "fs.gs.inputstream.fadvise.adaptive.window.size",
+              GoogleCloudStorageReadOptions.DEFAULT_ADAPTIVE_FADVISE_WINDOW_SIZE);
+
+  /**
+   * Maximum size in bytes of the range requests sized from lengths of the recent contiguous reads
+   * in {@code ADAPTIVE} fadvise mode.
+   */
+  public static final HadoopConfigurationProperty<Integer>
+      GCS_INPUT_STREAM_FADVISE_ADAPTIVE_MAX_RANGE_REQUEST_SIZE =
+          new HadoopConfigurationProperty<>(
+              "fs.gs.inputstream.fadvise.adaptive.max.range.request.size",
+              GoogleCloudStorageReadOptions.DEFAULT_ADAPTIVE_FADVISE_MAX_RANGE_REQUEST_SIZE);
+
   /**
    * Minimum size in bytes of the HTTP Range header set in GCS request when opening new stream to
    * read an object.
@@ -343,10 +442,143 @@ public class GoogleHadoopFileSystemConfiguration {
           "fs.gs.inputstream.min.range.request.size",
           GoogleCloudStorageReadOptions.DEFAULT_MIN_RANGE_REQUEST_SIZE);
 
+  /**
+   * Maximum gap in bytes between ranges of a vectored read for which ranges will be merged into a
+   * single GCS request.
+   */
+  public static final HadoopConfigurationProperty<Integer>
+      GCS_INPUT_STREAM_VECTORED_READ_MIN_RANGE_SEEK_SIZE =
+          new HadoopConfigurationProperty<>(
+              "fs.gs.inputstream.vectored.read.min.range.seek.size",
+              GoogleCloudStorageReadOptions.DEFAULT_VECTORED_READ_MIN_RANGE_SEEK_SIZE);
+
+  /** Maximum size in bytes of a merged range requested from GCS during a vectored read. */
+  public static final HadoopConfigurationProperty<Integer>
+      GCS_INPUT_STREAM_VECTORED_READ_MERGED_RANGE_MAX_SIZE =
+          new HadoopConfigurationProperty<>(
+              "fs.gs.inputstream.vectored.read.merged.range.max.size",
+              GoogleCloudStorageReadOptions.DEFAULT_VECTORED_READ_MERGED_RANGE_MAX_SIZE);
+
+  /** Maximum number of parallel GCS requests issued by a single vectored read. */
+  public static final HadoopConfigurationProperty<Integer>
+      GCS_INPUT_STREAM_VECTORED_READ_MAX_CONCURRENT_REQUESTS =
+          new HadoopConfigurationProperty<>(
+              "fs.gs.inputstream.vectored.read.max.concurrent.requests",
+              GoogleCloudStorageReadOptions.DEFAULT_VECTORED_READ_MAX_CONCURRENT_REQUESTS);
+
+  /**
+   * Number of blocks that are fetched in background ahead of the read position when {@code
+   * SEQUENTIAL} fadvise mode is used. Read-ahead is disabled if set to 0.
+   */
+  public static final HadoopConfigurationProperty<Integer> GCS_INPUT_STREAM_READ_AHEAD_BLOCK_COUNT =
+      new HadoopConfigurationProperty<>(
+          "fs.gs.inputstream.read.ahead.block.count",
+          GoogleCloudStorageReadOptions.DEFAULT_READ_AHEAD_BLOCK_COUNT);
+
+  /** Size in bytes of a single block fetched in background by the read-ahead prefetcher. */
+  public static final HadoopConfigurationProperty<Integer> GCS_INPUT_STREAM_READ_AHEAD_BLOCK_SIZE =
+      new HadoopConfigurationProperty<>(
+          "fs.gs.inputstream.read.ahead.block.size",
+          GoogleCloudStorageReadOptions.DEFAULT_READ_AHEAD_BLOCK_SIZE);
+
+  /**
+   * Number of connections over which chunks of large objects are downloaded concurrently during
+   * sequential reads and {@code copyToLocalFile} calls. Parallel download is disabled if set to 0.
+   */
+  public static final HadoopConfigurationProperty<Integer>
+      GCS_INPUT_STREAM_PARALLEL_DOWNLOAD_CONNECTIONS =
+          new HadoopConfigurationProperty<>(
+              "fs.gs.inputstream.parallel.download.connections",
+              GoogleCloudStorageReadOptions.DEFAULT_PARALLEL_DOWNLOAD_CONNECTIONS);
+
+  /** Size in bytes of a single chunk fetched during parallel download. */
+  public static final HadoopConfigurationProperty<Integer>
+      GCS_INPUT_STREAM_PARALLEL_DOWNLOAD_CHUNK_SIZE =
+          new HadoopConfigurationProperty<>(
+              "fs.gs.inputstream.parallel.download.chunk.size",
+              GoogleCloudStorageReadOptions.DEFAULT_PARALLEL_DOWNLOAD_CHUNK_SIZE);
+
+  /** Minimum size in bytes of an object that is read by input stream with parallel download. */
+  public static final HadoopConfigurationProperty<Long>
+      GCS_INPUT_STREAM_PARALLEL_DOWNLOAD_MIN_OBJECT_SIZE =
+          new HadoopConfigurationProperty<>(
+              "fs.gs.inputstream.parallel.download.min.object.size",
+              GoogleCloudStorageReadOptions.DEFAULT_PARALLEL_DOWNLOAD_MIN_OBJECT_SIZE);
+
+  /**
+   * Maximum size in bytes of the process-wide cache of object data blocks shared by all input
+   * streams. Block cache is disabled if set to 0.
+   */
+  public static final HadoopConfigurationProperty<Long> GCS_INPUT_STREAM_BLOCK_CACHE_MAX_SIZE =
+      new HadoopConfigurationProperty<>(
+          "fs.gs.inputstream.block.cache.max.size",
+          GoogleCloudStorageReadOptions.DEFAULT_BLOCK_CACHE_MAX_SIZE);
+
+  /** Size in bytes of the blocks in which object data is cached in the block cache. */
+  public static final HadoopConfigurationProperty<Integer> GCS_INPUT_STREAM_BLOCK_CACHE_BLOCK_SIZE =
+      new HadoopConfigurationProperty<>(
+          "fs.gs.inputstream.block.cache.block.size",
+          GoogleCloudStorageReadOptions.DEFAULT_BLOCK_CACHE_BLOCK_SIZE);
+
+  /** Configuration key for enabling storage of the block cache data outside of the Java heap. */
+  public static final HadoopConfigurationProperty<Boolean>
+      GCS_INPUT_STREAM_BLOCK_CACHE_OFF_HEAP_ENABLE =
+          new HadoopConfigurationProperty<>(
+              "fs.gs.inputstream.block.cache.off.heap.enable",
+              GoogleCloudStorageReadOptions.DEFAULT_BLOCK_CACHE_OFF_HEAP_ENABLED);
+
+  /**
+   * Configuration key for enabling CRC32C checksum validation of the object data read sequentially
+   * from the object start to its end. On Java 8 checksum is computed by a slower pure Java
+   * implementation.
+   */
+  public static final HadoopConfigurationProperty<Boolean>
+      GCS_INPUT_STREAM_CHECKSUM_VALIDATION_ENABLE =
+          new HadoopConfigurationProperty<>(
+              "fs.gs.inputstream.checksum.validation.enable",
+              GoogleCloudStorageReadOptions.DEFAULT_CHECKSUM_VALIDATION_ENABLED);
+
+  /**
+   * Maximum size in bytes of the object footers cached across input stream opens together with
+   * object metadata. Footer cache is disabled if set to 0.
+   */
+  public static final HadoopConfigurationProperty<Long> GCS_INPUT_STREAM_FOOTER_CACHE_MAX_SIZE =
+      new HadoopConfigurationProperty<>("fs.gs.inputstream.footer.cache.max.size", 0L);
+
+  /** Maximum time in milliseconds to cache object metadata in the footer cache. */
+  public static final HadoopConfigurationProperty<Long>
+      GCS_INPUT_STREAM_FOOTER_CACHE_MAX_ENTRY_AGE_MILLIS =
+          new HadoopConfigurationProperty<>(
+              "fs.gs.inputstream.footer.cache.max.entry.age.ms", 5_000L);
+
   /** Configuration key for enabling use of the gRPC API for read/write. */
   public static final HadoopConfigurationProperty<Boolean> GCS_GRPC_ENABLE =
       new HadoopConfigurationProperty<>("fs.gs.grpc.enable", false);
 
+  /** Configuration key for the max number of gRPC channels used to send requests to GCS. */
+  public static final HadoopConfigurationProperty<Integer> GCS_GRPC_CHANNEL_POOL_SIZE =
+      new HadoopConfigurationProperty<>(
+          "fs.gs.grpc.channel.pool.size", GoogleCloudStorageOptions.GRPC_CHANNEL_POOL_SIZE_DEFAULT);
+
+  /**
+   * Configuration key for the time (in millisecond) after which gRPC channel is replaced if any of
+   * its requests is waiting for a response without any progress.
+   */
+  public static final HadoopConfigurationProperty<Long> GCS_GRPC_CHANNEL_STALL_TIMEOUT_MS =
+      new HadoopConfigurationProperty<>(
+          "fs.gs.grpc.channel.stall.timeout.ms",
+          GoogleCloudStorageOptions.GRPC_CHANNEL_STALL_TIMEOUT_MILLIS_DEFAULT);
+
+  /**
+   * Configuration key for the number of consecutive requests failed with connection errors after
+   * which gRPC channel is replaced.
+   */
+  public static final HadoopConfigurationProperty<Integer>
+      GCS_GRPC_CHANNEL_MAX_CONSECUTIVE_FAILURES =
+          new HadoopConfigurationProperty<>(
+              "fs.gs.grpc.channel.max.consecutive.failures",
+              GoogleCloudStorageOptions.GRPC_CHANNEL_MAX_CONSECUTIVE_FAILURES_DEFAULT);
+
   /** Configuration key for enabling checksum validation for the gRPC API. */
   public static final HadoopConfigurationProperty<Boolean> GCS_GRPC_CHECKSUMS_ENABLE =
       new HadoopConfigurationProperty<>("fs.gs.grpc.checksums.enable", false);
@@ -359,10 +591,26 @@ public class GoogleHadoopFileSystemConfiguration {
   public static final HadoopConfigurationProperty<Long> GCS_GRPC_READ_TIMEOUT_MS =
       new HadoopConfigurationProperty<>("fs.gs.grpc.read.timeout.ms", 20 * 60 * 1000L);
 
+  /**
+   * Configuration key for enabling parsing of gRPC read responses without copying object content
+   * out of the received message buffers.
+   */
+  public static final HadoopConfigurationProperty<Boolean> GCS_GRPC_READ_ZEROCOPY_ENABLE =
+      new HadoopConfigurationProperty<>("fs.gs.grpc.read.zerocopy.enable", true);
+
   /** Configuration key for the connect timeout (in millisecond) for gRPC metadata requests to GCS. */
   public static final HadoopConfigurationProperty<Long> GCS_GRPC_READ_METADATA_TIMEOUT_MS =
       new HadoopConfigurationProperty<>("fs.gs.grpc.read.metadata.timeout.ms", 60 * 1000L);
 
+  /**
+   * Configuration key for the number of object ranges that are streamed asynchronously ahead of the
+   * read position by the gRPC read channel. Asynchronous reads are disabled if this is set to 0.
+   */
+  public static final HadoopConfigurationProperty<Integer> GCS_GRPC_READ_AHEAD_WINDOW_SIZE =
+      new HadoopConfigurationProperty<>(
+          "fs.gs.grpc.read.ahead.window.size",
+          GoogleCloudStorageReadOptions.DEFAULT_GRPC_READ_AHEAD_WINDOW_SIZE);
+
   /** Configuration key for the number of requests to be buffered for uploads to GCS. */
   public static final HadoopConfigurationProperty<Long> GCS_GRPC_UPLOAD_BUFFERED_REQUESTS =
       new HadoopConfigurationProperty<>("fs.gs.grpc.write.buffered.requests", 20L);
@@ -430,6 +678,9 @@ public class GoogleHadoopFileSystemConfiguration {
             GCS_COOPERATIVE_LOCKING_ENABLE.get(config, config::getBoolean))
         .setEnsureNoConflictingItems(
             GCS_CREATE_ITEMS_CONFLICT_CHECK_ENABLE.get(config, config::getBoolean))
+        .setFooterCacheMaxSize(GCS_INPUT_STREAM_FOOTER_CACHE_MAX_SIZE.get(config, config::getLong))
+        .setFooterCacheMaxEntryAgeMillis(
+            GCS_INPUT_STREAM_FOOTER_CACHE_MAX_ENTRY_AGE_MILLIS.get(config, config::getLong))
         .setMarkerFilePattern(GCS_MARKER_FILE_PATTERN.get(config, config::get))
         .setPerformanceCacheEnabled(GCS_PERFORMANCE_CACHE_ENABLE.get(config, config::getBoolean))
         .setPerformanceCacheOptions(getPerformanceCachingOptions(config))
@@ -446,6 +697,7 @@ public class GoogleHadoopFileSystemConfiguration {
             GCS_REPAIR_IMPLICIT_DIRECTORIES_ENABLE.get(config, config::getBoolean))
         .setCopyWithRewriteEnabled(GCS_COPY_WITH_REWRITE_ENABLE.get(config, config::getBoolean))
         .setMaxBytesRewrittenPerCall(GCS_REWRITE_MAX_BYTES_PER_CALL.get(config, config::getLong))
+        .setMaxConcurrentRewrites(GCS_REWRITE_MAX_CONCURRENT.get(config, config::getInt))
         .setTransportType(
             HTTP_TRANSPORT_SUFFIX.withPrefixes(CONFIG_KEY_PREFIXES).get(config, config::getEnum))
         .setProxyAddress(
@@ -460,6 +712,7 @@ public class GoogleHadoopFileSystemConfiguration {
         .setMaxListItemsPerCall(GCS_MAX_LIST_ITEMS_PER_CALL.get(config, config::getLong))
         .setMaxRequestsPerBatch(GCS_MAX_REQUESTS_PER_BATCH.get(config, config::getLong))
         .setBatchThreads(GCS_BATCH_THREADS.get(config, config::getInt))
+        .setBatchAdaptiveEnabled(GCS_BATCH_ADAPTIVE_ENABLE.get(config, config::getBoolean))
         .setMaxHttpRequestRetries(GCS_HTTP_MAX_RETRY.get(config, config::getInt))
         .setHttpRequestConnectTimeout(GCS_HTTP_CONNECT_TIMEOUT.get(config, config::getInt))
         .setHttpRequestReadTimeout(GCS_HTTP_READ_TIMEOUT.get(config, config::getInt))
@@ -475,6 +728,11 @@ public class GoogleHadoopFileSystemConfiguration {
         .setEncryptionKey(RedactedString.create(GCS_ENCRYPTION_KEY.getPassword(config)))
         .setEncryptionKeyHash(RedactedString.create(GCS_ENCRYPTION_KEY_HASH.getPassword(config)))
         .setGrpcEnabled(GCS_GRPC_ENABLE.get(config, config::getBoolean))
+        .setGrpcChannelPoolSize(GCS_GRPC_CHANNEL_POOL_SIZE.get(config, config::getInt))
+        .setGrpcChannelStallTimeoutMillis(
+            GCS_GRPC_CHANNEL_STALL_TIMEOUT_MS.get(config, config::getLong))
+        .setGrpcChannelMaxConsecutiveFailures(
+            GCS_GRPC_CHANNEL_MAX_CONSECUTIVE_FAILURES.get(config, config::getInt))
         .setAuthorizationHandlerImplClass(
             GCS_AUTHORIZATION_HANDLER_IMPL.get(
                 config, (k, d) -> config.getClass(k, d, AuthorizationHandler.class)))
@@ -487,6 +745,9 @@ public class GoogleHadoopFileSystemConfiguration {
     return PerformanceCachingGoogleCloudStorageOptions.builder()
         .setMaxEntryAgeMillis(
             GCS_PERFORMANCE_CACHE_MAX_ENTRY_AGE_MILLIS.get(config, config::getLong))
+        .setMaxEntries(GCS_PERFORMANCE_CACHE_MAX_ENTRIES.get(config, config::getLong))
+        .setNegativeEntryAgeMillis(
+            GCS_PERFORMANCE_CACHE_NEGATIVE_ENTRY_AGE_MILLIS.get(config, config::getLong))
         .build();
   }
 
@@ -505,11 +766,38 @@ public class GoogleHadoopFileSystemConfiguration {
             GCS_INPUT_STREAM_SUPPORT_GZIP_ENCODING_ENABLE.get(config, config::getBoolean))
         .setInplaceSeekLimit(GCS_INPUT_STREAM_INPLACE_SEEK_LIMIT.get(config, config::getLong))
         .setFadvise(GCS_INPUT_STREAM_FADVISE.get(config, config::getEnum))
+        .setAdaptiveFadviseWindowSize(
+            GCS_INPUT_STREAM_FADVISE_ADAPTIVE_WINDOW_SIZE.get(config, config::getInt))
+        .setAdaptiveFadviseMaxRangeRequestSize(
+            GCS_INPUT_STREAM_FADVISE_ADAPTIVE_MAX_RANGE_REQUEST_SIZE.get(config, config::getInt))
         .setMinRangeRequestSize(GCS_INPUT_STREAM_MIN_RANGE_REQUEST_SIZE.get(config, config::getInt))
+        .setVectoredReadMinRangeSeekSize(
+            GCS_INPUT_STREAM_VECTORED_READ_MIN_RANGE_SEEK_SIZE.get(config, config::getInt))
+        .setVectoredReadMergedRangeMaxSize(
+            GCS_INPUT_STREAM_VECTORED_READ_MERGED_RANGE_MAX_SIZE.get(config, config::getInt))
+        .setVectoredReadMaxConcurrentRequests(
+            GCS_INPUT_STREAM_VECTORED_READ_MAX_CONCURRENT_REQUESTS.get(config, config::getInt))
+        .setReadAheadBlockCount(GCS_INPUT_STREAM_READ_AHEAD_BLOCK_COUNT.get(config, config::getInt))
+        .setReadAheadBlockSize(GCS_INPUT_STREAM_READ_AHEAD_BLOCK_SIZE.get(config, config::getInt))
+        .setParallelDownloadConnections(
+            GCS_INPUT_STREAM_PARALLEL_DOWNLOAD_CONNECTIONS.get(config, config::getInt))
+        .setParallelDownloadChunkSize(
+            GCS_INPUT_STREAM_PARALLEL_DOWNLOAD_CHUNK_SIZE.get(config, config::getInt))
+        .setParallelDownloadMinObjectSize(
+            GCS_INPUT_STREAM_PARALLEL_DOWNLOAD_MIN_OBJECT_SIZE.get(config, config::getLong))
+        .setBlockCacheMaxSize(GCS_INPUT_STREAM_BLOCK_CACHE_MAX_SIZE.get(config, config::getLong))
+        .setBlockCacheBlockSize(
+            GCS_INPUT_STREAM_BLOCK_CACHE_BLOCK_SIZE.get(config, config::getInt))
+        .setBlockCacheOffHeapEnabled(
+            GCS_INPUT_STREAM_BLOCK_CACHE_OFF_HEAP_ENABLE.get(config, config::getBoolean))
+        .setChecksumValidationEnabled(
+            GCS_INPUT_STREAM_CHECKSUM_VALIDATION_ENABLE.get(config, config::getBoolean))
         .setGrpcChecksumsEnabled(GCS_GRPC_CHECKSUMS_ENABLE.get(config, config::getBoolean))
         .setGrpcServerAddress(GCS_GRPC_SERVER_ADDRESS.get(config, config::get))
         .setGrpcReadTimeoutMillis(GCS_GRPC_READ_TIMEOUT_MS.get(config, config::getLong))
+        .setGrpcReadZeroCopyEnabled(GCS_GRPC_READ_ZEROCOPY_ENABLE.get(config, config::getBoolean))
         .setGrpcReadMetadataTimeoutMillis(GCS_GRPC_READ_METADATA_TIMEOUT_MS.get(config, config::getLong))
+        .setGrpcReadAheadWindowSize(GCS_GRPC_READ_AHEAD_WINDOW_SIZE.get(config, config::getInt))
         .build();
   }
 
@@ -517,14 +805,26 @@ public class GoogleHadoopFileSystemConfiguration {
     return AsyncWriteChannelOptions.builder()
         .setBufferSize(GCS_OUTPUT_STREAM_BUFFER_SIZE.get(config, config::getInt))
         .setPipeBufferSize(GCS_OUTPUT_STREAM_PIPE_BUFFER_SIZE.get(config, config::getInt))
+        .setPipeBufferQueueCapacity(
+            GCS_OUTPUT_STREAM_PIPE_BUFFER_QUEUE_CAPACITY.get(config, config::getInt))
         .setPipeType(GCS_OUTPUT_STREAM_PIPE_TYPE.get(config, config::getEnum))
         .setUploadChunkSize(GCS_OUTPUT_STREAM_UPLOAD_CHUNK_SIZE.get(config, config::getInt))
         .setUploadCacheSize(GCS_OUTPUT_STREAM_UPLOAD_CACHE_SIZE.get(config, config::getInt))
+        .setUploadCacheSpillDirectory(
+            GCS_OUTPUT_STREAM_UPLOAD_CACHE_SPILL_DIRECTORY.get(config, config::get))
+        .setUploadCacheSpillMaxSize(
+            GCS_OUTPUT_STREAM_UPLOAD_CACHE_SPILL_MAX_SIZE.get(config, config::getLong))
         .setDirectUploadEnabled(
             GCS_OUTPUT_STREAM_DIRECT_UPLOAD_ENABLE.get(config, config::getBoolean))
+        .setDirectUploadThreshold(
+            GCS_OUTPUT_STREAM_DIRECT_UPLOAD_THRESHOLD.get(config, config::getInt))
         .setGrpcChecksumsEnabled(GCS_GRPC_CHECKSUMS_ENABLE.get(config, config::getBoolean))
         .setGrpcWriteTimeout(GCS_GRPC_WRITE_TIMEOUT_MS.get(config, config::getLong))
         .setNumberOfBufferedRequests(GCS_GRPC_UPLOAD_BUFFERED_REQUESTS.get(config, config::getLong))
+        .setParallelCompositeUploadConcurrency(
+            GCS_OUTPUT_STREAM_PARALLEL_COMPOSITE_UPLOAD_CONCURRENCY.get(config, config::getInt))
+        .setParallelCompositeUploadPartSize(
+            GCS_OUTPUT_STREAM_PARALLEL_COMPOSITE_UPLOAD_PART_SIZE.get(config, config::getInt))
         .build();
   }
 
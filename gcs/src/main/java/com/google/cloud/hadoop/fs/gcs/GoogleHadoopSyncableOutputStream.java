@@ -15,6 +15,9 @@
  */
 package com.google.cloud.hadoop.fs.gcs;
 
+import static com.google.common.base.Throwables.throwIfInstanceOf;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+
 import com.google.cloud.hadoop.gcsio.CreateFileOptions;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageFileSystem;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageItemInfo;
@@ -56,9 +59,12 @@ import org.apache.hadoop.fs.Syncable;
  *
  * <p>On each subsequent hsync()/sync() call, the temporary file closed(), composed onto the
  * destination file, then deleted, and a new temporary file is opened under a new filename for
- * further writes.
+ * further writes. The next temporary file is opened concurrently with the commit of the current
+ * one, and temporary files are deleted asynchronously in batches with at most one in-flight
+ * deletion per stream. If nothing was written since the previous hsync()/sync() call, it is a
+ * no-op.
  *
- * <p>Caveat: each hsync()/sync() requires many underlying read and mutation requests occurring
+ * <p>Caveat: each hsync()/sync() requires several underlying mutation requests occurring
  * sequentially, so latency is expected to be fairly high.
  *
  * <p>If errors occur mid-stream, there may be one or more temporary files failing to be cleaned up,
@@ -95,6 +101,15 @@ public class GoogleHadoopSyncableOutputStream extends OutputStream implements Sy
               .setDaemon(true)
               .build());
 
+  // Opening of the next temporary file occurs concurrently with the commit of the current one in
+  // hsync() to take it off the critical path; opened files are always awaited by hsync().
+  private static final ExecutorService TEMPFILE_OPEN_THREADPOOL =
+      Executors.newCachedThreadPool(
+          new ThreadFactoryBuilder()
+              .setNameFormat("gcs-syncable-output-stream-open-pool-%d")
+              .setDaemon(true)
+              .build());
+
   // Instance of GoogleHadoopFileSystemBase.
   private final GoogleHadoopFileSystemBase ghfs;
 
@@ -108,15 +123,22 @@ public class GoogleHadoopSyncableOutputStream extends OutputStream implements Sy
   // Metadata/overwrite options to use on final file.
   private final CreateFileOptions fileOptions;
 
-  // List of file-deletion futures accrued during the lifetime of this output stream.
+  // List of file-deletion futures accrued during the lifetime of this output stream, successfully
+  // completed futures are pruned when new deletion is submitted.
   private final List<Future<Void>> deletionFutures;
 
+  // Temporary files that were composed into the destination and wait for the in-flight deletion
+  // to complete, so they could be deleted in a single batch.
+  private final List<StorageResourceId> pendingDeletions = new ArrayList<>();
+
   private final SyncableOutputStreamOptions options;
 
   private final RateLimiter syncRateLimiter;
 
   private final ExecutorService cleanupThreadpool;
 
+  private final ExecutorService tempFileOpenThreadpool;
+
   // Current GCS path pointing at the "tail" file which will be appended to the destination
   // on each hsync() call.
   private URI curGcsPath;
@@ -133,6 +155,9 @@ public class GoogleHadoopSyncableOutputStream extends OutputStream implements Sy
   // StorageResourceId.UNKNOWN_GENERATION_ID if unknown.
   private long curDestGenerationId;
 
+  // Whether any data was written to the current "tail" file.
+  private boolean curDelegateWritten;
+
   /** Creates a new GoogleHadoopSyncableOutputStream. */
   public GoogleHadoopSyncableOutputStream(
       GoogleHadoopFileSystemBase ghfs,
@@ -141,7 +166,14 @@ public class GoogleHadoopSyncableOutputStream extends OutputStream implements Sy
       CreateFileOptions createFileOptions,
       SyncableOutputStreamOptions options)
       throws IOException {
-    this(ghfs, gcsPath, statistics, createFileOptions, options, TEMPFILE_CLEANUP_THREADPOOL);
+    this(
+        ghfs,
+        gcsPath,
+        statistics,
+        createFileOptions,
+        options,
+        TEMPFILE_CLEANUP_THREADPOOL,
+        TEMPFILE_OPEN_THREADPOOL);
   }
 
   @VisibleForTesting
@@ -151,7 +183,8 @@ public class GoogleHadoopSyncableOutputStream extends OutputStream implements Sy
       FileSystem.Statistics statistics,
       CreateFileOptions createFileOptions,
       SyncableOutputStreamOptions options,
-      ExecutorService cleanupThreadpool)
+      ExecutorService cleanupThreadpool,
+      ExecutorService tempFileOpenThreadpool)
       throws IOException {
     logger.atFiner().log(
         "GoogleHadoopSyncableOutputStream(gcsPath: %s, createFileOptions:  %s, options: %s)",
@@ -162,6 +195,7 @@ public class GoogleHadoopSyncableOutputStream extends OutputStream implements Sy
     this.fileOptions = createFileOptions;
     this.deletionFutures = new ArrayList<>();
     this.cleanupThreadpool = cleanupThreadpool;
+    this.tempFileOpenThreadpool = tempFileOpenThreadpool;
     this.options = options;
     this.syncRateLimiter = createRateLimiter(options.getMinSyncInterval());
 
@@ -193,12 +227,14 @@ public class GoogleHadoopSyncableOutputStream extends OutputStream implements Sy
   public void write(int b) throws IOException {
     throwIfNotOpen();
     curDelegate.write(b);
+    curDelegateWritten = true;
   }
 
   @Override
   public void write(byte[] b, int offset, int len) throws IOException {
     throwIfNotOpen();
     curDelegate.write(b, offset, len);
+    curDelegateWritten |= len > 0;
   }
 
   @Override
@@ -210,6 +246,7 @@ public class GoogleHadoopSyncableOutputStream extends OutputStream implements Sy
       return;
     }
     commitCurrentFile();
+    submitPendingDeletions(/* force= */ true);
 
     // null denotes stream closed.
     // TODO(user): Add checks which throw IOException if further operations are attempted on a
@@ -281,18 +318,36 @@ public class GoogleHadoopSyncableOutputStream extends OutputStream implements Sy
         "hsync(): Committing tail file %s to final destination %s", curGcsPath, finalGcsPath);
     throwIfNotOpen();
 
-    commitCurrentFile();
+    // Nothing to commit if no data was written to the temporary tail file since the last hsync().
+    if (!curDelegateWritten && !finalGcsPath.equals(curGcsPath)) {
+      logger.atFiner().log("hsync(): No-op: nothing was written to %s", curGcsPath);
+      return;
+    }
 
     // Use a different temporary path for each temporary component to reduce the possible avenues of
     // race conditions in the face of low-level retries, etc.
     ++curComponentIndex;
-    curGcsPath = getNextTemporaryPath();
+    URI nextGcsPath = getNextTemporaryPath();
 
     logger.atFiner().log(
         "hsync(): Opening next temporary tail file %s as component number %s",
-        curGcsPath, curComponentIndex);
-    curDelegate =
-        new GoogleHadoopOutputStream(ghfs, curGcsPath, statistics, TEMPFILE_CREATE_OPTIONS);
+        nextGcsPath, curComponentIndex);
+    Future<GoogleHadoopOutputStream> nextDelegateFuture =
+        tempFileOpenThreadpool.submit(
+            () ->
+                new GoogleHadoopOutputStream(
+                    ghfs, nextGcsPath, statistics, TEMPFILE_CREATE_OPTIONS));
+
+    try {
+      commitCurrentFile();
+    } catch (IOException | RuntimeException e) {
+      discardNextTemporaryFile(nextGcsPath, nextDelegateFuture, e);
+      throw e;
+    }
+
+    curGcsPath = nextGcsPath;
+    curDelegate = getNextDelegate(nextDelegateFuture);
+    curDelegateWritten = false;
 
     long finishTimeNs = System.nanoTime();
     logger.atFiner().log("Took %d ns to sync() for %s", finishTimeNs - startTimeNs, finalGcsPath);
@@ -333,12 +388,8 @@ public class GoogleHadoopSyncableOutputStream extends OutputStream implements Sy
           destResourceId,
           GoogleCloudStorageFileSystem.objectOptionsFromFileOptions(fileOptions));
       curDestGenerationId = composedObject.getContentGeneration();
-      deletionFutures.add(
-          cleanupThreadpool.submit(
-              () -> {
-                ghfs.getGcsFs().getGcs().deleteObjects(ImmutableList.of(tempResourceId));
-                return null;
-              }));
+      pendingDeletions.add(tempResourceId);
+      submitPendingDeletions(/* force= */ false);
     } else {
       // First commit was direct to the destination; the generationId of the object we just
       // committed will be used as the destination generation id for future compose calls.
@@ -346,6 +397,79 @@ public class GoogleHadoopSyncableOutputStream extends OutputStream implements Sy
     }
   }
 
+  /**
+   * Submits deletion of all pending temporary files in a single batch if there is no in-flight
+   * deletion or {@code force} is true. Otherwise, pending temporary files will be deleted in the
+   * next batch.
+   */
+  private void submitPendingDeletions(boolean force) {
+    if (pendingDeletions.isEmpty()) {
+      return;
+    }
+    Future<Void> lastDeletion =
+        deletionFutures.isEmpty() ? null : deletionFutures.get(deletionFutures.size() - 1);
+    if (!force && lastDeletion != null && !lastDeletion.isDone()) {
+      logger.atFiner().log(
+          "Deferring deletion of %s temporary files until in-flight deletion completes",
+          pendingDeletions.size());
+      return;
+    }
+    // Failed deletions are kept to propagate failures on close()
+    deletionFutures.removeIf(GoogleHadoopSyncableOutputStream::isDoneSuccessfully);
+
+    ImmutableList<StorageResourceId> tempResourceIds = ImmutableList.copyOf(pendingDeletions);
+    pendingDeletions.clear();
+    deletionFutures.add(
+        cleanupThreadpool.submit(
+            () -> {
+              ghfs.getGcsFs().getGcs().deleteObjects(tempResourceIds);
+              return null;
+            }));
+  }
+
+  private static boolean isDoneSuccessfully(Future<?> future) {
+    if (future == null || !future.isDone() || future.isCancelled()) {
+      return false;
+    }
+    try {
+      future.get();
+      return true;
+    } catch (ExecutionException e) {
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private static GoogleHadoopOutputStream getNextDelegate(
+      Future<GoogleHadoopOutputStream> nextDelegateFuture) throws IOException {
+    try {
+      return nextDelegateFuture.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while opening next temporary file", e);
+    } catch (ExecutionException e) {
+      throwIfInstanceOf(e.getCause(), IOException.class);
+      throwIfUnchecked(e.getCause());
+      throw new IOException("Failed to open next temporary file", e.getCause());
+    }
+  }
+
+  /** Closes and deletes next temporary file that was opened concurrently with a failed commit. */
+  private void discardNextTemporaryFile(
+      URI nextGcsPath, Future<GoogleHadoopOutputStream> nextDelegateFuture, Throwable cause) {
+    try {
+      getNextDelegate(nextDelegateFuture).close();
+      ghfs.getGcsFs()
+          .getGcs()
+          .deleteObjects(
+              ImmutableList.of(StorageResourceId.fromStringPath(nextGcsPath.toString())));
+    } catch (IOException | RuntimeException e) {
+      cause.addSuppressed(e);
+    }
+  }
+
   /**
    * Returns URI to be used for the next "tail" file in the series.
    */
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.fs.gcs;
+
+import com.google.cloud.hadoop.gcsio.GoogleCloudStorage.ListPage;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import javax.annotation.Nullable;
+import org.apache.hadoop.fs.RemoteIterator;
+
+/**
+ * {@link RemoteIterator} over the paginated listing that fetches the next page in the background
+ * while the caller consumes the current one.
+ *
+ * <p>At most 2 pages are held in memory at any time: the page that is being consumed and the page
+ * that is being prefetched.
+ */
+class PrefetchingListIterator<T> implements RemoteIterator<T> {
+
+  /** Fetches the listing page. */
+  @FunctionalInterface
+  interface PageFetcher<T> {
+    /**
+     * Returns the listing page for the {@code pageToken}, or the first page if {@code pageToken} is
+     * {@code null}.
+     */
+    ListPage<T> fetch(@Nullable String pageToken) throws IOException;
+  }
+
+  private final PageFetcher<T> pageFetcher;
+  private final ExecutorService executor;
+
+  private Iterator<T> currentPage;
+  @Nullable private Future<ListPage<T>> nextPage;
+
+  /**
+   * Creates iterator and fetches the first page in the calling thread, so listing errors (e.g.
+   * non-existent path) are thrown from the calling method instead of the first {@link #hasNext}.
+   */
+  PrefetchingListIterator(PageFetcher<T> pageFetcher, ExecutorService executor)
+      throws IOException {
+    this.pageFetcher = pageFetcher;
+    this.executor = executor;
+    setCurrentPage(pageFetcher.fetch(/* pageToken= */ null));
+  }
+
+  @Override
+  public boolean hasNext() throws IOException {
+    while (!currentPage.hasNext() && nextPage != null) {
+      setCurrentPage(getFromFuture(nextPage));
+    }
+    return currentPage.hasNext();
+  }
+
+  @Override
+  public T next() throws IOException {
+    if (!hasNext()) {
+      throw new NoSuchElementException("No more items in the listing");
+    }
+    return currentPage.next();
+  }
+
+  private void setCurrentPage(ListPage<T> page) {
+    currentPage = page.getItems().iterator();
+    String nextPageToken = page.getNextPageToken();
+    nextPage =
+        nextPageToken == null ? null : executor.submit(() -> pageFetcher.fetch(nextPageToken));
+  }
+
+  private static <T> T getFromFuture(Future<T> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw (IOException)
+          new InterruptedIOException("Interrupted while fetching listing page").initCause(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Failed to fetch listing page", e.getCause());
+    }
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.fs.gcs;
+
+import com.google.cloud.hadoop.gcsio.VectoredIORange;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Input stream that can read many byte ranges of a file with a single call.
+ *
+ * <p>This is the counterpart of {@code PositionedReadable.readVectored} introduced in Hadoop 3.3.
+ * Streams opened by {@link GoogleHadoopFileSystemBase#open} implement this interface, it can be
+ * accessed through {@link org.apache.hadoop.fs.FSDataInputStream#getWrappedStream()}:
+ *
+ * <pre>{@code
+ * try (FSDataInputStream in = ghfs.open(path)) {
+ *   ((VectoredReadable) in.getWrappedStream()).readVectored(ranges, ByteBuffer::allocate);
+ * }
+ * }</pre>
+ */
+public interface VectoredReadable {
+
+  /**
+   * Reads the given ranges of the file asynchronously. Data for each range is delivered through its
+   * {@link VectoredIORange#getData()} future. This call does not change the stream position.
+   *
+   * @param ranges non-overlapping ranges to read
+   * @param allocate function used to allocate a buffer of the given size for each range
+   * @throws IOException if an IO error occurs.
+   */
+  void readVectored(List<? extends VectoredIORange> ranges, IntFunction<ByteBuffer> allocate)
+      throws IOException;
+}
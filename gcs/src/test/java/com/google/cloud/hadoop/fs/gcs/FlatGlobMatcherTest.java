@@ -0,0 +1,76 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.fs.gcs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.IOException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link FlatGlobMatcher} class. */
+@RunWith(JUnit4.class)
+public class FlatGlobMatcherTest {
+
+  @Test
+  public void match_objectWithSameNumberOfComponents_matchesObject() throws IOException {
+    FlatGlobMatcher matcher = FlatGlobMatcher.compile("/dir/*/part-*");
+
+    assertThat(matcher.hasWildcard()).isTrue();
+    assertThat(matcher.isLiteralPath()).isFalse();
+    assertThat(matcher.match("dir/a/part-1")).containsExactly("dir/a/part-1");
+    assertThat(matcher.match("dir/a/part-2/")).containsExactly("dir/a/part-2/");
+    assertThat(matcher.match("dir/a/file")).isEmpty();
+    assertThat(matcher.match("dir/a")).isEmpty();
+    assertThat(matcher.match("dir/a/")).isEmpty();
+    assertThat(matcher.match("dir2/a/part-1")).isEmpty();
+  }
+
+  @Test
+  public void match_objectWithMoreComponents_matchesParentDirectory() throws IOException {
+    FlatGlobMatcher matcher = FlatGlobMatcher.compile("/dir/s*");
+
+    assertThat(matcher.match("dir/sub/file")).containsExactly("dir/sub/");
+    assertThat(matcher.match("dir/sub/subsub/")).containsExactly("dir/sub/");
+    assertThat(matcher.match("dir/other/file")).isEmpty();
+  }
+
+  @Test
+  public void match_curlyBracesWithPathDelimiters_matchesAllExpandedPatterns()
+      throws IOException {
+    FlatGlobMatcher matcher = FlatGlobMatcher.compile("/{a/b,a}");
+
+    assertThat(matcher.hasWildcard()).isFalse();
+    // Multiple expanded patterns are not a literal path even without wildcards
+    assertThat(matcher.isLiteralPath()).isFalse();
+    assertThat(matcher.match("a/b/c")).containsExactly("a/b/", "a/");
+    assertThat(matcher.match("a")).containsExactly("a");
+  }
+
+  @Test
+  public void isLiteralPath_patternWithoutWildcards_returnsTrue() throws IOException {
+    assertThat(FlatGlobMatcher.compile("/dir/file").isLiteralPath()).isTrue();
+    assertThat(FlatGlobMatcher.compile("/dir/{file}").isLiteralPath()).isFalse();
+  }
+
+  @Test
+  public void match_escapedWildcard_matchesLiterally() throws IOException {
+    FlatGlobMatcher matcher = FlatGlobMatcher.compile("/dir/\\*/f?le");
+
+    assertThat(matcher.match("dir/*/file")).containsExactly("dir/*/file");
+    assertThat(matcher.match("dir/x/file")).isEmpty();
+  }
+}
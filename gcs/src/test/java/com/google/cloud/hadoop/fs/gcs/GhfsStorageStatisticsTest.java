@@ -0,0 +1,116 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.fs.gcs;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.cloud.hadoop.gcsio.GrpcChannelPoolStats;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import org.apache.hadoop.fs.StorageStatistics.LongStatistic;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link GhfsStorageStatistics} class. */
+@RunWith(JUnit4.class)
+public class GhfsStorageStatisticsTest {
+
+  @Test
+  public void increment_updatesStatisticValue() {
+    GhfsStorageStatistics statistics = new GhfsStorageStatistics();
+
+    statistics.increment(GhfsStatistic.CHECKSUM_VALIDATED_BYTES, 10);
+    statistics.increment(GhfsStatistic.CHECKSUM_VALIDATED_BYTES, 5);
+
+    assertThat(statistics.get(GhfsStatistic.CHECKSUM_VALIDATED_BYTES)).isEqualTo(15);
+    assertThat(statistics.getLong("gcs_checksum_validated_bytes")).isEqualTo(15);
+    assertThat(statistics.get(GhfsStatistic.CHECKSUM_MISMATCHES)).isEqualTo(0);
+  }
+
+  @Test
+  public void getLongStatistics_returnsAllStatistics() {
+    GhfsStorageStatistics statistics = new GhfsStorageStatistics();
+    statistics.increment(GhfsStatistic.CHECKSUM_MISMATCHES, 1);
+
+    Map<String, Long> values = new HashMap<>();
+    for (Iterator<LongStatistic> it = statistics.getLongStatistics(); it.hasNext(); ) {
+      LongStatistic statistic = it.next();
+      values.put(statistic.getName(), statistic.getValue());
+    }
+
+    assertThat(values).hasSize(GhfsStatistic.values().length);
+    assertThat(values).containsEntry("gcs_checksum_mismatches", 1L);
+  }
+
+  @Test
+  public void unknownStatistic_isNotTracked() {
+    GhfsStorageStatistics statistics = new GhfsStorageStatistics();
+
+    assertThat(statistics.isTracked("unknown")).isFalse();
+    assertThat(statistics.getLong("unknown")).isNull();
+    assertThat(statistics.isTracked("gcs_checksum_mismatches")).isTrue();
+  }
+
+  @Test
+  public void grpcChannelPoolStatistics_areReadFromChannelPool() {
+    GrpcChannelPoolStats grpcStats =
+        GrpcChannelPoolStats.builder()
+            .setChannels(2)
+            .setReplacedChannels(1)
+            .setActiveRequests(3)
+            .setCompletedRequests(10)
+            .setFailedRequests(4)
+            .setPendingResponses(5)
+            .setReceivedBytes(1024)
+            .build();
+    GhfsStorageStatistics statistics = new GhfsStorageStatistics(() -> grpcStats);
+
+    statistics.reset();
+
+    assertThat(statistics.getLong("gcs_grpc_channels")).isEqualTo(2);
+    assertThat(statistics.getLong("gcs_grpc_channel_replacements")).isEqualTo(1);
+    assertThat(statistics.getLong("gcs_grpc_active_requests")).isEqualTo(3);
+    assertThat(statistics.getLong("gcs_grpc_completed_requests")).isEqualTo(10);
+    assertThat(statistics.getLong("gcs_grpc_failed_requests")).isEqualTo(4);
+    assertThat(statistics.getLong("gcs_grpc_pending_responses")).isEqualTo(5);
+    assertThat(statistics.getLong("gcs_grpc_received_bytes")).isEqualTo(1024);
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> statistics.increment(GhfsStatistic.GRPC_RECEIVED_BYTES, 1));
+  }
+
+  @Test
+  public void grpcChannelPoolStatistics_withoutGrpc_areZero() {
+    GhfsStorageStatistics statistics = new GhfsStorageStatistics();
+
+    assertThat(statistics.get(GhfsStatistic.GRPC_CHANNELS)).isEqualTo(0);
+    assertThat(statistics.get(GhfsStatistic.GRPC_RECEIVED_BYTES)).isEqualTo(0);
+  }
+
+  @Test
+  public void reset_setsStatisticsToZero() {
+    GhfsStorageStatistics statistics = new GhfsStorageStatistics();
+    statistics.increment(GhfsStatistic.CHECKSUM_MISMATCHES, 3);
+
+    statistics.reset();
+
+    assertThat(statistics.get(GhfsStatistic.CHECKSUM_MISMATCHES)).isEqualTo(0);
+  }
+}
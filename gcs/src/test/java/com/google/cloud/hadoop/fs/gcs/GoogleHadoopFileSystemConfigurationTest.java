@@ -64,6 +64,7 @@ public class GoogleHadoopFileSystemConfigurationTest {
           put("fs.gs.application.name.suffix", "");
           put("fs.gs.authorization.handler.impl", null);
           put("fs.gs.authorization.handler.properties.", ImmutableMap.of());
+          put("fs.gs.batch.adaptive.enable", false);
           put("fs.gs.batch.threads", 15);
           put("fs.gs.block.size", 64 * 1024 * 1024L);
           put("fs.gs.bucket.delete.enable", false);
@@ -78,10 +79,15 @@ public class GoogleHadoopFileSystemConfigurationTest {
           put("fs.gs.encryption.key", null);
           put("fs.gs.encryption.key.hash", null);
           put("fs.gs.glob.algorithm", GlobAlgorithm.CONCURRENT);
+          put("fs.gs.grpc.channel.max.consecutive.failures", 3);
+          put("fs.gs.grpc.channel.pool.size", 12);
+          put("fs.gs.grpc.channel.stall.timeout.ms", 30_000L);
           put("fs.gs.grpc.checksums.enable", false);
           put("fs.gs.grpc.enable", false);
+          put("fs.gs.grpc.read.ahead.window.size", 0);
           put("fs.gs.grpc.read.timeout.ms", 20 * 60 * 1000L);
           put("fs.gs.grpc.read.metadata.timeout.ms", 60 * 1000L);
+          put("fs.gs.grpc.read.zerocopy.enable", true);
           put("fs.gs.grpc.server.address", null);
           put("fs.gs.grpc.write.buffered.requests", 20L);
           put("fs.gs.grpc.write.timeout.ms", 10 * 60 * 1000L);
@@ -89,11 +95,27 @@ public class GoogleHadoopFileSystemConfigurationTest {
           put("fs.gs.http.max.retry", 10);
           put("fs.gs.http.read-timeout", 20_000);
           put("fs.gs.implicit.dir.repair.enable", true);
+          put("fs.gs.inputstream.block.cache.block.size", 1024 * 1024);
+          put("fs.gs.inputstream.block.cache.max.size", 0L);
+          put("fs.gs.inputstream.block.cache.off.heap.enable", false);
+          put("fs.gs.inputstream.checksum.validation.enable", false);
           put("fs.gs.inputstream.fadvise", Fadvise.AUTO);
+          put("fs.gs.inputstream.fadvise.adaptive.max.range.request.size", 8 * 1024 * 1024);
+          put("fs.gs.inputstream.fadvise.adaptive.window.size", 16);
           put("fs.gs.inputstream.fast.fail.on.not.found.enable", true);
+          put("fs.gs.inputstream.footer.cache.max.entry.age.ms", 5_000L);
+          put("fs.gs.inputstream.footer.cache.max.size", 0L);
           put("fs.gs.inputstream.inplace.seek.limit", 8 * 1024 * 1024L);
           put("fs.gs.inputstream.min.range.request.size", 2 * 1024 * 1024);
+          put("fs.gs.inputstream.parallel.download.chunk.size", 16 * 1024 * 1024);
+          put("fs.gs.inputstream.parallel.download.connections", 0);
+          put("fs.gs.inputstream.parallel.download.min.object.size", 128 * 1024 * 1024L);
+          put("fs.gs.inputstream.read.ahead.block.count", 0);
+          put("fs.gs.inputstream.read.ahead.block.size", 8 * 1024 * 1024);
           put("fs.gs.inputstream.support.gzip.encoding.enable", false);
+          put("fs.gs.inputstream.vectored.read.max.concurrent.requests", 16);
+          put("fs.gs.inputstream.vectored.read.merged.range.max.size", 8 * 1024 * 1024);
+          put("fs.gs.inputstream.vectored.read.min.range.seek.size", 4 * 1024);
           put("fs.gs.io.buffersize.write", 64 * 1024 * 1024);
           put("fs.gs.lazy.init.enable", false);
           put("fs.gs.list.max.items.per.call", 1024L);
@@ -102,20 +124,29 @@ public class GoogleHadoopFileSystemConfigurationTest {
           put("fs.gs.max.wait.for.empty.object.creation.ms", 3_000);
           put("fs.gs.outputstream.buffer.size", 8 * 1024 * 1024);
           put("fs.gs.outputstream.direct.upload.enable", false);
+          put("fs.gs.outputstream.direct.upload.threshold", 0);
+          put("fs.gs.outputstream.parallel.composite.upload.concurrency", 0);
+          put("fs.gs.outputstream.parallel.composite.upload.part.size", 32 * 1024 * 1024);
+          put("fs.gs.outputstream.pipe.buffer.queue.capacity", 8);
           put("fs.gs.outputstream.pipe.buffer.size", 1024 * 1024);
           put("fs.gs.outputstream.pipe.type", PipeType.IO_STREAM_PIPE);
           put("fs.gs.outputstream.sync.min.interval.ms", 0);
           put("fs.gs.outputstream.type", OutputStreamType.BASIC);
           put("fs.gs.outputstream.upload.cache.size", 0);
+          put("fs.gs.outputstream.upload.cache.spill.directory", null);
+          put("fs.gs.outputstream.upload.cache.spill.max.size", 1024 * 1024 * 1024L);
           put("fs.gs.outputstream.upload.chunk.size", 64 * 1024 * 1024);
           put("fs.gs.performance.cache.enable", false);
+          put("fs.gs.performance.cache.max.entries", 100_000L);
           put("fs.gs.performance.cache.max.entry.age.ms", 5_000L);
+          put("fs.gs.performance.cache.negative.entry.age.ms", 0L);
           put("fs.gs.project.id", null);
           put("fs.gs.reported.permissions", "700");
           put("fs.gs.requester.pays.buckets", ImmutableList.of());
           put("fs.gs.requester.pays.mode", RequesterPaysMode.DISABLED);
           put("fs.gs.requester.pays.project.id", null);
           put("fs.gs.rewrite.max.bytes.per.call", 512 * 1024 * 1024L);
+          put("fs.gs.rewrite.max.concurrent", 8);
           put("fs.gs.status.parallel.enable", true);
           put("fs.gs.storage.http.headers.", ImmutableMap.of());
           put("fs.gs.storage.root.url", "https://storage.googleapis.com/");
@@ -36,6 +36,7 @@ import com.google.cloud.hadoop.gcsio.GoogleCloudStorageFileSystemOptions;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageOptions;
 import com.google.cloud.hadoop.gcsio.MethodOutcome;
 import com.google.cloud.hadoop.gcsio.testing.InMemoryGoogleCloudStorage;
+import com.google.common.collect.ImmutableList;
 import com.google.common.hash.Hashing;
 import com.google.common.primitives.Ints;
 import java.io.FileNotFoundException;
@@ -55,6 +56,7 @@ import org.apache.hadoop.fs.FileChecksum;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
 import org.apache.hadoop.fs.permission.FsPermission;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.hadoop.service.Service;
@@ -875,6 +877,65 @@ public class GoogleHadoopFileSystemIntegrationTest extends GoogleHadoopFileSyste
     assertThat(ghfs.delete(directory, true)).isTrue();
   }
 
+  @Test
+  public void listStatusIterator_returnsSameStatusesAsListStatus() throws IOException {
+    Path directory = new Path(ghfs.getWorkingDirectory(), "listStatusIterator");
+    ghfsHelper.writeFile(new Path(directory, "file1"), "data", 1, /* overwrite= */ false);
+    ghfsHelper.writeFile(new Path(directory, "subdir/file2"), "data", 1, /* overwrite= */ false);
+    ghfs.mkdirs(new Path(directory, "emptydir"));
+
+    assertThat(toList(ghfs.listStatusIterator(directory)))
+        .containsExactlyElementsIn(ghfs.listStatus(directory));
+    assertThat(toList(ghfs.listLocatedStatus(directory))).hasSize(3);
+    assertThat(toList(ghfs.listStatusIterator(new Path(directory, "file1"))))
+        .containsExactly(ghfs.getFileStatus(new Path(directory, "file1")));
+    assertThrows(
+        FileNotFoundException.class,
+        () -> ghfs.listStatusIterator(new Path(directory, "non-existent")));
+
+    // cleanup
+    assertThat(ghfs.delete(directory, true)).isTrue();
+  }
+
+  @Test
+  public void listFiles_recursive_listsAllFilesUnderPath() throws IOException {
+    Path directory = new Path(ghfs.getWorkingDirectory(), "listFilesRecursive");
+    Path file1 = new Path(directory, "file1");
+    Path file2 = new Path(directory, "subdir1/file2");
+    Path file3 = new Path(directory, "subdir1/subdir2/file3");
+    for (Path file : ImmutableList.of(file1, file2, file3)) {
+      ghfsHelper.writeFile(file, "data", 1, /* overwrite= */ false);
+    }
+    ghfs.mkdirs(new Path(directory, "emptydir"));
+
+    List<Path> listedFiles = new ArrayList<>();
+    for (FileStatus status : toList(ghfs.listFiles(directory, /* recursive= */ true))) {
+      assertThat(status.isFile()).isTrue();
+      listedFiles.add(status.getPath());
+    }
+    assertThat(listedFiles)
+        .containsExactly(
+            ghfs.makeQualified(file1), ghfs.makeQualified(file2), ghfs.makeQualified(file3));
+
+    assertThat(toList(ghfs.listFiles(file2, /* recursive= */ true))).hasSize(1);
+    assertThat(toList(ghfs.listFiles(new Path(directory, "emptydir"), /* recursive= */ true)))
+        .isEmpty();
+    assertThrows(
+        FileNotFoundException.class,
+        () -> ghfs.listFiles(new Path(directory, "non-existent"), /* recursive= */ true));
+
+    // cleanup
+    assertThat(ghfs.delete(directory, true)).isTrue();
+  }
+
+  private static <T> List<T> toList(RemoteIterator<T> iterator) throws IOException {
+    List<T> list = new ArrayList<>();
+    while (iterator.hasNext()) {
+      list.add(iterator.next());
+    }
+    return list;
+  }
+
   @Test
   public void concat_throwsExceptionWhenSourceAreEmpty() {
     GoogleHadoopFileSystem myGhfs = new GoogleHadoopFileSystem();
@@ -1014,6 +1075,66 @@ public class GoogleHadoopFileSystemIntegrationTest extends GoogleHadoopFileSyste
     assertThat(ghfs.delete(testRoot, /* recursive= */ true)).isTrue();
   }
 
+  @Test
+  public void globStatus_flatAlgorithm_returnsSameResultAsDefault() throws IOException {
+    GoogleHadoopFileSystemBase myGhfs = (GoogleHadoopFileSystemBase) ghfs;
+    Path testRoot = new Path(ghfs.getWorkingDirectory(), "globStatusFlatAlgorithm");
+    for (String file : ImmutableList.of("a/b/file1", "a/b/file2", "a/c/d/file3", "a/c-file4")) {
+      ghfsHelper.writeFile(new Path(testRoot, file), "data", 1, /* overwrite= */ false);
+    }
+    ghfs.mkdirs(new Path(testRoot, "a/empty"));
+
+    GlobAlgorithm globAlgorithm = myGhfs.globAlgorithm;
+    try {
+      for (String pattern :
+          ImmutableList.of("a/*", "a/c*", "a/*/file?", "*/*/*/file3", "a/{b/file1,c}", "a/x*")) {
+        Path globPath = new Path(testRoot, pattern);
+        myGhfs.globAlgorithm = GlobAlgorithm.DEFAULT;
+        FileStatus[] expected = ghfs.globStatus(globPath);
+        myGhfs.globAlgorithm = GlobAlgorithm.FLAT;
+        FileStatus[] actual = ghfs.globStatus(globPath);
+
+        assertWithMessage("globStatus(%s)", pattern)
+            .that(Arrays.stream(actual).map(FileStatus::getPath).collect(toImmutableList()))
+            .containsExactlyElementsIn(
+                Arrays.stream(expected).map(FileStatus::getPath).collect(toImmutableList()))
+            .inOrder();
+      }
+    } finally {
+      myGhfs.globAlgorithm = globAlgorithm;
+    }
+
+    // Cleanup.
+    assertThat(ghfs.delete(testRoot, /* recursive= */ true)).isTrue();
+  }
+
+  @Test
+  public void globStatus_flatAlgorithm_noMatches_returnsEmptyArrayLikeDefault()
+      throws IOException {
+    GoogleHadoopFileSystemBase myGhfs = (GoogleHadoopFileSystemBase) ghfs;
+    Path testRoot = new Path(ghfs.getWorkingDirectory(), "globStatusFlatAlgorithmNoMatches");
+    ghfsHelper.writeFile(new Path(testRoot, "a/file"), "data", 1, /* overwrite= */ false);
+
+    GlobAlgorithm globAlgorithm = myGhfs.globAlgorithm;
+    try {
+      // Pattern without wildcards that is expanded into multiple paths is not a literal path
+      for (String pattern : ImmutableList.of("a/{x/y,z}", "a/x*")) {
+        Path globPath = new Path(testRoot, pattern);
+        myGhfs.globAlgorithm = GlobAlgorithm.DEFAULT;
+        assertWithMessage("default globStatus(%s)", pattern)
+            .that(ghfs.globStatus(globPath))
+            .isEmpty();
+        myGhfs.globAlgorithm = GlobAlgorithm.FLAT;
+        assertWithMessage("flat globStatus(%s)", pattern).that(ghfs.globStatus(globPath)).isEmpty();
+      }
+    } finally {
+      myGhfs.globAlgorithm = globAlgorithm;
+    }
+
+    // Cleanup.
+    assertThat(ghfs.delete(testRoot, /* recursive= */ true)).isTrue();
+  }
+
   @Test
   public void testCreateFSDataOutputStream() {
     assertThrows(
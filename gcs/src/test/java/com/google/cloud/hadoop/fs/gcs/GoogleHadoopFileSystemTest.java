@@ -16,24 +16,40 @@ package com.google.cloud.hadoop.fs.gcs;
 
 import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_CONFIG_PREFIX;
 import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_LAZY_INITIALIZATION_ENABLE;
+import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemTestHelper.IN_MEMORY_TEST_BUCKET;
+import static com.google.cloud.hadoop.gcsio.testing.InMemoryGoogleCloudStorage.getInMemoryGoogleCloudStorageOptions;
 import static com.google.cloud.hadoop.util.HadoopCredentialConfiguration.GROUP_IMPERSONATION_SERVICE_ACCOUNT_SUFFIX;
 import static com.google.cloud.hadoop.util.HadoopCredentialConfiguration.IMPERSONATION_SERVICE_ACCOUNT_SUFFIX;
 import static com.google.cloud.hadoop.util.HadoopCredentialConfiguration.SERVICE_ACCOUNT_JSON_KEYFILE_SUFFIX;
 import static com.google.cloud.hadoop.util.HadoopCredentialConfiguration.USER_IMPERSONATION_SERVICE_ACCOUNT_SUFFIX;
 import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.Assert.assertThrows;
 
 import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.cloud.hadoop.gcsio.GoogleCloudStorageFileSystem;
+import com.google.cloud.hadoop.gcsio.GoogleCloudStorageFileSystemOptions;
+import com.google.cloud.hadoop.gcsio.GoogleCloudStorageOptions;
+import com.google.cloud.hadoop.gcsio.GoogleCloudStorageReadOptions;
 import com.google.cloud.hadoop.gcsio.MethodOutcome;
+import com.google.cloud.hadoop.gcsio.VectoredIORange;
+import com.google.cloud.hadoop.gcsio.testing.InMemoryGoogleCloudStorage;
 import com.google.cloud.hadoop.util.AccessTokenProvider;
 import com.google.cloud.hadoop.util.testing.TestingAccessTokenProvider;
+import com.google.common.collect.ImmutableList;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.security.UserGroupInformation;
@@ -76,6 +92,25 @@ public class GoogleHadoopFileSystemTest extends GoogleHadoopFileSystemIntegratio
         .isFalse();
   }
 
+  @Test
+  public void open_returnsVectoredReadableStream() throws Exception {
+    Path filePath = new Path(ghfs.getUri().resolve("/vectored-read-file.txt"));
+    try (FSDataOutputStream out = ghfs.create(filePath)) {
+      out.write("0123456789abcdefghij".getBytes(UTF_8));
+    }
+    List<VectoredIORange> ranges =
+        ImmutableList.of(new VectoredIORange(2, 3), new VectoredIORange(10, 4));
+
+    try (FSDataInputStream in = ghfs.open(filePath)) {
+      assertThat(in.getWrappedStream()).isInstanceOf(VectoredReadable.class);
+      ((VectoredReadable) in.getWrappedStream()).readVectored(ranges, ByteBuffer::allocate);
+
+      assertThat(UTF_8.decode(ranges.get(0).getData().get()).toString()).isEqualTo("234");
+      assertThat(UTF_8.decode(ranges.get(1).getData().get()).toString()).isEqualTo("abcd");
+      assertThat(in.getPos()).isEqualTo(0);
+    }
+  }
+
   @Test
   public void lazyInitialization_succeeds_withInvalidCredentialsConfiguration() throws Exception {
     new GoogleHadoopFileSystem();
@@ -341,6 +376,44 @@ public class GoogleHadoopFileSystemTest extends GoogleHadoopFileSystemIntegratio
     ghfs.initialize(gsUri, config);
   }
 
+  @Test
+  public void copyToLocalFile_withParallelDownload_copiesFileToLocalDirectory() throws Exception {
+    GoogleCloudStorageOptions storageOptions =
+        getInMemoryGoogleCloudStorageOptions().toBuilder()
+            .setReadChannelOptions(
+                GoogleCloudStorageReadOptions.builder()
+                    .setParallelDownloadConnections(2)
+                    .setParallelDownloadChunkSize(4)
+                    .build())
+            .build();
+    GoogleHadoopFileSystem parallelGhfs =
+        new GoogleHadoopFileSystem(
+            new GoogleCloudStorageFileSystem(
+                InMemoryGoogleCloudStorage::new,
+                GoogleCloudStorageFileSystemOptions.builder()
+                    .setCloudStorageOptions(storageOptions)
+                    .build()));
+    parallelGhfs.initialize(new URI(IN_MEMORY_TEST_BUCKET), new Configuration());
+    parallelGhfs.mkdirs(new Path(IN_MEMORY_TEST_BUCKET));
+
+    Path srcPath = new Path(IN_MEMORY_TEST_BUCKET + "/dir/file");
+    String text = "parallel download test";
+    try (FSDataOutputStream out = parallelGhfs.create(srcPath)) {
+      out.write(text.getBytes(UTF_8));
+    }
+    File localDir = Files.createTempDirectory("ghfs-test-").toFile();
+    localDir.deleteOnExit();
+
+    parallelGhfs.copyToLocalFile(/* delSrc= */ true, srcPath, new Path(localDir.getPath()));
+
+    File localFile = new File(localDir, "file");
+    localFile.deleteOnExit();
+    assertThat(new String(Files.readAllBytes(localFile.toPath()), UTF_8)).isEqualTo(text);
+    assertThat(parallelGhfs.exists(srcPath)).isFalse();
+
+    parallelGhfs.close();
+  }
+
   // -----------------------------------------------------------------
   // Inherited tests that we suppress because their behavior differs
   // from the base class.
@@ -57,6 +57,7 @@ public class GoogleHadoopOutputStreamIntegrationTest {
     return Arrays.asList(
         new Object[] {OutputStreamType.BASIC, PipeType.IO_STREAM_PIPE},
         new Object[] {OutputStreamType.BASIC, PipeType.NIO_CHANNEL_PIPE},
+        new Object[] {OutputStreamType.BASIC, PipeType.BUFFER_QUEUE_PIPE},
         new Object[] {OutputStreamType.FLUSHABLE_COMPOSITE, PipeType.IO_STREAM_PIPE},
         new Object[] {OutputStreamType.SYNCABLE_COMPOSITE, PipeType.IO_STREAM_PIPE});
   }
@@ -17,6 +17,7 @@ package com.google.cloud.hadoop.fs.gcs;
 import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_OUTPUT_STREAM_SYNC_MIN_INTERVAL_MS;
 import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_OUTPUT_STREAM_TYPE;
 import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static org.junit.Assert.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.times;
@@ -27,6 +28,7 @@ import static org.mockito.Mockito.when;
 import com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemBase.OutputStreamType;
 import com.google.cloud.hadoop.gcsio.CreateFileOptions;
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
@@ -128,7 +130,8 @@ public class GoogleHadoopSyncableOutputStreamTest {
             new FileSystem.Statistics(ghfs.getScheme()),
             CreateFileOptions.DEFAULT_OVERWRITE,
             SyncableOutputStreamOptions.DEFAULT,
-            mockExecutorService);
+            mockExecutorService,
+            newDirectExecutorService());
 
     IOException fakeIoException = new IOException("fake io exception");
     when(mockExecutorService.submit(any(Callable.class)))
@@ -150,6 +153,62 @@ public class GoogleHadoopSyncableOutputStreamTest {
     verify(mockExecutorService, times(2)).submit(any(Callable.class));
   }
 
+  @Test
+  public void hsync_withoutWrites_doesNotCommitTemporaryFile() throws IOException {
+    Path objectPath = new Path(ghfs.getFileSystemRoot(), "dir/object3.txt");
+    GoogleHadoopSyncableOutputStream fout =
+        new GoogleHadoopSyncableOutputStream(
+            ghfs,
+            ghfs.getGcsPath(objectPath),
+            new FileSystem.Statistics(ghfs.getScheme()),
+            CreateFileOptions.DEFAULT_OVERWRITE,
+            SyncableOutputStreamOptions.DEFAULT,
+            mockExecutorService,
+            newDirectExecutorService());
+
+    fout.write(new byte[] {0x01, 0x02}, 0, 2);
+    fout.hsync(); // This one commits straight into destination.
+    fout.write(new byte[] {0x03}, 0, 1);
+    fout.hsync(); // This one commits temporary file and enqueues its deletion.
+    fout.hsync();
+    fout.hsync();
+
+    assertThat(ghfs.getFileStatus(objectPath).getLen()).isEqualTo(3);
+    verify(mockExecutorService).submit(any(Callable.class));
+  }
+
+  @Test
+  public void hsync_withInFlightDeletion_deletesTemporaryFilesInSingleBatch() throws Exception {
+    Path objectPath = new Path(ghfs.getFileSystemRoot(), "dir/object4.txt");
+    GoogleHadoopSyncableOutputStream fout =
+        new GoogleHadoopSyncableOutputStream(
+            ghfs,
+            ghfs.getGcsPath(objectPath),
+            new FileSystem.Statistics(ghfs.getScheme()),
+            CreateFileOptions.DEFAULT_OVERWRITE,
+            SyncableOutputStreamOptions.DEFAULT,
+            mockExecutorService,
+            newDirectExecutorService());
+
+    SettableFuture<Object> inFlightDeletion = SettableFuture.create();
+    when(mockExecutorService.submit(any(Callable.class)))
+        .thenReturn(inFlightDeletion, Futures.immediateFuture(null));
+
+    for (int i = 0; i < 5; i++) {
+      fout.write(i);
+      fout.hsync();
+    }
+
+    // Only deletion of the first temporary file was submitted, others wait for it to complete.
+    verify(mockExecutorService).submit(any(Callable.class));
+
+    inFlightDeletion.set(null);
+    fout.close();
+
+    verify(mockExecutorService, times(2)).submit(any(Callable.class));
+    assertThat(readFile(objectPath)).isEqualTo(new byte[] {0, 1, 2, 3, 4});
+  }
+
   @Test
   public void testCloseTwice() throws IOException {
     Path objectPath = new Path(ghfs.getFileSystemRoot(), "dir/object.txt");
@@ -242,7 +301,8 @@ public class GoogleHadoopSyncableOutputStreamTest {
             statistics,
             CreateFileOptions.DEFAULT_OVERWRITE,
             SyncableOutputStreamOptions.DEFAULT,
-            mockExecutorService);
+            mockExecutorService,
+            newDirectExecutorService());
 
     byte[] data1 = new byte[] {0x0f, 0x0e, 0x0e, 0x0d};
     byte[] data2 = new byte[] {0x0b, 0x0d, 0x0e, 0x0e, 0x0f};
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.flogger.GoogleLogger;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Adjusts the number of requests per batch and the number of batches executed in parallel by
+ * {@link BatchHelper} with the additive-increase/multiplicative-decrease (AIMD) algorithm.
+ *
+ * <p>Batch size is increased by one after each batch that completes without throttling, and the
+ * number of parallel batches is increased by one after a full window of such batches. Both are
+ * halved when a batch is throttled (429 or 503 responses) or its latency is much higher than the
+ * average latency of the batches of the same size. Latency is compared only between batches of the
+ * same size, because fixed per-batch overhead makes latency per request of small batches, like the
+ * remainder batch at the end of a flush, much higher. Limits are decreased at most once per average
+ * batch latency, so throttling of batches that were executed in parallel halves limits only once.
+ *
+ * <p>Single instance is shared by the batch helpers created by the same factory, so limits adjusted
+ * during one operation are used by the subsequent operations.
+ */
+class AdaptiveBatchController {
+
+  private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
+
+  /** Upper bounds of the batch latency histogram buckets, the last bucket is not bounded. */
+  static final long[] LATENCY_HISTOGRAM_BOUNDS_MILLIS = {
+    10, 25, 50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000
+  };
+
+  // Weight of the most recent sample in the moving averages of the batch latency.
+  private static final double LATENCY_EWMA_WEIGHT = 0.2;
+
+  // Batch is considered congested if its latency is this many times above average.
+  private static final int CONGESTED_LATENCY_FACTOR = 3;
+
+  // Minimum number of latency samples of the batch size before it is used to detect congestion.
+  private static final int MIN_LATENCY_SAMPLES = 10;
+
+  private final long maxBatchSize;
+  private final int maxParallelBatches;
+  private final Ticker ticker;
+
+  private final AtomicLongArray latencyHistogram =
+      new AtomicLongArray(LATENCY_HISTOGRAM_BOUNDS_MILLIS.length + 1);
+
+  private double batchSize;
+  private double parallelBatches;
+
+  // Moving average of the latency of all batches.
+  private final LatencyAverage batchLatency = new LatencyAverage();
+
+  // Moving averages of the batch latency keyed by the number of requests in the batch.
+  private final Map<Integer, LatencyAverage> batchLatencyBySize = new HashMap<>();
+
+  private boolean decreased = false;
+  private long lastDecreaseNanos;
+  private long decreaseCount = 0;
+
+  AdaptiveBatchController(long maxBatchSize, int maxParallelBatches) {
+    this(maxBatchSize, maxParallelBatches, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  AdaptiveBatchController(long maxBatchSize, int maxParallelBatches, Ticker ticker) {
+    checkArgument(maxBatchSize > 0, "maxBatchSize should be greater than 0: %s", maxBatchSize);
+    checkArgument(
+        maxParallelBatches > 0,
+        "maxParallelBatches should be greater than 0: %s",
+        maxParallelBatches);
+    this.maxBatchSize = maxBatchSize;
+    this.maxParallelBatches = maxParallelBatches;
+    this.ticker = ticker;
+    this.batchSize = maxBatchSize;
+    this.parallelBatches = maxParallelBatches;
+  }
+
+  /** Returns the current maximum number of requests per batch. */
+  synchronized long getBatchSize() {
+    return (long) batchSize;
+  }
+
+  /** Returns the current maximum number of batches that are executed in parallel. */
+  synchronized int getParallelBatches() {
+    return (int) parallelBatches;
+  }
+
+  /** Returns the number of times the limits were decreased because of throttling or congestion. */
+  synchronized long getDecreaseCount() {
+    return decreaseCount;
+  }
+
+  /**
+   * Returns the number of completed batches per latency bucket, keyed by the bucket upper bound in
+   * milliseconds. The last bucket is keyed by {@link Long#MAX_VALUE}.
+   */
+  ImmutableSortedMap<Long, Long> getLatencyHistogram() {
+    ImmutableSortedMap.Builder<Long, Long> histogram = ImmutableSortedMap.naturalOrder();
+    for (int i = 0; i < latencyHistogram.length(); i++) {
+      long bound =
+          i < LATENCY_HISTOGRAM_BOUNDS_MILLIS.length
+              ? LATENCY_HISTOGRAM_BOUNDS_MILLIS[i]
+              : Long.MAX_VALUE;
+      histogram.put(bound, latencyHistogram.get(i));
+    }
+    return histogram.build();
+  }
+
+  /**
+   * Records completed batch and adjusts limits.
+   *
+   * @param requests number of requests in the batch
+   * @param latencyNanos batch execution time
+   * @param throttledRequests number of requests in the batch that failed with 429 or 503 status
+   */
+  synchronized void onBatchCompleted(int requests, long latencyNanos, int throttledRequests) {
+    recordLatency(latencyNanos);
+
+    LatencyAverage sizeLatency =
+        batchLatencyBySize.computeIfAbsent(requests, k -> new LatencyAverage());
+    boolean congested =
+        sizeLatency.samples >= MIN_LATENCY_SAMPLES
+            && latencyNanos > CONGESTED_LATENCY_FACTOR * sizeLatency.averageNanos;
+    sizeLatency.add(latencyNanos);
+    batchLatency.add(latencyNanos);
+
+    if (throttledRequests > 0) {
+      decrease("throttled", throttledRequests, requests);
+    } else if (congested) {
+      decrease("congested", throttledRequests, requests);
+    } else {
+      batchSize = min(maxBatchSize, batchSize + 1);
+      parallelBatches = min(maxParallelBatches, parallelBatches + 1 / parallelBatches);
+    }
+  }
+
+  private void decrease(String reason, int throttledRequests, int requests) {
+    long nowNanos = ticker.read();
+    if (decreased && nowNanos - lastDecreaseNanos < batchLatency.averageNanos) {
+      return;
+    }
+    decreased = true;
+    lastDecreaseNanos = nowNanos;
+    decreaseCount++;
+    batchSize = max(1, batchSize / 2);
+    parallelBatches = max(1, parallelBatches / 2);
+    logger.atFine().log(
+        "Batch %s (%s of %s requests throttled), decreased batch size to %s"
+            + " and parallel batches to %s",
+        reason, throttledRequests, requests, getBatchSize(), getParallelBatches());
+  }
+
+  private void recordLatency(long latencyNanos) {
+    long latencyMillis = NANOSECONDS.toMillis(latencyNanos);
+    int bucket = 0;
+    while (bucket < LATENCY_HISTOGRAM_BOUNDS_MILLIS.length
+        && latencyMillis >= LATENCY_HISTOGRAM_BOUNDS_MILLIS[bucket]) {
+      bucket++;
+    }
+    latencyHistogram.incrementAndGet(bucket);
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format(
+        "AdaptiveBatchController{batchSize=%s, parallelBatches=%s, batchLatencyMillis=%s,"
+            + " decreaseCount=%s}",
+        getBatchSize(),
+        getParallelBatches(),
+        NANOSECONDS.toMillis((long) batchLatency.averageNanos),
+        decreaseCount);
+  }
+
+  /** Exponentially weighted moving average of the batch latency. */
+  private static class LatencyAverage {
+
+    private double averageNanos = 0;
+    private long samples = 0;
+
+    void add(long latencyNanos) {
+      averageNanos =
+          samples == 0
+              ? latencyNanos
+              : LATENCY_EWMA_WEIGHT * latencyNanos + (1 - LATENCY_EWMA_WEIGHT) * averageNanos;
+      samples++;
+    }
+  }
+}
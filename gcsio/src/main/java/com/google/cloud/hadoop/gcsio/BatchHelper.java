@@ -22,11 +22,15 @@ import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorS
 
 import com.google.api.client.googleapis.batch.BatchRequest;
 import com.google.api.client.googleapis.batch.json.JsonBatchCallback;
+import com.google.api.client.googleapis.json.GoogleJsonError;
 import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.HttpHeaders;
 import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.HttpStatusCodes;
 import com.google.api.services.storage.Storage;
 import com.google.api.services.storage.StorageRequest;
 import com.google.cloud.hadoop.util.ApiErrorExtractor;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.flogger.GoogleLogger;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
@@ -38,8 +42,10 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nullable;
 
 /**
  * BatchHelper abstracts out the logic for maximum requests per batch, and also allows a workaround
@@ -62,14 +68,29 @@ public class BatchHelper {
   private static final ThreadFactory THREAD_FACTORY =
       new ThreadFactoryBuilder().setNameFormat("gcsfs-batch-helper-%d").setDaemon(true).build();
 
+  private static final int STATUS_CODE_TOO_MANY_REQUESTS = 429;
+
   /**
    * Since each BatchHelper instance should be tied to a particular related set of requests, use
    * cases will generally interact via an injectable BatchHelper.Factory.
    */
   public static class Factory {
+
+    // Adjusts batch size and parallelism of the created batch helpers, null if disabled.
+    @Nullable private final AdaptiveBatchController batchController;
+
+    public Factory() {
+      this(/* batchController= */ null);
+    }
+
+    Factory(@Nullable AdaptiveBatchController batchController) {
+      this.batchController = batchController;
+    }
+
     public BatchHelper newBatchHelper(
         HttpRequestInitializer requestInitializer, Storage gcs, long maxRequestsPerBatch) {
-      return new BatchHelper(requestInitializer, gcs, maxRequestsPerBatch, /* numThreads= */ 0);
+      return new BatchHelper(
+          requestInitializer, gcs, maxRequestsPerBatch, /* numThreads= */ 0, batchController);
     }
 
     BatchHelper newBatchHelper(
@@ -84,10 +105,15 @@ public class BatchHelper {
       // Do not send batch request when performing operations on 1 object.
       if (totalRequests == 1) {
         return new BatchHelper(
-            requestInitializer, gcs, /* maxRequestsPerBatch= */ 1, /* numThreads= */ 0);
+            requestInitializer,
+            gcs,
+            /* maxRequestsPerBatch= */ 1,
+            /* numThreads= */ 0,
+            /* batchController= */ null);
       }
       if (maxThreads == 0) {
-        return new BatchHelper(requestInitializer, gcs, maxRequestsPerBatch, maxThreads);
+        return new BatchHelper(
+            requestInitializer, gcs, maxRequestsPerBatch, maxThreads, batchController);
       }
       // If maxRequestsPerBatch is too high to fill up all parallel batches (maxThreads)
       // then reduce it to evenly distribute requests across the batches
@@ -97,13 +123,20 @@ public class BatchHelper {
       // in batches (requestsPerBatch) then reduce it to minimum required number of threads
       int numThreads = Math.toIntExact((long) Math.ceil((double) totalRequests / requestsPerBatch));
       numThreads = Math.min(numThreads, maxThreads);
-      return new BatchHelper(requestInitializer, gcs, requestsPerBatch, numThreads);
+      // Batch controller can only decrease these limits
+      return new BatchHelper(
+          requestInitializer, gcs, requestsPerBatch, numThreads, batchController);
     }
   }
 
   /** Callback that causes a single StorageRequest to be added to the {@link BatchRequest}. */
   protected static interface QueueRequestCallback {
-    void enqueue(BatchRequest batch) throws IOException;
+    /**
+     * Adds request to the batch.
+     *
+     * @param throttledRequests counter of the batch requests that failed because of throttling
+     */
+    void enqueue(BatchRequest batch, AtomicInteger throttledRequests) throws IOException;
   }
 
   private final Queue<QueueRequestCallback> pendingRequests = new ConcurrentLinkedQueue<>();
@@ -114,6 +147,11 @@ public class BatchHelper {
   private final Storage gcs;
   // Number of requests that can be queued into a single HTTP batch request.
   private final long maxRequestsPerBatch;
+  // Number of threads to execute HTTP batch requests in parallel.
+  private final int numThreads;
+  @Nullable private final AdaptiveBatchController batchController;
+  // Number of submitted HTTP batch requests that are not completed yet.
+  private final AtomicInteger inFlightBatches = new AtomicInteger();
 
   private final Lock flushLock = new ReentrantLock();
 
@@ -121,17 +159,21 @@ public class BatchHelper {
    * Primary constructor, generally accessed only via the inner Factory class.
    *
    * @param numThreads Number of threads to execute HTTP batch requests in parallel.
+   * @param batchController Adjusts batch size and number of parallel batches, null if disabled.
    */
   private BatchHelper(
       HttpRequestInitializer requestInitializer,
       Storage gcs,
       long maxRequestsPerBatch,
-      int numThreads) {
+      int numThreads,
+      @Nullable AdaptiveBatchController batchController) {
     this.requestInitializer = requestInitializer;
     this.gcs = gcs;
     this.requestsExecutor =
         numThreads == 0 ? newDirectExecutorService() : newRequestsExecutor(numThreads);
     this.maxRequestsPerBatch = maxRequestsPerBatch;
+    this.numThreads = numThreads;
+    this.batchController = batchController;
   }
 
   private static ExecutorService newRequestsExecutor(int numThreads) {
@@ -164,7 +206,13 @@ public class BatchHelper {
                 return null;
               }));
     } else {
-      pendingRequests.add(batch -> req.queue(batch, callback));
+      pendingRequests.add(
+          (batch, throttledRequests) ->
+              req.queue(
+                  batch,
+                  batchController == null
+                      ? callback
+                      : countThrottledRequests(callback, throttledRequests)));
 
       flushIfPossibleAndRequired();
     }
@@ -184,9 +232,41 @@ public class BatchHelper {
     }
   }
 
+  /** Wraps callback to count requests that failed because of throttling. */
+  private static <T> JsonBatchCallback<T> countThrottledRequests(
+      JsonBatchCallback<T> callback, AtomicInteger throttledRequests) {
+    return new JsonBatchCallback<T>() {
+      @Override
+      public void onSuccess(T result, HttpHeaders responseHeaders) throws IOException {
+        callback.onSuccess(result, responseHeaders);
+      }
+
+      @Override
+      public void onFailure(GoogleJsonError e, HttpHeaders responseHeaders) throws IOException {
+        if (isThrottled(e.getCode())) {
+          throttledRequests.incrementAndGet();
+        }
+        callback.onFailure(e, responseHeaders);
+      }
+    };
+  }
+
+  private static boolean isThrottled(int statusCode) {
+    return statusCode == STATUS_CODE_TOO_MANY_REQUESTS
+        || statusCode == HttpStatusCodes.STATUS_CODE_SERVICE_UNAVAILABLE;
+  }
+
+  /** Returns the number of requests that can be queued into the next HTTP batch request. */
+  @VisibleForTesting
+  long getRequestsPerBatch() {
+    return batchController == null
+        ? maxRequestsPerBatch
+        : Math.min(maxRequestsPerBatch, batchController.getBatchSize());
+  }
+
   // Flush our buffer if we have at least maxRequestsPerBatch pending entries
   private void flushIfPossibleAndRequired() throws IOException {
-    if (pendingRequests.size() >= maxRequestsPerBatch) {
+    if (pendingRequests.size() >= getRequestsPerBatch()) {
       flushIfPossible(false);
     }
   }
@@ -214,19 +294,62 @@ public class BatchHelper {
     if (pendingRequests.isEmpty()) {
       return;
     }
+    awaitParallelBatchesBelowLimit();
     BatchRequest batch = gcs.batch(requestInitializer);
-    while (batch.size() < maxRequestsPerBatch && !pendingRequests.isEmpty()) {
+    AtomicInteger throttledRequests = new AtomicInteger();
+    long requestsPerBatch = getRequestsPerBatch();
+    while (batch.size() < requestsPerBatch && !pendingRequests.isEmpty()) {
       // enqueue request at head
-      pendingRequests.remove().enqueue(batch);
+      pendingRequests.remove().enqueue(batch, throttledRequests);
     }
+    inFlightBatches.incrementAndGet();
     responseFutures.add(
         requestsExecutor.submit(
             () -> {
-              batch.execute();
+              try {
+                execute(batch, throttledRequests);
+              } finally {
+                inFlightBatches.decrementAndGet();
+              }
               return null;
             }));
   }
 
+  /**
+   * Waits for submitted batches to complete until the number of batches in flight is below the
+   * limit of the batch controller.
+   */
+  private void awaitParallelBatchesBelowLimit() throws IOException {
+    if (batchController == null || numThreads == 0) {
+      return;
+    }
+    while (inFlightBatches.get() >= Math.min(numThreads, batchController.getParallelBatches())
+        && !responseFutures.isEmpty()) {
+      getFromFuture(responseFutures.remove());
+    }
+  }
+
+  private void execute(BatchRequest batch, AtomicInteger throttledRequests) throws IOException {
+    if (batchController == null) {
+      batch.execute();
+      return;
+    }
+    int requests = batch.size();
+    long startNanos = System.nanoTime();
+    try {
+      batch.execute();
+    } catch (IOException e) {
+      GoogleJsonResponseException jsonException = ApiErrorExtractor.getJsonResponseException(e);
+      if (jsonException != null && isThrottled(jsonException.getStatusCode())) {
+        throttledRequests.addAndGet(requests);
+      }
+      throw e;
+    } finally {
+      batchController.onBatchCompleted(
+          requests, System.nanoTime() - startNanos, throttledRequests.get());
+    }
+  }
+
   /**
    * Sends any currently remaining requests in the batch; should be called at the end of any series
    * of batched requests to ensure everything has been sent.
@@ -237,6 +360,11 @@ public class BatchHelper {
       checkState(pendingRequests.isEmpty(), "pendingRequests should be empty after flush");
       checkState(responseFutures.isEmpty(), "responseFutures should be empty after flush");
     } finally {
+      if (batchController != null) {
+        logger.atFine().log(
+            "Batch latency histogram (ms): %s, %s",
+            batchController.getLatencyHistogram(), batchController);
+      }
       requestsExecutor.shutdown();
       try {
         if (!requestsExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
@@ -260,7 +388,7 @@ public class BatchHelper {
   /** Awaits until all sent requests are completed. Should be serialized */
   private void awaitRequestsCompletion() throws IOException {
     // Don't wait until all requests will be completed if enough requests are pending for full batch
-    while (!responseFutures.isEmpty() && pendingRequests.size() < maxRequestsPerBatch) {
+    while (!responseFutures.isEmpty() && pendingRequests.size() < getRequestsPerBatch()) {
       getFromFuture(responseFutures.remove());
     }
   }
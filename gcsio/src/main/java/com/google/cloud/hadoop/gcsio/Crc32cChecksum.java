@@ -0,0 +1,104 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import com.google.common.flogger.GoogleLogger;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+import java.util.zip.Checksum;
+
+/**
+ * Incrementally computed CRC32C checksum.
+ *
+ * <p>Uses {@code java.util.zip.CRC32C} when it is available (Java 9+), because JVM replaces it with
+ * hardware-accelerated CRC32C instructions, and falls back to the Guava implementation otherwise.
+ *
+ * <p>On Java 8 the Guava implementation is always used. It is a table-based pure Java
+ * implementation that is several times slower than the hardware-accelerated one and can make
+ * checksum validation CPU bound for high-throughput sequential reads.
+ */
+class Crc32cChecksum {
+
+  private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
+
+  // Constructor of java.util.zip.CRC32C, null if it is not available.
+  private static final MethodHandle JDK_CRC32C_CONSTRUCTOR;
+
+  // Checksum.update(ByteBuffer) method, null if it is not available.
+  private static final MethodHandle JDK_CHECKSUM_UPDATE;
+
+  static {
+    MethodHandle constructor = null;
+    MethodHandle update = null;
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+      constructor =
+          lookup
+              .findConstructor(Class.forName("java.util.zip.CRC32C"), methodType(void.class))
+              .asType(methodType(Checksum.class));
+      update =
+          lookup.findVirtual(
+              Checksum.class, "update", methodType(void.class, ByteBuffer.class));
+    } catch (ReflectiveOperationException e) {
+      logger.atFine().withCause(e).log(
+          "java.util.zip.CRC32C is not available, using Guava CRC32C implementation");
+      constructor = null;
+      update = null;
+    }
+    JDK_CRC32C_CONSTRUCTOR = constructor;
+    JDK_CHECKSUM_UPDATE = update;
+  }
+
+  private final Checksum jdkChecksum;
+  private final Hasher guavaHasher;
+
+  Crc32cChecksum() {
+    this.jdkChecksum = JDK_CRC32C_CONSTRUCTOR == null ? null : newJdkChecksum();
+    this.guavaHasher = jdkChecksum == null ? Hashing.crc32c().newHasher() : null;
+  }
+
+  /** Updates checksum with the remaining bytes of the buffer and advances its position. */
+  void update(ByteBuffer buffer) {
+    if (guavaHasher != null) {
+      guavaHasher.putBytes(buffer);
+      return;
+    }
+    try {
+      JDK_CHECKSUM_UPDATE.invokeExact(jdkChecksum, buffer);
+    } catch (Throwable t) {
+      throw new IllegalStateException("Failed to update CRC32C checksum", t);
+    }
+  }
+
+  /** Returns checksum of all bytes passed to {@link #update} so far. */
+  int getValue() {
+    // Guava Hasher can not be used after hash() call, so this checksum can only be read once.
+    return guavaHasher != null ? guavaHasher.hash().asInt() : (int) jdkChecksum.getValue();
+  }
+
+  private static Checksum newJdkChecksum() {
+    try {
+      return (Checksum) JDK_CRC32C_CONSTRUCTOR.invokeExact();
+    } catch (Throwable t) {
+      logger.atFine().withCause(t).log("Failed to create java.util.zip.CRC32C instance");
+      return null;
+    }
+  }
+}
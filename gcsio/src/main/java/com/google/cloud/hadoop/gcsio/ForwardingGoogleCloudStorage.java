@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.List;
+import javax.annotation.Nullable;
 
 /** A class that wraps a {@link GoogleCloudStorage} object, delegating all calls to it. */
 public class ForwardingGoogleCloudStorage implements GoogleCloudStorage {
@@ -95,6 +96,16 @@ public class ForwardingGoogleCloudStorage implements GoogleCloudStorage {
     return delegate.open(resourceId, readOptions);
   }
 
+  @Override
+  public SeekableByteChannel open(
+      GoogleCloudStorageItemInfo itemInfo,
+      GoogleCloudStorageReadOptions readOptions,
+      @Nullable GoogleCloudStorageFooterCache footerCache)
+      throws IOException {
+    logger.atFiner().log("%s.open(%s, %s)", delegateClassName, itemInfo, readOptions);
+    return delegate.open(itemInfo, readOptions, footerCache);
+  }
+
   @Override
   public void deleteBuckets(List<String> bucketNames) throws IOException {
     logger.atFiner().log("%s.deleteBuckets(%s)", delegateClassName, bucketNames);
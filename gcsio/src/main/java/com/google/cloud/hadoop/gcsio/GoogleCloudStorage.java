@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.List;
+import javax.annotation.Nullable;
 
 /**
  * Interface for exposing the Google Cloud Storage API behavior in a way more amenable to writing
@@ -165,6 +166,25 @@ public interface GoogleCloudStorage {
   SeekableByteChannel open(StorageResourceId resourceId, GoogleCloudStorageReadOptions readOptions)
       throws IOException;
 
+  /**
+   * Opens an object for reading using already known object metadata, so it does not need to be
+   * fetched again.
+   *
+   * @param itemInfo metadata of the existing StorageObject
+   * @param readOptions Fine-grained options for behaviors of retries, buffering, etc.
+   * @param footerCache cache from which object footer is looked up and to which prefetched footer
+   *     is stored, could be null
+   * @return a channel for reading from the given object
+   * @throws IOException if object cannot be opened
+   */
+  default SeekableByteChannel open(
+      GoogleCloudStorageItemInfo itemInfo,
+      GoogleCloudStorageReadOptions readOptions,
+      @Nullable GoogleCloudStorageFooterCache footerCache)
+      throws IOException {
+    return open(itemInfo.getResourceId(), readOptions);
+  }
+
   /**
    * Deletes a list of buckets. Does not throw any exception for "bucket not found" errors.
    *
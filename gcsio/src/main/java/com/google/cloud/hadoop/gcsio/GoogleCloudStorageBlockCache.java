@@ -0,0 +1,223 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.flogger.GoogleLogger;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Size-bounded LRU cache of object data blocks shared by all read channels in the process.
+ *
+ * <p>Blocks are keyed by bucket, object, generation and block index, so cached data of an
+ * overwritten object is never returned for its new generation.
+ */
+public class GoogleCloudStorageBlockCache {
+
+  private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
+
+  private static GoogleCloudStorageBlockCache sharedInstance;
+
+  /** Loads object data in the specified range when block is missing in the cache. */
+  @FunctionalInterface
+  public interface BlockLoader {
+    ByteBuffer load(long offset, int length) throws IOException;
+  }
+
+  private final Cache<BlockKey, ByteBuffer> cache;
+  private final long maxSize;
+  private final int blockSize;
+  private final boolean offHeapEnabled;
+
+  /**
+   * Returns block cache shared by all read channels in the process, creating it on the first call
+   * using the block cache settings of the provided {@code readOptions}.
+   */
+  public static synchronized GoogleCloudStorageBlockCache getShared(
+      GoogleCloudStorageReadOptions readOptions) {
+    if (sharedInstance == null) {
+      sharedInstance =
+          new GoogleCloudStorageBlockCache(
+              readOptions.getBlockCacheMaxSize(),
+              readOptions.getBlockCacheBlockSize(),
+              readOptions.isBlockCacheOffHeapEnabled());
+    } else if (sharedInstance.maxSize != readOptions.getBlockCacheMaxSize()
+        || sharedInstance.blockSize != readOptions.getBlockCacheBlockSize()
+        || sharedInstance.offHeapEnabled != readOptions.isBlockCacheOffHeapEnabled()) {
+      logger.atWarning().atMostEvery(1, MINUTES).log(
+          "Ignoring block cache settings that differ from the already created shared cache %s",
+          sharedInstance);
+    }
+    return sharedInstance;
+  }
+
+  @VisibleForTesting
+  GoogleCloudStorageBlockCache(long maxSize, int blockSize, boolean offHeapEnabled) {
+    checkArgument(maxSize > 0, "maxSize must be positive, but was %s", maxSize);
+    checkArgument(blockSize > 0, "blockSize must be positive, but was %s", blockSize);
+    this.maxSize = maxSize;
+    this.blockSize = blockSize;
+    this.offHeapEnabled = offHeapEnabled;
+    this.cache =
+        CacheBuilder.newBuilder()
+            // Use single segment, otherwise the size limit is split between segments and blocks
+            // larger than a segment limit will be evicted right away. Block loads do not hold
+            // segment lock, so this does not serialize concurrent cache misses.
+            .concurrencyLevel(1)
+            .maximumWeight(maxSize)
+            .<BlockKey, ByteBuffer>weigher((key, block) -> block.capacity())
+            .recordStats()
+            .build();
+  }
+
+  /** Size in bytes of the cached blocks, only the last block of an object can be smaller. */
+  public int getBlockSize() {
+    return blockSize;
+  }
+
+  /**
+   * Returns read-only buffer with the content of the {@code blockIndex} block of the object
+   * generation, loading it with the {@code loader} if it is not cached yet.
+   *
+   * @param resourceId object which block should be returned
+   * @param generation object generation
+   * @param blockIndex index of the block in the object
+   * @param objectSize object size, used to determine size of the last block
+   * @param loader function used to load block data on cache miss
+   */
+  public ByteBuffer getBlock(
+      StorageResourceId resourceId,
+      long generation,
+      long blockIndex,
+      long objectSize,
+      BlockLoader loader)
+      throws IOException {
+    long blockOffset = blockIndex * blockSize;
+    checkArgument(
+        blockOffset >= 0 && blockOffset < objectSize,
+        "block %s is out of range for '%s' with %s size",
+        blockIndex,
+        resourceId,
+        objectSize);
+    int blockLength = Math.toIntExact(Math.min(blockSize, objectSize - blockOffset));
+    BlockKey key =
+        new BlockKey(
+            resourceId.getBucketName(), resourceId.getObjectName(), generation, blockIndex);
+    ByteBuffer block;
+    try {
+      block = cache.get(key, () -> loadBlock(loader, blockOffset, blockLength));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(
+          String.format("Failed to load block %s of '%s'", blockIndex, resourceId), e.getCause());
+    }
+    return block.asReadOnlyBuffer();
+  }
+
+  private ByteBuffer loadBlock(BlockLoader loader, long blockOffset, int blockLength)
+      throws IOException {
+    ByteBuffer data = loader.load(blockOffset, blockLength);
+    if (data.remaining() != blockLength) {
+      throw new IOException(
+          String.format(
+              "Loaded %s bytes instead of %s bytes at %s offset",
+              data.remaining(), blockLength, blockOffset));
+    }
+    if (offHeapEnabled && !data.isDirect()) {
+      ByteBuffer directData = ByteBuffer.allocateDirect(blockLength);
+      directData.put(data);
+      directData.flip();
+      data = directData;
+    }
+    return data;
+  }
+
+  /** Number of block lookups that were served from the cache. */
+  public long getHitCount() {
+    return cache.stats().hitCount();
+  }
+
+  /** Number of block lookups that required loading block data. */
+  public long getMissCount() {
+    return cache.stats().missCount();
+  }
+
+  /** Number of blocks evicted from the cache due to the size limit. */
+  public long getEvictionCount() {
+    return cache.stats().evictionCount();
+  }
+
+  /** Approximate number of blocks in the cache. */
+  public long size() {
+    return cache.size();
+  }
+
+  /** Removes all blocks from the cache. */
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "GoogleCloudStorageBlockCache{maxSize=%s, blockSize=%s, offHeapEnabled=%s}",
+        maxSize, blockSize, offHeapEnabled);
+  }
+
+  private static final class BlockKey {
+    private final String bucketName;
+    private final String objectName;
+    private final long generation;
+    private final long blockIndex;
+
+    BlockKey(String bucketName, String objectName, long generation, long blockIndex) {
+      this.bucketName = bucketName;
+      this.objectName = objectName;
+      this.generation = generation;
+      this.blockIndex = blockIndex;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof BlockKey)) {
+        return false;
+      }
+      BlockKey that = (BlockKey) o;
+      return generation == that.generation
+          && blockIndex == that.blockIndex
+          && bucketName.equals(that.bucketName)
+          && objectName.equals(that.objectName);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(bucketName, objectName, generation, blockIndex);
+    }
+  }
+}
@@ -0,0 +1,379 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.cloud.hadoop.gcsio.GoogleCloudStorage.MAX_COMPOSE_OBJECTS;
+import static com.google.cloud.hadoop.gcsio.GoogleCloudStorage.PATH_DELIMITER;
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.Lists;
+import com.google.common.flogger.GoogleLogger;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Channel that uploads an object as parallel composite upload: written data is cut into parts of
+ * the fixed size that are uploaded concurrently as temporary objects, and on close these temporary
+ * objects are composed into the destination object and deleted.
+ *
+ * <p>Because one compose request accepts at most {@link GoogleCloudStorage#MAX_COMPOSE_OBJECTS}
+ * source objects, parts are composed in multiple levels through intermediate temporary objects.
+ * Because composite object can have at most {@link #MAX_COMPOSITE_COMPONENTS} components, after
+ * this number of parts the rest of the data is uploaded as a single last part.
+ *
+ * <p>Objects smaller than the part size are uploaded directly without temporary objects.
+ *
+ * <p>At most {@code maxConcurrentParts} parts are uploaded concurrently, so this channel buffers at
+ * most {@code (maxConcurrentParts + 1) * partSize} bytes in memory.
+ */
+class GoogleCloudStorageCompositeUploadChannel
+    implements WritableByteChannel, GoogleCloudStorageItemInfo.Provider {
+
+  private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
+
+  /** Prefix of the names of temporary objects that hold parts of the uploaded object. */
+  static final String TEMPFILE_PREFIX = "_GCS_COMPOSITE_UPLOAD_TEMPFILE_";
+
+  /** Maximum number of components in a composite object. */
+  static final int MAX_COMPOSITE_COMPONENTS = 1024;
+
+  private static final int MIN_PART_BUFFER_SIZE = 1024 * 1024;
+
+  private static final CreateObjectOptions TEMPFILE_CREATE_OPTIONS =
+      CreateObjectOptions.DEFAULT_OVERWRITE;
+
+  private final GoogleCloudStorage gcs;
+  private final StorageResourceId resourceId;
+  private final CreateObjectOptions createOptions;
+  private final ExecutorService executor;
+  private final int partSize;
+  private final Semaphore partUploadPermits;
+  private final String tempObjectNamePrefix;
+
+  private final List<Future<StorageResourceId>> partUploads = new ArrayList<>();
+  // Temporary objects that were successfully created and should be deleted on close.
+  private final List<StorageResourceId> createdTempObjects =
+      Collections.synchronizedList(new ArrayList<>());
+
+  private ByteBuffer partBuffer;
+  // Channel used to upload the last part after the maximum number of components was reached.
+  private WritableByteChannel lastPartChannel;
+  private StorageResourceId lastPartId;
+
+  private GoogleCloudStorageItemInfo completedItemInfo;
+  private boolean open = true;
+
+  GoogleCloudStorageCompositeUploadChannel(
+      GoogleCloudStorage gcs,
+      StorageResourceId resourceId,
+      CreateObjectOptions createOptions,
+      ExecutorService executor,
+      int partSize,
+      int maxConcurrentParts)
+      throws IOException {
+    checkArgument(partSize > 0, "partSize must be positive, but was %s", partSize);
+    checkArgument(
+        maxConcurrentParts > 0,
+        "maxConcurrentParts must be positive, but was %s",
+        maxConcurrentParts);
+    this.gcs = gcs;
+    this.resourceId = getDestinationResourceId(gcs, resourceId, createOptions);
+    this.createOptions = createOptions;
+    this.executor = executor;
+    this.partSize = partSize;
+    this.partUploadPermits = new Semaphore(maxConcurrentParts);
+
+    String objectName = resourceId.getObjectName();
+    int nameStart = objectName.lastIndexOf(PATH_DELIMITER) + 1;
+    this.tempObjectNamePrefix =
+        String.format(
+            "%s%s%s.%s.",
+            objectName.substring(0, nameStart),
+            TEMPFILE_PREFIX,
+            objectName.substring(nameStart),
+            UUID.randomUUID());
+  }
+
+  /**
+   * Returns destination object ID with generation precondition if object should not be
+   * overwritten, because compose request overwrites destination object by default.
+   */
+  private static StorageResourceId getDestinationResourceId(
+      GoogleCloudStorage gcs, StorageResourceId resourceId, CreateObjectOptions createOptions)
+      throws IOException {
+    if (resourceId.hasGenerationId() || createOptions.isOverwriteExisting()) {
+      return resourceId;
+    }
+    if (gcs.getItemInfo(resourceId).exists()) {
+      throw new FileAlreadyExistsException(String.format("Object %s already exists.", resourceId));
+    }
+    return new StorageResourceId(
+        resourceId.getBucketName(), resourceId.getObjectName(), /* generationId= */ 0L);
+  }
+
+  @Override
+  public boolean isOpen() {
+    return open;
+  }
+
+  @Override
+  public int write(ByteBuffer src) throws IOException {
+    if (!open) {
+      throw new ClosedChannelException();
+    }
+    int written = src.remaining();
+    if (lastPartChannel != null) {
+      while (src.hasRemaining()) {
+        lastPartChannel.write(src);
+      }
+      return written;
+    }
+    while (src.hasRemaining()) {
+      ensurePartBufferCapacity(src.remaining());
+      int length = Math.min(src.remaining(), partBuffer.remaining());
+      ByteBuffer chunk = src.duplicate();
+      chunk.limit(chunk.position() + length);
+      partBuffer.put(chunk);
+      src.position(src.position() + length);
+
+      if (partBuffer.position() == partSize) {
+        uploadPart();
+        if (partUploads.size() == MAX_COMPOSITE_COMPONENTS - 1) {
+          lastPartId = getTempObjectId(String.valueOf(partUploads.size()));
+          lastPartChannel = gcs.create(lastPartId, TEMPFILE_CREATE_OPTIONS);
+          while (src.hasRemaining()) {
+            lastPartChannel.write(src);
+          }
+        }
+      }
+    }
+    return written;
+  }
+
+  /** Grows part buffer up to the part size, so small objects do not allocate the whole part. */
+  private void ensurePartBufferCapacity(int bytesToWrite) {
+    if (partBuffer != null && partBuffer.hasRemaining()) {
+      return;
+    }
+    int position = partBuffer == null ? 0 : partBuffer.position();
+    long desiredCapacity =
+        Math.max((long) position + bytesToWrite, Math.max(MIN_PART_BUFFER_SIZE, 2L * position));
+    int capacity = (int) Math.min(partSize, desiredCapacity);
+    ByteBuffer newPartBuffer = ByteBuffer.allocate(capacity);
+    if (partBuffer != null) {
+      partBuffer.flip();
+      newPartBuffer.put(partBuffer);
+    }
+    partBuffer = newPartBuffer;
+  }
+
+  private void uploadPart() throws IOException {
+    throwIfPartUploadFailed();
+    try {
+      partUploadPermits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw (IOException)
+          new InterruptedIOException("Interrupted while waiting to upload part of " + resourceId)
+              .initCause(e);
+    }
+    ByteBuffer part = partBuffer;
+    part.flip();
+    partBuffer = null;
+    StorageResourceId partId = getTempObjectId(String.valueOf(partUploads.size()));
+    logger.atFiner().log("uploadPart(%s): %s bytes", partId, part.remaining());
+    partUploads.add(
+        executor.submit(
+            () -> {
+              try {
+                try (WritableByteChannel channel = gcs.create(partId, TEMPFILE_CREATE_OPTIONS)) {
+                  while (part.hasRemaining()) {
+                    channel.write(part);
+                  }
+                }
+                createdTempObjects.add(partId);
+                return partId;
+              } finally {
+                partUploadPermits.release();
+              }
+            }));
+  }
+
+  private void throwIfPartUploadFailed() throws IOException {
+    for (Future<StorageResourceId> partUpload : partUploads) {
+      if (partUpload.isDone()) {
+        getFromFuture(partUpload);
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!open) {
+      return;
+    }
+    open = false;
+    logger.atFiner().log("close(%s): %s parts", resourceId, partUploads.size());
+    try {
+      if (partUploads.isEmpty()) {
+        // Object is smaller than the part size, so upload it directly.
+        uploadDirectly();
+        return;
+      }
+      List<StorageResourceId> parts = new ArrayList<>(partUploads.size() + 1);
+      if (partBuffer != null && partBuffer.position() > 0) {
+        uploadPart();
+      }
+      for (Future<StorageResourceId> partUpload : partUploads) {
+        parts.add(getFromFuture(partUpload));
+      }
+      if (lastPartChannel != null) {
+        lastPartChannel.close();
+        createdTempObjects.add(lastPartId);
+        parts.add(lastPartId);
+      }
+      completedItemInfo = composeParts(parts);
+    } catch (IOException | RuntimeException e) {
+      awaitPartUploads();
+      throw e;
+    } finally {
+      partBuffer = null;
+      deleteTempObjects();
+    }
+  }
+
+  private void uploadDirectly() throws IOException {
+    try (WritableByteChannel channel = gcs.create(resourceId, createOptions)) {
+      if (partBuffer != null) {
+        partBuffer.flip();
+        while (partBuffer.hasRemaining()) {
+          channel.write(partBuffer);
+        }
+      }
+      channel.close();
+      if (channel instanceof GoogleCloudStorageItemInfo.Provider) {
+        completedItemInfo = ((GoogleCloudStorageItemInfo.Provider) channel).getItemInfo();
+      }
+    }
+  }
+
+  /**
+   * Composes parts into the destination object. If there are more parts than could be composed by
+   * a single request, then parts are composed in groups into intermediate temporary objects first.
+   */
+  private GoogleCloudStorageItemInfo composeParts(List<StorageResourceId> parts)
+      throws IOException {
+    List<StorageResourceId> sources = parts;
+    for (int level = 0; sources.size() > MAX_COMPOSE_OBJECTS; level++) {
+      List<List<StorageResourceId>> groups = Lists.partition(sources, MAX_COMPOSE_OBJECTS);
+      List<Future<StorageResourceId>> composites = new ArrayList<>(groups.size());
+      for (int i = 0; i < groups.size(); i++) {
+        List<StorageResourceId> group = groups.get(i);
+        StorageResourceId compositeId = getTempObjectId(String.format("composite-%s-%s", level, i));
+        composites.add(
+            executor.submit(
+                () -> {
+                  gcs.composeObjects(group, compositeId, TEMPFILE_CREATE_OPTIONS);
+                  createdTempObjects.add(compositeId);
+                  return compositeId;
+                }));
+      }
+      sources = new ArrayList<>(composites.size());
+      for (Future<StorageResourceId> composite : composites) {
+        sources.add(getFromFuture(composite));
+      }
+    }
+    logger.atFiner().log("composeParts(%s): composing %s objects", resourceId, sources.size());
+    return gcs.composeObjects(sources, resourceId, createOptions);
+  }
+
+  /**
+   * Waits until all in-flight part uploads finish, so all created temporary objects could be
+   * deleted. There are at most {@code maxConcurrentParts} in-flight part uploads.
+   */
+  private void awaitPartUploads() {
+    for (Future<StorageResourceId> partUpload : partUploads) {
+      try {
+        partUpload.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (ExecutionException e) {
+        logger.atFine().withCause(e.getCause()).log("Part upload of %s failed", resourceId);
+      }
+    }
+    if (lastPartChannel != null && lastPartChannel.isOpen()) {
+      try {
+        lastPartChannel.close();
+        createdTempObjects.add(lastPartId);
+      } catch (IOException e) {
+        logger.atWarning().withCause(e).log("Failed to close last part %s", lastPartId);
+      }
+    }
+  }
+
+  private void deleteTempObjects() {
+    List<StorageResourceId> tempObjects;
+    synchronized (createdTempObjects) {
+      tempObjects = new ArrayList<>(createdTempObjects);
+      createdTempObjects.clear();
+    }
+    if (tempObjects.isEmpty()) {
+      return;
+    }
+    try {
+      gcs.deleteObjects(tempObjects);
+    } catch (IOException e) {
+      logger.atWarning().withCause(e).log(
+          "Failed to delete %s temporary objects of %s", tempObjects.size(), resourceId);
+    }
+  }
+
+  private StorageResourceId getTempObjectId(String suffix) {
+    return new StorageResourceId(resourceId.getBucketName(), tempObjectNamePrefix + suffix);
+  }
+
+  @Override
+  public GoogleCloudStorageItemInfo getItemInfo() {
+    return completedItemInfo;
+  }
+
+  private <T> T getFromFuture(Future<T> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw (IOException)
+          new InterruptedIOException("Interrupted composite upload of " + resourceId)
+              .initCause(e);
+    } catch (ExecutionException e) {
+      // Always wrap the cause, because the same failed future could be reported from both write
+      // and close calls, and the same exception can not be suppressed by itself.
+      throw new IOException("Composite upload failed for " + resourceId, e.getCause());
+    }
+  }
+}
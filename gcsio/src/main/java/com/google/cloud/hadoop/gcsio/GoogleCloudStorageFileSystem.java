@@ -17,6 +17,7 @@
 package com.google.cloud.hadoop.gcsio;
 
 import static com.google.cloud.hadoop.gcsio.GoogleCloudStorage.PATH_DELIMITER;
+import static com.google.cloud.hadoop.gcsio.GoogleCloudStorageExceptions.createFileNotFoundException;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
@@ -32,6 +33,7 @@ import com.google.api.client.auth.oauth2.Credential;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorage.ListPage;
 import com.google.cloud.hadoop.gcsio.cooplock.CoopLockOperationDelete;
 import com.google.cloud.hadoop.gcsio.cooplock.CoopLockOperationRename;
+import com.google.cloud.hadoop.util.AsyncWriteChannelOptions;
 import com.google.cloud.hadoop.util.CheckedFunction;
 import com.google.cloud.hadoop.util.LazyExecutorService;
 import com.google.common.annotations.VisibleForTesting;
@@ -48,14 +50,18 @@ import java.nio.channels.SeekableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.file.DirectoryNotEmptyException;
 import java.nio.file.FileAlreadyExistsException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -105,6 +111,9 @@ public class GoogleCloudStorageFileSystem {
   // FS options
   private final GoogleCloudStorageFileSystemOptions options;
 
+  // Cache of object metadata and footers used by open, null if disabled.
+  @Nullable private final GoogleCloudStorageFooterCache footerCache;
+
   /** Cached executor for asynchronous tasks. */
   private ExecutorService cachedExecutor = createCachedExecutor();
 
@@ -172,6 +181,12 @@ public class GoogleCloudStorageFileSystem {
             ? new PerformanceCachingGoogleCloudStorage(gcs, options.getPerformanceCacheOptions())
             : gcs;
     this.options = options;
+    this.footerCache =
+        options.getFooterCacheMaxSize() > 0
+            ? new GoogleCloudStorageFooterCache(
+                options.getFooterCacheMaxSize(),
+                Duration.ofMillis(options.getFooterCacheMaxEntryAgeMillis()))
+            : null;
   }
 
   private static ExecutorService createCachedExecutor() {
@@ -264,6 +279,18 @@ public class GoogleCloudStorageFileSystem {
               createOptions.getOverwriteGenerationId());
     }
 
+    invalidateFooterCache(path);
+    AsyncWriteChannelOptions writeOptions =
+        options.getCloudStorageOptions().getWriteChannelOptions();
+    if (writeOptions.getParallelCompositeUploadConcurrency() > 0) {
+      return new GoogleCloudStorageCompositeUploadChannel(
+          gcs,
+          resourceId,
+          objectOptionsFromFileOptions(createOptions),
+          cachedExecutor,
+          writeOptions.getParallelCompositeUploadPartSize(),
+          writeOptions.getParallelCompositeUploadConcurrency());
+    }
     return gcs.create(resourceId, objectOptionsFromFileOptions(createOptions));
   }
 
@@ -296,7 +323,38 @@ public class GoogleCloudStorageFileSystem {
         StorageResourceId.fromUriPath(path, /* allowEmptyObjectName= */ false);
     checkArgument(!resourceId.isDirectory(), "Cannot open a directory for reading: %s", path);
 
-    return gcs.open(resourceId, readOptions);
+    if (footerCache == null) {
+      return gcs.open(resourceId, readOptions);
+    }
+
+    GoogleCloudStorageItemInfo itemInfo = footerCache.getItemInfo(resourceId);
+    if (itemInfo == null) {
+      itemInfo = gcs.getItemInfo(resourceId);
+      if (!itemInfo.exists()) {
+        throw createFileNotFoundException(resourceId, /* cause= */ null);
+      }
+      footerCache.putItemInfo(itemInfo);
+    }
+    return gcs.open(itemInfo, readOptions, footerCache);
+  }
+
+  /** Removes cached metadata of the path and all objects under it from the footer cache. */
+  private void invalidateFooterCache(URI path) {
+    if (footerCache == null) {
+      return;
+    }
+    StorageResourceId resourceId =
+        StorageResourceId.fromUriPath(path, /* allowEmptyObjectName= */ true);
+    if (resourceId.isRoot()) {
+      return;
+    }
+    if (resourceId.isBucket()) {
+      footerCache.invalidatePrefix(resourceId.getBucketName(), "");
+      return;
+    }
+    footerCache.invalidate(resourceId);
+    footerCache.invalidatePrefix(
+        resourceId.getBucketName(), resourceId.toDirectoryId().getObjectName());
   }
 
   /**
@@ -325,6 +383,7 @@ public class GoogleCloudStorageFileSystem {
     Preconditions.checkNotNull(path, "path can not be null");
     checkArgument(!path.equals(GCS_ROOT), "Cannot delete root path (%s)", path);
     logger.atFiner().log("delete(path: %s, recursive: %b)", path, recursive);
+    invalidateFooterCache(path);
 
     FileInfo fileInfo = getFileInfo(path);
     if (!fileInfo.exists()) {
@@ -340,6 +399,14 @@ public class GoogleCloudStorageFileSystem {
               () -> getFileInfoInternal(parentId, /* inferImplicitDirectories= */ false));
     }
 
+    // Cooperative locking persists the whole list of deleted items before delete,
+    // so it requires to list the directory before deleting its items.
+    if (recursive && fileInfo.isDirectory() && !options.isCooperativeLockingEnabled()) {
+      deleteDirectoryStreaming(fileInfo);
+      repairImplicitDirectory(parentInfoFuture);
+      return;
+    }
+
     Optional<CoopLockOperationDelete> coopLockOp =
         options.isCooperativeLockingEnabled() && fileInfo.isDirectory()
             ? Optional.of(CoopLockOperationDelete.create(gcs, fileInfo.getPath()))
@@ -379,6 +446,108 @@ public class GoogleCloudStorageFileSystem {
     repairImplicitDirectory(parentInfoFuture);
   }
 
+  /**
+   * Recursively deletes given directory page by page. Directory objects are deferred and deleted
+   * with the last page after all files, so a failed delete does not leave files under an already
+   * deleted directory object.
+   */
+  private void deleteDirectoryStreaming(FileInfo dirInfo) throws IOException {
+    List<FileInfo> dirItemsToDelete = new ArrayList<>();
+    processDirectoryStreaming(
+        dirInfo,
+        "deleteDirectoryStreaming",
+        (items, lastPage) -> {
+          List<FileInfo> itemsToDelete = new ArrayList<>(items.size());
+          for (FileInfo itemInfo : items) {
+            (itemInfo.isDirectory() ? dirItemsToDelete : itemsToDelete).add(itemInfo);
+          }
+          if (lastPage) {
+            itemsToDelete.addAll(dirItemsToDelete);
+          }
+          return itemsToDelete;
+        });
+  }
+
+  /** Action applied to each listed page of a directory by {@link #processDirectoryStreaming}. */
+  @FunctionalInterface
+  private interface DirectoryPageAction {
+    /** Processes listed items of a page and returns items that should be deleted after it. */
+    List<FileInfo> process(List<FileInfo> items, boolean lastPage) throws IOException;
+  }
+
+  /**
+   * Lists given directory page by page and applies the action to each page while the next page is
+   * listed. Items returned by the action are deleted in background with at most one delete batch
+   * in flight. The directory object itself is deleted with the last page.
+   */
+  private void processDirectoryStreaming(
+      FileInfo dirInfo, String operation, DirectoryPageAction action) throws IOException {
+    URI dir = dirInfo.getPath();
+
+    long processedItems = 0;
+    int processedPages = 0;
+    Future<ListPage<FileInfo>> nextPageFuture =
+        cachedExecutor.submit(
+            () ->
+                listFileInfoForPrefixPage(
+                    dir, DELETE_RENAME_LIST_OPTIONS, /* pageToken= */ null));
+    Future<Void> deleteFuture = immediateFuture(null);
+    try {
+      while (nextPageFuture != null) {
+        ListPage<FileInfo> page = getFromFuture(nextPageFuture);
+        String nextPageToken = page.getNextPageToken();
+        nextPageFuture =
+            nextPageToken == null
+                ? null
+                : cachedExecutor.submit(
+                    () ->
+                        listFileInfoForPrefixPage(
+                            dir, DELETE_RENAME_LIST_OPTIONS, nextPageToken));
+        boolean lastPage = nextPageFuture == null;
+
+        List<FileInfo> itemsToDelete = action.process(page.getItems(), lastPage);
+        List<FileInfo> bucketsToDelete = new ArrayList<>(1);
+        if (lastPage) {
+          // Listed items do not contain the directory itself, delete it with the last page.
+          (dirInfo.getItemInfo().isBucket() ? bucketsToDelete : itemsToDelete).add(dirInfo);
+        }
+
+        // Wait for deletion of the previous page before deleting the current page, to limit
+        // the number of in-flight requests.
+        Future<Void> previousDeleteFuture = deleteFuture;
+        deleteFuture = immediateFuture(null);
+        getFromFuture(previousDeleteFuture);
+        deleteFuture =
+            cachedExecutor.submit(
+                () -> {
+                  deleteInternal(itemsToDelete, bucketsToDelete);
+                  return null;
+                });
+
+        processedItems += page.getItems().size();
+        processedPages++;
+        logger.atFine().log(
+            "%s(path: %s): processed %d items in %d pages",
+            operation, dir, processedItems, processedPages);
+      }
+      Future<Void> lastDeleteFuture = deleteFuture;
+      deleteFuture = immediateFuture(null);
+      getFromFuture(lastDeleteFuture);
+    } catch (IOException | RuntimeException e) {
+      // Do not leave in-flight deletion running after the failure is thrown.
+      try {
+        getFromFuture(deleteFuture);
+      } catch (IOException deleteException) {
+        e.addSuppressed(deleteException);
+      }
+      throw e;
+    } finally {
+      if (nextPageFuture != null) {
+        nextPageFuture.cancel(/* mayInterruptIfRunning= */ true);
+      }
+    }
+  }
+
   /** Deletes all items in the given path list followed by all bucket items. */
   private void deleteInternal(List<FileInfo> itemsToDelete, List<FileInfo> bucketsToDelete)
       throws IOException {
@@ -446,6 +615,104 @@ public class GoogleCloudStorageFileSystem {
     mkdirsInternal(StorageResourceId.fromUriPath(path, /* allowEmptyObjectName= */ true));
   }
 
+  /**
+   * Creates multiple directories, equivalent to calling {@link #mkdirs(URI)} for each path, but
+   * conflicting files for all paths are checked in a single batch request and all directory
+   * objects are created concurrently.
+   *
+   * <p>Directories that are ancestors of other directories in the list are not created, because
+   * they are inferred from their subdirectories, and directories that already exist are skipped.
+   *
+   * @param paths Paths of the directories to create.
+   * @throws IOException
+   */
+  public void mkdirs(List<URI> paths) throws IOException {
+    logger.atFiner().log("mkdirs(paths: %s)", paths);
+    Preconditions.checkNotNull(paths, "paths should not be null");
+
+    // Directory object names grouped by bucket and sorted, so that descendants of each directory
+    // immediately follow it.
+    Map<String, TreeSet<String>> bucketToDirNames = new TreeMap<>();
+    Set<String> bucketsToCreate = new LinkedHashSet<>();
+    for (URI path : paths) {
+      Preconditions.checkNotNull(path, "path should not be null");
+      StorageResourceId resourceId =
+          StorageResourceId.fromUriPath(path, /* allowEmptyObjectName= */ true);
+      if (resourceId.isBucket()) {
+        bucketsToCreate.add(resourceId.getBucketName());
+      } else if (resourceId.isStorageObject()) {
+        bucketToDirNames
+            .computeIfAbsent(resourceId.getBucketName(), b -> new TreeSet<>())
+            .add(resourceId.toDirectoryId().getObjectName());
+      }
+    }
+
+    for (String bucketName : bucketsToCreate) {
+      mkdirsInternal(new StorageResourceId(bucketName));
+    }
+
+    List<StorageResourceId> dirIds = new ArrayList<>();
+    for (Map.Entry<String, TreeSet<String>> bucketDirNames : bucketToDirNames.entrySet()) {
+      String bucketName = bucketDirNames.getKey();
+      // Skip directories that are ancestors of the following directory.
+      String prevDirName = null;
+      for (String dirName : bucketDirNames.getValue()) {
+        if (prevDirName != null && !dirName.startsWith(prevDirName)) {
+          dirIds.add(new StorageResourceId(bucketName, prevDirName));
+        }
+        prevDirName = dirName;
+      }
+      dirIds.add(new StorageResourceId(bucketName, prevDirName));
+    }
+
+    List<StorageResourceId> dirIdsToCreate =
+        options.isEnsureNoConflictingItems() ? checkNoFilesConflictingWithDirs(dirIds) : dirIds;
+
+    logger.atFiner().log("mkdirs: creating %s directory objects", dirIdsToCreate.size());
+    try {
+      gcs.createEmptyObjects(dirIdsToCreate);
+    } catch (FileAlreadyExistsException e) {
+      // This means that directory object already exist and we do not need to do anything.
+      logger.atFiner().withCause(e).log(
+          "mkdirs: %s already exists, ignoring creation failure", dirIdsToCreate);
+    }
+  }
+
+  /**
+   * Checks that there are no files that conflict with any of the given directories or their
+   * ancestors, sharing a single batch request for all of them, and returns directories that do not
+   * exist yet.
+   */
+  private List<StorageResourceId> checkNoFilesConflictingWithDirs(List<StorageResourceId> dirIds)
+      throws IOException {
+    // Conflicting file ids of the shared ancestors are checked only once.
+    Set<StorageResourceId> fileIds = new LinkedHashSet<>();
+    for (StorageResourceId dirId : dirIds) {
+      for (String subdir : getDirs(dirId.getObjectName())) {
+        if (isNullOrEmpty(subdir)) {
+          continue;
+        }
+        fileIds.add(new StorageResourceId(dirId.getBucketName(), StringPaths.toFilePath(subdir)));
+      }
+    }
+
+    List<StorageResourceId> resourceIds = new ArrayList<>(fileIds.size() + dirIds.size());
+    resourceIds.addAll(fileIds);
+    resourceIds.addAll(dirIds);
+    List<GoogleCloudStorageItemInfo> itemInfos = gcs.getItemInfos(resourceIds);
+
+    for (GoogleCloudStorageItemInfo fileInfo : itemInfos.subList(0, fileIds.size())) {
+      if (fileInfo.exists()) {
+        throw new FileAlreadyExistsException(
+            "Cannot create directories because of existing file: " + fileInfo.getResourceId());
+      }
+    }
+    return itemInfos.subList(fileIds.size(), itemInfos.size()).stream()
+        .filter(dirInfo -> !dirInfo.exists())
+        .map(GoogleCloudStorageItemInfo::getResourceId)
+        .collect(toImmutableList());
+  }
+
   private void mkdirsInternal(StorageResourceId resourceId) throws IOException {
     if (resourceId.isRoot()) {
       // GCS_ROOT directory always exists, no need to go through the rest of the method.
@@ -524,6 +791,8 @@ public class GoogleCloudStorageFileSystem {
     Preconditions.checkNotNull(src);
     Preconditions.checkNotNull(dst);
     checkArgument(!src.equals(GCS_ROOT), "Root path cannot be renamed.");
+    invalidateFooterCache(src);
+    invalidateFooterCache(dst);
 
     // Parent of the destination path.
     URI dstParent = UriPaths.getParentPath(dst);
@@ -713,6 +982,7 @@ public class GoogleCloudStorageFileSystem {
    */
   public void compose(List<URI> sources, URI destination, String contentType) throws IOException {
     StorageResourceId destResource = StorageResourceId.fromStringPath(destination.toString());
+    invalidateFooterCache(destination);
     List<String> sourceObjects =
         Lists.transform(
             sources, uri -> StorageResourceId.fromStringPath(uri.toString()).getObjectName());
@@ -732,6 +1002,13 @@ public class GoogleCloudStorageFileSystem {
     checkArgument(srcInfo.isDirectory(), "'%s' should be a directory", srcInfo);
     checkArgument(dst.toString().endsWith(PATH_DELIMITER), "'%s' should be a directory", dst);
 
+    // Cooperative locking persists the whole list of renamed items before rename, and marker items
+    // should be copied after and deleted before all other items, so both require phased rename.
+    if (!coopLockOp.isPresent() && options.getMarkerFilePattern() == null) {
+      renameDirectoryStreaming(srcInfo, dst);
+      return;
+    }
+
     URI src = srcInfo.getPath();
 
     // Mapping from each src to its respective dst.
@@ -799,6 +1076,28 @@ public class GoogleCloudStorageFileSystem {
     }
   }
 
+  /**
+   * Renames given directory page by page: objects in each listed page are copied and then deleted.
+   * This does not require to hold the whole listing in memory and overlaps listing, copy and
+   * delete requests.
+   */
+  private void renameDirectoryStreaming(FileInfo srcInfo, URI dst) throws IOException {
+    String prefix = srcInfo.getPath().toString();
+    processDirectoryStreaming(
+        srcInfo,
+        "renameDirectoryStreaming",
+        (items, lastPage) -> {
+          // Sort src items so that parent directories appear before their children.
+          Map<FileInfo, URI> srcToDstItemNames = new TreeMap<>(FILE_INFO_PATH_COMPARATOR);
+          for (FileInfo srcItemInfo : items) {
+            String relativeItemName = srcItemInfo.getPath().toString().substring(prefix.length());
+            srcToDstItemNames.put(srcItemInfo, dst.resolve(relativeItemName));
+          }
+          copyInternal(srcToDstItemNames);
+          return new ArrayList<>(srcToDstItemNames.keySet());
+        });
+  }
+
   /** Copies items in given map that maps source items to destination items. */
   private void copyInternal(Map<FileInfo, URI> srcToDstItemNames) throws IOException {
     if (srcToDstItemNames.isEmpty()) {
@@ -932,14 +1231,33 @@ public class GoogleCloudStorageFileSystem {
    */
   public ListPage<FileInfo> listFileInfoForPrefixPage(
       URI prefix, ListFileOptions listOptions, String pageToken) throws IOException {
+    return listFileInfoForPrefixPage(prefix, listOptions, /* recursive= */ true, pageToken);
+  }
+
+  /**
+   * Equivalent to {@link #listFileInfoForPrefixPage(URI, ListFileOptions, String)}, but if {@code
+   * recursive} is {@code false} then objects which names have a path delimiter after the {@code
+   * prefix} are not listed, instead their common name prefixes up to the delimiter are returned as
+   * inferred directories.
+   *
+   * @param prefix the prefix to use to list all matching objects.
+   * @param recursive whether to list objects "inside" of the directories that match the prefix
+   * @param pageToken the page token to list
+   */
+  public ListPage<FileInfo> listFileInfoForPrefixPage(
+      URI prefix, ListFileOptions listOptions, boolean recursive, String pageToken)
+      throws IOException {
     logger.atFiner().log(
-        "listAllFileInfoForPrefixPage(prefix: %s, pageToken:%s)", prefix, pageToken);
+        "listAllFileInfoForPrefixPage(prefix: %s, recursive: %s, pageToken:%s)",
+        prefix, recursive, pageToken);
     StorageResourceId prefixId = getPrefixId(prefix);
     ListPage<GoogleCloudStorageItemInfo> itemInfosPage =
         gcs.listObjectInfoPage(
             prefixId.getBucketName(),
             prefixId.getObjectName(),
-            updateListObjectOptions(ListObjectOptions.DEFAULT_FLAT_LIST, listOptions),
+            updateListObjectOptions(
+                recursive ? ListObjectOptions.DEFAULT_FLAT_LIST : ListObjectOptions.DEFAULT,
+                listOptions),
             pageToken);
     List<FileInfo> fileInfosPage = FileInfo.fromItemInfos(itemInfosPage.getItems());
     fileInfosPage.sort(FILE_INFO_PATH_COMPARATOR);
@@ -1024,6 +1342,74 @@ public class GoogleCloudStorageFileSystem {
     return fileInfos;
   }
 
+  /**
+   * Equivalent to {@link #listFileInfo} but returns {@link FileInfo}s listed by single request (1
+   * page).
+   *
+   * <p>If the given path points to a file then the returned page contains only information about
+   * this file and has no next page token.
+   *
+   * @param path Given path.
+   * @param pageToken the page token to list, or {@code null} to list the first page
+   * @return Page of information about a file or children of a directory.
+   * @throws FileNotFoundException if the given path does not exist.
+   */
+  public ListPage<FileInfo> listFileInfoPage(
+      URI path, ListFileOptions listOptions, String pageToken) throws IOException {
+    Preconditions.checkNotNull(path, "path can not be null");
+    logger.atFiner().log("listFileInfoPage(path: %s, pageToken: %s)", path, pageToken);
+
+    StorageResourceId pathId =
+        StorageResourceId.fromUriPath(path, /* allowEmptyObjectName= */ true);
+    StorageResourceId dirId = pathId.toDirectoryId();
+
+    if (dirId.isRoot()) {
+      return new ListPage<>(listFileInfo(path, listOptions), /* nextPageToken= */ null);
+    }
+
+    Future<ListPage<GoogleCloudStorageItemInfo>> dirItemInfosPageFuture =
+        (options.isStatusParallelEnabled() ? cachedExecutor : lazyExecutor)
+            .submit(
+                () ->
+                    gcs.listObjectInfoPage(
+                        dirId.getBucketName(),
+                        dirId.getObjectName(),
+                        updateListObjectOptions(LIST_FILE_INFO_LIST_OPTIONS, listOptions),
+                        pageToken));
+
+    // Only the first page of listing needs to be resolved against the file with the same name.
+    boolean firstPage = pageToken == null;
+    if (firstPage && !pathId.isDirectory()) {
+      try {
+        GoogleCloudStorageItemInfo pathInfo = gcs.getItemInfo(pathId);
+        if (pathInfo.exists()) {
+          List<FileInfo> listedInfo = new ArrayList<>();
+          listedInfo.add(FileInfo.fromItemInfo(pathInfo));
+          dirItemInfosPageFuture.cancel(/* mayInterruptIfRunning= */ true);
+          return new ListPage<>(listedInfo, /* nextPageToken= */ null);
+        }
+      } catch (Exception e) {
+        dirItemInfosPageFuture.cancel(/* mayInterruptIfRunning= */ true);
+        throw e;
+      }
+    }
+
+    ListPage<GoogleCloudStorageItemInfo> dirItemInfosPage = getFromFuture(dirItemInfosPageFuture);
+    List<GoogleCloudStorageItemInfo> dirItemInfos = new ArrayList<>(dirItemInfosPage.getItems());
+    if (firstPage
+        && pathId.isStorageObject()
+        && dirItemInfos.isEmpty()
+        && dirItemInfosPage.getNextPageToken() == null) {
+      throw new FileNotFoundException("Item not found: " + path);
+    }
+
+    dirItemInfos.removeIf(itemInfo -> Objects.equals(itemInfo.getResourceId(), dirId));
+
+    List<FileInfo> fileInfos = FileInfo.fromItemInfos(dirItemInfos);
+    fileInfos.sort(FILE_INFO_PATH_COMPARATOR);
+    return new ListPage<>(fileInfos, dirItemInfosPage.getNextPageToken());
+  }
+
   /**
    * Gets information about the given path item.
    *
@@ -30,6 +30,8 @@ public abstract class GoogleCloudStorageFileSystemOptions {
         .setCloudStorageOptions(GoogleCloudStorageOptions.DEFAULT)
         .setCooperativeLockingEnabled(false)
         .setEnsureNoConflictingItems(true)
+        .setFooterCacheMaxSize(0)
+        .setFooterCacheMaxEntryAgeMillis(5_000)
         .setMarkerFilePattern((String) null)
         .setPerformanceCacheEnabled(false)
         .setPerformanceCacheOptions(PerformanceCachingGoogleCloudStorageOptions.DEFAULT)
@@ -55,6 +57,10 @@ public abstract class GoogleCloudStorageFileSystemOptions {
 
   public abstract boolean isEnsureNoConflictingItems();
 
+  public abstract long getFooterCacheMaxSize();
+
+  public abstract long getFooterCacheMaxEntryAgeMillis();
+
   public void throwIfNotValid() {
     getCloudStorageOptions().throwIfNotValid();
   }
@@ -89,6 +95,19 @@ public abstract class GoogleCloudStorageFileSystemOptions {
 
     public abstract Builder setEnsureNoConflictingItems(boolean ensureNoConflictingItems);
 
+    /**
+     * Sets maximum size in bytes of the footers cached across {@link
+     * GoogleCloudStorageFileSystem#open} calls together with object metadata. Footer cache is
+     * disabled if this is set to 0.
+     */
+    public abstract Builder setFooterCacheMaxSize(long footerCacheMaxSize);
+
+    /**
+     * Sets how long object metadata is cached in the footer cache, objects overwritten outside of
+     * this process could be read at the old generation during this time.
+     */
+    public abstract Builder setFooterCacheMaxEntryAgeMillis(long footerCacheMaxEntryAgeMillis);
+
     public abstract GoogleCloudStorageFileSystemOptions build();
   }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Cache of object metadata and footers that survives across {@link
+ * GoogleCloudStorageFileSystem#open} calls, so repeated opens of the same object do not need to
+ * fetch metadata and footer again.
+ *
+ * <p>Object metadata is cached for a limited time, because objects can be overwritten outside of
+ * this process. Footers are cached per object generation and evicted only when cache size exceeds
+ * its limit.
+ */
+public class GoogleCloudStorageFooterCache {
+
+  /** Maximum number of object metadata entries stored in the cache. */
+  private static final long MAX_ITEM_INFO_ENTRIES = 10_000;
+
+  private final Cache<StorageResourceId, GoogleCloudStorageItemInfo> itemInfos;
+  private final Cache<FooterKey, byte[]> footers;
+
+  public GoogleCloudStorageFooterCache(long maxFooterSize, Duration maxItemInfoAge) {
+    this(maxFooterSize, maxItemInfoAge, Ticker.systemTicker());
+  }
+
+  GoogleCloudStorageFooterCache(long maxFooterSize, Duration maxItemInfoAge, Ticker ticker) {
+    checkArgument(maxFooterSize > 0, "maxFooterSize must be positive, but was %s", maxFooterSize);
+    this.itemInfos =
+        CacheBuilder.newBuilder()
+            .maximumSize(MAX_ITEM_INFO_ENTRIES)
+            .expireAfterWrite(maxItemInfoAge.toMillis(), TimeUnit.MILLISECONDS)
+            .ticker(ticker)
+            .build();
+    this.footers =
+        CacheBuilder.newBuilder()
+            // Use single segment, so the size limit is not split between segments.
+            .concurrencyLevel(1)
+            .maximumWeight(maxFooterSize)
+            .<FooterKey, byte[]>weigher((key, footer) -> footer.length)
+            .build();
+  }
+
+  /** Returns cached metadata of the object or {@code null} if it is not cached. */
+  @Nullable
+  public GoogleCloudStorageItemInfo getItemInfo(StorageResourceId resourceId) {
+    // Metadata of the specific object generation is not cached.
+    return resourceId.hasGenerationId() ? null : itemInfos.getIfPresent(resourceId);
+  }
+
+  /** Caches metadata of the existing object. */
+  public void putItemInfo(GoogleCloudStorageItemInfo itemInfo) {
+    checkArgument(
+        itemInfo.exists() && itemInfo.getResourceId().isStorageObject(),
+        "itemInfo should be existing object, but was %s",
+        itemInfo);
+    itemInfos.put(itemInfo.getResourceId(), itemInfo);
+  }
+
+  /**
+   * Returns cached footer of the object generation or {@code null} if it is not cached. Footer
+   * contains the last bytes of the object.
+   */
+  @Nullable
+  public byte[] getFooter(StorageResourceId resourceId, long generation) {
+    return footers.getIfPresent(
+        new FooterKey(resourceId.getBucketName(), resourceId.getObjectName(), generation));
+  }
+
+  /** Caches footer, i.e. the last bytes, of the object generation. */
+  public void putFooter(StorageResourceId resourceId, long generation, byte[] footer) {
+    footers.put(
+        new FooterKey(resourceId.getBucketName(), resourceId.getObjectName(), generation), footer);
+  }
+
+  /** Removes cached metadata of the object. */
+  public void invalidate(StorageResourceId resourceId) {
+    itemInfos.invalidate(resourceId);
+  }
+
+  /** Removes cached metadata of all objects in the bucket that have the specified name prefix. */
+  public void invalidatePrefix(String bucketName, String objectNamePrefix) {
+    itemInfos
+        .asMap()
+        .keySet()
+        .removeIf(
+            id ->
+                id.getBucketName().equals(bucketName)
+                    && id.getObjectName().startsWith(objectNamePrefix));
+  }
+
+  private static final class FooterKey {
+    private final String bucketName;
+    private final String objectName;
+    private final long generation;
+
+    FooterKey(String bucketName, String objectName, long generation) {
+      this.bucketName = bucketName;
+      this.objectName = objectName;
+      this.generation = generation;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof FooterKey)) {
+        return false;
+      }
+      FooterKey that = (FooterKey) o;
+      return generation == that.generation
+          && bucketName.equals(that.bucketName)
+          && objectName.equals(that.objectName);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(bucketName, objectName, generation);
+    }
+  }
+}
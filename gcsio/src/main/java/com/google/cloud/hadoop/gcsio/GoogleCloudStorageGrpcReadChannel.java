@@ -31,23 +31,40 @@ import com.google.cloud.hadoop.util.RetryDeterminer;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.flogger.GoogleLogger;
+import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
+import com.google.google.storage.v1.ChecksummedData;
 import com.google.google.storage.v1.GetObjectMediaRequest;
 import com.google.google.storage.v1.GetObjectMediaResponse;
+import com.google.google.storage.v1.StorageGrpc;
 import com.google.google.storage.v1.StorageGrpc.StorageBlockingStub;
+import com.google.google.storage.v1.StorageGrpc.StorageStub;
 import com.google.protobuf.ByteString;
+import io.grpc.ClientCall;
 import io.grpc.Context;
 import io.grpc.Context.CancellableContext;
+import io.grpc.MethodDescriptor;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.ClientResponseObserver;
 import java.io.EOFException;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SeekableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.OptionalLong;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.annotation.Nullable;
 
 public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
@@ -55,8 +72,38 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
   private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
   protected static final String METADATA_FIELDS = "contentEncoding,generation,size";
 
+  // GetObjectMedia method that parses responses without copying media content.
+  private static final MethodDescriptor<GetObjectMediaRequest, GetObjectMediaResponse>
+      GET_OBJECT_MEDIA_ZERO_COPY_METHOD =
+          StorageGrpc.getGetObjectMediaMethod().toBuilder()
+              .setResponseMarshaller(
+                  new ZeroCopyMessageMarshaller<>(GetObjectMediaResponse.getDefaultInstance()))
+              .build();
+
+  // A set that defines all transient errors on which retry can be attempted.
+  private static final ImmutableSet<Status.Code> TRANSIENT_ERRORS =
+      ImmutableSet.of(
+          Status.Code.DEADLINE_EXCEEDED,
+          Status.Code.INTERNAL,
+          Status.Code.RESOURCE_EXHAUSTED,
+          Status.Code.UNAVAILABLE);
+
+  // Retries reads that failed with transient errors, but not missing objects or corrupted data.
+  private static final RetryDeterminer<Exception> TRANSIENT_ERRORS_RETRY_DETERMINER =
+      e -> TRANSIENT_ERRORS.contains(Status.fromThrowable(e).getCode());
+
+  // Number of responses of a read-ahead range stream that are received before they are read. Server
+  // sends up to 2 MiB of object content per response, so this bounds memory used by each range.
+  private static final int READ_AHEAD_RANGE_BUFFERED_RESPONSES = 2;
+
+  // Marks the end of a read-ahead range stream, compared by identity.
+  private static final ByteString END_OF_STREAM = ByteString.copyFromUtf8("END_OF_STREAM");
+
   private volatile StorageBlockingStub stub;
 
+  // Stub for asynchronous read-ahead range streams, created on first use.
+  @Nullable private volatile StorageStub asyncStub;
+
   private final StorageStubProvider stubProvider;
 
   private final StorageResourceId resourceId;
@@ -106,6 +153,16 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
   // Offset in the object for the end of the range-requests
   private long contentChannelEndOffset = -1;
 
+  // Process-wide cache of object data blocks, null if block cache is disabled.
+  @Nullable private final GoogleCloudStorageBlockCache blockCache;
+
+  // Tracks recent reads to detect access pattern, null if fadvise mode is not ADAPTIVE.
+  @Nullable private final ReadPatternTracker readPatternTracker;
+
+  // Object ranges that are streamed asynchronously ahead of the read position, ordered by offset,
+  // null if asynchronous reads are disabled.
+  @Nullable private final Deque<ReadAheadRange> readAheadRanges;
+
   public static GoogleCloudStorageGrpcReadChannel open(
       StorageStubProvider stubProvider,
       Storage storage,
@@ -117,6 +174,29 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
         BackOffFactory.DEFAULT);
   }
 
+  /**
+   * Opens channel for the object with already known {@code itemInfo}, footer of the object is
+   * looked up in and stored to the {@code footerCache}.
+   */
+  public static GoogleCloudStorageGrpcReadChannel open(
+      StorageStubProvider stubProvider,
+      Storage storage,
+      ApiErrorExtractor errorExtractor,
+      GoogleCloudStorageItemInfo itemInfo,
+      GoogleCloudStorageReadOptions readOptions,
+      @Nullable GoogleCloudStorageFooterCache footerCache)
+      throws IOException {
+    return open(
+        stubProvider,
+        storage,
+        errorExtractor,
+        itemInfo.getResourceId(),
+        itemInfo,
+        readOptions,
+        footerCache,
+        BackOffFactory.DEFAULT);
+  }
+
   @VisibleForTesting
   static GoogleCloudStorageGrpcReadChannel open(
       StorageStubProvider stubProvider,
@@ -126,13 +206,42 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
       GoogleCloudStorageReadOptions readOptions,
       BackOffFactory backOffFactory)
       throws IOException {
+    return open(
+        stubProvider,
+        storage,
+        errorExtractor,
+        resourceId,
+        /* itemInfo= */ null,
+        readOptions,
+        /* footerCache= */ null,
+        backOffFactory);
+  }
+
+  private static GoogleCloudStorageGrpcReadChannel open(
+      StorageStubProvider stubProvider,
+      Storage storage,
+      ApiErrorExtractor errorExtractor,
+      StorageResourceId resourceId,
+      @Nullable GoogleCloudStorageItemInfo itemInfo,
+      GoogleCloudStorageReadOptions readOptions,
+      @Nullable GoogleCloudStorageFooterCache footerCache,
+      BackOffFactory backOffFactory)
+      throws IOException {
     // The gRPC API's GetObjectMedia call does not provide a generation number, so to ensure
     // consistent reads, we need to begin by checking the current generation number with a separate
     // call.
     try {
       return ResilientOperation.retry(
-          () -> openChannel(stubProvider, storage, errorExtractor, resourceId, readOptions,
-              backOffFactory),
+          () ->
+              openChannel(
+                  stubProvider,
+                  storage,
+                  errorExtractor,
+                  resourceId,
+                  itemInfo,
+                  readOptions,
+                  footerCache,
+                  backOffFactory),
           backOffFactory.newBackOff(),
           RetryDeterminer.ALL_ERRORS,
           IOException.class);
@@ -146,14 +255,18 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
       Storage storage,
       ApiErrorExtractor errorExtractor,
       StorageResourceId resourceId,
+      @Nullable GoogleCloudStorageItemInfo knownItemInfo,
       GoogleCloudStorageReadOptions readOptions,
+      @Nullable GoogleCloudStorageFooterCache footerCache,
       BackOffFactory backOffFactory) throws IOException {
     StorageBlockingStub stub = stubProvider.newBlockingStub();
     // TODO(b/135138893): We can avoid this call by adding metadata to a read request.
     //      That will save about 40ms per read.
     Preconditions.checkArgument(storage != null, "GCS json client cannot be null");
-    GoogleCloudStorageItemInfo itemInfo = getObjectMetadata(resourceId,
-        errorExtractor, backOffFactory, storage);
+    GoogleCloudStorageItemInfo itemInfo =
+        knownItemInfo != null
+            ? knownItemInfo
+            : getObjectMetadata(resourceId, errorExtractor, backOffFactory, storage);
     Preconditions.checkArgument(itemInfo != null, "object metadata cannot be null");
     // The non-gRPC read channel has special support for gzip. This channel doesn't
     // decompress gzip-encoded objects on the fly, so best to fail fast rather than return
@@ -164,10 +277,28 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
           "Cannot read GZIP encoded files - content encoding support is disabled.");
     }
 
-    int prefetchSizeInBytes = readOptions.getMinRangeRequestSize() / 2;
-    long footerOffsetInBytes = Math.max(0, (itemInfo.getSize() - prefetchSizeInBytes));
-
-    ByteString footerContent = getFooterContent(resourceId, readOptions, stub, footerOffsetInBytes);
+    byte[] cachedFooter =
+        footerCache == null
+            ? null
+            : footerCache.getFooter(resourceId, itemInfo.getContentGeneration());
+    long footerOffsetInBytes;
+    ByteString footerContent;
+    if (cachedFooter != null) {
+      logger.atFiner().log(
+          "Using %s bytes cached footer for '%s'", cachedFooter.length, resourceId);
+      footerOffsetInBytes = itemInfo.getSize() - cachedFooter.length;
+      footerContent = ByteString.copyFrom(cachedFooter);
+    } else {
+      int prefetchSizeInBytes = readOptions.getMinRangeRequestSize() / 2;
+      footerOffsetInBytes = Math.max(0, (itemInfo.getSize() - prefetchSizeInBytes));
+      footerContent = getFooterContent(resourceId, readOptions, stub, footerOffsetInBytes);
+      if (footerCache != null
+          && footerContent != null
+          && footerContent.size() == itemInfo.getSize() - footerOffsetInBytes) {
+        footerCache.putFooter(
+            resourceId, itemInfo.getContentGeneration(), footerContent.toByteArray());
+      }
+    }
 
     return new GoogleCloudStorageGrpcReadChannel(
         stub,
@@ -232,13 +363,15 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
       GoogleCloudStorageReadOptions readOptions, StorageBlockingStub stub, long footerOffset)
       throws IOException {
     try {
-      Iterator<GetObjectMediaResponse> footerContentResponse = stub
-          .withDeadlineAfter(readOptions.getGrpcReadTimeoutMillis(), MILLISECONDS)
-          .getObjectMedia(GetObjectMediaRequest.newBuilder()
-              .setReadOffset(footerOffset)
-              .setBucket(resourceId.getBucketName())
-              .setObject(resourceId.getObjectName())
-              .build());
+      Iterator<GetObjectMediaResponse> footerContentResponse =
+          getObjectMedia(
+              stub,
+              readOptions,
+              GetObjectMediaRequest.newBuilder()
+                  .setReadOffset(footerOffset)
+                  .setBucket(resourceId.getBucketName())
+                  .setObject(resourceId.getObjectName())
+                  .build());
 
       ByteString footerContent = null;
       while (footerContentResponse.hasNext()) {
@@ -265,6 +398,25 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
     }
   }
 
+  /**
+   * Starts streaming object media, parsing responses with the {@link ZeroCopyMessageMarshaller} if
+   * it is enabled.
+   */
+  private static Iterator<GetObjectMediaResponse> getObjectMedia(
+      StorageBlockingStub stub,
+      GoogleCloudStorageReadOptions readOptions,
+      GetObjectMediaRequest request) {
+    StorageBlockingStub deadlineStub =
+        stub.withDeadlineAfter(readOptions.getGrpcReadTimeoutMillis(), MILLISECONDS);
+    return readOptions.isGrpcReadZeroCopyEnabled()
+        ? ClientCalls.blockingServerStreamingCall(
+            deadlineStub.getChannel(),
+            GET_OBJECT_MEDIA_ZERO_COPY_METHOD,
+            deadlineStub.getCallOptions(),
+            request)
+        : deadlineStub.getObjectMedia(request);
+  }
+
   private GoogleCloudStorageGrpcReadChannel(
       StorageBlockingStub gcsGrpcBlockingStub,
       StorageStubProvider stubProvider,
@@ -285,6 +437,18 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
     this.readStrategy = readOptions.getFadvise();
     this.footerStartOffsetInBytes = footerStartOffsetInBytes;
     this.footerContent = footerContent;
+    this.blockCache =
+        readOptions.getBlockCacheMaxSize() > 0
+            ? GoogleCloudStorageBlockCache.getShared(readOptions)
+            : null;
+    this.readPatternTracker =
+        readOptions.getFadvise() == Fadvise.ADAPTIVE
+            ? new ReadPatternTracker(
+                readOptions.getAdaptiveFadviseWindowSize(),
+                readOptions.getInplaceSeekLimit(),
+                readOptions.getAdaptiveFadviseMaxRangeRequestSize())
+            : null;
+    this.readAheadRanges = readOptions.getGrpcReadAheadWindowSize() > 0 ? new ArrayDeque<>() : null;
   }
 
   private static IOException convertError(
@@ -348,6 +512,18 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
       throw new ClosedChannelException();
     }
 
+    if (blockCache != null) {
+      return readWithBlockCache(byteBuffer);
+    }
+
+    if (readPatternTracker != null) {
+      readPatternTracker.recordRead(position(), byteBuffer.remaining());
+    }
+
+    if (readAheadRanges != null) {
+      return readWithReadAhead(byteBuffer);
+    }
+
     int bytesRead = 0;
 
     if (resIterator != null && isByteBufferBeyondCurrentRequestRange(byteBuffer)) {
@@ -404,6 +580,187 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
     return bytesRead;
   }
 
+  /** Serves read from the process-wide block cache, loading missing blocks from GCS. */
+  private int readWithBlockCache(ByteBuffer byteBuffer) throws IOException {
+    long effectivePosition = positionInGrpcStream + bytesToSkipBeforeReading;
+    if (effectivePosition == objectSize) {
+      return -1;
+    }
+    int bytesRead = 0;
+    while (byteBuffer.hasRemaining() && effectivePosition < objectSize) {
+      long blockIndex = effectivePosition / blockCache.getBlockSize();
+      ByteBuffer block =
+          blockCache.getBlock(
+              resourceId, objectGeneration, blockIndex, objectSize, this::readBlockFromGcs);
+      int blockOffset = Math.toIntExact(effectivePosition - blockIndex * blockCache.getBlockSize());
+      int bytesToWrite = min(byteBuffer.remaining(), block.limit() - blockOffset);
+      block.position(blockOffset);
+      block.limit(blockOffset + bytesToWrite);
+      byteBuffer.put(block);
+      effectivePosition += bytesToWrite;
+      bytesRead += bytesToWrite;
+    }
+    positionInGrpcStream = effectivePosition;
+    bytesToSkipBeforeReading = 0;
+    return bytesRead;
+  }
+
+  private ByteBuffer readBlockFromGcs(long offset, int length) throws IOException {
+    GetObjectMediaRequest request =
+        GetObjectMediaRequest.newBuilder()
+            .setBucket(resourceId.getBucketName())
+            .setObject(resourceId.getObjectName())
+            .setGeneration(objectGeneration)
+            .setReadOffset(offset)
+            .setReadLimit(length)
+            .build();
+    try {
+      return ResilientOperation.retry(
+          () -> {
+            ByteBuffer block = ByteBuffer.allocate(length);
+            try {
+              Iterator<GetObjectMediaResponse> responses =
+                  getObjectMedia(stub, readOptions, request);
+              while (responses.hasNext()) {
+                GetObjectMediaResponse res = responses.next();
+                if (readOptions.isGrpcChecksumsEnabled() && res.getChecksummedData().hasCrc32C()) {
+                  validateChecksum(res.getChecksummedData());
+                }
+                ByteString content = res.getChecksummedData().getContent();
+                put(content, 0, min(content.size(), block.remaining()), block);
+              }
+            } catch (StatusRuntimeException e) {
+              recreateStub(e);
+              throw convertError(e, resourceId);
+            }
+            block.flip();
+            return block;
+          },
+          backOffFactory.newBackOff(),
+          TRANSIENT_ERRORS_RETRY_DETERMINER,
+          IOException.class);
+    } catch (FileNotFoundException | EOFException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(
+          String.format("Error reading %s bytes at %s offset of '%s'", length, offset, resourceId),
+          e);
+    }
+  }
+
+  /**
+   * Serves read from the object ranges that are streamed asynchronously ahead of the read position.
+   * New range stream is started only if the read position is outside of already streamed ranges.
+   */
+  private int readWithReadAhead(ByteBuffer byteBuffer) throws IOException {
+    positionInGrpcStream += bytesToSkipBeforeReading;
+    bytesToSkipBeforeReading = 0;
+    if (positionInGrpcStream == objectSize) {
+      return -1;
+    }
+    // Footer is already prefetched, so ranges are streamed only up to its start.
+    long readAheadLimit = footerContent == null ? objectSize : footerStartOffsetInBytes;
+    int bytesRead = 0;
+    while (byteBuffer.hasRemaining() && positionInGrpcStream < readAheadLimit) {
+      ReadAheadRange range = getReadAheadRange(byteBuffer.remaining(), readAheadLimit);
+      int rangeBytesRead = range.read(byteBuffer);
+      positionInGrpcStream += rangeBytesRead;
+      bytesRead += rangeBytesRead;
+    }
+    if (hasMoreFooterContentToRead(byteBuffer)) {
+      bytesRead += readFooterContentIntoBuffer(byteBuffer);
+    }
+    fillReadAheadWindow(readAheadLimit);
+    return bytesRead;
+  }
+
+  /**
+   * Returns read-ahead range positioned at the current read position. Ranges that end before the
+   * read position are cancelled, and a new range is started if none of the ranges contains it or
+   * if the range can not be skipped to the read position cheaply.
+   */
+  private ReadAheadRange getReadAheadRange(int bytesToRead, long readAheadLimit)
+      throws IOException {
+    while (!readAheadRanges.isEmpty()) {
+      ReadAheadRange range = readAheadRanges.peekFirst();
+      if (range.readOffset > positionInGrpcStream) {
+        // Backward seek, the data was already read and discarded
+        cancelReadAheadRanges();
+        break;
+      }
+      if (positionInGrpcStream < range.endOffset) {
+        if (!range.canSkipTo(positionInGrpcStream)) {
+          // Far forward seek, start a new stream instead of streaming the skipped bytes
+          cancelReadAheadRanges();
+          break;
+        }
+        // Serve forward seek within range from the already received data
+        range.skipTo(positionInGrpcStream);
+        return range;
+      }
+      readAheadRanges.removeFirst().cancel();
+    }
+    long rangeSize = max(bytesToRead, getReadAheadRangeSize());
+    ReadAheadRange range =
+        new ReadAheadRange(
+            positionInGrpcStream, min(readAheadLimit, positionInGrpcStream + rangeSize));
+    readAheadRanges.addLast(range);
+    return range;
+  }
+
+  /**
+   * Returns the size of the read-ahead ranges. In random access mode ranges are large enough to
+   * coalesce neighbouring reads into a single stream, similar to the range requests of the blocking
+   * reads.
+   */
+  private long getReadAheadRangeSize() {
+    if (!isRandomAccess()) {
+      return readOptions.getMinRangeRequestSize();
+    }
+    long rangeSize = max(readOptions.getInplaceSeekLimit(), readOptions.getMinRangeRequestSize());
+    return readPatternTracker == null
+        ? rangeSize
+        : max(rangeSize, readPatternTracker.getAverageRunLength());
+  }
+
+  /** Starts streams of the ranges that follow the last read-ahead range until window is full. */
+  private void fillReadAheadWindow(long readAheadLimit) {
+    while (!readAheadRanges.isEmpty()
+        && readAheadRanges.peekFirst().readOffset == readAheadRanges.peekFirst().endOffset) {
+      readAheadRanges.removeFirst();
+    }
+    if (isRandomAccess()) {
+      return;
+    }
+    long rangeStart =
+        readAheadRanges.isEmpty() ? positionInGrpcStream : readAheadRanges.peekLast().endOffset;
+    while (readAheadRanges.size() < readOptions.getGrpcReadAheadWindowSize()
+        && rangeStart < readAheadLimit) {
+      long rangeEnd = min(readAheadLimit, rangeStart + readOptions.getMinRangeRequestSize());
+      readAheadRanges.addLast(new ReadAheadRange(rangeStart, rangeEnd));
+      rangeStart = rangeEnd;
+    }
+  }
+
+  private boolean isRandomAccess() {
+    return readStrategy == Fadvise.RANDOM
+        || (readPatternTracker != null && readPatternTracker.isRandomAccess());
+  }
+
+  private void cancelReadAheadRanges() {
+    if (readAheadRanges != null) {
+      readAheadRanges.forEach(ReadAheadRange::cancel);
+      readAheadRanges.clear();
+    }
+  }
+
+  private StorageStub getAsyncStub() {
+    if (asyncStub == null) {
+      asyncStub = stubProvider.newAsyncStub();
+    }
+    return asyncStub;
+  }
+
   private boolean isByteBufferBeyondCurrentRequestRange(ByteBuffer byteBuffer) {
     long effectivePosition = positionInGrpcStream + bytesToSkipBeforeReading;
     // current request does not have a range or this is the first request
@@ -430,7 +787,7 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
       }
 
       if (readOptions.isGrpcChecksumsEnabled() && res.getChecksummedData().hasCrc32C()) {
-        validateChecksum(res);
+        validateChecksum(res.getChecksummedData());
       }
 
       boolean responseSizeLargerThanRemainingBuffer = content.size() > byteBuffer.remaining();
@@ -448,11 +805,15 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
     return bytesRead;
   }
 
-  private void validateChecksum(GetObjectMediaResponse res) throws IOException {
+  private void validateChecksum(ChecksummedData checksummedData) throws IOException {
     // TODO: Concatenate all these hashes together and compare the result at the end.
-    int calculatedChecksum =
-        Hashing.crc32c().hashBytes(res.getChecksummedData().getContent().toByteArray()).asInt();
-    int expectedChecksum = res.getChecksummedData().getCrc32C().getValue();
+    // Hash content buffers in place to avoid copying content into a byte array.
+    Hasher hasher = Hashing.crc32c().newHasher();
+    for (ByteBuffer contentPiece : checksummedData.getContent().asReadOnlyByteBufferList()) {
+      hasher.putBytes(contentPiece);
+    }
+    int calculatedChecksum = hasher.hash().asInt();
+    int expectedChecksum = checksummedData.getCrc32C().getValue();
     if (calculatedChecksum != expectedChecksum) {
       throw new IOException(
           String.format(
@@ -469,9 +830,13 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
 
   private OptionalLong getBytesToRead(ByteBuffer byteBuffer) {
     OptionalLong optionalBytesToRead = OptionalLong.empty();
-    if (readStrategy == Fadvise.RANDOM) {
+    if (readStrategy == Fadvise.RANDOM
+        || (readPatternTracker != null && readPatternTracker.isRandomAccess())) {
       long rangeRequestSize = Math
           .max(readOptions.getInplaceSeekLimit(), readOptions.getMinRangeRequestSize());
+      if (readPatternTracker != null) {
+        rangeRequestSize = max(rangeRequestSize, readPatternTracker.getAverageRunLength());
+      }
       optionalBytesToRead = OptionalLong
           .of(max((long) byteBuffer.remaining(), rangeRequestSize));
     }
@@ -514,9 +879,7 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
               requestContext = Context.current().withCancellation();
               Context toReattach = requestContext.attach();
               try {
-                resIterator =
-                    stub.withDeadlineAfter(readOptions.getGrpcReadTimeoutMillis(), MILLISECONDS)
-                        .getObjectMedia(request);
+                resIterator = getObjectMedia(stub, readOptions, request);
               } finally {
                 requestContext.detach(toReattach);
               }
@@ -582,6 +945,9 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
   private void recreateStub(StatusRuntimeException e) {
     if (stubProvider.isStubBroken(Status.fromThrowable(e).getCode())) {
       stub = stubProvider.newBlockingStub();
+      if (asyncStub != null) {
+        asyncStub = stubProvider.newAsyncStub();
+      }
     }
   }
 
@@ -660,6 +1026,7 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
   @Override
   public void close() {
     cancelCurrentRequest();
+    cancelReadAheadRanges();
     channelIsOpen = false;
   }
 
@@ -670,4 +1037,214 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
         .add("generation", objectGeneration)
         .toString();
   }
+
+  /**
+   * Object range that is streamed asynchronously, received content is buffered until it is read.
+   * Responses are requested from the server as they are read, so only a few responses are buffered.
+   * If the stream fails with a transient error, it is restarted from the current read offset.
+   */
+  private class ReadAheadRange {
+
+    private final long endOffset;
+
+    // Offset in the object of the next byte that will be read from this range.
+    private long readOffset;
+
+    // Partially read content of the last response.
+    private ByteString content = ByteString.EMPTY;
+
+    private int contentReadOffset = 0;
+
+    // Content received by the current stream, followed by END_OF_STREAM when the stream is closed.
+    private BlockingQueue<ByteString> receivedContent;
+
+    // Error of the current stream, null if the stream did not fail.
+    private AtomicReference<Throwable> streamError;
+
+    private ClientCall<GetObjectMediaRequest, GetObjectMediaResponse> call;
+
+    ReadAheadRange(long startOffset, long endOffset) {
+      this.readOffset = startOffset;
+      this.endOffset = endOffset;
+      startStream();
+    }
+
+    private void startStream() {
+      BlockingQueue<ByteString> received = new LinkedBlockingQueue<>();
+      AtomicReference<Throwable> error = new AtomicReference<>();
+      StorageStub stub = getAsyncStub();
+      ClientCall<GetObjectMediaRequest, GetObjectMediaResponse> newCall =
+          stub.getChannel()
+              .newCall(
+                  readOptions.isGrpcReadZeroCopyEnabled()
+                      ? GET_OBJECT_MEDIA_ZERO_COPY_METHOD
+                      : StorageGrpc.getGetObjectMediaMethod(),
+                  stub.getCallOptions()
+                      .withDeadlineAfter(readOptions.getGrpcReadTimeoutMillis(), MILLISECONDS));
+      receivedContent = received;
+      streamError = error;
+      call = newCall;
+
+      GetObjectMediaRequest request =
+          GetObjectMediaRequest.newBuilder()
+              .setBucket(resourceId.getBucketName())
+              .setObject(resourceId.getObjectName())
+              .setGeneration(objectGeneration)
+              .setReadOffset(readOffset)
+              .setReadLimit(endOffset - readOffset)
+              .build();
+      ClientCalls.asyncServerStreamingCall(
+          newCall,
+          request,
+          new ClientResponseObserver<GetObjectMediaRequest, GetObjectMediaResponse>() {
+            @Override
+            public void beforeStart(ClientCallStreamObserver<GetObjectMediaRequest> requestStream) {
+              // More responses are requested when received content is read
+              requestStream.disableAutoRequestWithInitial(READ_AHEAD_RANGE_BUFFERED_RESPONSES);
+            }
+
+            @Override
+            public void onNext(GetObjectMediaResponse response) {
+              if (error.get() != null) {
+                return;
+              }
+              ChecksummedData data = response.getChecksummedData();
+              if (readOptions.isGrpcChecksumsEnabled() && data.hasCrc32C()) {
+                try {
+                  validateChecksum(data);
+                } catch (IOException e) {
+                  error.set(e);
+                  newCall.cancel("Checksum validation failed", e);
+                  return;
+                }
+              }
+              if (data.getContent().isEmpty()) {
+                newCall.request(1);
+              } else {
+                received.add(data.getContent());
+              }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+              error.compareAndSet(null, t);
+              received.add(END_OF_STREAM);
+            }
+
+            @Override
+            public void onCompleted() {
+              received.add(END_OF_STREAM);
+            }
+          });
+    }
+
+    /** Reads available content of this range, waiting for it if nothing was received yet. */
+    int read(ByteBuffer byteBuffer) throws IOException {
+      if (contentReadOffset == content.size()) {
+        nextContent();
+      }
+      int bytesToWrite = min(byteBuffer.remaining(), content.size() - contentReadOffset);
+      put(content, contentReadOffset, bytesToWrite, byteBuffer);
+      contentReadOffset += bytesToWrite;
+      readOffset += bytesToWrite;
+      return bytesToWrite;
+    }
+
+    /**
+     * Returns true if this range can be skipped to the position without streaming more than {@link
+     * GoogleCloudStorageReadOptions#getInplaceSeekLimit()} bytes that were not received yet.
+     */
+    boolean canSkipTo(long position) {
+      long bytesToSkip = position - readOffset;
+      if (bytesToSkip <= readOptions.getInplaceSeekLimit()) {
+        return true;
+      }
+      long bufferedBytes = content.size() - contentReadOffset;
+      for (ByteString received : receivedContent) {
+        if (received != END_OF_STREAM) {
+          bufferedBytes += received.size();
+        }
+      }
+      return bytesToSkip <= bufferedBytes;
+    }
+
+    /** Skips content of this range up to the position, waiting for it if it was not received. */
+    void skipTo(long position) throws IOException {
+      while (readOffset < position) {
+        if (contentReadOffset == content.size()) {
+          nextContent();
+        }
+        int bytesToSkip = (int) min(position - readOffset, content.size() - contentReadOffset);
+        contentReadOffset += bytesToSkip;
+        readOffset += bytesToSkip;
+      }
+    }
+
+    void cancel() {
+      call.cancel("Read-ahead range is not needed", /* cause= */ null);
+    }
+
+    private void nextContent() throws IOException {
+      try {
+        content =
+            ResilientOperation.retry(
+                () -> {
+                  ByteString next = takeReceivedContent();
+                  if (next != END_OF_STREAM) {
+                    return next;
+                  }
+                  IOException error = getStreamError();
+                  if (TRANSIENT_ERRORS_RETRY_DETERMINER.shouldRetry(error)) {
+                    // Restart stream from the read offset to retry
+                    startStream();
+                  }
+                  throw error;
+                },
+                backOffFactory.newBackOff(),
+                TRANSIENT_ERRORS_RETRY_DETERMINER,
+                IOException.class);
+        contentReadOffset = 0;
+      } catch (FileNotFoundException | EOFException e) {
+        cancel();
+        throw e;
+      } catch (Exception e) {
+        cancel();
+        throw new IOException(
+            String.format("Error reading '%s' at %s offset", resourceId, readOffset), e);
+      }
+    }
+
+    private ByteString takeReceivedContent() throws InterruptedIOException {
+      ByteString next;
+      try {
+        next = receivedContent.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw (InterruptedIOException)
+            new InterruptedIOException("Interrupted while waiting for object content")
+                .initCause(e);
+      }
+      if (next != END_OF_STREAM) {
+        // Replace the response that was taken from the buffer
+        call.request(1);
+      }
+      return next;
+    }
+
+    private IOException getStreamError() {
+      Throwable error = streamError.get();
+      if (error instanceof StatusRuntimeException) {
+        recreateStub((StatusRuntimeException) error);
+        return convertError((StatusRuntimeException) error, resourceId);
+      }
+      if (error instanceof IOException) {
+        return (IOException) error;
+      }
+      return new IOException(
+          String.format(
+              "Stream of '%s' ended at %s offset before the end of range at %s offset",
+              resourceId, readOffset, endOffset),
+          error);
+    }
+  }
 }
@@ -43,21 +43,25 @@ import com.google.google.storage.v1.StorageGrpc.StorageStub;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.Int64Value;
 import com.google.protobuf.UInt32Value;
+import com.google.protobuf.UnsafeByteOperations;
 import com.google.protobuf.util.Timestamps;
 import io.grpc.Status;
 import io.grpc.stub.ClientCallStreamObserver;
 import io.grpc.stub.ClientResponseObserver;
 import io.grpc.stub.StreamObserver;
-import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Map;
-import java.util.TreeMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /** Implements WritableByteChannel to provide write access to GCS via gRPC. */
 public final class GoogleCloudStorageGrpcWriteChannel
@@ -155,19 +159,19 @@ public final class GoogleCloudStorageGrpcWriteChannel
   private class UploadOperation implements Callable<Object> {
 
     // Read end of the pipe.
-    private final BufferedInputStream pipeSource;
+    private final InputStream pipeSource;
     private final int MAX_BYTES_PER_MESSAGE = MAX_WRITE_CHUNK_BYTES.getNumber();
 
     private Hasher objectHasher;
     private String uploadId;
     private long writeOffset = 0;
     private InsertChunkResponseObserver responseObserver;
-    // Holds list of most recent number of NUMBER_OF_REQUESTS_TO_RETAIN requests, so upload can be
-    // rewound and re-sent upon transient errors.
-    private final TreeMap<Long, ByteString> dataChunkMap = new TreeMap<>();
+    // Ring buffer of the most recent number of NUMBER_OF_REQUESTS_TO_RETAIN sent requests, so upload
+    // can be rewound and re-sent upon transient errors.
+    private final Deque<InsertObjectRequest> bufferedRequests = new ArrayDeque<>();
 
     UploadOperation(InputStream pipeSource) {
-      this.pipeSource = new BufferedInputStream(pipeSource, MAX_BYTES_PER_MESSAGE);
+      this.pipeSource = pipeSource;
       if (channelOptions.isGrpcChecksumsEnabled()) {
         objectHasher = Hashing.crc32c().newHasher();
       }
@@ -203,35 +207,29 @@ public final class GoogleCloudStorageGrpcWriteChannel
           stub.withDeadlineAfter(channelOptions.getGrpcWriteTimeout(), MILLISECONDS)
               .insertObject(responseObserver);
 
-      // Wait for streaming RPC to become ready for upload.
-      try {
-        responseObserver.ready.await();
-      } catch (InterruptedException e) {
-        Thread.currentThread().interrupt();
-        throw new IOException(
-            String.format(
-                "Streaming RPC failed to become ready for resumable upload for '%s'", resourceId),
-            e);
-      }
-
       boolean objectFinalized = false;
       while (!objectFinalized) {
+        // Read next request before waiting for the stream readiness, so reading data from the pipe
+        // overlaps with sending of the previous requests by the transport.
         InsertObjectRequest insertRequest;
-        if (dataChunkMap.size() > 0 && dataChunkMap.lastKey() >= writeOffset) {
-          insertRequest = buildRequestFromBufferedDataChunk(dataChunkMap, writeOffset);
-          writeOffset += insertRequest.getChecksummedData().getContent().size();
+        if (!bufferedRequests.isEmpty()
+            && bufferedRequests.getLast().getWriteOffset() >= writeOffset) {
+          insertRequest = getBufferedRequest(writeOffset);
         } else {
-          ByteString data =
-              ByteString.readFrom(
-                  ByteStreams.limit(pipeSource, MAX_BYTES_PER_MESSAGE), MAX_BYTES_PER_MESSAGE);
-          dataChunkMap.put(writeOffset, data);
-          if (dataChunkMap.size() >= channelOptions.getNumberOfBufferedRequests()) {
-            dataChunkMap.remove(dataChunkMap.firstKey());
+          insertRequest = buildInsertRequest(writeOffset, readDataChunk());
+          bufferedRequests.addLast(insertRequest);
+          if (bufferedRequests.size() > channelOptions.getNumberOfBufferedRequests()) {
+            bufferedRequests.removeFirst();
           }
-          insertRequest = buildInsertRequest(writeOffset, data, false);
-          writeOffset += data.size();
         }
-        requestStreamObserver.onNext(insertRequest);
+        writeOffset =
+            insertRequest.getWriteOffset() + insertRequest.getChecksummedData().getContent().size();
+
+        // Respect gRPC flow control to not buffer unbounded number of requests in the transport.
+        responseObserver.awaitReady();
+        if (!responseObserver.hasTransientError() && !responseObserver.hasNonTransientError()) {
+          requestStreamObserver.onNext(insertRequest);
+        }
         objectFinalized = insertRequest.getFinishWrite();
 
         if (responseObserver.hasTransientError() || responseObserver.hasNonTransientError()) {
@@ -260,8 +258,20 @@ public final class GoogleCloudStorageGrpcWriteChannel
       return responseObserver.getResponseOrThrow();
     }
 
-    private InsertObjectRequest buildInsertRequest(
-        long writeOffset, ByteString dataChunk, boolean resumeFromFailedInsert) {
+    /**
+     * Reads up to the maximum message size of data from the pipe. Full chunks are wrapped without
+     * copying, short reads are copied so that buffered requests do not retain the whole buffer.
+     */
+    private ByteString readDataChunk() throws IOException {
+      byte[] buffer = new byte[MAX_BYTES_PER_MESSAGE];
+      int bytesRead = ByteStreams.read(pipeSource, buffer, 0, buffer.length);
+      return bytesRead < buffer.length
+          ? ByteString.copyFrom(buffer, 0, bytesRead)
+          // Buffer is not modified after it was filled, so it is safe to wrap it without copying.
+          : UnsafeByteOperations.unsafeWrap(buffer);
+    }
+
+    private InsertObjectRequest buildInsertRequest(long writeOffset, ByteString dataChunk) {
       InsertObjectRequest.Builder requestBuilder =
           InsertObjectRequest.newBuilder().setUploadId(uploadId).setWriteOffset(writeOffset);
 
@@ -269,9 +279,7 @@ public final class GoogleCloudStorageGrpcWriteChannel
         ChecksummedData.Builder requestDataBuilder =
             ChecksummedData.newBuilder().setContent(dataChunk);
         if (channelOptions.isGrpcChecksumsEnabled()) {
-          if (!resumeFromFailedInsert) {
-            updateObjectHash(dataChunk);
-          }
+          updateObjectHash(dataChunk);
           requestDataBuilder.setCrc32C(UInt32Value.newBuilder().setValue(getChunkHash(dataChunk)));
         }
         requestBuilder.setChecksummedData(requestDataBuilder);
@@ -306,31 +314,24 @@ public final class GoogleCloudStorageGrpcWriteChannel
     // Handles the case when a writeOffset of data read previously is being processed.
     // This happens if a transient failure happens while uploading, and can be resumed by
     // querying the current committed offset.
-    private InsertObjectRequest buildRequestFromBufferedDataChunk(
-        TreeMap<Long, ByteString> dataChunkMap, long writeOffset) throws IOException {
-      // Resume will only work if the first request builder in the cache carries an offset
-      // not greater than the current writeOffset.
-      InsertObjectRequest request = null;
-      if (dataChunkMap.size() > 0 && dataChunkMap.firstKey() <= writeOffset) {
-        for (Map.Entry<Long, ByteString> entry : dataChunkMap.entrySet()) {
-          if (entry.getKey() + entry.getValue().size() > writeOffset
-              || entry.getKey() == writeOffset) {
-            Long writeOffsetToResume = entry.getKey();
-            ByteString chunkData = entry.getValue();
-            request = buildInsertRequest(writeOffsetToResume, chunkData, true);
-            break;
+    private InsertObjectRequest getBufferedRequest(long writeOffset) throws IOException {
+      // Resume will only work if the first buffered request carries an offset not greater than the
+      // current writeOffset.
+      if (bufferedRequests.getFirst().getWriteOffset() <= writeOffset) {
+        for (InsertObjectRequest request : bufferedRequests) {
+          long requestEndOffset =
+              request.getWriteOffset() + request.getChecksummedData().getContent().size();
+          if (requestEndOffset > writeOffset || request.getWriteOffset() == writeOffset) {
+            return request;
           }
         }
       }
-      if (request == null) {
-        throw new IOException(
-            String.format(
-                "Didn't have enough data buffered for attempt to resume upload for"
-                    + " uploadID %s: last committed offset=%s, earliest buffered"
-                    + " offset=%s. Upload must be restarted from the beginning.",
-                uploadId, writeOffset, dataChunkMap.firstKey()));
-      }
-      return request;
+      throw new IOException(
+          String.format(
+              "Didn't have enough data buffered for attempt to resume upload for"
+                  + " uploadID %s: last committed offset=%s, earliest buffered"
+                  + " offset=%s. Upload must be restarted from the beginning.",
+              uploadId, writeOffset, bufferedRequests.getFirst().getWriteOffset()));
     }
 
     private void recreateStub(Status.Code statusCode) {
@@ -355,14 +356,47 @@ public final class GoogleCloudStorageGrpcWriteChannel
       // CountDownLatch tracking completion of the streaming RPC. Set on error, or once the request
       // stream is closed.
       final CountDownLatch done = new CountDownLatch(1);
-      // CountDownLatch tracking readiness of the streaming RPC.
-      final CountDownLatch ready = new CountDownLatch(1);
+
+      private final Lock readyLock = new ReentrantLock();
+      private final Condition readyCondition = readyLock.newCondition();
+      private ClientCallStreamObserver<InsertObjectRequest> requestObserver;
 
       InsertChunkResponseObserver(String uploadId, long writeOffset) {
         this.uploadId = uploadId;
         this.writeOffset = writeOffset;
       }
 
+      /**
+       * Waits until the streaming RPC is ready to accept more requests without excessive buffering,
+       * or until it is done.
+       */
+      void awaitReady() throws IOException {
+        readyLock.lock();
+        try {
+          while (!requestObserver.isReady() && done.getCount() > 0) {
+            readyCondition.await();
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException(
+              String.format(
+                  "Interrupted while waiting for streaming RPC to become ready for '%s'",
+                  resourceId),
+              e);
+        } finally {
+          readyLock.unlock();
+        }
+      }
+
+      private void signalReady() {
+        readyLock.lock();
+        try {
+          readyCondition.signalAll();
+        } finally {
+          readyLock.unlock();
+        }
+      }
+
       public Object getResponseOrThrow() throws IOException {
         if (hasNonTransientError()) {
           throw new IOException(
@@ -402,17 +436,20 @@ public final class GoogleCloudStorageGrpcWriteChannel
                   t);
         }
         done.countDown();
+        signalReady();
       }
 
       @Override
       public void onCompleted() {
         done.countDown();
+        signalReady();
       }
 
       @Override
       public void beforeStart(
           ClientCallStreamObserver<InsertObjectRequest> clientCallStreamObserver) {
-        clientCallStreamObserver.setOnReadyHandler(ready::countDown);
+        requestObserver = clientCallStreamObserver;
+        clientCallStreamObserver.setOnReadyHandler(this::signalReady);
       }
     }
 
@@ -57,6 +57,7 @@ import com.google.api.services.storage.model.StorageObject;
 import com.google.auth.Credentials;
 import com.google.cloud.hadoop.gcsio.authorization.StorageRequestAuthorizer;
 import com.google.cloud.hadoop.util.ApiErrorExtractor;
+import com.google.cloud.hadoop.util.AsyncWriteChannelOptions;
 import com.google.cloud.hadoop.util.BaseAbstractGoogleAsyncWriteChannel;
 import com.google.cloud.hadoop.util.ClientRequestHelper;
 import com.google.cloud.hadoop.util.HttpTransportFactory;
@@ -78,6 +79,7 @@ import com.google.common.io.BaseEncoding;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.lang.reflect.Field;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.channels.WritableByteChannel;
@@ -90,15 +92,20 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentHashMap.KeySetView;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nullable;
 
 /**
@@ -279,6 +286,14 @@ public class GoogleCloudStorageImpl implements GoogleCloudStorage {
             ? null
             : this.storage.getRequestFactory().getInitializer();
 
+    if (this.storageOptions.isBatchAdaptiveEnabled()) {
+      this.batchFactory =
+          new BatchHelper.Factory(
+              new AdaptiveBatchController(
+                  storageOptions.getMaxRequestsPerBatch(),
+                  Math.max(1, storageOptions.getBatchThreads())));
+    }
+
     // Create the gRPC stub if necessary;
     if (this.storageOptions.isGrpcEnabled()) {
       if (credentials != null) {
@@ -376,6 +391,12 @@ public class GoogleCloudStorageImpl implements GoogleCloudStorage {
     return storageStubProvider;
   }
 
+  /** Returns request metrics of the gRPC channel pool, or {@code null} if gRPC is not enabled. */
+  @Nullable
+  public GrpcChannelPoolStats getGrpcChannelPoolStats() {
+    return storageStubProvider == null ? null : storageStubProvider.getChannelPoolStats();
+  }
+
   @Override
   public GoogleCloudStorageOptions getOptions() {
     return storageOptions;
@@ -415,12 +436,35 @@ public class GoogleCloudStorageImpl implements GoogleCloudStorage {
             .setContentGenerationMatch(writeGeneration.orElse(null))
             .build();
 
+    AsyncWriteChannelOptions writeOptions = storageOptions.getWriteChannelOptions();
+    if (!storageOptions.isGrpcEnabled()
+        && !writeOptions.isDirectUploadEnabled()
+        && writeOptions.getDirectUploadThreshold() > 0) {
+      return new GoogleCloudStorageSmallObjectWriteChannel(
+          resourceId,
+          writeOptions.getDirectUploadThreshold(),
+          directUpload ->
+              createWriteChannel(
+                  resourceId,
+                  options,
+                  writeConditions,
+                  writeOptions.toBuilder().setDirectUploadEnabled(directUpload).build()));
+    }
+    return createWriteChannel(resourceId, options, writeConditions, writeOptions);
+  }
+
+  private BaseAbstractGoogleAsyncWriteChannel<?> createWriteChannel(
+      StorageResourceId resourceId,
+      CreateObjectOptions options,
+      ObjectWriteConditions writeConditions,
+      AsyncWriteChannelOptions writeOptions)
+      throws IOException {
     BaseAbstractGoogleAsyncWriteChannel<?> channel =
         storageOptions.isGrpcEnabled()
             ? new GoogleCloudStorageGrpcWriteChannel(
                 storageStubProvider,
                 backgroundTasksThreadPool,
-                storageOptions.getWriteChannelOptions(),
+                writeOptions,
                 resourceId,
                 options,
                 writeConditions,
@@ -432,7 +476,7 @@ public class GoogleCloudStorageImpl implements GoogleCloudStorage {
                 storage,
                 clientRequestHelper,
                 backgroundTasksThreadPool,
-                storageOptions.getWriteChannelOptions(),
+                writeOptions,
                 resourceId,
                 options,
                 writeConditions) {
@@ -665,8 +709,47 @@ public class GoogleCloudStorageImpl implements GoogleCloudStorage {
       info = null;
     }
 
+    return newReadChannel(resourceId, info, readOptions, /* footerCache= */ null);
+  }
+
+  /**
+   * See {@link GoogleCloudStorage#open(GoogleCloudStorageItemInfo, GoogleCloudStorageReadOptions,
+   * GoogleCloudStorageFooterCache)} for details about expected behavior.
+   */
+  @Override
+  public SeekableByteChannel open(
+      GoogleCloudStorageItemInfo itemInfo,
+      GoogleCloudStorageReadOptions readOptions,
+      @Nullable GoogleCloudStorageFooterCache footerCache)
+      throws IOException {
+    logger.atFiner().log("open(%s, %s)", itemInfo, readOptions);
+    Preconditions.checkArgument(
+        itemInfo.getResourceId().isStorageObject() && itemInfo.exists(),
+        "Expected existing StorageObject info, got %s",
+        itemInfo);
+
+    if (storageOptions.isGrpcEnabled()) {
+      return GoogleCloudStorageGrpcReadChannel.open(
+          storageStubProvider, storage, errorExtractor, itemInfo, readOptions, footerCache);
+    }
+
+    return newReadChannel(itemInfo.getResourceId(), itemInfo, readOptions, footerCache);
+  }
+
+  private GoogleCloudStorageReadChannel newReadChannel(
+      StorageResourceId resourceId,
+      @Nullable GoogleCloudStorageItemInfo info,
+      GoogleCloudStorageReadOptions readOptions,
+      @Nullable GoogleCloudStorageFooterCache footerCache)
+      throws IOException {
     return new GoogleCloudStorageReadChannel(
-        storage, resourceId, errorExtractor, clientRequestHelper, readOptions) {
+        storage,
+        resourceId,
+        errorExtractor,
+        clientRequestHelper,
+        readOptions,
+        backgroundTasksThreadPool,
+        footerCache) {
 
       @Override
       @Nullable
@@ -957,9 +1040,15 @@ public class GoogleCloudStorageImpl implements GoogleCloudStorage {
       return;
     }
 
+    long startNanos = System.nanoTime();
+
     // Gather FileNotFoundExceptions for individual objects,
     // but only throw a single combined exception at the end.
     KeySetView<IOException, Boolean> innerExceptions = ConcurrentHashMap.newKeySet();
+    AtomicLong bytesCopied = new AtomicLong();
+    // Rewrite operations that did not complete in a single request are continued outside of the
+    // batch as soon as their first response is received.
+    PendingRewrites pendingRewrites = new PendingRewrites(innerExceptions, bytesCopied);
 
     // Perform the copy operations.
     BatchHelper batchHelper =
@@ -977,19 +1066,39 @@ public class GoogleCloudStorageImpl implements GoogleCloudStorage {
         rewriteInternal(
             batchHelper,
             innerExceptions,
+            pendingRewrites,
+            bytesCopied,
             srcBucketName, srcObjectNames.get(i),
             dstBucketName, dstObjectNames.get(i));
       } else {
         copyInternal(
             batchHelper,
             innerExceptions,
+            bytesCopied,
             srcBucketName, srcObjectNames.get(i),
             dstBucketName, dstObjectNames.get(i));
       }
     }
 
     // Execute any remaining requests not divisible by the max batch size.
-    batchHelper.flush();
+    try {
+      batchHelper.flush();
+    } catch (IOException | RuntimeException e) {
+      pendingRewrites.cancel();
+      throw e;
+    }
+
+    pendingRewrites.awaitCompletion();
+
+    long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    logger.atFine().log(
+        "copy(%s, %d objects, %s): copied %d bytes in %d ms (%d bytes/s)",
+        srcBucketName,
+        srcObjectNames.size(),
+        dstBucketName,
+        bytesCopied.get(),
+        elapsedMillis,
+        bytesCopied.get() * 1000 / elapsedMillis);
 
     if (!innerExceptions.isEmpty()) {
       throw GoogleCloudStorageExceptions.createCompositeException(innerExceptions);
@@ -997,25 +1106,22 @@ public class GoogleCloudStorageImpl implements GoogleCloudStorage {
   }
 
   /**
-   * Performs copy operation using GCS Rewrite requests
+   * Performs copy operation using GCS Rewrite requests. If rewrite did not complete in a single
+   * request, it is added to the {@code pendingRewrites} to be continued outside of the batch
+   * without waiting for the rest of the batch requests.
    *
    * @see GoogleCloudStorage#copy(String, List, String, List)
    */
   private void rewriteInternal(
       final BatchHelper batchHelper,
       final KeySetView<IOException, Boolean> innerExceptions,
+      final PendingRewrites pendingRewrites,
+      final AtomicLong bytesCopied,
       final String srcBucketName, final String srcObjectName,
       final String dstBucketName, final String dstObjectName)
       throws IOException {
     Storage.Objects.Rewrite rewriteObject =
-        initializeRequest(
-            storage
-                .objects()
-                .rewrite(srcBucketName, srcObjectName, dstBucketName, dstObjectName, null),
-            srcBucketName);
-    if (storageOptions.getMaxBytesRewrittenPerCall() > 0) {
-      rewriteObject.setMaxBytesRewrittenPerCall(storageOptions.getMaxBytesRewrittenPerCall());
-    }
+        createRewriteRequest(srcBucketName, srcObjectName, dstBucketName, dstObjectName);
 
     // TODO(b/79750454) do not batch rewrite requests because they time out in batches.
     batchHelper.queue(
@@ -1027,29 +1133,16 @@ public class GoogleCloudStorageImpl implements GoogleCloudStorage {
             String dstString = StringPaths.fromComponents(dstBucketName, dstObjectName);
 
             if (rewriteResponse.getDone()) {
+              bytesCopied.addAndGet(getTotalBytesRewritten(rewriteResponse));
               logger.atFiner().log("Successfully copied %s to %s", srcString, dstString);
             } else {
               // If an object is very large, we need to continue making successive calls to
               // rewrite until the operation completes.
               logger.atFiner().log(
                   "Copy (%s to %s) did not complete. Resuming...", srcString, dstString);
-              try {
-                Storage.Objects.Rewrite rewriteObjectWithToken =
-                    initializeRequest(
-                        storage
-                            .objects()
-                            .rewrite(
-                                srcBucketName, srcObjectName, dstBucketName, dstObjectName, null),
-                        srcBucketName);
-                if (storageOptions.getMaxBytesRewrittenPerCall() > 0) {
-                  rewriteObjectWithToken.setMaxBytesRewrittenPerCall(
-                      storageOptions.getMaxBytesRewrittenPerCall());
-                }
-                rewriteObjectWithToken.setRewriteToken(rewriteResponse.getRewriteToken());
-                batchHelper.queue(rewriteObjectWithToken, this);
-              } catch (IOException e) {
-                innerExceptions.add(e);
-              }
+              pendingRewrites.add(
+                  new PendingRewrite(
+                      srcBucketName, srcObjectName, dstBucketName, dstObjectName, rewriteResponse));
             }
           }
 
@@ -1060,6 +1153,61 @@ public class GoogleCloudStorageImpl implements GoogleCloudStorage {
         });
   }
 
+  /** Makes successive rewrite requests until given rewrite operation completes. */
+  private void continueRewrite(
+      PendingRewrite rewrite,
+      KeySetView<IOException, Boolean> innerExceptions,
+      AtomicLong bytesCopied) {
+    String srcString = StringPaths.fromComponents(rewrite.srcBucketName, rewrite.srcObjectName);
+    String dstString = StringPaths.fromComponents(rewrite.dstBucketName, rewrite.dstObjectName);
+    RewriteResponse rewriteResponse = rewrite.lastResponse;
+    try {
+      while (!rewriteResponse.getDone()) {
+        Storage.Objects.Rewrite rewriteObjectWithToken =
+            createRewriteRequest(
+                rewrite.srcBucketName,
+                rewrite.srcObjectName,
+                rewrite.dstBucketName,
+                rewrite.dstObjectName);
+        rewriteObjectWithToken.setRewriteToken(rewriteResponse.getRewriteToken());
+        rewriteResponse = rewriteObjectWithToken.execute();
+        logger.atFiner().log(
+            "Copy (%s to %s) progress: rewritten %d of %d bytes",
+            srcString,
+            dstString,
+            getTotalBytesRewritten(rewriteResponse),
+            rewriteResponse.getObjectSize());
+      }
+      bytesCopied.addAndGet(getTotalBytesRewritten(rewriteResponse));
+      logger.atFiner().log("Successfully copied %s to %s", srcString, dstString);
+    } catch (IOException e) {
+      innerExceptions.add(
+          errorExtractor.itemNotFound(e)
+              ? createFileNotFoundException(rewrite.srcBucketName, rewrite.srcObjectName, e)
+              : new IOException(String.format("Error copying '%s'", srcString), e));
+    }
+  }
+
+  private Storage.Objects.Rewrite createRewriteRequest(
+      String srcBucketName, String srcObjectName, String dstBucketName, String dstObjectName)
+      throws IOException {
+    Storage.Objects.Rewrite rewriteObject =
+        initializeRequest(
+            storage
+                .objects()
+                .rewrite(srcBucketName, srcObjectName, dstBucketName, dstObjectName, null),
+            srcBucketName);
+    if (storageOptions.getMaxBytesRewrittenPerCall() > 0) {
+      rewriteObject.setMaxBytesRewrittenPerCall(storageOptions.getMaxBytesRewrittenPerCall());
+    }
+    return rewriteObject;
+  }
+
+  private static long getTotalBytesRewritten(RewriteResponse rewriteResponse) {
+    Long totalBytesRewritten = rewriteResponse.getTotalBytesRewritten();
+    return totalBytesRewritten == null ? 0 : totalBytesRewritten;
+  }
+
   /**
    * Performs copy operation using GCS Copy requests
    *
@@ -1068,6 +1216,7 @@ public class GoogleCloudStorageImpl implements GoogleCloudStorage {
   private void copyInternal(
       BatchHelper batchHelper,
       final KeySetView<IOException, Boolean> innerExceptions,
+      final AtomicLong bytesCopied,
       final String srcBucketName, final String srcObjectName,
       final String dstBucketName, final String dstObjectName)
       throws IOException {
@@ -1083,6 +1232,9 @@ public class GoogleCloudStorageImpl implements GoogleCloudStorage {
         new JsonBatchCallback<StorageObject>() {
           @Override
           public void onSuccess(StorageObject copyResponse, HttpHeaders responseHeaders) {
+            if (copyResponse.getSize() != null) {
+              bytesCopied.addAndGet(copyResponse.getSize().longValue());
+            }
             String srcString = StringPaths.fromComponents(srcBucketName, srcObjectName);
             String dstString = StringPaths.fromComponents(dstBucketName, dstObjectName);
             logger.atFiner().log("Successfully copied %s to %s", srcString, dstString);
@@ -2195,4 +2347,101 @@ public class GoogleCloudStorageImpl implements GoogleCloudStorage {
       request.set(USER_PROJECT_FIELD_NAME, projectId);
     }
   }
+
+  /**
+   * Continues rewrite operations that did not complete in a single rewrite request on up to {@link
+   * GoogleCloudStorageOptions#getMaxConcurrentRewrites()} concurrent slots. Each slot continues a
+   * single rewrite until it completes. When all slots are busy, rewrites with the largest amount of
+   * remaining bytes are started first, so they do not delay completion of the whole copy operation.
+   */
+  private class PendingRewrites {
+    private final KeySetView<IOException, Boolean> innerExceptions;
+    private final AtomicLong bytesCopied;
+
+    private final Queue<PendingRewrite> rewritesQueue =
+        new PriorityQueue<>(
+            Comparator.comparingLong(PendingRewrite::getRemainingBytes).reversed());
+    private final List<Future<?>> slotFutures = new ArrayList<>();
+    private int activeSlots = 0;
+
+    PendingRewrites(KeySetView<IOException, Boolean> innerExceptions, AtomicLong bytesCopied) {
+      this.innerExceptions = innerExceptions;
+      this.bytesCopied = bytesCopied;
+    }
+
+    /** Adds rewrite to the queue and starts a new slot to continue it if possible. */
+    synchronized void add(PendingRewrite rewrite) {
+      rewritesQueue.add(rewrite);
+      if (activeSlots < storageOptions.getMaxConcurrentRewrites()) {
+        activeSlots++;
+        slotFutures.add(backgroundTasksThreadPool.submit(this::runSlot));
+      }
+    }
+
+    private void runSlot() {
+      PendingRewrite rewrite;
+      while ((rewrite = poll()) != null) {
+        continueRewrite(rewrite, innerExceptions, bytesCopied);
+      }
+    }
+
+    private synchronized PendingRewrite poll() {
+      PendingRewrite rewrite = rewritesQueue.poll();
+      if (rewrite == null) {
+        activeSlots--;
+      }
+      return rewrite;
+    }
+
+    /** Waits for completion of all added rewrites, must be called after all rewrites are added. */
+    void awaitCompletion() throws IOException {
+      List<Future<?>> futures;
+      synchronized (this) {
+        futures = new ArrayList<>(slotFutures);
+      }
+      try {
+        for (Future<?> slotFuture : futures) {
+          slotFuture.get();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        cancel();
+        throw (IOException) new InterruptedIOException("Interrupted while rewriting").initCause(e);
+      } catch (ExecutionException e) {
+        throw new IOException("Failed to rewrite objects", e.getCause());
+      }
+    }
+
+    synchronized void cancel() {
+      rewritesQueue.clear();
+      slotFutures.forEach(f -> f.cancel(/* mayInterruptIfRunning= */ true));
+    }
+  }
+
+  /** Rewrite operation that did not complete in a single rewrite request. */
+  private static class PendingRewrite {
+    private final String srcBucketName;
+    private final String srcObjectName;
+    private final String dstBucketName;
+    private final String dstObjectName;
+    private final RewriteResponse lastResponse;
+
+    PendingRewrite(
+        String srcBucketName,
+        String srcObjectName,
+        String dstBucketName,
+        String dstObjectName,
+        RewriteResponse lastResponse) {
+      this.srcBucketName = srcBucketName;
+      this.srcObjectName = srcObjectName;
+      this.dstBucketName = dstBucketName;
+      this.dstObjectName = dstObjectName;
+      this.lastResponse = lastResponse;
+    }
+
+    long getRemainingBytes() {
+      Long objectSize = lastResponse.getObjectSize();
+      return objectSize == null ? 0 : objectSize - getTotalBytesRewritten(lastResponse);
+    }
+  }
 }
@@ -41,6 +41,18 @@ public abstract class GoogleCloudStorageOptions {
   /** Default setting to prefer DirectPath for gRPC. */
   public static final boolean DIRECT_PATH_PREFFERED_DEFAULT = true;
 
+  /** Default setting for max number of gRPC channels in the channel pool. */
+  public static final int GRPC_CHANNEL_POOL_SIZE_DEFAULT = 12;
+
+  /**
+   * Default setting for time in milliseconds after which gRPC channel is replaced if its requests
+   * are waiting for responses without any progress.
+   */
+  public static final long GRPC_CHANNEL_STALL_TIMEOUT_MILLIS_DEFAULT = 30_000;
+
+  /** Default setting for max number of consecutive failed requests before gRPC channel replace. */
+  public static final int GRPC_CHANNEL_MAX_CONSECUTIVE_FAILURES_DEFAULT = 3;
+
   /** Default root URL for Cloud Storage API endpoint. */
   public static final String STORAGE_ROOT_URL_DEFAULT = Storage.DEFAULT_ROOT_URL;
 
@@ -65,6 +77,9 @@ public abstract class GoogleCloudStorageOptions {
   /** Default setting for number of threads to execute GCS batch requests. */
   public static final int BATCH_THREADS_DEFAULT = 0;
 
+  /** Default setting for adaptive batch size and parallelism of GCS batch requests. */
+  public static final boolean BATCH_ADAPTIVE_ENABLED_DEFAULT = false;
+
   /** Default setting for maximum number of GCS HTTP request retires. */
   public static final int MAX_HTTP_REQUEST_RETRIES = 10;
 
@@ -80,6 +95,9 @@ public abstract class GoogleCloudStorageOptions {
   /** Default setting for max number of bytes rewritten per rewrite request/call. */
   public static final int MAX_BYTES_REWRITTEN_PER_CALL_DEFAULT = 0;
 
+  /** Default setting for max number of concurrently executed multi-call rewrite operations. */
+  public static final int MAX_CONCURRENT_REWRITES_DEFAULT = 8;
+
   /** Default setting for GCS HTTP request headers. */
   public static final ImmutableMap<String, String> HTTP_REQUEST_HEADERS_DEFAULT = ImmutableMap.of();
 
@@ -97,6 +115,9 @@ public abstract class GoogleCloudStorageOptions {
     return new AutoValue_GoogleCloudStorageOptions.Builder()
         .setGrpcEnabled(ENABLE_GRPC_DEFAULT)
         .setDirectPathPreffered(DIRECT_PATH_PREFFERED_DEFAULT)
+        .setGrpcChannelPoolSize(GRPC_CHANNEL_POOL_SIZE_DEFAULT)
+        .setGrpcChannelStallTimeoutMillis(GRPC_CHANNEL_STALL_TIMEOUT_MILLIS_DEFAULT)
+        .setGrpcChannelMaxConsecutiveFailures(GRPC_CHANNEL_MAX_CONSECUTIVE_FAILURES_DEFAULT)
         .setStorageRootUrl(STORAGE_ROOT_URL_DEFAULT)
         .setStorageServicePath(STORAGE_SERVICE_PATH_DEFAULT)
         .setAutoRepairImplicitDirectoriesEnabled(AUTO_REPAIR_IMPLICIT_DIRECTORIES_DEFAULT)
@@ -104,12 +125,14 @@ public abstract class GoogleCloudStorageOptions {
         .setMaxListItemsPerCall(MAX_LIST_ITEMS_PER_CALL_DEFAULT)
         .setMaxRequestsPerBatch(MAX_REQUESTS_PER_BATCH_DEFAULT)
         .setBatchThreads(BATCH_THREADS_DEFAULT)
+        .setBatchAdaptiveEnabled(BATCH_ADAPTIVE_ENABLED_DEFAULT)
         .setMaxHttpRequestRetries(MAX_HTTP_REQUEST_RETRIES)
         .setHttpRequestConnectTimeout(HTTP_REQUEST_CONNECT_TIMEOUT)
         .setHttpRequestReadTimeout(HTTP_REQUEST_READ_TIMEOUT)
         .setTransportType(HttpTransportFactory.DEFAULT_TRANSPORT_TYPE)
         .setCopyWithRewriteEnabled(COPY_WITH_REWRITE_DEFAULT)
         .setMaxBytesRewrittenPerCall(MAX_BYTES_REWRITTEN_PER_CALL_DEFAULT)
+        .setMaxConcurrentRewrites(MAX_CONCURRENT_REWRITES_DEFAULT)
         .setReadChannelOptions(GoogleCloudStorageReadOptions.DEFAULT)
         .setWriteChannelOptions(AsyncWriteChannelOptions.DEFAULT)
         .setRequesterPaysOptions(RequesterPaysOptions.DEFAULT)
@@ -125,6 +148,12 @@ public abstract class GoogleCloudStorageOptions {
 
   public abstract boolean isDirectPathPreffered();
 
+  public abstract int getGrpcChannelPoolSize();
+
+  public abstract long getGrpcChannelStallTimeoutMillis();
+
+  public abstract int getGrpcChannelMaxConsecutiveFailures();
+
   public abstract String getStorageRootUrl();
 
   public abstract String getStorageServicePath();
@@ -145,6 +174,8 @@ public abstract class GoogleCloudStorageOptions {
 
   public abstract int getBatchThreads();
 
+  public abstract boolean isBatchAdaptiveEnabled();
+
   public abstract int getMaxHttpRequestRetries();
 
   public abstract int getHttpRequestConnectTimeout();
@@ -166,6 +197,8 @@ public abstract class GoogleCloudStorageOptions {
 
   public abstract long getMaxBytesRewrittenPerCall();
 
+  public abstract int getMaxConcurrentRewrites();
+
   public abstract GoogleCloudStorageReadOptions getReadChannelOptions();
 
   public abstract AsyncWriteChannelOptions getWriteChannelOptions();
@@ -212,6 +245,24 @@ public abstract class GoogleCloudStorageOptions {
 
     public abstract Builder setDirectPathPreffered(boolean directPathPreffered);
 
+    /** Sets the max number of gRPC channels that are used to send requests to GCS. */
+    public abstract Builder setGrpcChannelPoolSize(int grpcChannelPoolSize);
+
+    /**
+     * Sets the time in milliseconds after which gRPC channel is replaced and its requests are
+     * cancelled if it has requests that are waiting for responses without any progress. Client
+     * streaming requests, like uploads, are not considered, because they receive a response only
+     * after all data was sent.
+     */
+    public abstract Builder setGrpcChannelStallTimeoutMillis(long grpcChannelStallTimeoutMillis);
+
+    /**
+     * Sets the number of consecutive requests that failed with connection errors after which gRPC
+     * channel is drained and replaced.
+     */
+    public abstract Builder setGrpcChannelMaxConsecutiveFailures(
+        int grpcChannelMaxConsecutiveFailures);
+
     public abstract Builder setStorageRootUrl(String rootUrl);
 
     public abstract Builder setStorageServicePath(String servicePath);
@@ -232,6 +283,13 @@ public abstract class GoogleCloudStorageOptions {
 
     public abstract Builder setBatchThreads(int batchThreads);
 
+    /**
+     * Enables adjusting of the number of requests per batch and the number of batches executed in
+     * parallel based on observed batch latency and throttling responses. Configured maximum
+     * requests per batch and batch threads are used as upper limits.
+     */
+    public abstract Builder setBatchAdaptiveEnabled(boolean batchAdaptiveEnabled);
+
     public abstract Builder setMaxHttpRequestRetries(int maxHttpRequestRetries);
 
     public abstract Builder setHttpRequestConnectTimeout(int httpRequestConnectTimeout);
@@ -250,6 +308,8 @@ public abstract class GoogleCloudStorageOptions {
 
     public abstract Builder setMaxBytesRewrittenPerCall(long bytes);
 
+    public abstract Builder setMaxConcurrentRewrites(int maxConcurrentRewrites);
+
     public abstract Builder setReadChannelOptions(GoogleCloudStorageReadOptions readChannelOptions);
 
     public abstract Builder setWriteChannelOptions(AsyncWriteChannelOptions writeChannelOptions);
@@ -281,6 +341,22 @@ public abstract class GoogleCloudStorageOptions {
               || instance.getMaxBytesRewrittenPerCall() % (1024 * 1024) == 0,
           "maxBytesRewrittenPerCall must be an integral multiple of 1 MiB (1048576), but was: %s",
           instance.getMaxBytesRewrittenPerCall());
+      checkArgument(
+          instance.getGrpcChannelPoolSize() > 0,
+          "grpcChannelPoolSize must be positive, but was: %s",
+          instance.getGrpcChannelPoolSize());
+      checkArgument(
+          instance.getGrpcChannelStallTimeoutMillis() > 0,
+          "grpcChannelStallTimeoutMillis must be positive, but was: %s",
+          instance.getGrpcChannelStallTimeoutMillis());
+      checkArgument(
+          instance.getGrpcChannelMaxConsecutiveFailures() > 0,
+          "grpcChannelMaxConsecutiveFailures must be positive, but was: %s",
+          instance.getGrpcChannelMaxConsecutiveFailures());
+      checkArgument(
+          instance.getMaxConcurrentRewrites() > 0,
+          "maxConcurrentRewrites must be positive, but was: %s",
+          instance.getMaxConcurrentRewrites());
       checkArgument(
           instance.getProxyAddress() != null
               || (instance.getProxyUsername() == null && instance.getProxyPassword() == null),
@@ -36,12 +36,18 @@ import com.google.cloud.hadoop.gcsio.GoogleCloudStorageReadOptions.Fadvise;
 import com.google.cloud.hadoop.util.ApiErrorExtractor;
 import com.google.cloud.hadoop.util.ClientRequestHelper;
 import com.google.cloud.hadoop.util.ResilientOperation;
+import com.google.cloud.hadoop.util.RetryBoundedBackOff;
 import com.google.cloud.hadoop.util.RetryDeterminer;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
 import com.google.common.flogger.GoogleLogger;
+import com.google.common.io.BaseEncoding;
+import com.google.common.io.ByteStreams;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.MoreExecutors;
 import java.io.ByteArrayInputStream;
 import java.io.EOFException;
 import java.io.IOException;
@@ -51,11 +57,22 @@ import java.nio.channels.Channels;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SeekableByteChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntFunction;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 /** Provides seekable read access to GCS. */
-public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
+public class GoogleCloudStorageReadChannel implements SeekableByteChannel, VectoredReadChannel {
 
   private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
 
@@ -64,6 +81,11 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
 
   private static final String GZIP_ENCODING = "gzip";
 
+  private static final String CRC32C_HASH_PREFIX = "crc32c=";
+
+  // Number of bytes read from a range stream between checks whether the read was cancelled.
+  private static final int RANGE_READ_CANCELLATION_CHECK_SIZE = 64 * 1024;
+
   // GCS access instance.
   private final Storage gcs;
 
@@ -149,6 +171,46 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
 
   @VisibleForTesting protected boolean metadataInitialized = false;
 
+  // Executor used to run background reads, e.g. range requests of vectored reads.
+  private final ExecutorService backgroundTasksExecutor;
+
+  // Process-wide cache of object data blocks, null if block cache is disabled.
+  @Nullable private final GoogleCloudStorageBlockCache blockCache;
+
+  // Cache of footers shared between channels, null if footer caching is disabled.
+  @Nullable private final GoogleCloudStorageFooterCache footerCache;
+
+  // Tracks recent reads to detect access pattern, null if fadvise mode is not ADAPTIVE.
+  @Nullable private final ReadPatternTracker readPatternTracker;
+
+  // Blocks requested by the read-ahead prefetcher that were not consumed yet, ordered by offset.
+  private final Deque<VectoredIORange> readAheadBlocks = new ArrayDeque<>();
+
+  // Read-ahead block from which data is currently served.
+  private ByteBuffer readAheadBuffer;
+
+  // Position in the object of the first byte in the readAheadBuffer.
+  private long readAheadBufferPosition = -1;
+
+  // Position in the object of the next block that will be requested by the read-ahead prefetcher.
+  private long readAheadNextPosition = -1;
+
+  // Checksum of the data read sequentially from the object start, null if checksum validation is
+  // disabled or was abandoned because data was not read sequentially.
+  @Nullable private Crc32cChecksum crc32c;
+
+  // Number of bytes from the object start that were added to the crc32c.
+  private long crc32cPosition = 0;
+
+  // Expected CRC32C checksum of the object, null if it is unknown.
+  @Nullable private Integer expectedCrc32c;
+
+  // Number of bytes of the object data with successfully validated checksum.
+  private long checksumValidatedBytes = 0;
+
+  // Number of object reads that failed checksum validation.
+  private long checksumMismatchCount = 0;
+
   /**
    * Constructs an instance of GoogleCloudStorageReadChannel.
    *
@@ -166,11 +228,58 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
       ClientRequestHelper<StorageObject> requestHelper,
       @Nonnull GoogleCloudStorageReadOptions readOptions)
       throws IOException {
+    this(
+        gcs,
+        resourceId,
+        errorExtractor,
+        requestHelper,
+        readOptions,
+        MoreExecutors.newDirectExecutorService(),
+        /* footerCache= */ null);
+  }
+
+  /**
+   * Constructs an instance of GoogleCloudStorageReadChannel.
+   *
+   * @param gcs storage object instance
+   * @param resourceId contains information about a specific resource
+   * @param requestHelper a ClientRequestHelper used to set any extra headers
+   * @param readOptions fine-grained options specifying things like retry settings, buffering, etc.
+   *     Could not be null.
+   * @param backgroundTasksExecutor executor used to run background reads
+   * @param footerCache cache from which footer is looked up and to which prefetched footer is
+   *     stored, could be null
+   * @throws IOException on IO error
+   */
+  public GoogleCloudStorageReadChannel(
+      Storage gcs,
+      StorageResourceId resourceId,
+      ApiErrorExtractor errorExtractor,
+      ClientRequestHelper<StorageObject> requestHelper,
+      @Nonnull GoogleCloudStorageReadOptions readOptions,
+      ExecutorService backgroundTasksExecutor,
+      @Nullable GoogleCloudStorageFooterCache footerCache)
+      throws IOException {
     this.gcs = gcs;
     this.clientRequestHelper = requestHelper;
     this.errorExtractor = errorExtractor;
     this.readOptions = readOptions;
     this.resourceId = resourceId;
+    this.backgroundTasksExecutor =
+        checkNotNull(backgroundTasksExecutor, "backgroundTasksExecutor could not be null");
+    this.footerCache = footerCache;
+    this.readPatternTracker =
+        readOptions.getFadvise() == Fadvise.ADAPTIVE
+            ? new ReadPatternTracker(
+                readOptions.getAdaptiveFadviseWindowSize(),
+                readOptions.getInplaceSeekLimit(),
+                readOptions.getAdaptiveFadviseMaxRangeRequestSize())
+            : null;
+    this.blockCache =
+        readOptions.getBlockCacheMaxSize() > 0
+            ? GoogleCloudStorageBlockCache.getShared(readOptions)
+            : null;
+    this.crc32c = readOptions.isChecksumValidationEnabled() ? new Crc32cChecksum() : null;
 
     // Initialize metadata if available.
     GoogleCloudStorageItemInfo info = getInitialMetadata();
@@ -229,7 +338,12 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
     StorageObject object;
     try {
       // Request only fields that are used for metadata initialization
-      Get getObject = createRequest().setFields("contentEncoding,generation,size");
+      Get getObject =
+          createRequest()
+              .setFields(
+                  readOptions.isChecksumValidationEnabled()
+                      ? "contentEncoding,crc32c,generation,size"
+                      : "contentEncoding,generation,size");
       object =
           ResilientOperation.retry(
               getObject::execute,
@@ -255,7 +369,20 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
         /* metadata= */ null,
         checkNotNull(object.getGeneration(), "generation can not be null for '%s'", resourceId),
         /* metaGeneration= */ 0,
-        /* verificationAttributes= */ null);
+        object.getCrc32c() == null
+            ? null
+            : new VerificationAttributes(
+                /* md5hash= */ null, BaseEncoding.base64().decode(object.getCrc32c())));
+  }
+
+  /** Returns number of bytes of the object data with successfully validated checksum. */
+  public long getChecksumValidatedBytes() {
+    return checksumValidatedBytes;
+  }
+
+  /** Returns number of object reads by this channel that failed checksum validation. */
+  public long getChecksumMismatchCount() {
+    return checksumMismatchCount;
   }
 
   /**
@@ -290,11 +417,22 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
         "Reading %s bytes at %s position from '%s'",
         buffer.remaining(), currentPosition, resourceId);
 
+    if (blockCache != null && supportsRangeReads()) {
+      return readWithBlockCache(buffer);
+    }
+    if (isReadAheadEnabled() || isParallelDownloadEnabled()) {
+      return readWithReadAhead(buffer);
+    }
+
     // Do not perform any further reads if we already read everything from this channel.
     if (currentPosition == size) {
       return -1;
     }
 
+    if (readPatternTracker != null) {
+      readPatternTracker.recordRead(currentPosition, buffer.remaining());
+    }
+
     int totalBytesRead = 0;
     int retriesAttempted = 0;
 
@@ -341,6 +479,7 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
         }
 
         if (numBytesRead > 0) {
+          updateChecksum(buffer, numBytesRead);
           totalBytesRead += numBytesRead;
           currentPosition += numBytesRead;
           contentChannelPosition += numBytesRead;
@@ -369,6 +508,7 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
               "Despite exception, had partial read of %s bytes from '%s'; resetting retry count.",
               partialRead, resourceId);
           retriesAttempted = 0;
+          updateChecksum(buffer, partialRead);
           totalBytesRead += partialRead;
           currentPosition += partialRead;
         }
@@ -417,6 +557,10 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
       }
     } while (buffer.remaining() > 0 && currentPosition < size);
 
+    if (crc32c != null && crc32cPosition == size) {
+      validateChecksum();
+    }
+
     // If this method was called when the stream was already at EOF
     // (indicated by totalBytesRead == 0) then return EOF else,
     // return the number of bytes read.
@@ -436,6 +580,481 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
     return totalBytesRead;
   }
 
+  /**
+   * Adds {@code length} bytes that were just read into the {@code buffer} at the {@link
+   * #currentPosition} to the checksum of the object data, or abandons checksum validation if data
+   * is not read sequentially from the object start.
+   */
+  private void updateChecksum(ByteBuffer buffer, int length) {
+    if (crc32c == null) {
+      return;
+    }
+    if (gzipEncoded || currentPosition != crc32cPosition) {
+      logger.atFiner().log(
+          "Skipping checksum validation for '%s': object is not read sequentially", resourceId);
+      crc32c = null;
+      return;
+    }
+    ByteBuffer readData = buffer.duplicate();
+    readData.limit(buffer.position());
+    readData.position(buffer.position() - length);
+    crc32c.update(readData);
+    crc32cPosition += length;
+  }
+
+  /** Validates checksum of the whole object data read sequentially from the object start. */
+  private void validateChecksum() throws IOException {
+    Crc32cChecksum checksum = crc32c;
+    crc32c = null;
+    if (expectedCrc32c == null) {
+      logger.atFine().log(
+          "Skipping checksum validation for '%s': object checksum is unknown", resourceId);
+      return;
+    }
+    int actualCrc32c = checksum.getValue();
+    if (actualCrc32c != expectedCrc32c) {
+      checksumMismatchCount++;
+      throw new IOException(
+          String.format(
+              "Read data CRC32C checksum (%s) didn't match expected checksum (%s) for '%s'",
+              Integer.toUnsignedString(actualCrc32c),
+              Integer.toUnsignedString(expectedCrc32c),
+              resourceId));
+    }
+    checksumValidatedBytes += size;
+    logger.atFiner().log("Validated checksum of %s bytes for '%s'", size, resourceId);
+  }
+
+  /**
+   * Reads {@code ranges} of the object in parallel on the background executor.
+   *
+   * <p>Ranges are sorted and ranges separated by no more than {@link
+   * GoogleCloudStorageReadOptions#getVectoredReadMinRangeSeekSize()} bytes are merged into a single
+   * HTTP range request of at most {@link
+   * GoogleCloudStorageReadOptions#getVectoredReadMergedRangeMaxSize()} bytes. Vectored reads do not
+   * change position of this channel.
+   */
+  @Override
+  public void readVectored(
+      List<? extends VectoredIORange> ranges, IntFunction<ByteBuffer> allocate)
+      throws IOException {
+    throwIfNotOpen();
+    checkNotNull(allocate, "allocate could not be null");
+    if (ranges.isEmpty()) {
+      return;
+    }
+    if (!metadataInitialized) {
+      initMetadata(fetchInitialMetadata());
+    }
+
+    List<VectoredIORange> sortedRanges = validateVectoredRanges(ranges);
+
+    // Gzip-encoded objects do not support range requests, read them through the channel instead.
+    if (gzipEncoded) {
+      readVectoredSequentially(sortedRanges, allocate);
+      return;
+    }
+
+    Queue<List<VectoredIORange>> mergedRanges =
+        new ConcurrentLinkedQueue<>(
+            mergeVectoredRanges(
+                sortedRanges,
+                readOptions.getVectoredReadMinRangeSeekSize(),
+                readOptions.getVectoredReadMergedRangeMaxSize()));
+    logger.atFiner().log(
+        "readVectored: merged %d ranges into %d requests for '%s'",
+        sortedRanges.size(), mergedRanges.size(), resourceId);
+
+    int workers = Math.min(readOptions.getVectoredReadMaxConcurrentRequests(), mergedRanges.size());
+    for (int i = 0; i < workers; i++) {
+      backgroundTasksExecutor.execute(
+          () -> {
+            List<VectoredIORange> merged;
+            while ((merged = mergedRanges.poll()) != null) {
+              readMergedRange(merged, allocate);
+            }
+          });
+    }
+  }
+
+  private List<VectoredIORange> validateVectoredRanges(List<? extends VectoredIORange> ranges)
+      throws EOFException {
+    List<VectoredIORange> sortedRanges = new ArrayList<>(ranges);
+    sortedRanges.sort(Comparator.comparingLong(VectoredIORange::getOffset));
+    VectoredIORange previous = null;
+    for (VectoredIORange range : sortedRanges) {
+      if (range.getEnd() > size) {
+        throw new EOFException(
+            String.format("Range %s is beyond end of '%s' (size: %d)", range, resourceId, size));
+      }
+      checkArgument(
+          previous == null || previous.getEnd() <= range.getOffset(),
+          "Overlapping ranges %s and %s for '%s'",
+          previous,
+          range,
+          resourceId);
+      previous = range;
+    }
+    return sortedRanges;
+  }
+
+  /**
+   * Groups sorted ranges into lists of ranges that could be served by a single range request.
+   *
+   * @param sortedRanges non-overlapping ranges sorted by offset
+   * @param minSeekSize maximum gap between two ranges in the same group
+   * @param maxMergedSize maximum size of the merged range; a single range larger than this is never
+   *     split
+   */
+  @VisibleForTesting
+  static List<List<VectoredIORange>> mergeVectoredRanges(
+      List<VectoredIORange> sortedRanges, int minSeekSize, int maxMergedSize) {
+    List<List<VectoredIORange>> mergedRanges = new ArrayList<>();
+    List<VectoredIORange> current = null;
+    for (VectoredIORange range : sortedRanges) {
+      if (current != null) {
+        long currentStart = current.get(0).getOffset();
+        long currentEnd = current.get(current.size() - 1).getEnd();
+        if (range.getOffset() - currentEnd <= minSeekSize
+            && range.getEnd() - currentStart <= maxMergedSize) {
+          current.add(range);
+          continue;
+        }
+      }
+      current = new ArrayList<>();
+      current.add(range);
+      mergedRanges.add(current);
+    }
+    return mergedRanges;
+  }
+
+  private void readMergedRange(List<VectoredIORange> ranges, IntFunction<ByteBuffer> allocate) {
+    // Skip ranges that were cancelled before the read started, e.g. discarded read-ahead blocks.
+    if (isDone(ranges)) {
+      return;
+    }
+    long start = ranges.get(0).getOffset();
+    long end = ranges.get(ranges.size() - 1).getEnd();
+    BackOff backOff = new RetryBoundedBackOff(createBackOff(), maxRetries);
+    try {
+      List<ByteBuffer> buffers =
+          ResilientOperation.retry(
+              () -> fetchMergedRange(start, end, ranges, allocate),
+              backOff,
+              e -> !(e instanceof EOFException) && !errorExtractor.clientError(e),
+              IOException.class,
+              sleeper);
+      if (buffers == null) {
+        // Ranges were cancelled while they were read
+        return;
+      }
+      for (int i = 0; i < ranges.size(); i++) {
+        ranges.get(i).getData().complete(buffers.get(i));
+      }
+    } catch (Exception e) {
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      logger.atFine().withCause(e).log(
+          "Failed to read [%d, %d) range of '%s'", start, end, resourceId);
+      ranges.forEach(r -> r.getData().completeExceptionally(e));
+    }
+  }
+
+  /** Returns true if all ranges were completed or cancelled. */
+  private static boolean isDone(List<VectoredIORange> ranges) {
+    return ranges.stream().allMatch(r -> r.getData().isDone());
+  }
+
+  /**
+   * Reads ranges with a single range request. Returns null and aborts the request if all ranges
+   * were cancelled while they were read, e.g. read-ahead blocks discarded by seek or close.
+   */
+  @Nullable
+  private List<ByteBuffer> fetchMergedRange(
+      long start, long end, List<VectoredIORange> ranges, IntFunction<ByteBuffer> allocate)
+      throws IOException {
+    List<ByteBuffer> buffers = new ArrayList<>(ranges.size());
+    if (start == end) {
+      ranges.forEach(r -> buffers.add(allocate.apply(0)));
+      return buffers;
+    }
+    try (InputStream content = openRangeStream(start, end)) {
+      long position = start;
+      for (VectoredIORange range : ranges) {
+        ByteStreams.skipFully(content, range.getOffset() - position);
+        ByteBuffer buffer = allocate.apply(range.getLength());
+        if (!readFully(content, buffer, range.getLength(), () -> isDone(ranges))) {
+          logger.atFiner().log(
+              "Aborted cancelled read of [%d, %d) range of '%s'", start, end, resourceId);
+          return null;
+        }
+        buffer.flip();
+        buffers.add(buffer);
+        position = range.getEnd();
+      }
+    } catch (EOFException e) {
+      // Premature end of the HTTP response is a transient error, retry it.
+      throw new IOException(
+          String.format("Premature end of [%d, %d) range of '%s'", start, end, resourceId), e);
+    }
+    logger.atFiner().log(
+        "Read [%d, %d) range with %d vectored ranges from '%s'",
+        start, end, ranges.size(), resourceId);
+    return buffers;
+  }
+
+  /**
+   * Opens an input stream over the {@code [start, end)} range of the object, used by vectored
+   * reads, read-ahead and block cache.
+   *
+   * @throws IOException on IO error
+   */
+  protected InputStream openRangeStream(long start, long end) throws IOException {
+    Get getObject = createDataRequest("bytes=" + start + "-" + (end - 1));
+    HttpResponse response;
+    try {
+      response = getObject.executeMedia();
+    } catch (IOException e) {
+      throw handleExecuteMediaException(e, start);
+    }
+    return response.getContent();
+  }
+
+  /**
+   * Reads {@code length} bytes into the buffer, checking whether the read was cancelled after each
+   * {@link #RANGE_READ_CANCELLATION_CHECK_SIZE} bytes.
+   *
+   * @return false if the read was cancelled before all bytes were read
+   */
+  private static boolean readFully(
+      InputStream in, ByteBuffer buffer, int length, BooleanSupplier cancelled)
+      throws IOException {
+    byte[] chunk =
+        buffer.hasArray() ? null : new byte[Math.min(length, RANGE_READ_CANCELLATION_CHECK_SIZE)];
+    while (length > 0) {
+      if (cancelled.getAsBoolean()) {
+        return false;
+      }
+      int toRead = Math.min(length, RANGE_READ_CANCELLATION_CHECK_SIZE);
+      if (chunk == null) {
+        ByteStreams.readFully(in, buffer.array(), buffer.arrayOffset() + buffer.position(), toRead);
+        buffer.position(buffer.position() + toRead);
+      } else {
+        ByteStreams.readFully(in, chunk, 0, toRead);
+        buffer.put(chunk, 0, toRead);
+      }
+      length -= toRead;
+    }
+    return true;
+  }
+
+  private void readVectoredSequentially(
+      List<VectoredIORange> ranges, IntFunction<ByteBuffer> allocate) throws IOException {
+    long savedPosition = currentPosition;
+    try {
+      for (VectoredIORange range : ranges) {
+        ByteBuffer buffer = allocate.apply(range.getLength());
+        try {
+          if (range.getLength() > 0) {
+            position(range.getOffset());
+            while (buffer.position() < range.getLength()) {
+              if (read(buffer) < 0) {
+                throw new EOFException(
+                    String.format("Premature end of %s range of '%s'", range, resourceId));
+              }
+            }
+          }
+          buffer.flip();
+          range.getData().complete(buffer);
+        } catch (IOException e) {
+          range.getData().completeExceptionally(e);
+        }
+      }
+    } finally {
+      currentPosition = savedPosition;
+    }
+  }
+
+  private boolean supportsRangeReads() throws IOException {
+    if (!metadataInitialized) {
+      initMetadata(fetchInitialMetadata());
+    }
+    // Gzip-encoded objects do not support range requests.
+    return !gzipEncoded;
+  }
+
+  /** Serves read from the process-wide block cache, loading missing blocks from GCS. */
+  private int readWithBlockCache(ByteBuffer buffer) throws IOException {
+    if (currentPosition == size) {
+      return -1;
+    }
+    int totalBytesRead = 0;
+    while (buffer.hasRemaining() && currentPosition < size) {
+      long blockIndex = currentPosition / blockCache.getBlockSize();
+      ByteBuffer block =
+          blockCache.getBlock(
+              resourceId, resourceId.getGenerationId(), blockIndex, size, this::readBlock);
+      int blockOffset = Math.toIntExact(currentPosition - blockIndex * blockCache.getBlockSize());
+      int bytesToCopy = Math.min(buffer.remaining(), block.limit() - blockOffset);
+      block.position(blockOffset);
+      block.limit(blockOffset + bytesToCopy);
+      buffer.put(block);
+      currentPosition += bytesToCopy;
+      totalBytesRead += bytesToCopy;
+    }
+    return totalBytesRead;
+  }
+
+  private ByteBuffer readBlock(long offset, int length) throws IOException {
+    VectoredIORange block = new VectoredIORange(offset, length);
+    readMergedRange(ImmutableList.of(block), ByteBuffer::allocate);
+    return getRangeData(block);
+  }
+
+  private ByteBuffer getRangeData(VectoredIORange range) throws IOException {
+    try {
+      return range.getData().get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Thread interrupt received.", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(
+          String.format("Failed to read %s of '%s'", range, resourceId), e.getCause());
+    }
+  }
+
+  private boolean isReadAheadEnabled() throws IOException {
+    return readOptions.getReadAheadBlockCount() > 0
+        && readOptions.getFadvise() == Fadvise.SEQUENTIAL
+        && supportsRangeReads();
+  }
+
+  private boolean isParallelDownloadEnabled() throws IOException {
+    if (readOptions.getParallelDownloadConnections() <= 0
+        || (readOptions.getFadvise() != Fadvise.SEQUENTIAL
+            && readOptions.getFadvise() != Fadvise.AUTO)
+        || randomAccess
+        || !supportsRangeReads()
+        || size < readOptions.getParallelDownloadMinObjectSize()) {
+      return false;
+    }
+    if (readOptions.getFadvise() == Fadvise.AUTO && isBeforeReadAheadWindow()) {
+      logger.atFine().log(
+          "Detected backward read to %s position, stopping parallel download for '%s'",
+          currentPosition, resourceId);
+      cancelReadAhead();
+      setRandomAccess();
+      return false;
+    }
+    return true;
+  }
+
+  private boolean isBeforeReadAheadWindow() {
+    long windowStart =
+        readAheadBuffer != null
+            ? readAheadBufferPosition
+            : readAheadBlocks.isEmpty()
+                ? readAheadNextPosition
+                : readAheadBlocks.peekFirst().getOffset();
+    return windowStart >= 0 && currentPosition < windowStart;
+  }
+
+  /**
+   * Serves read from blocks that are fetched in background by the read-ahead prefetcher, which
+   * keeps up to {@link GoogleCloudStorageReadOptions#getReadAheadBlockCount()} blocks in flight
+   * ahead of the current position.
+   *
+   * <p>Parallel download uses the same prefetcher, but with {@link
+   * GoogleCloudStorageReadOptions#getParallelDownloadConnections()} chunks in flight, so memory
+   * usage is bounded by the number of connections multiplied by the chunk size.
+   */
+  private int readWithReadAhead(ByteBuffer buffer) throws IOException {
+    if (currentPosition == size) {
+      return -1;
+    }
+    int totalBytesRead = 0;
+    while (buffer.hasRemaining() && currentPosition < size) {
+      if (readAheadBuffer == null
+          || currentPosition < readAheadBufferPosition
+          || currentPosition >= readAheadBufferPosition + readAheadBuffer.limit()) {
+        nextReadAheadBlock();
+      }
+      int blockOffset = Math.toIntExact(currentPosition - readAheadBufferPosition);
+      int bytesToCopy = Math.min(buffer.remaining(), readAheadBuffer.limit() - blockOffset);
+      ByteBuffer data = readAheadBuffer.duplicate();
+      data.position(blockOffset);
+      data.limit(blockOffset + bytesToCopy);
+      buffer.put(data);
+      currentPosition += bytesToCopy;
+      totalBytesRead += bytesToCopy;
+    }
+    return totalBytesRead;
+  }
+
+  /** Waits for the read-ahead block that contains {@link #currentPosition}. */
+  private void nextReadAheadBlock() throws IOException {
+    readAheadBuffer = null;
+    readAheadBufferPosition = -1;
+
+    // Discard blocks that were skipped by forward seek.
+    while (!readAheadBlocks.isEmpty() && readAheadBlocks.peekFirst().getEnd() <= currentPosition) {
+      readAheadBlocks.pollFirst().getData().cancel(/* mayInterruptIfRunning= */ false);
+    }
+    // Restart read-ahead if position is outside of the read-ahead window.
+    if (readAheadBlocks.isEmpty()
+        ? currentPosition != readAheadNextPosition
+        : currentPosition < readAheadBlocks.peekFirst().getOffset()) {
+      logger.atFiner().log(
+          "Restarting read-ahead at %d position for '%s'", currentPosition, resourceId);
+      cancelReadAhead();
+      readAheadNextPosition = currentPosition;
+    }
+    scheduleReadAheadBlocks();
+
+    VectoredIORange block = readAheadBlocks.pollFirst();
+    scheduleReadAheadBlocks();
+    try {
+      readAheadBuffer = getRangeData(block);
+      readAheadBufferPosition = block.getOffset();
+    } catch (IOException e) {
+      cancelReadAhead();
+      throw e;
+    }
+  }
+
+  private void scheduleReadAheadBlocks() {
+    boolean readAhead =
+        readOptions.getReadAheadBlockCount() > 0 && readOptions.getFadvise() == Fadvise.SEQUENTIAL;
+    int maxBlockCount =
+        readAhead
+            ? readOptions.getReadAheadBlockCount()
+            : readOptions.getParallelDownloadConnections();
+    int maxBlockSize =
+        readAhead ? readOptions.getReadAheadBlockSize() : readOptions.getParallelDownloadChunkSize();
+    while (readAheadBlocks.size() < maxBlockCount && readAheadNextPosition < size) {
+      int blockSize = Math.toIntExact(Math.min(maxBlockSize, size - readAheadNextPosition));
+      VectoredIORange block = new VectoredIORange(readAheadNextPosition, blockSize);
+      readAheadBlocks.addLast(block);
+      readAheadNextPosition += blockSize;
+      backgroundTasksExecutor.execute(
+          () -> readMergedRange(ImmutableList.of(block), ByteBuffer::allocate));
+    }
+  }
+
+  private void cancelReadAhead() {
+    for (VectoredIORange block : readAheadBlocks) {
+      block.getData().cancel(/* mayInterruptIfRunning= */ false);
+    }
+    readAheadBlocks.clear();
+    readAheadBuffer = null;
+    readAheadBufferPosition = -1;
+    readAheadNextPosition = -1;
+  }
+
   @Override
   public SeekableByteChannel truncate(long size) throws IOException {
     throw new UnsupportedOperationException("Cannot mutate read-only channel");
@@ -499,6 +1118,7 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
     logger.atFiner().log("Closing channel for '%s'", resourceId);
     channelIsOpen = false;
     closeContentChannel();
+    cancelReadAhead();
   }
 
   /**
@@ -563,6 +1183,30 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
     return !gzipEncoded && !randomAccess && readOptions.getFadvise() == Fadvise.AUTO;
   }
 
+  private void updateAdaptiveAccess() {
+    if (gzipEncoded) {
+      return;
+    }
+    boolean adaptiveRandomAccess = readPatternTracker.isRandomAccess();
+    if (adaptiveRandomAccess != randomAccess) {
+      logger.atFine().log(
+          "Detected %s reads at %s position, switching to %s IO for '%s'",
+          adaptiveRandomAccess ? "random" : "contiguous",
+          currentPosition,
+          adaptiveRandomAccess ? "random" : "sequential",
+          resourceId);
+      randomAccess = adaptiveRandomAccess;
+    }
+  }
+
+  /** Returns size of the range request used to read {@code bytesToRead} bytes in random mode. */
+  private long getRandomRangeRequestSize(long bytesToRead) {
+    long rangeRequestSize = Math.max(bytesToRead, readOptions.getMinRangeRequestSize());
+    return readPatternTracker == null
+        ? rangeRequestSize
+        : Math.max(rangeRequestSize, readPatternTracker.getAverageRunLength());
+  }
+
   private void setRandomAccess() {
     randomAccess = true;
     checkEncodingAndAccess();
@@ -697,7 +1341,9 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
     }
 
     if (contentChannel == null) {
-      if (isRandomAccessPattern(oldPosition)) {
+      if (readPatternTracker != null) {
+        updateAdaptiveAccess();
+      } else if (isRandomAccessPattern(oldPosition)) {
         setRandomAccess();
       }
       openContentChannel(bytesToRead);
@@ -721,6 +1367,13 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
 
   /* Initializes metadata (size, encoding, etc) from {@link GoogleCloudStorageItemInfo} */
   private void initMetadata(GoogleCloudStorageItemInfo info) throws IOException {
+    byte[] crc32cBytes =
+        info.getVerificationAttributes() == null
+            ? null
+            : info.getVerificationAttributes().getCrc32c();
+    if (crc32cBytes != null && crc32cBytes.length == Ints.BYTES) {
+      expectedCrc32c = Ints.fromByteArray(crc32cBytes);
+    }
     initMetadata(info.getContentEncoding(), info.getSize(), info.getContentGeneration());
   }
 
@@ -746,9 +1399,26 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
         range == null
             ? headers.getContentLength()
             : Long.parseLong(range.substring(range.lastIndexOf('/') + 1));
+    expectedCrc32c = getCrc32c(headers);
     initMetadata(headers.getContentEncoding(), sizeFromMetadata, generation);
   }
 
+  /** Returns object CRC32C checksum from the {@code x-goog-hash} HTTP header, if present. */
+  @Nullable
+  private static Integer getCrc32c(HttpHeaders headers) {
+    List<String> hashHeaders = headers.getHeaderStringValues("x-goog-hash");
+    for (String hashHeader : hashHeaders == null ? ImmutableList.<String>of() : hashHeaders) {
+      for (String hash : hashHeader.split(",")) {
+        hash = hash.trim();
+        if (hash.startsWith(CRC32C_HASH_PREFIX)) {
+          byte[] crc32c = BaseEncoding.base64().decode(hash.substring(CRC32C_HASH_PREFIX.length()));
+          return crc32c.length == Ints.BYTES ? Ints.fromByteArray(crc32c) : null;
+        }
+      }
+    }
+    return null;
+  }
+
   /** Initializes metadata (size, encoding, etc) from passed parameters. */
   @VisibleForTesting
   protected void initMetadata(@Nullable String encoding, long sizeFromMetadata, long generation)
@@ -788,6 +1458,14 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
     logger.atFiner().log(
         "Initialized metadata (gzipEncoded=%s, size=%s, randomAccess=%s, generation=%s) for '%s'",
         gzipEncoded, size, randomAccess, resourceId.getGenerationId(), resourceId);
+
+    if (footerCache != null && !gzipEncoded) {
+      footerContent = footerCache.getFooter(resourceId, generation);
+      if (footerContent != null) {
+        logger.atFiner().log(
+            "Using %s bytes cached footer for '%s'", footerContent.length, resourceId);
+      }
+    }
   }
 
   private void cacheFooter(HttpResponse response) throws IOException {
@@ -818,6 +1496,9 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
       throw e;
     }
     logger.atFiner().log("Prefetched %s bytes footer for '%s'", footerContent.length, resourceId);
+    if (footerCache != null) {
+      footerCache.putFooter(resourceId, resourceId.getGenerationId(), footerContent);
+    }
   }
 
   /**
@@ -881,7 +1562,7 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
       // Set rangeSize to the size of the file reminder from currentPosition.
       long rangeSize = size - contentChannelPosition;
       if (randomAccess) {
-        long randomRangeSize = Math.max(bytesToRead, readOptions.getMinRangeRequestSize());
+        long randomRangeSize = getRandomRangeRequestSize(bytesToRead);
         // Limit rangeSize to the randomRangeSize.
         rangeSize = Math.min(randomRangeSize, rangeSize);
       }
@@ -1077,14 +1758,19 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
    *     error.
    */
   private HttpResponse handleExecuteMediaException(IOException e) throws IOException {
+    throw handleExecuteMediaException(e, currentPosition);
+  }
+
+  /** Translates {@code e} thrown by a request that reads data at {@code position}. */
+  private IOException handleExecuteMediaException(IOException e, long position) {
     if (errorExtractor.itemNotFound(e)) {
-      throw createFileNotFoundException(resourceId, e);
+      return createFileNotFoundException(resourceId, e);
     }
-    String msg = String.format("Error reading '%s' at position %d", resourceId, currentPosition);
+    String msg = String.format("Error reading '%s' at position %d", resourceId, position);
     if (errorExtractor.rangeNotSatisfiable(e)) {
-      throw (EOFException) new EOFException(msg).initCause(e);
+      return (EOFException) new EOFException(msg).initCause(e);
     }
-    throw new IOException(msg, e);
+    return new IOException(msg, e);
   }
 
   private Get createDataRequest(String rangeHeader) throws IOException {
@@ -32,7 +32,8 @@ public abstract class GoogleCloudStorageReadOptions {
   public enum Fadvise {
     AUTO,
     RANDOM,
-    SEQUENTIAL
+    SEQUENTIAL,
+    ADAPTIVE
   }
 
   public static final int DEFAULT_BACKOFF_INITIAL_INTERVAL_MILLIS = 200;
@@ -46,8 +47,24 @@ public abstract class GoogleCloudStorageReadOptions {
   public static final Fadvise DEFAULT_FADVISE = Fadvise.SEQUENTIAL;
   public static final int DEFAULT_MIN_RANGE_REQUEST_SIZE = 2 * 1024 * 1024;
   public static final boolean GRPC_CHECKSUMS_ENABLED_DEFAULT = false;
+  public static final boolean DEFAULT_GRPC_READ_ZERO_COPY_ENABLED = true;
   public static final long DEFAULT_GRPC_READ_TIMEOUT_MILLIS = 20 * 60 * 1000;
   public static final long DEFAULT_GRPC_READ_METADATA_TIMEOUT_MILLIS = 60 * 1000;
+  public static final int DEFAULT_GRPC_READ_AHEAD_WINDOW_SIZE = 0;
+  public static final int DEFAULT_VECTORED_READ_MIN_RANGE_SEEK_SIZE = 4 * 1024;
+  public static final int DEFAULT_VECTORED_READ_MERGED_RANGE_MAX_SIZE = 8 * 1024 * 1024;
+  public static final int DEFAULT_VECTORED_READ_MAX_CONCURRENT_REQUESTS = 16;
+  public static final int DEFAULT_READ_AHEAD_BLOCK_COUNT = 0;
+  public static final int DEFAULT_READ_AHEAD_BLOCK_SIZE = 8 * 1024 * 1024;
+  public static final int DEFAULT_PARALLEL_DOWNLOAD_CONNECTIONS = 0;
+  public static final int DEFAULT_PARALLEL_DOWNLOAD_CHUNK_SIZE = 16 * 1024 * 1024;
+  public static final long DEFAULT_PARALLEL_DOWNLOAD_MIN_OBJECT_SIZE = 128 * 1024 * 1024;
+  public static final long DEFAULT_BLOCK_CACHE_MAX_SIZE = 0;
+  public static final int DEFAULT_BLOCK_CACHE_BLOCK_SIZE = 1024 * 1024;
+  public static final int DEFAULT_ADAPTIVE_FADVISE_WINDOW_SIZE = 16;
+  public static final int DEFAULT_ADAPTIVE_FADVISE_MAX_RANGE_REQUEST_SIZE = 8 * 1024 * 1024;
+  public static final boolean DEFAULT_BLOCK_CACHE_OFF_HEAP_ENABLED = false;
+  public static final boolean DEFAULT_CHECKSUM_VALIDATION_ENABLED = false;
 
   // Default builder should be initialized after default values,
   // otherwise it will access not initialized default values.
@@ -65,9 +82,25 @@ public abstract class GoogleCloudStorageReadOptions {
         .setInplaceSeekLimit(DEFAULT_INPLACE_SEEK_LIMIT)
         .setFadvise(DEFAULT_FADVISE)
         .setMinRangeRequestSize(DEFAULT_MIN_RANGE_REQUEST_SIZE)
+        .setAdaptiveFadviseWindowSize(DEFAULT_ADAPTIVE_FADVISE_WINDOW_SIZE)
+        .setAdaptiveFadviseMaxRangeRequestSize(DEFAULT_ADAPTIVE_FADVISE_MAX_RANGE_REQUEST_SIZE)
         .setGrpcChecksumsEnabled(GRPC_CHECKSUMS_ENABLED_DEFAULT)
         .setGrpcReadTimeoutMillis(DEFAULT_GRPC_READ_TIMEOUT_MILLIS)
-        .setGrpcReadMetadataTimeoutMillis(DEFAULT_GRPC_READ_METADATA_TIMEOUT_MILLIS);
+        .setGrpcReadZeroCopyEnabled(DEFAULT_GRPC_READ_ZERO_COPY_ENABLED)
+        .setGrpcReadMetadataTimeoutMillis(DEFAULT_GRPC_READ_METADATA_TIMEOUT_MILLIS)
+        .setGrpcReadAheadWindowSize(DEFAULT_GRPC_READ_AHEAD_WINDOW_SIZE)
+        .setVectoredReadMinRangeSeekSize(DEFAULT_VECTORED_READ_MIN_RANGE_SEEK_SIZE)
+        .setVectoredReadMergedRangeMaxSize(DEFAULT_VECTORED_READ_MERGED_RANGE_MAX_SIZE)
+        .setVectoredReadMaxConcurrentRequests(DEFAULT_VECTORED_READ_MAX_CONCURRENT_REQUESTS)
+        .setReadAheadBlockCount(DEFAULT_READ_AHEAD_BLOCK_COUNT)
+        .setReadAheadBlockSize(DEFAULT_READ_AHEAD_BLOCK_SIZE)
+        .setParallelDownloadConnections(DEFAULT_PARALLEL_DOWNLOAD_CONNECTIONS)
+        .setParallelDownloadChunkSize(DEFAULT_PARALLEL_DOWNLOAD_CHUNK_SIZE)
+        .setParallelDownloadMinObjectSize(DEFAULT_PARALLEL_DOWNLOAD_MIN_OBJECT_SIZE)
+        .setBlockCacheMaxSize(DEFAULT_BLOCK_CACHE_MAX_SIZE)
+        .setBlockCacheBlockSize(DEFAULT_BLOCK_CACHE_BLOCK_SIZE)
+        .setBlockCacheOffHeapEnabled(DEFAULT_BLOCK_CACHE_OFF_HEAP_ENABLED)
+        .setChecksumValidationEnabled(DEFAULT_CHECKSUM_VALIDATION_ENABLED);
   }
 
   public abstract Builder toBuilder();
@@ -102,6 +135,12 @@ public abstract class GoogleCloudStorageReadOptions {
   /** See {@link Builder#setMinRangeRequestSize}. */
   public abstract int getMinRangeRequestSize();
 
+  /** See {@link Builder#setAdaptiveFadviseWindowSize}. */
+  public abstract int getAdaptiveFadviseWindowSize();
+
+  /** See {@link Builder#setAdaptiveFadviseMaxRangeRequestSize}. */
+  public abstract int getAdaptiveFadviseMaxRangeRequestSize();
+
   /** See {@link Builder#setGrpcChecksumsEnabled}. */
   public abstract boolean isGrpcChecksumsEnabled();
 
@@ -112,9 +151,51 @@ public abstract class GoogleCloudStorageReadOptions {
   /** See {@link Builder#setGrpcReadTimeoutMillis}. */
   public abstract long getGrpcReadTimeoutMillis();
 
+  /** See {@link Builder#setGrpcReadZeroCopyEnabled}. */
+  public abstract boolean isGrpcReadZeroCopyEnabled();
+
   /** See {@link Builder#setGrpcReadMetadataTimeoutMillis}. */
   public abstract long getGrpcReadMetadataTimeoutMillis();
 
+  /** See {@link Builder#setGrpcReadAheadWindowSize}. */
+  public abstract int getGrpcReadAheadWindowSize();
+
+  /** See {@link Builder#setVectoredReadMinRangeSeekSize}. */
+  public abstract int getVectoredReadMinRangeSeekSize();
+
+  /** See {@link Builder#setVectoredReadMergedRangeMaxSize}. */
+  public abstract int getVectoredReadMergedRangeMaxSize();
+
+  /** See {@link Builder#setVectoredReadMaxConcurrentRequests}. */
+  public abstract int getVectoredReadMaxConcurrentRequests();
+
+  /** See {@link Builder#setReadAheadBlockCount}. */
+  public abstract int getReadAheadBlockCount();
+
+  /** See {@link Builder#setReadAheadBlockSize}. */
+  public abstract int getReadAheadBlockSize();
+
+  /** See {@link Builder#setParallelDownloadConnections}. */
+  public abstract int getParallelDownloadConnections();
+
+  /** See {@link Builder#setParallelDownloadChunkSize}. */
+  public abstract int getParallelDownloadChunkSize();
+
+  /** See {@link Builder#setParallelDownloadMinObjectSize}. */
+  public abstract long getParallelDownloadMinObjectSize();
+
+  /** See {@link Builder#setBlockCacheMaxSize}. */
+  public abstract long getBlockCacheMaxSize();
+
+  /** See {@link Builder#setBlockCacheBlockSize}. */
+  public abstract int getBlockCacheBlockSize();
+
+  /** See {@link Builder#setBlockCacheOffHeapEnabled}. */
+  public abstract boolean isBlockCacheOffHeapEnabled();
+
+  /** See {@link Builder#setChecksumValidationEnabled}. */
+  public abstract boolean isChecksumValidationEnabled();
+
   /** Mutable builder for GoogleCloudStorageReadOptions. */
   @AutoValue.Builder
   public abstract static class Builder {
@@ -185,6 +266,8 @@ public abstract class GoogleCloudStorageReadOptions {
      *   <li>{@code RANDOM} - sends HTTP requests with {@code Range} header set to greater of
      *       provided reade buffer by user.
      *   <li>{@code SEQUENTIAL} - sends HTTP requests with unbounded {@code Range} header.
+     *   <li>{@code ADAPTIVE} - switches between {@code RANDOM} and {@code SEQUENTIAL} modes based on
+     *       the recent reads and sizes range requests from lengths of the recent contiguous reads.
      * </ul>
      */
     public abstract Builder setFadvise(Fadvise fadvise);
@@ -195,6 +278,18 @@ public abstract class GoogleCloudStorageReadOptions {
      */
     public abstract Builder setMinRangeRequestSize(int size);
 
+    /**
+     * Sets the number of the recent reads that are used to detect access pattern in {@link
+     * Fadvise#ADAPTIVE} mode.
+     */
+    public abstract Builder setAdaptiveFadviseWindowSize(int adaptiveFadviseWindowSize);
+
+    /**
+     * Sets the maximum size of the range requests sized from lengths of the recent contiguous reads
+     * in {@link Fadvise#ADAPTIVE} mode.
+     */
+    public abstract Builder setAdaptiveFadviseMaxRangeRequestSize(int size);
+
     /**
      * Sets whether to validate checksums when doing gRPC reads. If enabled, for sequential reads of
      * a whole object, the object checksums will be validated.
@@ -210,9 +305,94 @@ public abstract class GoogleCloudStorageReadOptions {
     /** Sets the property to override the default GCS gRPC read stream timeout. */
     public abstract Builder setGrpcReadTimeoutMillis(long grpcReadTimeoutMillis);
 
+    /**
+     * Sets whether gRPC read responses are parsed without copying object content out of the
+     * received message buffers.
+     */
+    public abstract Builder setGrpcReadZeroCopyEnabled(boolean grpcReadZeroCopyEnabled);
+
     /** Sets the property to override the default timeout for GCS metadata reads from gRPC. */
     public abstract Builder setGrpcReadMetadataTimeoutMillis(long grpcReadMetadataTimeoutMillis);
 
+    /**
+     * Sets the number of object ranges that the gRPC read channel streams asynchronously ahead of
+     * the read position. Asynchronous reads are disabled if this is set to 0.
+     *
+     * <p>Each range stream requests more responses from the server only as its content is read and
+     * buffers at most 2 responses of up to 2 MiB each. So the memory used by received content that
+     * was not read yet is bounded by 4 MiB per range, i.e. by {@code 4 MiB * grpcReadAheadWindowSize}
+     * per channel, regardless of the range size.
+     *
+     * <p>Forward seeks within the streamed ranges are served from already received data, and reads
+     * that fall into a range that is already streamed do not start new streams. In {@link
+     * Fadvise#RANDOM} mode ranges are not streamed ahead of the range that serves the current read.
+     */
+    public abstract Builder setGrpcReadAheadWindowSize(int grpcReadAheadWindowSize);
+
+    /**
+     * Sets the maximum gap in bytes between two ranges of a vectored read for which ranges will be
+     * merged and fetched with a single request; bytes in the gap are read and discarded.
+     */
+    public abstract Builder setVectoredReadMinRangeSeekSize(int size);
+
+    /** Sets the maximum size in bytes of a merged range requested during a vectored read. */
+    public abstract Builder setVectoredReadMergedRangeMaxSize(int size);
+
+    /** Sets the maximum number of range requests issued in parallel by a single vectored read. */
+    public abstract Builder setVectoredReadMaxConcurrentRequests(int maxConcurrentRequests);
+
+    /**
+     * Sets the number of blocks that are fetched ahead of the read position in background when
+     * {@link Fadvise#SEQUENTIAL} mode is used. Read-ahead is disabled if this is set to 0.
+     */
+    public abstract Builder setReadAheadBlockCount(int readAheadBlockCount);
+
+    /** Sets the size in bytes of a single block fetched by the read-ahead prefetcher. */
+    public abstract Builder setReadAheadBlockSize(int readAheadBlockSize);
+
+    /**
+     * Sets the number of connections over which chunks of an object are downloaded concurrently
+     * during sequential reads of objects that are not smaller than {@link
+     * #setParallelDownloadMinObjectSize}. Parallel download is disabled if this is set to 0.
+     *
+     * <p>Parallel download is used only in {@link Fadvise#SEQUENTIAL} and {@link Fadvise#AUTO}
+     * modes, in the latter it stops after a backward seek. Read-ahead takes precedence over
+     * parallel download if both are enabled.
+     */
+    public abstract Builder setParallelDownloadConnections(int parallelDownloadConnections);
+
+    /**
+     * Sets the size in bytes of a single chunk fetched during parallel download. At most {@link
+     * #setParallelDownloadConnections} chunks are buffered in memory per read channel.
+     */
+    public abstract Builder setParallelDownloadChunkSize(int parallelDownloadChunkSize);
+
+    /** Sets the minimum size in bytes of an object that is read with parallel download. */
+    public abstract Builder setParallelDownloadMinObjectSize(long parallelDownloadMinObjectSize);
+
+    /**
+     * Sets the maximum size in bytes of the process-wide block cache that is shared by all read
+     * channels. Block cache is disabled if this is set to 0.
+     *
+     * <p>Block cache settings are applied only when the shared cache is created, i.e. when the
+     * first read channel with enabled block cache is opened in the process.
+     */
+    public abstract Builder setBlockCacheMaxSize(long blockCacheMaxSize);
+
+    /** Sets the size in bytes of the blocks in which object data is cached in the block cache. */
+    public abstract Builder setBlockCacheBlockSize(int blockCacheBlockSize);
+
+    /** Enables storing block cache data outside of the Java heap in direct byte buffers. */
+    public abstract Builder setBlockCacheOffHeapEnabled(boolean blockCacheOffHeapEnabled);
+
+    /**
+     * Enables CRC32C checksum validation of the object data read by the JSON API read channel.
+     * Checksum is computed incrementally while the object is read sequentially from its start and
+     * validated when the read reaches the end of the object. Reads served by the read-ahead or the
+     * block cache, reads that seek, and reads of gzip-encoded objects are not validated.
+     */
+    public abstract Builder setChecksumValidationEnabled(boolean checksumValidationEnabled);
+
     abstract GoogleCloudStorageReadOptions autoBuild();
 
     public GoogleCloudStorageReadOptions build() {
@@ -221,6 +401,54 @@ public abstract class GoogleCloudStorageReadOptions {
           options.getInplaceSeekLimit() >= 0,
           "inplaceSeekLimit must be non-negative! Got %s",
           options.getInplaceSeekLimit());
+      checkState(
+          options.getVectoredReadMinRangeSeekSize() >= 0,
+          "vectoredReadMinRangeSeekSize must be non-negative! Got %s",
+          options.getVectoredReadMinRangeSeekSize());
+      checkState(
+          options.getVectoredReadMaxConcurrentRequests() > 0,
+          "vectoredReadMaxConcurrentRequests must be positive! Got %s",
+          options.getVectoredReadMaxConcurrentRequests());
+      checkState(
+          options.getAdaptiveFadviseWindowSize() > 0,
+          "adaptiveFadviseWindowSize must be positive! Got %s",
+          options.getAdaptiveFadviseWindowSize());
+      checkState(
+          options.getAdaptiveFadviseMaxRangeRequestSize() > 0,
+          "adaptiveFadviseMaxRangeRequestSize must be positive! Got %s",
+          options.getAdaptiveFadviseMaxRangeRequestSize());
+      checkState(
+          options.getGrpcReadAheadWindowSize() >= 0,
+          "grpcReadAheadWindowSize must be non-negative! Got %s",
+          options.getGrpcReadAheadWindowSize());
+      checkState(
+          options.getReadAheadBlockCount() >= 0,
+          "readAheadBlockCount must be non-negative! Got %s",
+          options.getReadAheadBlockCount());
+      checkState(
+          options.getReadAheadBlockSize() > 0,
+          "readAheadBlockSize must be positive! Got %s",
+          options.getReadAheadBlockSize());
+      checkState(
+          options.getParallelDownloadConnections() >= 0,
+          "parallelDownloadConnections must be non-negative! Got %s",
+          options.getParallelDownloadConnections());
+      checkState(
+          options.getParallelDownloadChunkSize() > 0,
+          "parallelDownloadChunkSize must be positive! Got %s",
+          options.getParallelDownloadChunkSize());
+      checkState(
+          options.getParallelDownloadMinObjectSize() >= 0,
+          "parallelDownloadMinObjectSize must be non-negative! Got %s",
+          options.getParallelDownloadMinObjectSize());
+      checkState(
+          options.getBlockCacheMaxSize() >= 0,
+          "blockCacheMaxSize must be non-negative! Got %s",
+          options.getBlockCacheMaxSize());
+      checkState(
+          options.getBlockCacheBlockSize() > 0,
+          "blockCacheBlockSize must be positive! Got %s",
+          options.getBlockCacheBlockSize());
       return options;
     }
   }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.cloud.hadoop.util.CheckedFunction;
+import com.google.common.flogger.GoogleLogger;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Channel that buffers written data in memory up to the threshold and uploads it on close with a
+ * single direct upload request, to avoid the overhead of a resumable upload session for small
+ * objects. If written data exceeds the threshold, then buffered and all subsequent data is written
+ * to the regular upload channel.
+ */
+class GoogleCloudStorageSmallObjectWriteChannel
+    implements WritableByteChannel, GoogleCloudStorageItemInfo.Provider {
+
+  private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
+
+  private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+  private final StorageResourceId resourceId;
+  private final int threshold;
+  // Creates upload channel, function argument specifies whether to use direct upload.
+  private final CheckedFunction<Boolean, WritableByteChannel, IOException> channelFactory;
+
+  private ByteBuffer buffer;
+  private WritableByteChannel delegate;
+  private boolean open = true;
+
+  GoogleCloudStorageSmallObjectWriteChannel(
+      StorageResourceId resourceId,
+      int threshold,
+      CheckedFunction<Boolean, WritableByteChannel, IOException> channelFactory) {
+    checkArgument(threshold > 0, "threshold should be positive, but was %s", threshold);
+    this.resourceId = resourceId;
+    this.threshold = threshold;
+    this.channelFactory = channelFactory;
+    this.buffer = ByteBuffer.allocate(Math.min(threshold, INITIAL_BUFFER_SIZE));
+  }
+
+  @Override
+  public int write(ByteBuffer src) throws IOException {
+    if (!open) {
+      throw new ClosedChannelException();
+    }
+    if (delegate != null) {
+      return delegate.write(src);
+    }
+    int length = src.remaining();
+    if (buffer.position() + length > threshold) {
+      logger.atFiner().log(
+          "Written data exceeds %s bytes threshold, using upload channel for %s",
+          threshold, resourceId);
+      delegate = createDelegate(/* directUpload= */ false);
+      return delegate.write(src);
+    }
+    if (buffer.remaining() < length) {
+      int newCapacity =
+          Math.min(threshold, Math.max(buffer.capacity() * 2, buffer.position() + length));
+      ByteBuffer newBuffer = ByteBuffer.allocate(newCapacity);
+      buffer.flip();
+      newBuffer.put(buffer);
+      buffer = newBuffer;
+    }
+    buffer.put(src);
+    return length;
+  }
+
+  @Override
+  public boolean isOpen() {
+    return open;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!open) {
+      return;
+    }
+    open = false;
+    if (delegate == null) {
+      logger.atFiner().log(
+          "Uploading %s bytes to %s with direct upload", buffer.position(), resourceId);
+      delegate = createDelegate(/* directUpload= */ true);
+    }
+    delegate.close();
+  }
+
+  @Override
+  public GoogleCloudStorageItemInfo getItemInfo() {
+    return delegate instanceof GoogleCloudStorageItemInfo.Provider
+        ? ((GoogleCloudStorageItemInfo.Provider) delegate).getItemInfo()
+        : null;
+  }
+
+  /** Creates upload channel and writes all buffered data into it. */
+  private WritableByteChannel createDelegate(boolean directUpload) throws IOException {
+    WritableByteChannel channel = channelFactory.apply(directUpload);
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer = null;
+    return channel;
+  }
+}
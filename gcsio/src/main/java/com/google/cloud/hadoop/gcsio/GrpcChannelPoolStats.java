@@ -0,0 +1,63 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import com.google.auto.value.AutoValue;
+
+/** Snapshot of the request metrics aggregated over the gRPC channels in the channel pool. */
+@AutoValue
+public abstract class GrpcChannelPoolStats {
+
+  public static Builder builder() {
+    return new AutoValue_GrpcChannelPoolStats.Builder();
+  }
+
+  /** Number of channels in the pool. */
+  public abstract int getChannels();
+
+  /** Number of channels that were replaced because they were stalled, failing or slow. */
+  public abstract long getReplacedChannels();
+
+  public abstract int getActiveRequests();
+
+  public abstract long getCompletedRequests();
+
+  public abstract long getFailedRequests();
+
+  /** Number of response messages requested by the active requests and not received yet. */
+  public abstract int getPendingResponses();
+
+  public abstract long getReceivedBytes();
+
+  /** Builder for {@link GrpcChannelPoolStats} */
+  @AutoValue.Builder
+  public abstract static class Builder {
+    public abstract Builder setChannels(int channels);
+
+    public abstract Builder setReplacedChannels(long replacedChannels);
+
+    public abstract Builder setActiveRequests(int activeRequests);
+
+    public abstract Builder setCompletedRequests(long completedRequests);
+
+    public abstract Builder setFailedRequests(long failedRequests);
+
+    public abstract Builder setPendingResponses(int pendingResponses);
+
+    public abstract Builder setReceivedBytes(long receivedBytes);
+
+    public abstract GrpcChannelPoolStats build();
+  }
+}
@@ -13,14 +13,20 @@
  */
 package com.google.cloud.hadoop.gcsio;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.WritableByteChannel;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import javax.annotation.Nullable;
 
 /**
  * This class adds a caching layer around a GoogleCloudStorage instance, caching calls that create,
@@ -29,12 +35,19 @@ import java.util.List;
  * GoogleCloudStorage#getItemInfo(StorageResourceId)}. This provides faster access to recently
  * queried data in the scope of this instance. Because the data is cached, modifications made
  * outside of this instance may not be immediately reflected.
+ *
+ * <p>Optionally, "not found" results of {@link GoogleCloudStorage#getItemInfo(StorageResourceId)}
+ * and {@link GoogleCloudStorage#getItemInfos(List)} requests are cached for a short time in a
+ * separate negative cache, which is invalidated after objects are created through this instance.
  */
 public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudStorage {
 
   /** Cache to hold item info and manage invalidation. */
   private final PrefixMappedItemCache cache;
 
+  /** Cache to hold "not found" item info, null if negative caching is disabled. */
+  @Nullable private final Cache<StorageResourceId, GoogleCloudStorageItemInfo> negativeCache;
+
   /**
    * Creates a wrapper around a GoogleCloudStorage instance, caching calls that create, update,
    * remove, and query for GoogleCloudStorageItemInfo. Those cached copies are returned when
@@ -48,20 +61,46 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
    */
   public PerformanceCachingGoogleCloudStorage(
       GoogleCloudStorage delegate, PerformanceCachingGoogleCloudStorageOptions options) {
-    this(delegate, createCache(options));
+    this(delegate, createCache(options), createNegativeCache(options));
   }
 
   @VisibleForTesting
   PerformanceCachingGoogleCloudStorage(
       GoogleCloudStorage delegate,
       PrefixMappedItemCache cache) {
+    this(delegate, cache, /* negativeCache= */ null);
+  }
+
+  @VisibleForTesting
+  PerformanceCachingGoogleCloudStorage(
+      GoogleCloudStorage delegate,
+      PrefixMappedItemCache cache,
+      @Nullable Cache<StorageResourceId, GoogleCloudStorageItemInfo> negativeCache) {
     super(delegate);
     this.cache = cache;
+    this.negativeCache = negativeCache;
   }
 
   private static PrefixMappedItemCache createCache(
       PerformanceCachingGoogleCloudStorageOptions options) {
-    return new PrefixMappedItemCache(Duration.ofMillis(options.getMaxEntryAgeMillis()));
+    return new PrefixMappedItemCache(
+        Duration.ofMillis(options.getMaxEntryAgeMillis()), options.getMaxEntries());
+  }
+
+  @Nullable
+  private static Cache<StorageResourceId, GoogleCloudStorageItemInfo> createNegativeCache(
+      PerformanceCachingGoogleCloudStorageOptions options) {
+    if (options.getNegativeEntryAgeMillis() <= 0) {
+      return null;
+    }
+    CacheBuilder<Object, Object> builder =
+        CacheBuilder.newBuilder()
+            .expireAfterWrite(options.getNegativeEntryAgeMillis(), MILLISECONDS)
+            .recordStats();
+    if (options.getMaxEntries() > 0) {
+      builder.maximumSize(options.getMaxEntries());
+    }
+    return builder.build();
   }
 
   @Override
@@ -69,11 +108,64 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
       throws IOException {
     // If the item exists in cache upon creation, remove it from cache so that later getItemInfo
     // will pull the most updated item info.
-    if (cache.getItem(resourceId) != null) {
-      cache.removeItem(resourceId);
+    invalidateItem(resourceId);
+
+    // Item info could be cached again while the object is written, so it should be invalidated
+    // after the object is committed too.
+    return new CacheInvalidatingWriteChannel(super.create(resourceId, options), resourceId);
+  }
+
+  @Override
+  public void createBucket(String bucketName, CreateBucketOptions options) throws IOException {
+    super.createBucket(bucketName, options);
+    invalidateNegativeCache(new StorageResourceId(bucketName));
+  }
+
+  @Override
+  public void createEmptyObject(StorageResourceId resourceId) throws IOException {
+    super.createEmptyObject(resourceId);
+    invalidateNegativeCache(resourceId);
+  }
+
+  @Override
+  public void createEmptyObject(StorageResourceId resourceId, CreateObjectOptions options)
+      throws IOException {
+    super.createEmptyObject(resourceId, options);
+    invalidateNegativeCache(resourceId);
+  }
+
+  @Override
+  public void createEmptyObjects(List<StorageResourceId> resourceIds) throws IOException {
+    super.createEmptyObjects(resourceIds);
+    resourceIds.forEach(this::invalidateNegativeCache);
+  }
+
+  @Override
+  public void createEmptyObjects(List<StorageResourceId> resourceIds, CreateObjectOptions options)
+      throws IOException {
+    super.createEmptyObjects(resourceIds, options);
+    resourceIds.forEach(this::invalidateNegativeCache);
+  }
+
+  @Override
+  public void copy(
+      String srcBucketName,
+      List<String> srcObjectNames,
+      String dstBucketName,
+      List<String> dstObjectNames)
+      throws IOException {
+    super.copy(srcBucketName, srcObjectNames, dstBucketName, dstObjectNames);
+    for (String dstObjectName : dstObjectNames) {
+      invalidateNegativeCache(new StorageResourceId(dstBucketName, dstObjectName));
     }
+  }
 
-    return super.create(resourceId, options);
+  @Override
+  public void compose(
+      String bucketName, List<String> sources, String destination, String contentType)
+      throws IOException {
+    super.compose(bucketName, sources, destination, contentType);
+    invalidateNegativeCache(new StorageResourceId(bucketName, destination));
   }
 
   @Override
@@ -102,7 +194,7 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
 
     // Add the results to the cache.
     for (GoogleCloudStorageItemInfo item : result) {
-      cache.putItem(item);
+      putItem(item);
     }
 
     return result;
@@ -124,7 +216,7 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
     List<GoogleCloudStorageItemInfo> result =
         super.listObjectInfo(bucketName, objectNamePrefix, listOptions);
     for (GoogleCloudStorageItemInfo item : result) {
-      cache.putItem(item);
+      putItem(item);
     }
 
     return result;
@@ -138,7 +230,7 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
     ListPage<GoogleCloudStorageItemInfo> result =
         super.listObjectInfoPage(bucketName, objectNamePrefix, listOptions, pageToken);
     for (GoogleCloudStorageItemInfo item : result.getItems()) {
-      cache.putItem(item);
+      putItem(item);
     }
     return result;
   }
@@ -147,7 +239,7 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
   @Override
   public GoogleCloudStorageItemInfo getItemInfo(StorageResourceId resourceId) throws IOException {
     // Get the item from cache.
-    GoogleCloudStorageItemInfo item = cache.getItem(resourceId);
+    GoogleCloudStorageItemInfo item = getCachedItem(resourceId);
     if (item != null) {
       return item;
     }
@@ -167,7 +259,7 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
     // If it wasn't in the cache and wasn't cached in directory list request
     // then request and cache it directly.
     item = super.getItemInfo(resourceId);
-    cache.putItem(item);
+    putItem(item);
     return item;
   }
 
@@ -181,7 +273,7 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
     // Populate the result list with items in the cache, and the request list with resources that
     // still need to be resolved. Null items are added to the result list to preserve ordering.
     for (StorageResourceId resourceId : resourceIds) {
-      GoogleCloudStorageItemInfo item = cache.getItem(resourceId);
+      GoogleCloudStorageItemInfo item = getCachedItem(resourceId);
       if (item == null) {
         request.add(resourceId);
       }
@@ -200,7 +292,7 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
       for (int i = 0; i < result.size() && responseIterator.hasNext(); i++) {
         if (result.get(i) == null) {
           GoogleCloudStorageItemInfo item = responseIterator.next();
-          cache.putItem(item);
+          putItem(item);
           result.set(i, item);
         }
       }
@@ -217,7 +309,7 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
     // Update the cache with the returned items. This overwrites the originals as the
     // StorageResourceIds of the items do not change in an update.
     for (GoogleCloudStorageItemInfo item : result) {
-      cache.putItem(item);
+      putItem(item);
     }
 
     return result;
@@ -230,7 +322,7 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
     GoogleCloudStorageItemInfo item = super.composeObjects(sources, destination, options);
 
     // Cache the composed object.
-    cache.putItem(item);
+    putItem(item);
 
     return item;
   }
@@ -240,12 +332,78 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
     super.close();
 
     // Respect close and empty the cache.
-    cache.invalidateAll();
+    invalidateCache();
   }
 
   @VisibleForTesting
   public void invalidateCache() {
     cache.invalidateAll();
+    if (negativeCache != null) {
+      negativeCache.invalidateAll();
+    }
+  }
+
+  /** Returns the number of item info requests served from cache. */
+  public long getCacheHitCount() {
+    return cache.getHitCount();
+  }
+
+  /** Returns the number of item info requests that were not found in cache. */
+  public long getCacheMissCount() {
+    return cache.getMissCount();
+  }
+
+  /** Returns the number of items evicted from cache because its max entries bound was exceeded. */
+  public long getCacheEvictionCount() {
+    return cache.getEvictionCount();
+  }
+
+  /** Returns the number of item info requests served from the negative cache. */
+  public long getNegativeCacheHitCount() {
+    return negativeCache == null ? 0 : negativeCache.stats().hitCount();
+  }
+
+  /** Returns the number of item info requests that were not found in the negative cache. */
+  public long getNegativeCacheMissCount() {
+    return negativeCache == null ? 0 : negativeCache.stats().missCount();
+  }
+
+  /** Returns the number of items evicted from the negative cache. */
+  public long getNegativeCacheEvictionCount() {
+    return negativeCache == null ? 0 : negativeCache.stats().evictionCount();
+  }
+
+  @Nullable
+  private GoogleCloudStorageItemInfo getCachedItem(StorageResourceId resourceId) {
+    GoogleCloudStorageItemInfo item = cache.getItem(resourceId);
+    if (item == null && negativeCache != null) {
+      item = negativeCache.getIfPresent(resourceId);
+    }
+    return item;
+  }
+
+  /** Caches existing item or, if negative caching is enabled, "not found" item. */
+  private void putItem(GoogleCloudStorageItemInfo item) {
+    if (item.exists()) {
+      cache.putItem(item);
+      invalidateNegativeCache(item.getResourceId());
+    } else if (negativeCache != null && !item.getResourceId().hasGenerationId()) {
+      negativeCache.put(item.getResourceId(), item);
+    }
+  }
+
+  /** Removes cached item info and "not found" result for the given resource. */
+  private void invalidateItem(StorageResourceId resourceId) {
+    if (cache.getItem(resourceId) != null) {
+      cache.removeItem(resourceId);
+    }
+    invalidateNegativeCache(resourceId);
+  }
+
+  private void invalidateNegativeCache(StorageResourceId resourceId) {
+    if (negativeCache != null) {
+      negativeCache.invalidate(resourceId);
+    }
   }
 
   // Resets requested object fields in list request to return all support object fields because we
@@ -257,4 +415,40 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
         ? listOptions
         : listOptions.toBuilder().setFields(GoogleCloudStorageImpl.OBJECT_FIELDS).build();
   }
+
+  /** Write channel that invalidates cached item info after the written object is committed. */
+  private class CacheInvalidatingWriteChannel
+      implements WritableByteChannel, GoogleCloudStorageItemInfo.Provider {
+
+    private final WritableByteChannel delegate;
+    private final StorageResourceId resourceId;
+
+    CacheInvalidatingWriteChannel(WritableByteChannel delegate, StorageResourceId resourceId) {
+      this.delegate = delegate;
+      this.resourceId = resourceId;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+      return delegate.write(src);
+    }
+
+    @Override
+    public boolean isOpen() {
+      return delegate.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+      delegate.close();
+      invalidateItem(resourceId);
+    }
+
+    @Override
+    public GoogleCloudStorageItemInfo getItemInfo() {
+      return delegate instanceof GoogleCloudStorageItemInfo.Provider
+          ? ((GoogleCloudStorageItemInfo.Provider) delegate).getItemInfo()
+          : null;
+    }
+  }
 }
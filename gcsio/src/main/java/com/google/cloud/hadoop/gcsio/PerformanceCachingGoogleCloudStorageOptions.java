@@ -22,11 +22,19 @@ public abstract class PerformanceCachingGoogleCloudStorageOptions {
   /** Max age of an item in cache in milliseconds. */
   public static final long MAX_ENTRY_AGE_MILLIS_DEFAULT = 5_000;
 
+  /** Max number of items in cache. */
+  public static final long MAX_ENTRIES_DEFAULT = 100_000;
+
+  /** Max age of a "not found" result in cache in milliseconds, 0 disables negative caching. */
+  public static final long NEGATIVE_ENTRY_AGE_MILLIS_DEFAULT = 0;
+
   public static final PerformanceCachingGoogleCloudStorageOptions DEFAULT = builder().build();
 
   public static Builder builder() {
     return new AutoValue_PerformanceCachingGoogleCloudStorageOptions.Builder()
-        .setMaxEntryAgeMillis(MAX_ENTRY_AGE_MILLIS_DEFAULT);
+        .setMaxEntryAgeMillis(MAX_ENTRY_AGE_MILLIS_DEFAULT)
+        .setMaxEntries(MAX_ENTRIES_DEFAULT)
+        .setNegativeEntryAgeMillis(NEGATIVE_ENTRY_AGE_MILLIS_DEFAULT);
   }
 
   public abstract Builder toBuilder();
@@ -34,6 +42,12 @@ public abstract class PerformanceCachingGoogleCloudStorageOptions {
   /** Gets the max age of an item in cache in milliseconds. */
   public abstract long getMaxEntryAgeMillis();
 
+  /** Gets the max number of items in cache, 0 if the number of items is not bounded. */
+  public abstract long getMaxEntries();
+
+  /** Gets the max age of a "not found" result in cache in milliseconds. */
+  public abstract long getNegativeEntryAgeMillis();
+
   /** Builder class for PerformanceCachingGoogleCloudStorageOptions. */
   @AutoValue.Builder
   public abstract static class Builder {
@@ -41,6 +55,18 @@ public abstract class PerformanceCachingGoogleCloudStorageOptions {
     /** Sets the max age of an item in cache in milliseconds. */
     public abstract Builder setMaxEntryAgeMillis(long maxEntryAgeMillis);
 
+    /**
+     * Sets the max number of items in cache, least recently used items are evicted when it is
+     * exceeded. The number of items is not bounded if this is set to 0.
+     */
+    public abstract Builder setMaxEntries(long maxEntries);
+
+    /**
+     * Sets the max age of a "not found" result in cache in milliseconds. Negative caching is
+     * disabled if this is set to 0.
+     */
+    public abstract Builder setNegativeEntryAgeMillis(long negativeEntryAgeMillis);
+
     public abstract PerformanceCachingGoogleCloudStorageOptions build();
   }
 }
@@ -15,17 +15,22 @@ package com.google.cloud.hadoop.gcsio;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Strings.nullToEmpty;
+import static java.util.Comparator.comparingLong;
 import static java.util.Comparator.naturalOrder;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Ticker;
+import com.google.common.flogger.GoogleLogger;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import javax.annotation.Nullable;
 
 /**
@@ -33,32 +38,75 @@ import javax.annotation.Nullable;
  * the item's bucket and object name. In addition to caching {@link StorageResourceId} to item
  * mappings, it provides options for storing groups of items under similar bucket and object name
  * prefixes.
+ *
+ * <p>This class is thread-safe. Items are stored in a concurrent sorted map, so reads do not take
+ * any locks and do not contend with each other or with concurrent updates. Prefix invalidation is
+ * weakly consistent: items inserted concurrently with the invalidation of their prefix may remain
+ * in the cache, as if they were inserted right after it.
+ *
+ * <p>If the number of entries is bounded, least recently used entries are evicted in batches when
+ * the bound is exceeded, so the cache shrinks to {@link #EVICTION_TARGET_RATIO} of the bound.
  */
 public class PrefixMappedItemCache {
 
+  private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
+
+  /** Fraction of the max entries bound to which the cache is shrunk during eviction. */
+  private static final double EVICTION_TARGET_RATIO = 0.9;
+
   /** Map to hold item info. */
-  private final TreeMap<PrefixKey, CacheValue<GoogleCloudStorageItemInfo>> itemMap;
+  private final ConcurrentNavigableMap<PrefixKey, CacheValue<GoogleCloudStorageItemInfo>> itemMap;
 
   /** The time in nanoseconds before an entry expires. */
   private final long maxEntryAgeNanos;
 
+  /** The maximum number of entries in the cache, 0 if the number of entries is not bounded. */
+  private final long maxEntries;
+
   /** Ticker for tracking expiration. */
   private final Ticker ticker;
 
+  /** Number of entries in the item map. */
+  private final AtomicLong size = new AtomicLong();
+
+  /** Whether eviction is in progress, at most one thread evicts entries at a time. */
+  private final AtomicBoolean evicting = new AtomicBoolean();
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+
   /**
    * Creates a new {@link PrefixMappedItemCache}.
    *
    * @param maxEntryAge time after which entries in cache expire.
    */
   public PrefixMappedItemCache(Duration maxEntryAge) {
-    this(Ticker.systemTicker(), maxEntryAge);
+    this(maxEntryAge, /* maxEntries= */ 0);
+  }
+
+  /**
+   * Creates a new {@link PrefixMappedItemCache}.
+   *
+   * @param maxEntryAge time after which entries in cache expire.
+   * @param maxEntries the maximum number of entries in the cache, 0 for no limit.
+   */
+  public PrefixMappedItemCache(Duration maxEntryAge, long maxEntries) {
+    this(Ticker.systemTicker(), maxEntryAge, maxEntries);
   }
 
   @VisibleForTesting
   PrefixMappedItemCache(Ticker ticker, Duration maxEntryAge) {
-    this.itemMap = new TreeMap<>(PrefixKey.COMPARATOR);
+    this(ticker, maxEntryAge, /* maxEntries= */ 0);
+  }
+
+  @VisibleForTesting
+  PrefixMappedItemCache(Ticker ticker, Duration maxEntryAge, long maxEntries) {
+    checkArgument(maxEntries >= 0, "maxEntries must be non-negative, but was %s", maxEntries);
+    this.itemMap = new ConcurrentSkipListMap<>(PrefixKey.COMPARATOR);
     this.ticker = ticker;
     this.maxEntryAgeNanos = maxEntryAge.toNanos();
+    this.maxEntries = maxEntries;
   }
 
   /**
@@ -68,19 +116,26 @@ public class PrefixMappedItemCache {
    * @return the cached item associated with the given resource id, null if the item isn't cached or
    *     it has expired in the cache.
    */
-  public synchronized GoogleCloudStorageItemInfo getItem(StorageResourceId id) {
+  public GoogleCloudStorageItemInfo getItem(StorageResourceId id) {
     PrefixKey key = new PrefixKey(id.getBucketName(), id.getObjectName());
     CacheValue<GoogleCloudStorageItemInfo> value = itemMap.get(key);
 
     if (value == null) {
+      missCount.increment();
       return null;
     }
 
     if (isExpired(value)) {
-      itemMap.remove(key);
+      // Remove only the expired value, it could be replaced by a new one concurrently.
+      if (itemMap.remove(key, value)) {
+        size.decrementAndGet();
+      }
+      missCount.increment();
       return null;
     }
 
+    hitCount.increment();
+    value.setLastAccessNanos(ticker.read());
     return value.getValue();
   }
 
@@ -91,7 +146,7 @@ public class PrefixMappedItemCache {
    * @param item the item to insert. The item must have a valid resource id.
    * @return the overwritten item, null if no item was overwritten.
    */
-  public synchronized GoogleCloudStorageItemInfo putItem(GoogleCloudStorageItemInfo item) {
+  public GoogleCloudStorageItemInfo putItem(GoogleCloudStorageItemInfo item) {
     if (!item.exists()) {
       return null;
     }
@@ -100,6 +155,12 @@ public class PrefixMappedItemCache {
     PrefixKey key = new PrefixKey(id.getBucketName(), id.getObjectName());
     CacheValue<GoogleCloudStorageItemInfo> value = new CacheValue<>(item, ticker.read());
     CacheValue<GoogleCloudStorageItemInfo> oldValue = itemMap.put(key, value);
+    if (oldValue == null) {
+      size.incrementAndGet();
+    }
+    if (maxEntries > 0 && size.get() > maxEntries) {
+      evict();
+    }
     return oldValue == null || isExpired(oldValue) ? null : oldValue.getValue();
   }
 
@@ -109,11 +170,14 @@ public class PrefixMappedItemCache {
    * @param id the resource id of the item to remove.
    * @return the removed item, null if no item was removed.
    */
-  public synchronized GoogleCloudStorageItemInfo removeItem(StorageResourceId id) {
+  public GoogleCloudStorageItemInfo removeItem(StorageResourceId id) {
     PrefixKey key = new PrefixKey(id.getBucketName(), id.getObjectName());
     CacheValue<GoogleCloudStorageItemInfo> value = itemMap.remove(key);
+    if (value != null) {
+      size.decrementAndGet();
+    }
     if (id.isDirectory()) {
-      getPrefixSubMap(itemMap, key).clear();
+      removeAll(getPrefixSubMap(itemMap, key));
     }
     return value == null || isExpired(value) ? null : value.getValue();
   }
@@ -124,7 +188,7 @@ public class PrefixMappedItemCache {
    * @param id the prefix resource id of the cached items to check.
    * @return true if items with provided prefix are cached, false otherwise.
    */
-  public synchronized boolean isPrefixCached(StorageResourceId id) {
+  public boolean isPrefixCached(StorageResourceId id) {
     PrefixKey key = new PrefixKey(id.getBucketName(), id.getObjectName());
     return !getPrefixSubMap(itemMap, key).isEmpty();
   }
@@ -134,15 +198,76 @@ public class PrefixMappedItemCache {
    *
    * @param bucket the bucket to invalidate. This must not be null.
    */
-  public synchronized void invalidateBucket(String bucket) {
+  public void invalidateBucket(String bucket) {
     PrefixKey key = new PrefixKey(bucket, "");
 
-    getPrefixSubMap(itemMap, key).clear();
+    removeAll(getPrefixSubMap(itemMap, key));
   }
 
   /** Invalidates all entries in the cache. */
-  public synchronized void invalidateAll() {
-    itemMap.clear();
+  public void invalidateAll() {
+    removeAll(itemMap);
+  }
+
+  /** Returns the number of entries in the cache, including expired entries. */
+  public long size() {
+    return size.get();
+  }
+
+  /** Returns the number of times {@link #getItem} returned a cached item. */
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  /** Returns the number of times {@link #getItem} did not find a cached item. */
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  /** Returns the number of entries evicted because the cache exceeded its max entries bound. */
+  public long getEvictionCount() {
+    return evictionCount.sum();
+  }
+
+  /** Removes entries of the map one by one, so the size of the cache is tracked precisely. */
+  private void removeAll(ConcurrentNavigableMap<PrefixKey, ?> map) {
+    for (PrefixKey key : map.keySet()) {
+      if (itemMap.remove(key) != null) {
+        size.decrementAndGet();
+      }
+    }
+  }
+
+  /** Evicts least recently used entries until the cache shrinks below the max entries bound. */
+  private void evict() {
+    if (!evicting.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      long targetSize = (long) (maxEntries * EVICTION_TARGET_RATIO);
+      // Capture access times before sorting, because they can be updated concurrently.
+      List<EvictionCandidate> candidates = new ArrayList<>();
+      for (Map.Entry<PrefixKey, CacheValue<GoogleCloudStorageItemInfo>> entry :
+          itemMap.entrySet()) {
+        candidates.add(new EvictionCandidate(entry.getKey(), entry.getValue()));
+      }
+      candidates.sort(comparingLong(c -> c.lastAccessNanos));
+      long evicted = 0;
+      for (EvictionCandidate candidate : candidates) {
+        if (size.get() <= targetSize) {
+          break;
+        }
+        if (itemMap.remove(candidate.key, candidate.value)) {
+          size.decrementAndGet();
+          evicted++;
+        }
+      }
+      evictionCount.add(evicted);
+      logger.atFine().log(
+          "Evicted %d entries from cache with %d max entries", evicted, maxEntries);
+    } finally {
+      evicting.set(false);
+    }
   }
 
   /**
@@ -173,12 +298,12 @@ public class PrefixMappedItemCache {
 
   /**
    * Helper function that handles creating the lower and upper bounds for calling {@link
-   * SortedMap#subMap(Object, Object)}.
+   * ConcurrentNavigableMap#subMap(Object, Object)}.
    *
-   * @see SortedMap#subMap(Object, Object)
+   * @see ConcurrentNavigableMap#subMap(Object, Object)
    */
-  private static <E> SortedMap<PrefixKey, E> getPrefixSubMap(
-      TreeMap<PrefixKey, E> map, PrefixKey lowerBound) {
+  private static <E> ConcurrentNavigableMap<PrefixKey, E> getPrefixSubMap(
+      ConcurrentNavigableMap<PrefixKey, E> map, PrefixKey lowerBound) {
     PrefixKey upperBound =
         new PrefixKey(lowerBound.getBucket(), lowerBound.getObjectName() + Character.MAX_VALUE);
     return map.subMap(lowerBound, upperBound);
@@ -202,6 +327,9 @@ public class PrefixMappedItemCache {
     /** The time the entry was created in nanoseconds. */
     private final long creationTimeNanos;
 
+    /** The time the entry was last accessed in nanoseconds. */
+    private volatile long lastAccessNanos;
+
     /**
      * Creates a new {@link CacheValue}.
      *
@@ -211,6 +339,7 @@ public class PrefixMappedItemCache {
     public CacheValue(V value, long creationTimeNanos) {
       this.value = value;
       this.creationTimeNanos = creationTimeNanos;
+      this.lastAccessNanos = creationTimeNanos;
     }
 
     /** Gets the value being cached. */
@@ -223,17 +352,40 @@ public class PrefixMappedItemCache {
       return creationTimeNanos;
     }
 
+    /** Gets the time the entry was last accessed in nanoseconds. */
+    public long getLastAccessNanos() {
+      return lastAccessNanos;
+    }
+
+    /** Sets the time the entry was last accessed in nanoseconds. */
+    public void setLastAccessNanos(long lastAccessNanos) {
+      this.lastAccessNanos = lastAccessNanos;
+    }
+
     @Override
     public String toString() {
       return "CacheValue [value=" + value + ", creationTimeNanos=" + creationTimeNanos + "]";
     }
   }
 
+  /** Cache entry with its last access time captured at the start of eviction. */
+  private static class EvictionCandidate {
+    private final PrefixKey key;
+    private final CacheValue<GoogleCloudStorageItemInfo> value;
+    private final long lastAccessNanos;
+
+    EvictionCandidate(PrefixKey key, CacheValue<GoogleCloudStorageItemInfo> value) {
+      this.key = key;
+      this.value = value;
+      this.lastAccessNanos = value.getLastAccessNanos();
+    }
+  }
+
   /** A class that represents a unique key for an entry in the prefix cache. */
   private static class PrefixKey implements Comparable<PrefixKey> {
 
     /**
-     * Instance of a comparator that compares {@link PrefixKey}'s. This is provided for the TreeMap
+     * Instance of a comparator that compares {@link PrefixKey}'s. This is provided for the map
      * to off-load to for performance reasons. This throws a NullPointerException if either of the
      * entries being compared are null.
      */
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Tracks a sliding window of recent reads of a channel to detect whether the access pattern is
+ * random or sequential in the {@link GoogleCloudStorageReadOptions.Fadvise#ADAPTIVE} mode.
+ *
+ * <p>A read is random if it starts before the end of the previous read or more than {@code
+ * inplaceSeekLimit} bytes after it. The access pattern is random while at least half of the reads
+ * in the window are random, so it switches back to sequential when reads become contiguous again.
+ *
+ * <p>Contiguous reads form runs, lengths of the recent completed runs are used to size range
+ * requests. Run lengths are capped at {@code maxRunLength}, so a single long scan does not inflate
+ * range requests of the following random reads.
+ */
+class ReadPatternTracker {
+
+  private final int windowSize;
+  private final long inplaceSeekLimit;
+  private final long maxRunLength;
+
+  // Whether each of the recent reads in the window was random.
+  private final Deque<Boolean> recentReads = new ArrayDeque<>();
+  private int randomReadsInWindow = 0;
+
+  // Lengths of the recent completed runs of contiguous reads.
+  private final Deque<Long> recentRunLengths = new ArrayDeque<>();
+  private long recentRunLengthsSum = 0;
+
+  private long currentRunLength = 0;
+  private long lastReadEnd = -1;
+
+  ReadPatternTracker(int windowSize, long inplaceSeekLimit, long maxRunLength) {
+    checkArgument(windowSize > 0, "windowSize must be positive, but was %s", windowSize);
+    checkArgument(maxRunLength > 0, "maxRunLength must be positive, but was %s", maxRunLength);
+    this.windowSize = windowSize;
+    this.inplaceSeekLimit = inplaceSeekLimit;
+    this.maxRunLength = maxRunLength;
+  }
+
+  /** Records read of {@code length} bytes at the {@code position}. */
+  void recordRead(long position, long length) {
+    if (lastReadEnd >= 0) {
+      long seekDistance = position - lastReadEnd;
+      boolean randomRead = seekDistance < 0 || seekDistance > inplaceSeekLimit;
+      addToWindow(randomRead);
+      if (randomRead) {
+        completeRun();
+      } else {
+        // Skipped bytes are read in-place, so they are part of the run.
+        currentRunLength += seekDistance;
+      }
+    }
+    currentRunLength += length;
+    lastReadEnd = position + length;
+  }
+
+  /** Returns whether the recent reads are mostly random. */
+  boolean isRandomAccess() {
+    return randomReadsInWindow > 0 && randomReadsInWindow * 2 >= recentReads.size();
+  }
+
+  /**
+   * Returns the average length of the recent completed runs of contiguous reads, capped at {@code
+   * maxRunLength}, or 0 if no runs were completed yet. The current run is not included, because
+   * its length is not bounded until it is completed.
+   */
+  long getAverageRunLength() {
+    return recentRunLengths.isEmpty() ? 0 : recentRunLengthsSum / recentRunLengths.size();
+  }
+
+  private void addToWindow(boolean randomRead) {
+    if (recentReads.size() == windowSize && recentReads.removeFirst()) {
+      randomReadsInWindow--;
+    }
+    recentReads.addLast(randomRead);
+    if (randomRead) {
+      randomReadsInWindow++;
+    }
+  }
+
+  private void completeRun() {
+    if (currentRunLength <= 0) {
+      return;
+    }
+    if (recentRunLengths.size() == windowSize) {
+      recentRunLengthsSum -= recentRunLengths.removeFirst();
+    }
+    long runLength = Math.min(currentRunLength, maxRunLength);
+    recentRunLengths.addLast(runLength);
+    recentRunLengthsSum += runLength;
+    currentRunLength = 0;
+  }
+}
@@ -2,21 +2,29 @@ package com.google.cloud.hadoop.gcsio;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.Math.max;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 import com.google.api.ClientProto;
 import com.google.api.client.auth.oauth2.Credential;
 import com.google.api.client.googleapis.compute.ComputeCredential;
 import com.google.auth.Credentials;
 import com.google.auth.oauth2.ComputeEngineCredentials;
+import com.google.auto.value.AutoValue;
 import com.google.cloud.hadoop.util.CredentialAdapter;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.flogger.GoogleLogger;
 import com.google.google.storage.v1.StorageGrpc;
 import com.google.google.storage.v1.StorageGrpc.StorageBlockingStub;
 import com.google.google.storage.v1.StorageGrpc.StorageStub;
 import com.google.google.storage.v1.StorageOuterClass;
+import com.google.protobuf.MessageLite;
 import com.google.protobuf.util.Durations;
 import io.grpc.CallOptions;
 import io.grpc.Channel;
@@ -35,23 +43,37 @@ import io.grpc.auth.MoreCallCredentials;
 import io.grpc.stub.AbstractStub;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nullable;
 
 /** Provides gRPC stubs for accessing the Storage gRPC API. */
 class StorageStubProvider {
 
+  private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
+
   // The maximum number of times to automatically retry gRPC requests.
   private static final double GRPC_MAX_RETRY_ATTEMPTS = 10;
 
-  // The maximum number of media channels this provider will hand out. If more channels are
-  // requested, the provider will reuse existing ones, favoring the one with the fewest ongoing
-  // requests.
-  private static final int MEDIA_CHANNEL_MAX_POOL_SIZE = 12;
+  // Floor of the response latency used to score channels, so channels without latency samples
+  // are scored by the number of active requests.
+  private static final long MIN_SCORED_LATENCY_NANOS = MILLISECONDS.toNanos(1);
+
+  // Weight of the most recent sample in the moving average of the channel response latency.
+  private static final double LATENCY_EWMA_WEIGHT = 0.2;
+
+  // Channel is replaced if its response latency is this many times higher than the pool median.
+  private static final int SLOW_CHANNEL_LATENCY_FACTOR = 5;
+
+  // Minimum number of latency samples of the channel to consider it slow.
+  private static final int SLOW_CHANNEL_MIN_LATENCY_SAMPLES = 20;
 
   private static final ImmutableSet<Status.Code> STUB_BROKEN_ERROR_CODES =
       ImmutableSet.of(Status.Code.DEADLINE_EXCEEDED, Status.Code.UNAVAILABLE);
@@ -66,8 +88,15 @@ class StorageStubProvider {
   private final GoogleCloudStorageReadOptions readOptions;
   private final String userAgent;
   private final ExecutorService backgroundTasksThreadPool;
+  private final int channelPoolSize;
+  private final long channelStallTimeoutNanos;
+  private final int channelMaxConsecutiveFailures;
+  private final Ticker ticker;
   private final List<ChannelAndRequestCounter> mediaChannelPool;
+  // Replaced channels that are shut down gracefully and could still have in-flight requests.
+  private final List<ChannelAndRequestCounter> drainingChannels;
   private final GrpcDecorator grpcDecorator;
+  private long replacedChannelCount = 0;
 
   @VisibleForTesting
   GrpcDecorator getGrpcDecorator() {
@@ -75,21 +104,42 @@ class StorageStubProvider {
   }
 
   // An interceptor that can be added around a gRPC channel which keeps a count of the number
-  // of requests that are active at any given moment.
+  // of requests that are active at any given moment, and tracks response latency, received bytes,
+  // consecutive failures and progress of the requests to score health of the channel.
   final class ActiveRequestCounter implements ClientInterceptor {
 
     // A count of the number of RPCs currently underway for one gRPC channel channel.
-    private final AtomicInteger ongoingRequestCount;
+    private final AtomicInteger ongoingRequestCount = new AtomicInteger();
 
-    public ActiveRequestCounter() {
-      ongoingRequestCount = new AtomicInteger(0);
-    }
+    private final AtomicLong completedRequestCount = new AtomicLong();
+
+    private final AtomicLong failedRequestCount = new AtomicLong();
+
+    // Number of the most recent requests that failed with the channel broken error codes.
+    private final AtomicInteger consecutiveFailureCount = new AtomicInteger();
+
+    private final AtomicLong receivedBytes = new AtomicLong();
+
+    // Number of response messages requested by the ongoing RPCs that were not received yet.
+    private final AtomicInteger pendingMessageCount = new AtomicInteger();
+
+    private final AtomicLong latencySampleCount = new AtomicLong();
+
+    // Moving average of the time between the request start and its first response message.
+    private volatile long responseLatencyNanos = 0;
+
+    // Progress of the ongoing RPCs which responses are tracked, used to detect stalled RPCs.
+    private final Set<CallProgress> trackedCalls = ConcurrentHashMap.newKeySet();
 
     @Override
     public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
         MethodDescriptor<ReqT, RespT> methodDescriptor, CallOptions callOptions, Channel channel) {
       ClientCall<ReqT, RespT> newCall = channel.newCall(methodDescriptor, callOptions);
       AtomicBoolean countedCancel = new AtomicBoolean(false);
+      // Client streaming RPCs, like uploads, receive response only after all requests were sent,
+      // so their response latency and progress do not reflect health of the channel.
+      boolean trackResponses = methodDescriptor.getType().clientSendsOneMessage();
+      CallProgress callProgress = new CallProgress();
 
       // A streaming call might be terminated in one of several possible ways:
       // * The call completes normally -> onClose() will be invoked.
@@ -102,7 +152,7 @@ class StorageStubProvider {
           .addListener(
               context -> {
                 if (countedCancel.compareAndSet(false, true)) {
-                  ongoingRequestCount.decrementAndGet();
+                  onCallEnd(callProgress);
                 }
               },
               backgroundTasksThreadPool);
@@ -111,21 +161,70 @@ class StorageStubProvider {
         @Override
         public void cancel(@Nullable String message, @Nullable Throwable cause) {
           if (countedCancel.compareAndSet(false, true)) {
-            ongoingRequestCount.decrementAndGet();
+            onCallEnd(callProgress);
           }
           super.cancel(message, cause);
         }
 
+        @Override
+        public void request(int numMessages) {
+          if (!trackResponses) {
+            super.request(numMessages);
+            return;
+          }
+          if (callProgress.pendingMessages.getAndAdd(numMessages) == 0) {
+            // RPC was not waiting for responses, so its stall timeout starts from now.
+            callProgress.lastProgressNanos = ticker.read();
+          }
+          pendingMessageCount.addAndGet(numMessages);
+          trackedCalls.add(callProgress);
+          if (countedCancel.get()) {
+            // RPC ended concurrently, so it should not be tracked anymore.
+            untrackCall(callProgress);
+          }
+          super.request(numMessages);
+        }
+
         @Override
         public void start(Listener<RespT> responseListener, Metadata headers) {
           ongoingRequestCount.incrementAndGet();
+          long startNanos = ticker.read();
+          AtomicBoolean firstResponse = new AtomicBoolean(true);
           this.delegate()
               .start(
                   new SimpleForwardingClientCallListener<RespT>(responseListener) {
+                    @Override
+                    public void onMessage(RespT message) {
+                      if (message instanceof MessageLite) {
+                        receivedBytes.addAndGet(((MessageLite) message).getSerializedSize());
+                      }
+                      if (!trackResponses) {
+                        super.onMessage(message);
+                        return;
+                      }
+                      long nowNanos = ticker.read();
+                      callProgress.lastProgressNanos = nowNanos;
+                      if (callProgress.pendingMessages.getAndDecrement() > 0) {
+                        pendingMessageCount.decrementAndGet();
+                      } else {
+                        callProgress.pendingMessages.incrementAndGet();
+                      }
+                      if (firstResponse.compareAndSet(true, false)) {
+                        recordLatency(nowNanos - startNanos);
+                      }
+                      super.onMessage(message);
+                    }
+
                     @Override
                     public void onClose(Status status, Metadata trailers) {
+                      if (trackResponses
+                          && firstResponse.compareAndSet(true, false)
+                          && status.isOk()) {
+                        recordLatency(ticker.read() - startNanos);
+                      }
+                      recordStatus(status);
                       if (countedCancel.compareAndSet(false, true)) {
-                        ongoingRequestCount.decrementAndGet();
+                        onCallEnd(callProgress);
                       }
                       super.onClose(status, trailers);
                     }
@@ -134,6 +233,57 @@ class StorageStubProvider {
         }
       };
     }
+
+    private void onCallEnd(CallProgress callProgress) {
+      ongoingRequestCount.decrementAndGet();
+      untrackCall(callProgress);
+    }
+
+    private void untrackCall(CallProgress callProgress) {
+      trackedCalls.remove(callProgress);
+      pendingMessageCount.addAndGet(-callProgress.pendingMessages.getAndSet(0));
+    }
+
+    /** Returns true if any of the ongoing RPCs did not receive a requested response in time. */
+    private boolean hasStalledCall(long nowNanos) {
+      return trackedCalls.stream()
+          .anyMatch(
+              c ->
+                  c.pendingMessages.get() > 0
+                      && nowNanos - c.lastProgressNanos > channelStallTimeoutNanos);
+    }
+
+    private void recordLatency(long latencyNanos) {
+      long samples = latencySampleCount.incrementAndGet();
+      long averageNanos = responseLatencyNanos;
+      responseLatencyNanos =
+          samples == 1
+              ? latencyNanos
+              : (long)
+                  (LATENCY_EWMA_WEIGHT * latencyNanos + (1 - LATENCY_EWMA_WEIGHT) * averageNanos);
+    }
+
+    private void recordStatus(Status status) {
+      completedRequestCount.incrementAndGet();
+      if (status.isOk()) {
+        consecutiveFailureCount.set(0);
+        return;
+      }
+      failedRequestCount.incrementAndGet();
+      if (isStubBroken(status.getCode())) {
+        consecutiveFailureCount.incrementAndGet();
+      }
+    }
+  }
+
+  /** Response progress of a single RPC. */
+  private static final class CallProgress {
+
+    // Number of response messages requested by the RPC that were not received yet.
+    private final AtomicInteger pendingMessages = new AtomicInteger();
+
+    // Time of the last response of the RPC or of the moment when it started to wait for responses.
+    private volatile long lastProgressNanos;
   }
 
   class ChannelAndRequestCounter {
@@ -148,16 +298,104 @@ class StorageStubProvider {
     public int activeRequests() {
       return counter.ongoingRequestCount.get();
     }
+
+    /** Returns estimated relative wait time of a new request on this channel, lower is better. */
+    double score() {
+      return (activeRequests() + 1.0) * max(counter.responseLatencyNanos, MIN_SCORED_LATENCY_NANOS);
+    }
+
+    /** Returns true if the channel has a request that did not make progress for a stall timeout. */
+    boolean isStalled() {
+      return counter.hasStalledCall(ticker.read());
+    }
+
+    boolean isFailing() {
+      return counter.consecutiveFailureCount.get() >= channelMaxConsecutiveFailures;
+    }
+
+    ChannelStats getStats() {
+      return ChannelStats.builder()
+          .setActiveRequests(activeRequests())
+          .setCompletedRequests(counter.completedRequestCount.get())
+          .setFailedRequests(counter.failedRequestCount.get())
+          .setConsecutiveFailures(counter.consecutiveFailureCount.get())
+          .setPendingResponses(counter.pendingMessageCount.get())
+          .setReceivedBytes(counter.receivedBytes.get())
+          .setResponseLatencyMillis(NANOSECONDS.toMillis(counter.responseLatencyNanos))
+          .build();
+    }
+  }
+
+  /** Snapshot of the request metrics of a gRPC channel in the channel pool. */
+  @AutoValue
+  abstract static class ChannelStats {
+
+    static Builder builder() {
+      return new AutoValue_StorageStubProvider_ChannelStats.Builder();
+    }
+
+    abstract int getActiveRequests();
+
+    abstract long getCompletedRequests();
+
+    abstract long getFailedRequests();
+
+    abstract int getConsecutiveFailures();
+
+    /** Number of response messages requested by the active requests and not received yet. */
+    abstract int getPendingResponses();
+
+    abstract long getReceivedBytes();
+
+    /**
+     * Moving average of the time between request start and its first response, client streaming
+     * requests are not included.
+     */
+    abstract long getResponseLatencyMillis();
+
+    @AutoValue.Builder
+    abstract static class Builder {
+      abstract Builder setActiveRequests(int activeRequests);
+
+      abstract Builder setCompletedRequests(long completedRequests);
+
+      abstract Builder setFailedRequests(long failedRequests);
+
+      abstract Builder setConsecutiveFailures(int consecutiveFailures);
+
+      abstract Builder setPendingResponses(int pendingResponses);
+
+      abstract Builder setReceivedBytes(long receivedBytes);
+
+      abstract Builder setResponseLatencyMillis(long responseLatencyMillis);
+
+      abstract ChannelStats build();
+    }
   }
 
   StorageStubProvider(
       GoogleCloudStorageOptions options,
       ExecutorService backgroundTasksThreadPool,
       GrpcDecorator grpcDecorator) {
+    this(options, backgroundTasksThreadPool, grpcDecorator, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  StorageStubProvider(
+      GoogleCloudStorageOptions options,
+      ExecutorService backgroundTasksThreadPool,
+      GrpcDecorator grpcDecorator,
+      Ticker ticker) {
     this.readOptions = options.getReadChannelOptions();
     this.userAgent = options.getAppName();
     this.backgroundTasksThreadPool = backgroundTasksThreadPool;
+    this.channelPoolSize = options.getGrpcChannelPoolSize();
+    this.channelStallTimeoutNanos =
+        MILLISECONDS.toNanos(options.getGrpcChannelStallTimeoutMillis());
+    this.channelMaxConsecutiveFailures = options.getGrpcChannelMaxConsecutiveFailures();
+    this.ticker = checkNotNull(ticker, "ticker cannot be null");
     this.mediaChannelPool = new ArrayList<>();
+    this.drainingChannels = new ArrayList<>();
     this.grpcDecorator = checkNotNull(grpcDecorator, "grpcDecorator cannot be null");
   }
 
@@ -191,9 +429,11 @@ class StorageStubProvider {
   }
 
   private synchronized ManagedChannel getManagedChannel() {
-    if (mediaChannelPool.size() >= MEDIA_CHANNEL_MAX_POOL_SIZE) {
+    replaceUnhealthyChannels();
+
+    if (mediaChannelPool.size() >= channelPoolSize) {
       return mediaChannelPool.stream()
-          .min(Comparator.comparingInt(ChannelAndRequestCounter::activeRequests))
+          .min(Comparator.comparingDouble(ChannelAndRequestCounter::score))
           .get()
           .channel;
     }
@@ -203,8 +443,94 @@ class StorageStubProvider {
     return channel.channel;
   }
 
-  public void shutdown() {
+  /**
+   * Removes stalled, failing and slow channels from the pool, so they will be replaced by new
+   * channels. Stalled channels are shut down forcefully to cancel their stuck requests, so they can
+   * be retried. Failing and slow channels are shut down gracefully to let their in-flight requests
+   * complete.
+   */
+  private void replaceUnhealthyChannels() {
+    drainingChannels.removeIf(c -> c.channel.isTerminated());
+
+    long slowLatencyNanos = getSlowChannelLatencyNanos();
+    for (Iterator<ChannelAndRequestCounter> it = mediaChannelPool.iterator(); it.hasNext(); ) {
+      ChannelAndRequestCounter channel = it.next();
+      boolean stalled = channel.isStalled();
+      String reason =
+          stalled
+              ? "stalled"
+              : channel.isFailing()
+                  ? "failing"
+                  : channel.counter.latencySampleCount.get() >= SLOW_CHANNEL_MIN_LATENCY_SAMPLES
+                          && channel.counter.responseLatencyNanos > slowLatencyNanos
+                      ? "slow"
+                      : null;
+      if (reason == null) {
+        continue;
+      }
+      logger.atWarning().log(
+          "Replacing %s gRPC channel %s: %s", reason, channel.channel, channel.getStats());
+      it.remove();
+      if (stalled) {
+        channel.channel.shutdownNow();
+      } else {
+        channel.channel.shutdown();
+      }
+      drainingChannels.add(channel);
+      replacedChannelCount++;
+    }
+  }
+
+  /**
+   * Returns response latency above which channel is considered slow, or {@link Long#MAX_VALUE} if
+   * the pool is not full yet.
+   */
+  private long getSlowChannelLatencyNanos() {
+    if (mediaChannelPool.size() < channelPoolSize) {
+      return Long.MAX_VALUE;
+    }
+    long[] latencies =
+        mediaChannelPool.stream().mapToLong(c -> c.counter.responseLatencyNanos).sorted().toArray();
+    long medianLatencyNanos = latencies[latencies.length / 2];
+    return medianLatencyNanos == 0
+        ? Long.MAX_VALUE
+        : medianLatencyNanos * SLOW_CHANNEL_LATENCY_FACTOR;
+  }
+
+  /** Returns request metrics of the channels in the pool. */
+  synchronized ImmutableList<ChannelStats> getChannelStats() {
+    return mediaChannelPool.stream()
+        .map(ChannelAndRequestCounter::getStats)
+        .collect(toImmutableList());
+  }
+
+  /** Returns number of channels that were replaced because they were stalled, failing or slow. */
+  synchronized long getReplacedChannelCount() {
+    return replacedChannelCount;
+  }
+
+  /** Returns request metrics aggregated over the channels in the pool. */
+  synchronized GrpcChannelPoolStats getChannelPoolStats() {
+    ImmutableList<ChannelStats> channelStats = getChannelStats();
+    return GrpcChannelPoolStats.builder()
+        .setChannels(channelStats.size())
+        .setReplacedChannels(replacedChannelCount)
+        .setActiveRequests(channelStats.stream().mapToInt(ChannelStats::getActiveRequests).sum())
+        .setCompletedRequests(
+            channelStats.stream().mapToLong(ChannelStats::getCompletedRequests).sum())
+        .setFailedRequests(channelStats.stream().mapToLong(ChannelStats::getFailedRequests).sum())
+        .setPendingResponses(
+            channelStats.stream().mapToInt(ChannelStats::getPendingResponses).sum())
+        .setReceivedBytes(channelStats.stream().mapToLong(ChannelStats::getReceivedBytes).sum())
+        .build();
+  }
+
+  public synchronized void shutdown() {
+    logger.atFine().log(
+        "Shutting down %s gRPC channels (%s replaced): %s",
+        mediaChannelPool.size(), replacedChannelCount, getChannelStats());
     mediaChannelPool.parallelStream().forEach(c -> c.channel.shutdownNow());
+    drainingChannels.forEach(c -> c.channel.shutdownNow());
   }
 
   interface GrpcDecorator {
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A byte range of an object requested in a vectored read. Data is delivered asynchronously through
+ * the {@link #getData()} future: the completed buffer is positioned at 0 and its limit is set to
+ * the range length.
+ */
+public final class VectoredIORange {
+
+  private final long offset;
+  private final int length;
+  private final CompletableFuture<ByteBuffer> data = new CompletableFuture<>();
+
+  public VectoredIORange(long offset, int length) {
+    checkArgument(offset >= 0, "offset must be non-negative, but was %s", offset);
+    checkArgument(length >= 0, "length must be non-negative, but was %s", length);
+    this.offset = offset;
+    this.length = length;
+  }
+
+  /** Position in the object of the first byte of this range. */
+  public long getOffset() {
+    return offset;
+  }
+
+  /** Number of bytes in this range. */
+  public int getLength() {
+    return length;
+  }
+
+  /** Position in the object right after the last byte of this range. */
+  public long getEnd() {
+    return offset + length;
+  }
+
+  /** Future that is completed with the range content or with the read failure. */
+  public CompletableFuture<ByteBuffer> getData() {
+    return data;
+  }
+
+  @Override
+  public String toString() {
+    return "VectoredIORange{offset=" + offset + ", length=" + length + "}";
+  }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/** A read channel that can fetch many byte ranges of an object with a single call. */
+public interface VectoredReadChannel {
+
+  /**
+   * Asynchronously reads all {@code ranges} of the object. Data for each range is delivered through
+   * its {@link VectoredIORange#getData()} future. This call does not change the channel position.
+   *
+   * @param ranges non-overlapping ranges to read
+   * @param allocate function used to allocate a buffer of the given size for each range
+   * @throws IOException if ranges could not be scheduled for reading
+   */
+  void readVectored(List<? extends VectoredIORange> ranges, IntFunction<ByteBuffer> allocate)
+      throws IOException;
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import com.google.common.io.ByteStreams;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.ExtensionRegistryLite;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.google.protobuf.Parser;
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor.PrototypeMarshaller;
+import io.grpc.Status;
+import io.grpc.protobuf.ProtoUtils;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Marshaller that parses messages without copying their {@code bytes} fields.
+ *
+ * <p>The default protobuf marshaller reads a message into a reusable buffer and then copies every
+ * {@code bytes} field out of it while parsing. This marshaller reads a message into a buffer that
+ * is owned by the parsed message, so {@code bytes} fields (e.g. object media content) alias it, and
+ * the buffer is released together with the message.
+ */
+class ZeroCopyMessageMarshaller<T extends Message> implements PrototypeMarshaller<T> {
+
+  private final T defaultInstance;
+  private final Parser<T> parser;
+  private final PrototypeMarshaller<T> baseMarshaller;
+
+  @SuppressWarnings("unchecked")
+  ZeroCopyMessageMarshaller(T defaultInstance) {
+    this.defaultInstance = defaultInstance;
+    this.parser = (Parser<T>) defaultInstance.getParserForType();
+    this.baseMarshaller = (PrototypeMarshaller<T>) ProtoUtils.marshaller(defaultInstance);
+  }
+
+  @Override
+  public Class<T> getMessageClass() {
+    return baseMarshaller.getMessageClass();
+  }
+
+  @Override
+  public T getMessagePrototype() {
+    return defaultInstance;
+  }
+
+  @Override
+  public InputStream stream(T value) {
+    return baseMarshaller.stream(value);
+  }
+
+  @Override
+  public T parse(InputStream stream) {
+    if (!(stream instanceof KnownLength)) {
+      return baseMarshaller.parse(stream);
+    }
+    try {
+      int size = stream.available();
+      if (size == 0) {
+        return defaultInstance;
+      }
+      byte[] buffer = new byte[size];
+      ByteStreams.readFully(stream, buffer);
+      CodedInputStream input = CodedInputStream.newInstance(buffer);
+      input.enableAliasing(true);
+      input.setSizeLimit(Integer.MAX_VALUE);
+      T message = parser.parseFrom(input, ExtensionRegistryLite.getEmptyRegistry());
+      input.checkLastTagWas(0);
+      return message;
+    } catch (InvalidProtocolBufferException e) {
+      throw Status.INTERNAL
+          .withDescription("Invalid protobuf byte sequence")
+          .withCause(e)
+          .asRuntimeException();
+    } catch (IOException e) {
+      throw Status.INTERNAL
+          .withDescription("Failed to read message")
+          .withCause(e)
+          .asRuntimeException();
+    }
+  }
+}
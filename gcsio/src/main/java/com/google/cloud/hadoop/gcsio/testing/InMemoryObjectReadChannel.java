@@ -79,4 +79,9 @@ public class InMemoryObjectReadChannel extends GoogleCloudStorageReadChannel {
     contentChannelPosition = currentPosition;
     return inputStream;
   }
+
+  @Override
+  protected InputStream openRangeStream(long start, long end) throws IOException {
+    return new ByteArrayInputStream(content, Math.toIntExact(start), Math.toIntExact(end - start));
+  }
 }
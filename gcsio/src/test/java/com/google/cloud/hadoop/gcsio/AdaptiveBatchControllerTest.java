@@ -0,0 +1,280 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.cloud.hadoop.gcsio.GoogleCloudStorageTest.newStorageObject;
+import static com.google.cloud.hadoop.gcsio.GoogleCloudStorageTestUtils.BUCKET_NAME;
+import static com.google.cloud.hadoop.gcsio.GoogleCloudStorageTestUtils.HTTP_TRANSPORT;
+import static com.google.cloud.hadoop.gcsio.GoogleCloudStorageTestUtils.JSON_FACTORY;
+import static com.google.cloud.hadoop.gcsio.GoogleCloudStorageTestUtils.OBJECT_NAME;
+import static com.google.cloud.hadoop.gcsio.TrackingHttpRequestInitializer.batchRequestString;
+import static com.google.cloud.hadoop.gcsio.TrackingHttpRequestInitializer.getRequestString;
+import static com.google.cloud.hadoop.util.testing.MockHttpTransportHelper.jsonDataResponse;
+import static com.google.cloud.hadoop.util.testing.MockHttpTransportHelper.jsonErrorResponse;
+import static com.google.cloud.hadoop.util.testing.MockHttpTransportHelper.mockBatchTransport;
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertThrows;
+
+import com.google.api.client.googleapis.batch.json.JsonBatchCallback;
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.services.storage.Storage;
+import com.google.api.services.storage.model.StorageObject;
+import com.google.cloud.hadoop.util.testing.MockHttpTransportHelper.ErrorResponses;
+import com.google.common.testing.FakeTicker;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class AdaptiveBatchControllerTest {
+
+  private static final long BATCH_LATENCY_NANOS = MILLISECONDS.toNanos(100);
+
+  private final FakeTicker ticker = new FakeTicker();
+
+  @Test
+  public void new_throwsException_whenLimitsNotPositive() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new AdaptiveBatchController(/* maxBatchSize= */ 0, /* maxParallelBatches= */ 1));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new AdaptiveBatchController(/* maxBatchSize= */ 1, /* maxParallelBatches= */ 0));
+  }
+
+  @Test
+  public void new_startsWithMaxLimits() {
+    AdaptiveBatchController controller = newController();
+
+    assertThat(controller.getBatchSize()).isEqualTo(30);
+    assertThat(controller.getParallelBatches()).isEqualTo(8);
+  }
+
+  @Test
+  public void onBatchCompleted_throttled_halvesLimits() {
+    AdaptiveBatchController controller = newController();
+
+    controller.onBatchCompleted(
+        /* requests= */ 30, BATCH_LATENCY_NANOS, /* throttledRequests= */ 1);
+
+    assertThat(controller.getBatchSize()).isEqualTo(15);
+    assertThat(controller.getParallelBatches()).isEqualTo(4);
+    assertThat(controller.getDecreaseCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void onBatchCompleted_throttledParallelBatches_decreasesOncePerBatchLatency() {
+    AdaptiveBatchController controller = newController();
+
+    // Parallel batches that complete at the same time
+    for (int i = 0; i < 4; i++) {
+      controller.onBatchCompleted(
+          /* requests= */ 30, BATCH_LATENCY_NANOS, /* throttledRequests= */ 1);
+    }
+
+    assertThat(controller.getBatchSize()).isEqualTo(15);
+    assertThat(controller.getDecreaseCount()).isEqualTo(1);
+
+    ticker.advance(BATCH_LATENCY_NANOS);
+    controller.onBatchCompleted(
+        /* requests= */ 15, BATCH_LATENCY_NANOS, /* throttledRequests= */ 1);
+
+    assertThat(controller.getBatchSize()).isEqualTo(7);
+    assertThat(controller.getParallelBatches()).isEqualTo(2);
+    assertThat(controller.getDecreaseCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void onBatchCompleted_successful_increasesLimitsUpToMax() {
+    AdaptiveBatchController controller = newController();
+    controller.onBatchCompleted(
+        /* requests= */ 30, BATCH_LATENCY_NANOS, /* throttledRequests= */ 1);
+
+    for (int i = 0; i < 5; i++) {
+      controller.onBatchCompleted(
+          /* requests= */ 15, BATCH_LATENCY_NANOS, /* throttledRequests= */ 0);
+    }
+
+    assertThat(controller.getBatchSize()).isEqualTo(20);
+    assertThat(controller.getParallelBatches()).isEqualTo(5);
+
+    for (int i = 0; i < 100; i++) {
+      controller.onBatchCompleted(
+          /* requests= */ 30, BATCH_LATENCY_NANOS, /* throttledRequests= */ 0);
+    }
+
+    assertThat(controller.getBatchSize()).isEqualTo(30);
+    assertThat(controller.getParallelBatches()).isEqualTo(8);
+  }
+
+  @Test
+  public void onBatchCompleted_congested_halvesLimits() {
+    AdaptiveBatchController controller = newController();
+    for (int i = 0; i < 10; i++) {
+      controller.onBatchCompleted(
+          /* requests= */ 30, BATCH_LATENCY_NANOS, /* throttledRequests= */ 0);
+    }
+
+    controller.onBatchCompleted(
+        /* requests= */ 30, 4 * BATCH_LATENCY_NANOS, /* throttledRequests= */ 0);
+
+    assertThat(controller.getBatchSize()).isEqualTo(15);
+    assertThat(controller.getParallelBatches()).isEqualTo(4);
+  }
+
+  @Test
+  public void onBatchCompleted_smallTailBatch_doesNotDecreaseLimits() {
+    AdaptiveBatchController controller = newController();
+    for (int i = 0; i < 10; i++) {
+      controller.onBatchCompleted(
+          /* requests= */ 30, BATCH_LATENCY_NANOS, /* throttledRequests= */ 0);
+    }
+
+    // Latency per request of the remainder batch is 15 times higher because of per-batch overhead
+    controller.onBatchCompleted(
+        /* requests= */ 1, BATCH_LATENCY_NANOS / 2, /* throttledRequests= */ 0);
+
+    assertThat(controller.getDecreaseCount()).isEqualTo(0);
+    assertThat(controller.getBatchSize()).isEqualTo(30);
+    assertThat(controller.getParallelBatches()).isEqualTo(8);
+  }
+
+  @Test
+  public void getLatencyHistogram_countsBatchesPerLatencyBucket() {
+    AdaptiveBatchController controller = newController();
+
+    controller.onBatchCompleted(
+        /* requests= */ 1, MILLISECONDS.toNanos(5), /* throttledRequests= */ 0);
+    controller.onBatchCompleted(
+        /* requests= */ 1, MILLISECONDS.toNanos(100), /* throttledRequests= */ 0);
+    controller.onBatchCompleted(
+        /* requests= */ 1, MILLISECONDS.toNanos(120), /* throttledRequests= */ 0);
+    controller.onBatchCompleted(
+        /* requests= */ 1, MILLISECONDS.toNanos(60_000), /* throttledRequests= */ 0);
+
+    assertThat(controller.getLatencyHistogram())
+        .containsExactly(
+            10L, 1L,
+            25L, 0L,
+            50L, 0L,
+            100L, 0L,
+            250L, 2L,
+            500L, 0L,
+            1_000L, 0L,
+            2_500L, 0L,
+            5_000L, 0L,
+            10_000L, 0L,
+            Long.MAX_VALUE, 1L)
+        .inOrder();
+  }
+
+  @Test
+  public void batchHelper_throttledRequests_decreaseBatchSize() throws IOException {
+    String objectName1 = OBJECT_NAME + "-01";
+    String objectName2 = OBJECT_NAME + "-02";
+    StorageObject object1 = newStorageObject(BUCKET_NAME, objectName1);
+
+    MockHttpTransport transport =
+        mockBatchTransport(
+            /* requestsPerBatch= */ 2,
+            jsonDataResponse(object1),
+            jsonErrorResponse(ErrorResponses.RATE_LIMITED));
+
+    TrackingHttpRequestInitializer httpRequestInitializer = new TrackingHttpRequestInitializer();
+    AdaptiveBatchController batchController =
+        new AdaptiveBatchController(/* maxBatchSize= */ 2, /* maxParallelBatches= */ 1);
+    Storage storage = new Storage(transport, JSON_FACTORY, httpRequestInitializer);
+    BatchHelper batchHelper =
+        new BatchHelper.Factory(batchController)
+            .newBatchHelper(httpRequestInitializer, storage, /* maxRequestsPerBatch= */ 2);
+
+    AtomicInteger successfulRequests = new AtomicInteger();
+    AtomicInteger throttledRequests = new AtomicInteger();
+    JsonBatchCallback<StorageObject> callback =
+        new JsonBatchCallback<StorageObject>() {
+          @Override
+          public void onSuccess(StorageObject storageObject, HttpHeaders responseHeaders) {
+            successfulRequests.incrementAndGet();
+          }
+
+          @Override
+          public void onFailure(GoogleJsonError e, HttpHeaders responseHeaders) {
+            assertThat(e.getCode()).isEqualTo(429);
+            throttledRequests.incrementAndGet();
+          }
+        };
+    batchHelper.queue(storage.objects().get(BUCKET_NAME, objectName1), callback);
+    batchHelper.queue(storage.objects().get(BUCKET_NAME, objectName2), callback);
+    batchHelper.flush();
+
+    // Throttled requests are still reported to the callers
+    assertThat(successfulRequests.get()).isEqualTo(1);
+    assertThat(throttledRequests.get()).isEqualTo(1);
+    assertThat(batchController.getDecreaseCount()).isEqualTo(1);
+    assertThat(batchController.getBatchSize()).isEqualTo(1);
+    assertThat(httpRequestInitializer.getAllRequestStrings())
+        .containsExactly(
+            batchRequestString(),
+            getRequestString(BUCKET_NAME, objectName1, /* fields= */ null),
+            getRequestString(BUCKET_NAME, objectName2, /* fields= */ null));
+  }
+
+  @Test
+  public void batchHelper_distributesRequestsEvenly_andIsCappedByController() throws IOException {
+    AdaptiveBatchController batchController =
+        new AdaptiveBatchController(/* maxBatchSize= */ 30, /* maxParallelBatches= */ 15, ticker);
+    BatchHelper.Factory batchFactory = new BatchHelper.Factory(batchController);
+    TrackingHttpRequestInitializer httpRequestInitializer = new TrackingHttpRequestInitializer();
+    Storage storage = new Storage(HTTP_TRANSPORT, JSON_FACTORY, httpRequestInitializer);
+
+    // 100 requests are evenly distributed across 15 parallel batches
+    BatchHelper batchHelper =
+        batchFactory.newBatchHelper(
+            httpRequestInitializer,
+            storage,
+            /* maxRequestsPerBatch= */ 30,
+            /* totalRequests= */ 100,
+            /* maxThreads= */ 15);
+    assertThat(batchHelper.getRequestsPerBatch()).isEqualTo(7);
+    batchHelper.flush();
+
+    for (int i = 0; i < 3; i++) {
+      ticker.advance(BATCH_LATENCY_NANOS);
+      batchController.onBatchCompleted(
+          /* requests= */ 7, BATCH_LATENCY_NANOS, /* throttledRequests= */ 1);
+    }
+    assertThat(batchController.getBatchSize()).isEqualTo(3);
+
+    batchHelper =
+        batchFactory.newBatchHelper(
+            httpRequestInitializer,
+            storage,
+            /* maxRequestsPerBatch= */ 30,
+            /* totalRequests= */ 100,
+            /* maxThreads= */ 15);
+    assertThat(batchHelper.getRequestsPerBatch()).isEqualTo(3);
+    batchHelper.flush();
+  }
+
+  private AdaptiveBatchController newController() {
+    return new AdaptiveBatchController(
+        /* maxBatchSize= */ 30, /* maxParallelBatches= */ 8, ticker);
+  }
+}
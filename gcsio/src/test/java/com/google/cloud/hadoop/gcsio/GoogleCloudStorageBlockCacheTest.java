@@ -0,0 +1,141 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.cloud.hadoop.gcsio.GoogleCloudStorageBlockCache.BlockLoader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class GoogleCloudStorageBlockCacheTest {
+
+  private static final StorageResourceId RESOURCE_ID = new StorageResourceId("bucket", "object");
+
+  private final List<String> loadedRanges = new ArrayList<>();
+
+  private final BlockLoader loader =
+      (offset, length) -> {
+        loadedRanges.add(offset + ":" + length);
+        ByteBuffer data = ByteBuffer.allocate(length);
+        for (int i = 0; i < length; i++) {
+          data.put((byte) (offset + i));
+        }
+        data.flip();
+        return data;
+      };
+
+  @Test
+  public void getBlock_loadsBlockOnlyOnce() throws IOException {
+    GoogleCloudStorageBlockCache cache =
+        new GoogleCloudStorageBlockCache(/* maxSize= */ 100, /* blockSize= */ 4, false);
+
+    ByteBuffer block = cache.getBlock(RESOURCE_ID, /* generation= */ 1, 1, 10, loader);
+    ByteBuffer cachedBlock = cache.getBlock(RESOURCE_ID, /* generation= */ 1, 1, 10, loader);
+
+    assertThat(toArray(block)).isEqualTo(new byte[] {4, 5, 6, 7});
+    assertThat(toArray(cachedBlock)).isEqualTo(new byte[] {4, 5, 6, 7});
+    assertThat(loadedRanges).containsExactly("4:4");
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    assertThat(cache.getMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void getBlock_lastBlockIsTruncatedToObjectSize() throws IOException {
+    GoogleCloudStorageBlockCache cache =
+        new GoogleCloudStorageBlockCache(/* maxSize= */ 100, /* blockSize= */ 4, false);
+
+    ByteBuffer block = cache.getBlock(RESOURCE_ID, /* generation= */ 1, 2, 10, loader);
+
+    assertThat(toArray(block)).isEqualTo(new byte[] {8, 9});
+    assertThat(loadedRanges).containsExactly("8:2");
+  }
+
+  @Test
+  public void getBlock_differentGenerationsAreCachedSeparately() throws IOException {
+    GoogleCloudStorageBlockCache cache =
+        new GoogleCloudStorageBlockCache(/* maxSize= */ 100, /* blockSize= */ 4, false);
+
+    cache.getBlock(RESOURCE_ID, /* generation= */ 1, 0, 10, loader);
+    cache.getBlock(RESOURCE_ID, /* generation= */ 2, 0, 10, loader);
+
+    assertThat(loadedRanges).containsExactly("0:4", "0:4");
+    assertThat(cache.getMissCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void getBlock_evictsLeastRecentlyUsedBlocks() throws IOException {
+    GoogleCloudStorageBlockCache cache =
+        new GoogleCloudStorageBlockCache(/* maxSize= */ 8, /* blockSize= */ 4, false);
+
+    cache.getBlock(RESOURCE_ID, /* generation= */ 1, 0, 12, loader);
+    cache.getBlock(RESOURCE_ID, /* generation= */ 1, 1, 12, loader);
+    cache.getBlock(RESOURCE_ID, /* generation= */ 1, 0, 12, loader);
+    cache.getBlock(RESOURCE_ID, /* generation= */ 1, 2, 12, loader);
+    cache.getBlock(RESOURCE_ID, /* generation= */ 1, 0, 12, loader);
+
+    assertThat(loadedRanges).containsExactly("0:4", "4:4", "8:4").inOrder();
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.getEvictionCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void getBlock_offHeap_storesBlocksInDirectBuffers() throws IOException {
+    GoogleCloudStorageBlockCache cache =
+        new GoogleCloudStorageBlockCache(/* maxSize= */ 100, /* blockSize= */ 4, true);
+
+    ByteBuffer block = cache.getBlock(RESOURCE_ID, /* generation= */ 1, 0, 10, loader);
+
+    assertThat(block.isDirect()).isTrue();
+    assertThat(toArray(block)).isEqualTo(new byte[] {0, 1, 2, 3});
+  }
+
+  @Test
+  public void getBlock_loaderFailure_isNotCached() throws IOException {
+    GoogleCloudStorageBlockCache cache =
+        new GoogleCloudStorageBlockCache(/* maxSize= */ 100, /* blockSize= */ 4, false);
+
+    IOException expected = new IOException("test");
+    IOException thrown =
+        assertThrows(
+            IOException.class,
+            () ->
+                cache.getBlock(
+                    RESOURCE_ID,
+                    /* generation= */ 1,
+                    0,
+                    10,
+                    (offset, length) -> {
+                      throw expected;
+                    }));
+    assertThat(thrown).isSameInstanceAs(expected);
+
+    cache.getBlock(RESOURCE_ID, /* generation= */ 1, 0, 10, loader);
+    assertThat(loadedRanges).containsExactly("0:4");
+  }
+
+  private static byte[] toArray(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.duplicate().get(bytes);
+    return bytes;
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.cloud.hadoop.gcsio.integration.GoogleCloudStorageTestHelper.assertObjectContent;
+import static com.google.cloud.hadoop.gcsio.integration.GoogleCloudStorageTestHelper.fillBytes;
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.cloud.hadoop.gcsio.testing.InMemoryGoogleCloudStorage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class GoogleCloudStorageCompositeUploadChannelTest {
+
+  private static final String BUCKET = "bucket";
+
+  private static final StorageResourceId RESOURCE_ID = new StorageResourceId(BUCKET, "dir/object");
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  private GoogleCloudStorage gcs;
+
+  @Before
+  public void setUp() throws IOException {
+    gcs = new InMemoryGoogleCloudStorage();
+    gcs.createBucket(BUCKET);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void write_smallerThanPartSize_uploadsObjectDirectly() throws IOException {
+    byte[] data = writeObject(gcs, /* partSize= */ 100, /* size= */ 99);
+
+    assertObjectContent(gcs, RESOURCE_ID, data);
+    assertThat(listObjectNames()).containsExactly(RESOURCE_ID.getObjectName());
+  }
+
+  @Test
+  public void write_moreThanMaxComposeObjectsParts_composesPartsAndDeletesTempObjects()
+      throws IOException {
+    // 32 * 32 + 1 parts requires 3 levels of compose requests
+    byte[] data = writeObject(gcs, /* partSize= */ 8, /* size= */ 8 * 32 * 32 + 5);
+
+    assertObjectContent(gcs, RESOURCE_ID, data);
+    assertThat(listObjectNames()).containsExactly(RESOURCE_ID.getObjectName());
+  }
+
+  @Test
+  public void write_moreThanMaxCompositeComponentsParts_uploadsRestAsLastPart()
+      throws IOException {
+    int partSize = 2;
+    int size = partSize * GoogleCloudStorageCompositeUploadChannel.MAX_COMPOSITE_COMPONENTS * 3;
+
+    byte[] data = writeObject(gcs, partSize, size);
+
+    assertObjectContent(gcs, RESOURCE_ID, data);
+    assertThat(listObjectNames()).containsExactly(RESOURCE_ID.getObjectName());
+  }
+
+  @Test
+  public void create_existingObjectWithoutOverwrite_throwsFileAlreadyExistsException()
+      throws IOException {
+    gcs.createEmptyObject(RESOURCE_ID);
+
+    assertThrows(
+        FileAlreadyExistsException.class,
+        () ->
+            new GoogleCloudStorageCompositeUploadChannel(
+                gcs,
+                RESOURCE_ID,
+                CreateObjectOptions.DEFAULT_NO_OVERWRITE,
+                executor,
+                /* partSize= */ 8,
+                /* maxConcurrentParts= */ 4));
+  }
+
+  @Test
+  public void close_partUploadFailure_deletesTempObjects() throws IOException {
+    GoogleCloudStorage failingGcs =
+        new ForwardingGoogleCloudStorage(gcs) {
+          @Override
+          public WritableByteChannel create(
+              StorageResourceId resourceId, CreateObjectOptions options) throws IOException {
+            if (resourceId.getObjectName().endsWith(".7")) {
+              throw new IOException("Part upload failure: " + resourceId);
+            }
+            return super.create(resourceId, options);
+          }
+        };
+
+    IOException e =
+        assertThrows(
+            IOException.class, () -> writeObject(failingGcs, /* partSize= */ 8, /* size= */ 100));
+
+    assertThat(e).hasCauseThat().hasMessageThat().startsWith("Part upload failure");
+    assertThat(listObjectNames()).isEmpty();
+  }
+
+  private byte[] writeObject(GoogleCloudStorage gcs, int partSize, int size) throws IOException {
+    byte[] data = new byte[size];
+    fillBytes(data);
+    try (WritableByteChannel channel =
+        new GoogleCloudStorageCompositeUploadChannel(
+            gcs,
+            RESOURCE_ID,
+            CreateObjectOptions.DEFAULT_NO_OVERWRITE,
+            executor,
+            partSize,
+            /* maxConcurrentParts= */ 4)) {
+      // Write in chunks that are not aligned with the part size
+      for (int offset = 0; offset < size; offset += 13) {
+        channel.write(ByteBuffer.wrap(data, offset, Math.min(13, size - offset)));
+      }
+    }
+    return data;
+  }
+
+  private List<String> listObjectNames() throws IOException {
+    return gcs.listObjectInfo(BUCKET, "dir/").stream()
+        .map(GoogleCloudStorageItemInfo::getObjectName)
+        .collect(Collectors.toList());
+  }
+}
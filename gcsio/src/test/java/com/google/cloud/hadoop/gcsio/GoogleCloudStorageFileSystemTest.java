@@ -16,6 +16,9 @@ package com.google.cloud.hadoop.gcsio;
 
 import static com.google.cloud.hadoop.gcsio.testing.InMemoryGoogleCloudStorage.getInMemoryGoogleCloudStorageOptions;
 import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.util.concurrent.Uninterruptibles.sleepUninterruptibly;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertThrows;
 
 import com.google.api.client.auth.oauth2.Credential;
@@ -23,12 +26,17 @@ import com.google.api.client.googleapis.auth.oauth2.GoogleCredential;
 import com.google.cloud.hadoop.gcsio.testing.InMemoryGoogleCloudStorage;
 import com.google.cloud.hadoop.util.AsyncWriteChannelOptions;
 import com.google.cloud.hadoop.util.RequesterPaysOptions;
+import com.google.common.collect.ImmutableList;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.FileAlreadyExistsException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.junit.ClassRule;
@@ -450,10 +458,197 @@ public class GoogleCloudStorageFileSystemTest
         .isTrue();
   }
 
+  @Test
+  public void rename_directoryWithMultipleListingPages_renamesAllItems() throws Exception {
+    AtomicInteger listedPages = new AtomicInteger();
+    GoogleCloudStorageFileSystem pagingGcsfs =
+        new GoogleCloudStorageFileSystem(
+            o -> new PagingGoogleCloudStorage(new InMemoryGoogleCloudStorage(o), listedPages),
+            GoogleCloudStorageFileSystemOptions.builder()
+                .setCloudStorageOptions(getInMemoryGoogleCloudStorageOptions())
+                .build());
+    String bucketUri = "gs://test-bucket-rename-paging/";
+    pagingGcsfs.mkdir(new URI(bucketUri));
+    List<String> objectNames = ImmutableList.of("a", "b/", "b/c", "d", "e/f/g");
+    for (String objectName : objectNames) {
+      URI path = new URI(bucketUri + "src/" + objectName);
+      if (objectName.endsWith("/")) {
+        pagingGcsfs.mkdir(path);
+      } else {
+        pagingGcsfs.create(path).close();
+      }
+    }
+
+    pagingGcsfs.rename(new URI(bucketUri + "src/"), new URI(bucketUri + "dst/"));
+
+    assertThat(listedPages.get()).isAtLeast(3);
+    assertThat(pagingGcsfs.exists(new URI(bucketUri + "src/"))).isFalse();
+    for (String objectName : objectNames) {
+      assertThat(pagingGcsfs.exists(new URI(bucketUri + "dst/" + objectName))).isTrue();
+    }
+  }
+
+  @Test
+  public void delete_directoryWithMultipleListingPages_deletesAllItems() throws Exception {
+    AtomicInteger listedPages = new AtomicInteger();
+    GoogleCloudStorageFileSystem pagingGcsfs =
+        new GoogleCloudStorageFileSystem(
+            o -> new PagingGoogleCloudStorage(new InMemoryGoogleCloudStorage(o), listedPages),
+            GoogleCloudStorageFileSystemOptions.builder()
+                .setCloudStorageOptions(getInMemoryGoogleCloudStorageOptions())
+                .build());
+    String bucketUri = "gs://test-bucket-delete-paging/";
+    pagingGcsfs.mkdir(new URI(bucketUri));
+    for (String objectName : ImmutableList.of("a", "b/", "b/c", "d", "e/f/g")) {
+      URI path = new URI(bucketUri + "dir/" + objectName);
+      if (objectName.endsWith("/")) {
+        pagingGcsfs.mkdir(path);
+      } else {
+        pagingGcsfs.create(path).close();
+      }
+    }
+
+    pagingGcsfs.delete(new URI(bucketUri + "dir/"), /* recursive= */ true);
+
+    assertThat(listedPages.get()).isAtLeast(3);
+    assertThat(pagingGcsfs.exists(new URI(bucketUri + "dir/"))).isFalse();
+    assertThat(pagingGcsfs.listFileInfoForPrefix(new URI(bucketUri))).isEmpty();
+  }
+
+  @Test
+  public void mkdirs_multiplePaths_createsOnlyMissingLeafDirectories() throws Exception {
+    GoogleCloudStorageFileSystem inMemoryGcsfs =
+        new GoogleCloudStorageFileSystem(
+            InMemoryGoogleCloudStorage::new,
+            GoogleCloudStorageFileSystemOptions.builder()
+                .setCloudStorageOptions(getInMemoryGoogleCloudStorageOptions())
+                .build());
+    String bucketName = "test-bucket-mkdirs-multiple";
+    inMemoryGcsfs.mkdir(new URI("gs://" + bucketName));
+    inMemoryGcsfs.mkdir(new URI("gs://" + bucketName + "/e/"));
+
+    inMemoryGcsfs.mkdirs(
+        ImmutableList.of(
+            new URI("gs://" + bucketName + "/a/b/"),
+            new URI("gs://" + bucketName + "/a"),
+            new URI("gs://" + bucketName + "/a/c"),
+            new URI("gs://" + bucketName + "/a/b"),
+            new URI("gs://" + bucketName + "/d/"),
+            new URI("gs://" + bucketName + "/e/")));
+
+    assertThat(
+            inMemoryGcsfs
+                .getGcs()
+                .listObjectInfo(
+                    bucketName, /* objectNamePrefix= */ null, ListObjectOptions.DEFAULT_FLAT_LIST)
+                .stream()
+                .map(GoogleCloudStorageItemInfo::getObjectName)
+                .collect(toList()))
+        .containsExactly("a/b/", "a/c/", "d/", "e/");
+  }
+
+  @Test
+  public void mkdirs_multiplePaths_failsIfFileConflictsWithAncestor() throws Exception {
+    GoogleCloudStorageFileSystem inMemoryGcsfs =
+        new GoogleCloudStorageFileSystem(
+            InMemoryGoogleCloudStorage::new,
+            GoogleCloudStorageFileSystemOptions.builder()
+                .setCloudStorageOptions(getInMemoryGoogleCloudStorageOptions())
+                .build());
+    String bucketUri = "gs://test-bucket-mkdirs-conflict/";
+    inMemoryGcsfs.mkdir(new URI(bucketUri));
+    inMemoryGcsfs.create(new URI(bucketUri + "a/file")).close();
+
+    assertThrows(
+        FileAlreadyExistsException.class,
+        () ->
+            inMemoryGcsfs.mkdirs(
+                ImmutableList.of(
+                    new URI(bucketUri + "b/"), new URI(bucketUri + "a/file/c/"))));
+
+    assertThat(inMemoryGcsfs.exists(new URI(bucketUri + "b/"))).isFalse();
+  }
+
+  @Test
+  public void rename_directoryWithMultipleListingPages_copyFailure_awaitsInFlightDelete()
+      throws Exception {
+    AtomicInteger copyCalls = new AtomicInteger();
+    AtomicBoolean deleteCompleted = new AtomicBoolean();
+    GoogleCloudStorageFileSystem pagingGcsfs =
+        new GoogleCloudStorageFileSystem(
+            o ->
+                new PagingGoogleCloudStorage(
+                    new InMemoryGoogleCloudStorage(o), /* listedPages= */ new AtomicInteger()) {
+                  @Override
+                  public void copy(
+                      String srcBucketName,
+                      List<String> srcObjectNames,
+                      String dstBucketName,
+                      List<String> dstObjectNames)
+                      throws IOException {
+                    if (copyCalls.incrementAndGet() > 1) {
+                      throw new IOException("copy failure");
+                    }
+                    super.copy(srcBucketName, srcObjectNames, dstBucketName, dstObjectNames);
+                  }
+
+                  @Override
+                  public void deleteObjects(List<StorageResourceId> fullObjectNames)
+                      throws IOException {
+                    sleepUninterruptibly(200, MILLISECONDS);
+                    super.deleteObjects(fullObjectNames);
+                    deleteCompleted.set(true);
+                  }
+                },
+            GoogleCloudStorageFileSystemOptions.builder()
+                .setCloudStorageOptions(getInMemoryGoogleCloudStorageOptions())
+                .build());
+    String bucketUri = "gs://test-bucket-rename-paging-failure/";
+    pagingGcsfs.mkdir(new URI(bucketUri));
+    for (String objectName : ImmutableList.of("a", "b", "c", "d")) {
+      pagingGcsfs.create(new URI(bucketUri + "src/" + objectName)).close();
+    }
+
+    IOException e =
+        assertThrows(
+            IOException.class,
+            () -> pagingGcsfs.rename(new URI(bucketUri + "src/"), new URI(bucketUri + "dst/")));
+
+    assertThat(e).hasMessageThat().isEqualTo("copy failure");
+    // Deletion of the first page was completed before the failure was thrown
+    assertThat(deleteCompleted.get()).isTrue();
+  }
+
   /*
    * TODO(user): add support of generations in InMemoryGoogleCloudStorage so
    * we can run the following tests in this class.
    */
   @Override
   public void read_failure_ifObjectWasModifiedDuringRead() {}
+
+  /** Lists at most 2 objects per page, next page token is the last listed object name. */
+  private static class PagingGoogleCloudStorage extends ForwardingGoogleCloudStorage {
+
+    private final AtomicInteger listedPages;
+
+    PagingGoogleCloudStorage(GoogleCloudStorage delegate, AtomicInteger listedPages) {
+      super(delegate);
+      this.listedPages = listedPages;
+    }
+
+    @Override
+    public ListPage<GoogleCloudStorageItemInfo> listObjectInfoPage(
+        String bucketName, String objectNamePrefix, ListObjectOptions listOptions, String pageToken)
+        throws IOException {
+      listedPages.incrementAndGet();
+      List<GoogleCloudStorageItemInfo> items =
+          listObjectInfo(bucketName, objectNamePrefix, listOptions).stream()
+              .filter(i -> pageToken == null || i.getObjectName().compareTo(pageToken) > 0)
+              .sorted(Comparator.comparing(GoogleCloudStorageItemInfo::getObjectName))
+              .collect(toList());
+      return items.size() > 2
+          ? new ListPage<>(items.subList(0, 2), items.get(1).getObjectName())
+          : new ListPage<>(items, /* nextPageToken= */ null);
+    }
+  }
 }
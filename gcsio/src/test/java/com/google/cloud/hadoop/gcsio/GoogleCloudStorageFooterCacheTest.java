@@ -0,0 +1,102 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.cloud.hadoop.gcsio.PerformanceCachingGoogleCloudStorageTest.createObjectItemInfo;
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.base.Ticker;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class GoogleCloudStorageFooterCacheTest {
+
+  private static final String BUCKET = "bucket";
+
+  private final AtomicLong nanos = new AtomicLong();
+
+  private GoogleCloudStorageFooterCache cache;
+
+  @Before
+  public void setUp() {
+    Ticker ticker =
+        new Ticker() {
+          @Override
+          public long read() {
+            return nanos.get();
+          }
+        };
+    cache =
+        new GoogleCloudStorageFooterCache(
+            /* maxFooterSize= */ 10, Duration.ofMillis(10), ticker);
+  }
+
+  @Test
+  public void getItemInfo_returnsCachedItemInfo_untilExpired() {
+    GoogleCloudStorageItemInfo itemInfo = createObjectItemInfo(BUCKET, "a/b");
+    cache.putItemInfo(itemInfo);
+
+    assertThat(cache.getItemInfo(new StorageResourceId(BUCKET, "a/b"))).isEqualTo(itemInfo);
+
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(11));
+
+    assertThat(cache.getItemInfo(new StorageResourceId(BUCKET, "a/b"))).isNull();
+  }
+
+  @Test
+  public void getItemInfo_ignoresCachedItemInfo_forSpecificGeneration() {
+    cache.putItemInfo(createObjectItemInfo(BUCKET, "a/b"));
+
+    assertThat(cache.getItemInfo(new StorageResourceId(BUCKET, "a/b", 1))).isNull();
+  }
+
+  @Test
+  public void invalidatePrefix_removesItemInfosUnderPrefix() {
+    cache.putItemInfo(createObjectItemInfo(BUCKET, "a/b"));
+    cache.putItemInfo(createObjectItemInfo(BUCKET, "a/c/d"));
+    cache.putItemInfo(createObjectItemInfo(BUCKET, "ab"));
+
+    cache.invalidatePrefix(BUCKET, "a/");
+
+    assertThat(cache.getItemInfo(new StorageResourceId(BUCKET, "a/b"))).isNull();
+    assertThat(cache.getItemInfo(new StorageResourceId(BUCKET, "a/c/d"))).isNull();
+    assertThat(cache.getItemInfo(new StorageResourceId(BUCKET, "ab"))).isNotNull();
+  }
+
+  @Test
+  public void getFooter_isGenerationAware() {
+    StorageResourceId resourceId = new StorageResourceId(BUCKET, "a");
+    cache.putFooter(resourceId, /* generation= */ 1, new byte[] {1, 2});
+
+    assertThat(cache.getFooter(resourceId, /* generation= */ 1)).isEqualTo(new byte[] {1, 2});
+    assertThat(cache.getFooter(resourceId, /* generation= */ 2)).isNull();
+  }
+
+  @Test
+  public void putFooter_evictsFooters_whenMaxSizeExceeded() {
+    StorageResourceId resourceId = new StorageResourceId(BUCKET, "a");
+    cache.putFooter(resourceId, /* generation= */ 1, new byte[6]);
+    cache.putFooter(resourceId, /* generation= */ 2, new byte[6]);
+
+    assertThat(cache.getFooter(resourceId, /* generation= */ 1)).isNull();
+    assertThat(cache.getFooter(resourceId, /* generation= */ 2)).isNotNull();
+  }
+}
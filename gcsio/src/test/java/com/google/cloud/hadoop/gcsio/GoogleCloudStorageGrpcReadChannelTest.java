@@ -7,6 +7,7 @@ import static com.google.cloud.hadoop.util.testing.MockHttpTransportHelper.jsonD
 import static com.google.cloud.hadoop.util.testing.MockHttpTransportHelper.jsonErrorResponse;
 import static com.google.cloud.hadoop.util.testing.MockHttpTransportHelper.mockTransport;
 import static com.google.common.truth.Truth.assertThat;
+import static java.lang.Math.min;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -29,8 +30,10 @@ import com.google.api.services.storage.Storage.Objects;
 import com.google.api.services.storage.Storage.Objects.Get;
 import com.google.api.services.storage.model.StorageObject;
 import com.google.auth.Credentials;
+import com.google.cloud.hadoop.gcsio.GoogleCloudStorageImpl.BackOffFactory;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageReadOptions.Fadvise;
 import com.google.cloud.hadoop.util.ApiErrorExtractor;
+import com.google.cloud.hadoop.util.RetryBoundedBackOff;
 import com.google.cloud.hadoop.util.testing.MockHttpTransportHelper.ErrorResponses;
 import com.google.common.hash.Hashing;
 import com.google.google.storage.v1.ChecksummedData;
@@ -41,6 +44,7 @@ import com.google.google.storage.v1.Object;
 import com.google.google.storage.v1.StorageGrpc;
 import com.google.google.storage.v1.StorageGrpc.StorageBlockingStub;
 import com.google.google.storage.v1.StorageGrpc.StorageImplBase;
+import com.google.google.storage.v1.StorageGrpc.StorageStub;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.UInt32Value;
 import io.grpc.ManagedChannelBuilder;
@@ -51,6 +55,7 @@ import io.grpc.inprocess.InProcessServerBuilder;
 import io.grpc.stub.AbstractStub;
 import io.grpc.stub.StreamObserver;
 import io.grpc.testing.GrpcCleanupRule;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
@@ -752,6 +757,24 @@ public final class GoogleCloudStorageGrpcReadChannelTest {
         .contains("Custom error message");
   }
 
+  @Test
+  public void readWithBlockCache_objectNotFound_throwsFileNotFoundExceptionWithoutRetries()
+      throws Exception {
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder().setBlockCacheMaxSize(OBJECT_SIZE * 2).build();
+    GoogleCloudStorageGrpcReadChannel readChannel =
+        newReadChannel(options, () -> new RetryBoundedBackOff(BackOff.ZERO_BACKOFF, 3));
+    fakeService.setGetMediaException(
+        Status.fromCode(Status.Code.NOT_FOUND)
+            .withDescription("Custom error message.")
+            .asException());
+
+    assertThrows(FileNotFoundException.class, () -> readChannel.read(ByteBuffer.allocate(10)));
+
+    // Footer prefetch and a single block request
+    verify(fakeService, times(2)).getObjectMedia(any(), any());
+  }
+
   @Test
   public void readFailsOnClosedChannel() throws Exception {
     GoogleCloudStorageGrpcReadChannel readChannel = newReadChannel();
@@ -1376,6 +1399,233 @@ public final class GoogleCloudStorageGrpcReadChannelTest {
     assertFalse(readChannel.isOpen());
   }
 
+  @Test
+  public void readAhead_sequentialRead_streamsRangesAhead() throws Exception {
+    int objectSize = FakeService.CHUNK_SIZE * 10;
+    int rangeSize = FakeService.CHUNK_SIZE * 2;
+    storageObject.setSize(BigInteger.valueOf(objectSize));
+    fakeService.setObject(DEFAULT_OBJECT.toBuilder().setSize(objectSize).build());
+    verify(fakeService, times(1)).setObject(any());
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder()
+            .setMinRangeRequestSize(rangeSize)
+            .setGrpcReadAheadWindowSize(3)
+            .build();
+    GoogleCloudStorageGrpcReadChannel readChannel = newReadChannel(options);
+
+    ByteBuffer buffer = ByteBuffer.allocate(1000);
+    readChannel.read(buffer);
+
+    assertArrayEquals(fakeService.data.substring(0, 1000).toByteArray(), buffer.array());
+    int footerOffset = objectSize - rangeSize / 2;
+    verify(fakeService, times(1)).getObjectMedia(eq(GetObjectMediaRequest.newBuilder()
+        .setBucket(BUCKET_NAME)
+        .setObject(OBJECT_NAME)
+        .setReadOffset(footerOffset)
+        .build()), any());
+    for (int rangeStart = 0; rangeStart < 3 * rangeSize; rangeStart += rangeSize) {
+      verify(fakeService, times(1))
+          .getObjectMedia(eq(newRangeRequest(rangeStart, rangeSize)), any());
+    }
+    verifyNoMoreInteractions(fakeService);
+
+    ByteBuffer remaining = ByteBuffer.allocate(objectSize - 1000);
+    while (remaining.hasRemaining()) {
+      ByteBuffer slice = remaining.slice();
+      slice.limit(min(1000, slice.remaining()));
+      int bytesRead = readChannel.read(slice);
+      assertThat(bytesRead).isGreaterThan(0);
+      remaining.position(remaining.position() + bytesRead);
+    }
+
+    assertArrayEquals(
+        fakeService.data.substring(1000, objectSize).toByteArray(), remaining.array());
+    for (int rangeStart = 3 * rangeSize; rangeStart < footerOffset; rangeStart += rangeSize) {
+      verify(fakeService, times(1))
+          .getObjectMedia(
+              eq(newRangeRequest(rangeStart, min(rangeSize, footerOffset - rangeStart))), any());
+    }
+    verifyNoMoreInteractions(fakeService);
+    assertThat(readChannel.read(ByteBuffer.allocate(1))).isEqualTo(-1);
+  }
+
+  @Test
+  public void readAhead_forwardSeek_servedFromStreamedRange() throws Exception {
+    int objectSize = FakeService.CHUNK_SIZE * 10;
+    int rangeSize = FakeService.CHUNK_SIZE * 2;
+    storageObject.setSize(BigInteger.valueOf(objectSize));
+    fakeService.setObject(DEFAULT_OBJECT.toBuilder().setSize(objectSize).build());
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder()
+            .setInplaceSeekLimit(1000)
+            .setMinRangeRequestSize(rangeSize)
+            .setGrpcReadAheadWindowSize(2)
+            .build();
+    GoogleCloudStorageGrpcReadChannel readChannel = newReadChannel(options);
+
+    readChannel.read(ByteBuffer.allocate(10));
+    readChannel.position(rangeSize + 1000);
+    ByteBuffer buffer = ByteBuffer.allocate(100);
+    readChannel.read(buffer);
+
+    assertArrayEquals(
+        fakeService.data.substring(rangeSize + 1000, rangeSize + 1100).toByteArray(),
+        buffer.array());
+    verify(fakeService, times(1)).getObjectMedia(eq(newRangeRequest(0, rangeSize)), any());
+    verify(fakeService, times(1))
+        .getObjectMedia(eq(newRangeRequest(rangeSize, rangeSize)), any());
+    verify(fakeService, times(1))
+        .getObjectMedia(eq(newRangeRequest(2 * rangeSize, rangeSize)), any());
+    // Footer prefetch and 3 ranges
+    verify(fakeService, times(4)).getObjectMedia(any(), any());
+  }
+
+  @Test
+  public void readAhead_farForwardSeekWithinRange_startsNewStream() throws Exception {
+    int objectSize = FakeService.CHUNK_SIZE * 20;
+    int rangeSize = FakeService.CHUNK_SIZE * 16;
+    int footerOffset = objectSize - rangeSize / 2;
+    int seekPosition = FakeService.CHUNK_SIZE * 8;
+    storageObject.setSize(BigInteger.valueOf(objectSize));
+    fakeService.setObject(DEFAULT_OBJECT.toBuilder().setSize(objectSize).build());
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder()
+            .setInplaceSeekLimit(100)
+            .setMinRangeRequestSize(rangeSize)
+            .setGrpcReadAheadWindowSize(1)
+            .build();
+    GoogleCloudStorageGrpcReadChannel readChannel = newReadChannel(options);
+
+    readChannel.read(ByteBuffer.allocate(10));
+    readChannel.position(seekPosition);
+    ByteBuffer buffer = ByteBuffer.allocate(100);
+    readChannel.read(buffer);
+
+    assertArrayEquals(
+        fakeService.data.substring(seekPosition, seekPosition + 100).toByteArray(),
+        buffer.array());
+    verify(fakeService, times(1)).getObjectMedia(eq(newRangeRequest(0, footerOffset)), any());
+    // Seek past the in-place seek limit and the buffered content starts a new stream
+    verify(fakeService, times(1))
+        .getObjectMedia(eq(newRangeRequest(seekPosition, footerOffset - seekPosition)), any());
+    // Footer prefetch and 2 ranges
+    verify(fakeService, times(3)).getObjectMedia(any(), any());
+  }
+
+  @Test
+  public void readAhead_randomReads_coalescedIntoSingleStream() throws Exception {
+    int objectSize = FakeService.CHUNK_SIZE * 10;
+    int rangeSize = FakeService.CHUNK_SIZE * 2;
+    storageObject.setSize(BigInteger.valueOf(objectSize));
+    fakeService.setObject(DEFAULT_OBJECT.toBuilder().setSize(objectSize).build());
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder()
+            .setFadvise(Fadvise.RANDOM)
+            .setInplaceSeekLimit(10)
+            .setMinRangeRequestSize(rangeSize)
+            .setGrpcReadAheadWindowSize(2)
+            .build();
+    GoogleCloudStorageGrpcReadChannel readChannel = newReadChannel(options);
+
+    for (int position : new int[] {100, 1000, 3000, 50}) {
+      readChannel.position(position);
+      ByteBuffer buffer = ByteBuffer.allocate(100);
+      readChannel.read(buffer);
+      assertArrayEquals(
+          fakeService.data.substring(position, position + 100).toByteArray(), buffer.array());
+    }
+
+    verify(fakeService, times(1)).getObjectMedia(eq(newRangeRequest(100, rangeSize)), any());
+    // Backward seek starts a new stream
+    verify(fakeService, times(1)).getObjectMedia(eq(newRangeRequest(50, rangeSize)), any());
+    // Footer prefetch and 2 ranges
+    verify(fakeService, times(3)).getObjectMedia(any(), any());
+  }
+
+  @Test
+  public void readAhead_checksumMismatch_throwsIOException() throws Exception {
+    int objectSize = FakeService.CHUNK_SIZE * 10;
+    storageObject.setSize(BigInteger.valueOf(objectSize));
+    fakeService.setObject(DEFAULT_OBJECT.toBuilder().setSize(objectSize).build());
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder()
+            .setGrpcChecksumsEnabled(true)
+            .setMinRangeRequestSize(FakeService.CHUNK_SIZE * 2)
+            .setGrpcReadAheadWindowSize(2)
+            .build();
+    GoogleCloudStorageGrpcReadChannel readChannel = newReadChannel(options);
+    fakeService.setReturnIncorrectMessageChecksum();
+
+    IOException thrown =
+        assertThrows(IOException.class, () -> readChannel.read(ByteBuffer.allocate(100)));
+
+    assertThat(thrown).hasCauseThat().hasMessageThat().contains("checksum");
+  }
+
+  @Test
+  public void readAhead_transientStreamError_restartsStreamAtReadOffset() throws Exception {
+    int objectSize = FakeService.CHUNK_SIZE * 10;
+    int rangeSize = FakeService.CHUNK_SIZE * 4;
+    storageObject.setSize(BigInteger.valueOf(objectSize));
+    fakeService.setObject(DEFAULT_OBJECT.toBuilder().setSize(objectSize).build());
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder()
+            .setMinRangeRequestSize(rangeSize)
+            .setGrpcReadAheadWindowSize(1)
+            .build();
+    GoogleCloudStorageGrpcReadChannel readChannel =
+        newReadChannel(options, () -> new RetryBoundedBackOff(BackOff.ZERO_BACKOFF, 3));
+    fakeService.setGetMediaStreamException(
+        /* afterChunks= */ 2, Status.fromCode(Status.Code.UNAVAILABLE).asException());
+
+    ByteBuffer buffer = ByteBuffer.allocate(rangeSize);
+    while (buffer.hasRemaining()) {
+      assertThat(readChannel.read(buffer)).isGreaterThan(0);
+    }
+
+    assertArrayEquals(fakeService.data.substring(0, rangeSize).toByteArray(), buffer.array());
+    verify(fakeService, times(1)).getObjectMedia(eq(newRangeRequest(0, rangeSize)), any());
+    // Failed stream is restarted after the already received 2 chunks
+    int restartOffset = 2 * FakeService.CHUNK_SIZE;
+    verify(fakeService, times(1))
+        .getObjectMedia(
+            eq(newRangeRequest(restartOffset, rangeSize - restartOffset)), any());
+  }
+
+  @Test
+  public void readAhead_objectNotFound_throwsFileNotFoundExceptionWithoutRetries()
+      throws Exception {
+    int objectSize = FakeService.CHUNK_SIZE * 10;
+    storageObject.setSize(BigInteger.valueOf(objectSize));
+    fakeService.setObject(DEFAULT_OBJECT.toBuilder().setSize(objectSize).build());
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder()
+            .setMinRangeRequestSize(FakeService.CHUNK_SIZE * 2)
+            .setGrpcReadAheadWindowSize(1)
+            .build();
+    GoogleCloudStorageGrpcReadChannel readChannel =
+        newReadChannel(options, () -> new RetryBoundedBackOff(BackOff.ZERO_BACKOFF, 3));
+    fakeService.setGetMediaException(
+        Status.fromCode(Status.Code.NOT_FOUND)
+            .withDescription("Custom error message.")
+            .asException());
+
+    assertThrows(FileNotFoundException.class, () -> readChannel.read(ByteBuffer.allocate(100)));
+
+    // Footer prefetch and a single range stream
+    verify(fakeService, times(2)).getObjectMedia(any(), any());
+  }
+
+  private static GetObjectMediaRequest newRangeRequest(long offset, long length) {
+    return GetObjectMediaRequest.newBuilder()
+        .setBucket(BUCKET_NAME)
+        .setObject(OBJECT_NAME)
+        .setGeneration(OBJECT_GENERATION)
+        .setReadOffset(offset)
+        .setReadLimit(length)
+        .build();
+  }
+
   private GoogleCloudStorageGrpcReadChannel newReadChannel() throws IOException {
     return newReadChannel(GoogleCloudStorageReadOptions.DEFAULT);
   }
@@ -1402,6 +1652,17 @@ public final class GoogleCloudStorageGrpcReadChannelTest {
         () -> BackOff.STOP_BACKOFF);
   }
 
+  private GoogleCloudStorageGrpcReadChannel newReadChannel(
+      GoogleCloudStorageReadOptions options, BackOffFactory backOffFactory) throws IOException {
+    return GoogleCloudStorageGrpcReadChannel.open(
+        new FakeStubProvider(mockCredentials),
+        storage,
+        errorExtractor,
+        new StorageResourceId(BUCKET_NAME, OBJECT_NAME),
+        options,
+        backOffFactory);
+  }
+
   private GoogleCloudStorageGrpcReadChannel newReadChannel(StorageResourceId storageResourceId,
       GoogleCloudStorageReadOptions options)
       throws IOException {
@@ -1436,6 +1697,11 @@ public final class GoogleCloudStorageGrpcReadChannelTest {
     public StorageBlockingStub newBlockingStub() {
       return stub;
     }
+
+    @Override
+    public StorageStub newAsyncStub() {
+      return StorageGrpc.newStub(stub.getChannel());
+    }
   }
 
   private static class FakeService extends StorageImplBase {
@@ -1445,6 +1711,8 @@ public final class GoogleCloudStorageGrpcReadChannelTest {
     private Object object;
     private Throwable getException;
     private Throwable getMediaException;
+    private Throwable getMediaStreamException;
+    private int getMediaStreamExceptionAfterChunks;
     private boolean alterMessageChecksum = false;
 
     public FakeService() {
@@ -1481,7 +1749,14 @@ public final class GoogleCloudStorageGrpcReadChannelTest {
             request.getReadLimit() > 0
                 ? (int) Math.min(object.getSize(), readStart + request.getReadLimit())
                 : (int) object.getSize();
+        Throwable streamException = getMediaStreamException;
+        getMediaStreamException = null;
+        int chunks = 0;
         for (int position = readStart; position < readEnd; position += CHUNK_SIZE) {
+          if (streamException != null && chunks++ == getMediaStreamExceptionAfterChunks) {
+            responseObserver.onError(streamException);
+            return;
+          }
           int endIndex = Math.min((int) object.getSize(), position + CHUNK_SIZE);
           endIndex = Math.min(endIndex, readEnd);
           ByteString messageData =
@@ -1516,6 +1791,12 @@ public final class GoogleCloudStorageGrpcReadChannelTest {
       getMediaException = t;
     }
 
+    /** Fails the next media stream after the given number of chunks was sent. */
+    void setGetMediaStreamException(int afterChunks, Throwable t) {
+      getMediaStreamExceptionAfterChunks = afterChunks;
+      getMediaStreamException = t;
+    }
+
     void setReturnIncorrectMessageChecksum() {
       alterMessageChecksum = true;
     }
@@ -1,6 +1,9 @@
 package com.google.cloud.hadoop.gcsio;
 
 import static com.google.common.truth.Truth.assertThat;
+import static com.google.google.storage.v1.ServiceConstants.Values.MAX_WRITE_CHUNK_BYTES;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThrows;
@@ -35,22 +38,36 @@ import com.google.protobuf.ByteString;
 import com.google.protobuf.Int64Value;
 import com.google.protobuf.Timestamp;
 import com.google.protobuf.UInt32Value;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall.SimpleForwardingClientCall;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.MethodDescriptor;
 import io.grpc.Status;
 import io.grpc.StatusException;
-import io.grpc.ManagedChannelBuilder;
 import io.grpc.inprocess.InProcessChannelBuilder;
 import io.grpc.inprocess.InProcessServerBuilder;
 import io.grpc.stub.AbstractStub;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -88,14 +105,7 @@ public final class GoogleCloudStorageGrpcWriteChannelTest {
   public void setUp() throws Exception {
     MockitoAnnotations.initMocks(this);
     fakeService = spy(new FakeService());
-    String serverName = InProcessServerBuilder.generateName();
-    InProcessServerBuilder.forName(serverName)
-        .directExecutor()
-        .addService(fakeService)
-        .build()
-        .start();
-    stub =
-        StorageGrpc.newStub(InProcessChannelBuilder.forName(serverName).directExecutor().build());
+    stub = newInProcessStub(fakeService);
   }
 
   @Test
@@ -457,6 +467,96 @@ public final class GoogleCloudStorageGrpcWriteChannelTest {
     // TODO: assert number of retires;
   }
 
+  @Test
+  public void write_waitsForInsertStreamReadiness() throws Exception {
+    int chunkSize = MAX_WRITE_CHUNK_BYTES.getNumber();
+    UploadService uploadService = new UploadService();
+    uploadService.manualFlowControl = true;
+    AtomicInteger sentInsertRequests = new AtomicInteger();
+    stub =
+        newInProcessStub(uploadService)
+            .withInterceptors(
+                new ClientInterceptor() {
+                  @Override
+                  public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+                      MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+                    return new SimpleForwardingClientCall<ReqT, RespT>(
+                        next.newCall(method, callOptions)) {
+                      @Override
+                      public void sendMessage(ReqT message) {
+                        if (message instanceof InsertObjectRequest) {
+                          sentInsertRequests.incrementAndGet();
+                        }
+                        super.sendMessage(message);
+                      }
+                    };
+                  }
+                });
+    GoogleCloudStorageGrpcWriteChannel writeChannel = newWriteChannel();
+    ByteString data = createTestData(2 * chunkSize + 100);
+
+    writeChannel.initialize();
+    Future<?> upload =
+        executor.submit(
+            () -> {
+              writeChannel.write(data.asReadOnlyByteBuffer());
+              writeChannel.close();
+              return null;
+            });
+
+    ServerCallStreamObserver<Object> insertCall = uploadService.insertCalls.poll(10, SECONDS);
+    BlockingQueue<InsertObjectRequest> requests = uploadService.insertRequests.get(0);
+
+    // Stream is not ready until server requests messages, so nothing should be sent.
+    assertThrows(TimeoutException.class, () -> upload.get(100, MILLISECONDS));
+    assertThat(sentInsertRequests.get()).isEqualTo(0);
+
+    insertCall.request(1);
+    assertThat(requests.poll(10, SECONDS).getWriteOffset()).isEqualTo(0);
+    assertThrows(TimeoutException.class, () -> upload.get(100, MILLISECONDS));
+    assertThat(sentInsertRequests.get()).isEqualTo(1);
+
+    insertCall.request(2);
+    upload.get(10, SECONDS);
+
+    List<InsertObjectRequest> remainingRequests = new ArrayList<>(requests);
+    assertThat(remainingRequests).hasSize(2);
+    assertThat(remainingRequests.get(0).getWriteOffset()).isEqualTo(chunkSize);
+    assertThat(remainingRequests.get(1).getWriteOffset()).isEqualTo(2 * chunkSize);
+    assertThat(remainingRequests.get(1).getFinishWrite()).isTrue();
+  }
+
+  @Test
+  public void write_transientError_resendsBufferedRequestsFromCommittedOffset() throws Exception {
+    int chunkSize = MAX_WRITE_CHUNK_BYTES.getNumber();
+    UploadService uploadService = new UploadService();
+    uploadService.failInsertAfterRequests = 2;
+    uploadService.committedSize = chunkSize;
+    stub = newInProcessStub(uploadService);
+    GoogleCloudStorageGrpcWriteChannel writeChannel =
+        newWriteChannel(
+            AsyncWriteChannelOptions.builder().build(),
+            ObjectWriteConditions.NONE,
+            /* requesterPaysProject= */ null,
+            () -> BackOff.ZERO_BACKOFF);
+    ByteString data = createTestData(2 * chunkSize + 100);
+
+    writeChannel.initialize();
+    writeChannel.write(data.asReadOnlyByteBuffer());
+    writeChannel.close();
+
+    assertThat(uploadService.insertRequests).hasSize(2);
+    List<InsertObjectRequest> resentRequests = new ArrayList<>(uploadService.insertRequests.get(1));
+    assertThat(resentRequests).hasSize(2);
+    assertThat(resentRequests.get(0).getWriteOffset()).isEqualTo(chunkSize);
+    assertThat(resentRequests.get(0).getChecksummedData().getContent())
+        .isEqualTo(data.substring(chunkSize, 2 * chunkSize));
+    assertThat(resentRequests.get(1).getWriteOffset()).isEqualTo(2 * chunkSize);
+    assertThat(resentRequests.get(1).getChecksummedData().getContent())
+        .isEqualTo(data.substring(2 * chunkSize));
+    assertThat(resentRequests.get(1).getFinishWrite()).isTrue();
+  }
+
   @Test
   public void writeFailsBeforeInitialize() {
     GoogleCloudStorageGrpcWriteChannel writeChannel = newWriteChannel();
@@ -597,6 +697,17 @@ public final class GoogleCloudStorageGrpcWriteChannelTest {
     return newWriteChannel(options, writeConditions, /* requesterPaysProject= */ null);
   }
 
+  private static StorageStub newInProcessStub(StorageImplBase service) throws IOException {
+    String serverName = InProcessServerBuilder.generateName();
+    InProcessServerBuilder.forName(serverName)
+        .directExecutor()
+        .addService(service)
+        .build()
+        .start();
+    return StorageGrpc.newStub(
+        InProcessChannelBuilder.forName(serverName).directExecutor().build());
+  }
+
   /* Returns an int with the same bytes as the uint32 representation of value. */
   private int uInt32Value(long value) {
     ByteBuffer buffer = ByteBuffer.allocate(4);
@@ -752,4 +863,69 @@ public final class GoogleCloudStorageGrpcWriteChannelTest {
       }
     }
   }
+
+  /** Fake upload service that records requests of each insert stream. */
+  private static class UploadService extends StorageImplBase {
+    final BlockingQueue<ServerCallStreamObserver<Object>> insertCalls = new LinkedBlockingQueue<>();
+    final List<BlockingQueue<InsertObjectRequest>> insertRequests = new CopyOnWriteArrayList<>();
+
+    /** Whether insert streams receive requests only after they are requested by the test. */
+    boolean manualFlowControl = false;
+    /** Number of requests after which the first insert stream fails with a transient error. */
+    int failInsertAfterRequests = Integer.MAX_VALUE;
+
+    long committedSize;
+
+    @Override
+    public void startResumableWrite(
+        StartResumableWriteRequest request,
+        StreamObserver<StartResumableWriteResponse> responseObserver) {
+      responseObserver.onNext(
+          StartResumableWriteResponse.newBuilder().setUploadId(UPLOAD_ID).build());
+      responseObserver.onCompleted();
+    }
+
+    @Override
+    public void queryWriteStatus(
+        QueryWriteStatusRequest request,
+        StreamObserver<QueryWriteStatusResponse> responseObserver) {
+      responseObserver.onNext(
+          QueryWriteStatusResponse.newBuilder().setCommittedSize(committedSize).build());
+      responseObserver.onCompleted();
+    }
+
+    @Override
+    public StreamObserver<InsertObjectRequest> insertObject(
+        StreamObserver<Object> responseObserver) {
+      ServerCallStreamObserver<Object> insertCall =
+          (ServerCallStreamObserver<Object>) responseObserver;
+      if (manualFlowControl) {
+        insertCall.disableAutoRequest();
+      }
+      int failAfterRequests = failInsertAfterRequests;
+      failInsertAfterRequests = Integer.MAX_VALUE;
+
+      BlockingQueue<InsertObjectRequest> requests = new LinkedBlockingQueue<>();
+      insertRequests.add(requests);
+      insertCalls.add(insertCall);
+      return new StreamObserver<InsertObjectRequest>() {
+        @Override
+        public void onNext(InsertObjectRequest request) {
+          requests.add(request);
+          if (requests.size() == failAfterRequests) {
+            insertCall.onError(Status.UNAVAILABLE.asException());
+          }
+        }
+
+        @Override
+        public void onError(Throwable t) {}
+
+        @Override
+        public void onCompleted() {
+          insertCall.onNext(FakeService.DEFAULT_OBJECT);
+          insertCall.onCompleted();
+        }
+      };
+    }
+  }
 }
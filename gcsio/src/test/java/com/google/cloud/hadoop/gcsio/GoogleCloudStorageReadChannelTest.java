@@ -23,26 +23,48 @@ import static com.google.cloud.hadoop.gcsio.GoogleCloudStorageTestUtils.createRe
 import static com.google.cloud.hadoop.gcsio.StorageResourceId.UNKNOWN_GENERATION_ID;
 import static com.google.cloud.hadoop.util.testing.MockHttpTransportHelper.dataRangeResponse;
 import static com.google.cloud.hadoop.util.testing.MockHttpTransportHelper.dataResponse;
+import static com.google.cloud.hadoop.util.testing.MockHttpTransportHelper.inputStreamResponse;
 import static com.google.cloud.hadoop.util.testing.MockHttpTransportHelper.jsonDataResponse;
 import static com.google.cloud.hadoop.util.testing.MockHttpTransportHelper.jsonErrorResponse;
 import static com.google.cloud.hadoop.util.testing.MockHttpTransportHelper.mockTransport;
+import static com.google.common.net.HttpHeaders.CONTENT_LENGTH;
+import static com.google.common.net.HttpHeaders.CONTENT_RANGE;
 import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.util.concurrent.Uninterruptibles.awaitUninterruptibly;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertThrows;
 
 import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
 import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
 import com.google.api.services.storage.Storage;
 import com.google.api.services.storage.model.StorageObject;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageReadOptions.Fadvise;
 import com.google.cloud.hadoop.util.testing.MockHttpTransportHelper.ErrorResponses;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hashing;
+import com.google.common.io.BaseEncoding;
+import com.google.common.primitives.Ints;
+import java.io.EOFException;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -223,6 +245,48 @@ public class GoogleCloudStorageReadChannelTest {
     assertThat(rangeHeaders).containsExactly("bytes=8-9", "bytes=7-7").inOrder();
   }
 
+  @Test
+  public void footerPrefetch_reusedFromFooterCache() throws IOException {
+    byte[] testData = {0x00, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09};
+    int footerSize = 2;
+    int footerStart = testData.length - footerSize;
+    StorageObject object =
+        newStorageObject(BUCKET_NAME, OBJECT_NAME).setSize(BigInteger.valueOf(testData.length));
+
+    MockHttpTransport transport =
+        mockTransport(
+            jsonDataResponse(object),
+            dataRangeResponse(
+                Arrays.copyOfRange(testData, footerStart, testData.length),
+                footerStart,
+                testData.length),
+            jsonDataResponse(object));
+
+    List<HttpRequest> requests = new ArrayList<>();
+    Storage storage = new Storage(transport, JSON_FACTORY, requests::add);
+
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder()
+            .setFadvise(Fadvise.RANDOM)
+            .setMinRangeRequestSize(footerSize)
+            .build();
+    GoogleCloudStorageFooterCache footerCache =
+        new GoogleCloudStorageFooterCache(/* maxFooterSize= */ 1024, Duration.ofMinutes(1));
+
+    for (int i = 0; i < 2; i++) {
+      GoogleCloudStorageReadChannel readChannel =
+          createReadChannel(storage, options, footerCache);
+      readChannel.position(footerStart);
+      byte[] readBytes = new byte[footerSize];
+      assertThat(readChannel.read(ByteBuffer.wrap(readBytes))).isEqualTo(footerSize);
+      assertThat(readBytes).isEqualTo(Arrays.copyOfRange(testData, footerStart, testData.length));
+    }
+
+    List<String> rangeHeaders =
+        requests.stream().map(r -> r.getHeaders().getRange()).collect(toList());
+    assertThat(rangeHeaders).containsExactly(null, "bytes=8-9", null).inOrder();
+  }
+
   @Test
   public void read_whenBufferIsEmpty() throws IOException {
     ByteBuffer emptyBuffer = ByteBuffer.wrap(new byte[0]);
@@ -538,6 +602,495 @@ public class GoogleCloudStorageReadChannelTest {
         .isEqualTo("Cannot read GZIP encoded files - content encoding support is disabled.");
   }
 
+  @Test
+  public void mergeVectoredRanges_mergesRangesWithinSeekSizeAndMaxSize() {
+    List<VectoredIORange> ranges =
+        ImmutableList.of(
+            new VectoredIORange(0, 10),
+            new VectoredIORange(12, 5),
+            new VectoredIORange(30, 5),
+            new VectoredIORange(36, 20));
+
+    List<List<VectoredIORange>> merged =
+        GoogleCloudStorageReadChannel.mergeVectoredRanges(
+            ranges, /* minSeekSize= */ 4, /* maxMergedSize= */ 25);
+
+    assertThat(merged)
+        .containsExactly(
+            ImmutableList.of(ranges.get(0), ranges.get(1)),
+            ImmutableList.of(ranges.get(2)),
+            ImmutableList.of(ranges.get(3)))
+        .inOrder();
+  }
+
+  @Test
+  public void readVectored_mergesNearbyRanges() throws Exception {
+    byte[] testData = new byte[100];
+    new Random().nextBytes(testData);
+
+    MockHttpTransport transport =
+        mockTransport(
+            jsonDataResponse(
+                newStorageObject(BUCKET_NAME, OBJECT_NAME)
+                    .setSize(BigInteger.valueOf(testData.length))),
+            dataRangeResponse(Arrays.copyOfRange(testData, 0, 17), 0, testData.length),
+            dataRangeResponse(Arrays.copyOfRange(testData, 60, 70), 60, testData.length));
+
+    List<HttpRequest> requests = new ArrayList<>();
+    Storage storage = new Storage(transport, JSON_FACTORY, requests::add);
+
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder().setVectoredReadMinRangeSeekSize(4).build();
+
+    GoogleCloudStorageReadChannel readChannel = createReadChannel(storage, options);
+
+    List<VectoredIORange> ranges =
+        ImmutableList.of(
+            new VectoredIORange(60, 10), new VectoredIORange(0, 10), new VectoredIORange(12, 5));
+    readChannel.readVectored(ranges, ByteBuffer::allocate);
+
+    for (VectoredIORange range : ranges) {
+      ByteBuffer data = range.getData().get();
+      byte[] bytes = new byte[data.remaining()];
+      data.get(bytes);
+      assertThat(bytes)
+          .isEqualTo(
+              Arrays.copyOfRange(
+                  testData, (int) range.getOffset(), (int) range.getOffset() + range.getLength()));
+    }
+    assertThat(readChannel.position()).isEqualTo(0);
+
+    List<String> rangeHeaders =
+        requests.stream().map(r -> r.getHeaders().getRange()).collect(toList());
+    assertThat(rangeHeaders).containsExactly(null, "bytes=0-16", "bytes=60-69").inOrder();
+  }
+
+  @Test
+  public void readVectored_completesRangesExceptionally_onNotFound() throws Exception {
+    MockHttpTransport transport =
+        mockTransport(
+            jsonDataResponse(
+                newStorageObject(BUCKET_NAME, OBJECT_NAME).setSize(BigInteger.valueOf(100))),
+            jsonErrorResponse(ErrorResponses.NOT_FOUND));
+
+    Storage storage = new Storage(transport, JSON_FACTORY, r -> {});
+
+    GoogleCloudStorageReadChannel readChannel =
+        createReadChannel(storage, GoogleCloudStorageReadOptions.DEFAULT);
+
+    VectoredIORange range = new VectoredIORange(10, 10);
+    readChannel.readVectored(ImmutableList.of(range), ByteBuffer::allocate);
+
+    ExecutionException e = assertThrows(ExecutionException.class, () -> range.getData().get());
+    assertThat(e).hasCauseThat().isInstanceOf(FileNotFoundException.class);
+  }
+
+  @Test
+  public void readVectored_throwsEofException_forRangeBeyondObjectEnd() throws Exception {
+    MockHttpTransport transport =
+        mockTransport(
+            jsonDataResponse(
+                newStorageObject(BUCKET_NAME, OBJECT_NAME).setSize(BigInteger.valueOf(100))));
+
+    Storage storage = new Storage(transport, JSON_FACTORY, r -> {});
+
+    GoogleCloudStorageReadChannel readChannel =
+        createReadChannel(storage, GoogleCloudStorageReadOptions.DEFAULT);
+
+    assertThrows(
+        EOFException.class,
+        () ->
+            readChannel.readVectored(
+                ImmutableList.of(new VectoredIORange(95, 10)), ByteBuffer::allocate));
+  }
+
+  @Test
+  public void read_withReadAhead_fetchesBlocksAhead() throws Exception {
+    byte[] testData = new byte[10];
+    new Random().nextBytes(testData);
+
+    MockHttpTransport transport =
+        mockTransport(
+            jsonDataResponse(
+                newStorageObject(BUCKET_NAME, OBJECT_NAME)
+                    .setSize(BigInteger.valueOf(testData.length))),
+            dataRangeResponse(Arrays.copyOfRange(testData, 0, 4), 0, testData.length),
+            dataRangeResponse(Arrays.copyOfRange(testData, 4, 8), 4, testData.length),
+            dataRangeResponse(Arrays.copyOfRange(testData, 8, 10), 8, testData.length));
+
+    List<HttpRequest> requests = new ArrayList<>();
+    Storage storage = new Storage(transport, JSON_FACTORY, requests::add);
+
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder()
+            .setFadvise(Fadvise.SEQUENTIAL)
+            .setReadAheadBlockCount(2)
+            .setReadAheadBlockSize(4)
+            .build();
+
+    GoogleCloudStorageReadChannel readChannel = createReadChannel(storage, options);
+
+    ByteBuffer buffer = ByteBuffer.allocate(testData.length);
+    assertThat(readChannel.read(buffer)).isEqualTo(testData.length);
+    assertThat(buffer.array()).isEqualTo(testData);
+    assertThat(readChannel.read(ByteBuffer.allocate(1))).isEqualTo(-1);
+
+    List<String> rangeHeaders =
+        requests.stream().map(r -> r.getHeaders().getRange()).collect(toList());
+    assertThat(rangeHeaders).containsExactly(null, "bytes=0-3", "bytes=4-7", "bytes=8-9").inOrder();
+  }
+
+  @Test
+  public void read_withReadAhead_restartsReadAhead_onSeekOutsideOfWindow() throws Exception {
+    byte[] testData = new byte[16];
+    new Random().nextBytes(testData);
+
+    MockHttpTransport transport =
+        mockTransport(
+            jsonDataResponse(
+                newStorageObject(BUCKET_NAME, OBJECT_NAME)
+                    .setSize(BigInteger.valueOf(testData.length))),
+            dataRangeResponse(Arrays.copyOfRange(testData, 0, 4), 0, testData.length),
+            dataRangeResponse(Arrays.copyOfRange(testData, 4, 8), 4, testData.length),
+            dataRangeResponse(Arrays.copyOfRange(testData, 8, 12), 8, testData.length),
+            dataRangeResponse(Arrays.copyOfRange(testData, 12, 16), 12, testData.length),
+            dataRangeResponse(Arrays.copyOfRange(testData, 1, 5), 1, testData.length),
+            dataRangeResponse(Arrays.copyOfRange(testData, 5, 9), 5, testData.length),
+            dataRangeResponse(Arrays.copyOfRange(testData, 9, 13), 9, testData.length));
+
+    List<HttpRequest> requests = new ArrayList<>();
+    Storage storage = new Storage(transport, JSON_FACTORY, requests::add);
+
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder()
+            .setFadvise(Fadvise.SEQUENTIAL)
+            .setReadAheadBlockCount(2)
+            .setReadAheadBlockSize(4)
+            .build();
+
+    GoogleCloudStorageReadChannel readChannel = createReadChannel(storage, options);
+
+    ByteBuffer buffer = ByteBuffer.allocate(2);
+    assertThat(readChannel.read(buffer)).isEqualTo(2);
+    assertThat(buffer.array()).isEqualTo(Arrays.copyOfRange(testData, 0, 2));
+
+    // Forward seek inside of the read-ahead window is served from already fetched block
+    readChannel.position(5);
+    buffer.clear();
+    assertThat(readChannel.read(buffer)).isEqualTo(2);
+    assertThat(buffer.array()).isEqualTo(Arrays.copyOfRange(testData, 5, 7));
+
+    // Backward seek outside of the read-ahead window restarts read-ahead
+    readChannel.position(1);
+    buffer.clear();
+    assertThat(readChannel.read(buffer)).isEqualTo(2);
+    assertThat(buffer.array()).isEqualTo(Arrays.copyOfRange(testData, 1, 3));
+
+    List<String> rangeHeaders =
+        requests.stream().map(r -> r.getHeaders().getRange()).collect(toList());
+    assertThat(rangeHeaders)
+        .containsExactly(
+            null,
+            "bytes=0-3",
+            "bytes=4-7",
+            "bytes=8-11",
+            "bytes=12-15",
+            "bytes=1-4",
+            "bytes=5-8",
+            "bytes=9-12")
+        .inOrder();
+  }
+
+  @Test
+  public void read_withReadAhead_abortsCancelledBlockRead() throws Exception {
+    int blockSize = 1024 * 1024;
+    byte[] testData = new byte[2 * blockSize];
+    new Random().nextBytes(testData);
+
+    CountDownLatch secondBlockReadStarted = new CountDownLatch(1);
+    CountDownLatch secondBlockReadResumed = new CountDownLatch(1);
+    CountDownLatch secondBlockStreamClosed = new CountDownLatch(1);
+    AtomicLong secondBlockBytesServed = new AtomicLong();
+    InputStream secondBlockContent =
+        new InputStream() {
+          private int position = blockSize;
+
+          @Override
+          public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+          }
+
+          @Override
+          public int read(byte[] b, int off, int len) throws IOException {
+            if (position == testData.length) {
+              return -1;
+            }
+            if (position > blockSize) {
+              awaitUninterruptibly(secondBlockReadResumed);
+            }
+            int bytesToServe = Math.min(Math.min(len, 1024), testData.length - position);
+            System.arraycopy(testData, position, b, off, bytesToServe);
+            position += bytesToServe;
+            secondBlockBytesServed.addAndGet(bytesToServe);
+            secondBlockReadStarted.countDown();
+            return bytesToServe;
+          }
+
+          @Override
+          public void close() {
+            secondBlockStreamClosed.countDown();
+          }
+        };
+
+    MockHttpTransport transport =
+        new MockHttpTransport() {
+          @Override
+          public LowLevelHttpRequest buildRequest(String method, String url) {
+            return new MockLowLevelHttpRequest() {
+              @Override
+              public LowLevelHttpResponse execute() throws IOException {
+                String range = getFirstHeaderValue("Range");
+                if (range == null) {
+                  return jsonDataResponse(
+                      newStorageObject(BUCKET_NAME, OBJECT_NAME)
+                          .setSize(BigInteger.valueOf(testData.length)));
+                }
+                if (range.equals("bytes=0-" + (blockSize - 1))) {
+                  return dataRangeResponse(
+                      Arrays.copyOfRange(testData, 0, blockSize), 0, testData.length);
+                }
+                return inputStreamResponse(
+                    ImmutableMap.of(
+                        CONTENT_LENGTH,
+                        blockSize,
+                        CONTENT_RANGE,
+                        blockSize + "-" + (testData.length - 1) + "/" + testData.length),
+                    secondBlockContent);
+              }
+            };
+          }
+        };
+    Storage storage = new Storage(transport, JSON_FACTORY, r -> {});
+
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder()
+            .setFadvise(Fadvise.SEQUENTIAL)
+            .setReadAheadBlockCount(1)
+            .setReadAheadBlockSize(blockSize)
+            .build();
+
+    ExecutorService executor = Executors.newCachedThreadPool();
+    try {
+      GoogleCloudStorageReadChannel readChannel = createReadChannel(storage, options, executor);
+
+      ByteBuffer buffer = ByteBuffer.allocate(10);
+      assertThat(readChannel.read(buffer)).isEqualTo(10);
+      assertThat(buffer.array()).isEqualTo(Arrays.copyOfRange(testData, 0, 10));
+      assertThat(secondBlockReadStarted.await(10, SECONDS)).isTrue();
+
+      // Closing the channel cancels the second read-ahead block that is being read
+      readChannel.close();
+      secondBlockReadResumed.countDown();
+
+      assertThat(secondBlockStreamClosed.await(10, SECONDS)).isTrue();
+      assertThat(secondBlockBytesServed.get()).isLessThan((long) blockSize);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void read_adaptiveFadvise_switchesBetweenRandomAndSequentialRequests() throws Exception {
+    byte[] testData = new byte[100];
+    new Random().nextBytes(testData);
+
+    MockHttpTransport transport =
+        mockTransport(
+            jsonDataResponse(
+                newStorageObject(BUCKET_NAME, OBJECT_NAME)
+                    .setSize(BigInteger.valueOf(testData.length))),
+            dataRangeResponse(Arrays.copyOfRange(testData, 50, 100), 50, testData.length),
+            dataRangeResponse(Arrays.copyOfRange(testData, 10, 14), 10, testData.length),
+            dataRangeResponse(Arrays.copyOfRange(testData, 14, 100), 14, testData.length));
+
+    List<HttpRequest> requests = new ArrayList<>();
+    Storage storage = new Storage(transport, JSON_FACTORY, requests::add);
+
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder()
+            .setFadvise(Fadvise.ADAPTIVE)
+            .setInplaceSeekLimit(0)
+            .setMinRangeRequestSize(4)
+            .build();
+
+    GoogleCloudStorageReadChannel readChannel = createReadChannel(storage, options);
+
+    // First read is streamed till the end of the object
+    readChannel.position(50);
+    assertThat(readChannel.read(ByteBuffer.allocate(2))).isEqualTo(2);
+
+    // Backward seek switches to the bounded range requests
+    readChannel.position(10);
+    ByteBuffer buffer = ByteBuffer.allocate(2);
+    assertThat(readChannel.read(buffer)).isEqualTo(2);
+    assertThat(buffer.array()).isEqualTo(Arrays.copyOfRange(testData, 10, 12));
+    buffer.clear();
+    assertThat(readChannel.read(buffer)).isEqualTo(2);
+    assertThat(buffer.array()).isEqualTo(Arrays.copyOfRange(testData, 12, 14));
+
+    // Contiguous reads switch back to streaming
+    buffer = ByteBuffer.allocate(4);
+    assertThat(readChannel.read(buffer)).isEqualTo(4);
+    assertThat(buffer.array()).isEqualTo(Arrays.copyOfRange(testData, 14, 18));
+
+    List<String> rangeHeaders =
+        requests.stream().map(r -> r.getHeaders().getRange()).collect(toList());
+    assertThat(rangeHeaders)
+        .containsExactly(null, "bytes=50-", "bytes=10-13", "bytes=14-")
+        .inOrder();
+  }
+
+  @Test
+  public void read_withParallelDownload_fetchesChunksConcurrently() throws Exception {
+    byte[] testData = new byte[10];
+    new Random().nextBytes(testData);
+
+    MockHttpTransport transport =
+        mockTransport(
+            jsonDataResponse(
+                newStorageObject(BUCKET_NAME, OBJECT_NAME)
+                    .setSize(BigInteger.valueOf(testData.length))),
+            dataRangeResponse(Arrays.copyOfRange(testData, 0, 4), 0, testData.length),
+            dataRangeResponse(Arrays.copyOfRange(testData, 4, 8), 4, testData.length),
+            dataRangeResponse(Arrays.copyOfRange(testData, 8, 10), 8, testData.length),
+            dataRangeResponse(Arrays.copyOfRange(testData, 1, 5), 1, testData.length));
+
+    List<HttpRequest> requests = new ArrayList<>();
+    Storage storage = new Storage(transport, JSON_FACTORY, requests::add);
+
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder()
+            .setFadvise(Fadvise.AUTO)
+            .setMinRangeRequestSize(4)
+            .setParallelDownloadConnections(2)
+            .setParallelDownloadChunkSize(4)
+            .setParallelDownloadMinObjectSize(testData.length)
+            .build();
+
+    GoogleCloudStorageReadChannel readChannel = createReadChannel(storage, options);
+
+    ByteBuffer buffer = ByteBuffer.allocate(8);
+    assertThat(readChannel.read(buffer)).isEqualTo(8);
+    assertThat(buffer.array()).isEqualTo(Arrays.copyOfRange(testData, 0, 8));
+
+    // Backward seek stops parallel download in AUTO fadvise mode
+    readChannel.position(1);
+    buffer = ByteBuffer.allocate(2);
+    assertThat(readChannel.read(buffer)).isEqualTo(2);
+    assertThat(buffer.array()).isEqualTo(Arrays.copyOfRange(testData, 1, 3));
+
+    List<String> rangeHeaders =
+        requests.stream().map(r -> r.getHeaders().getRange()).collect(toList());
+    assertThat(rangeHeaders)
+        .containsExactly(null, "bytes=0-3", "bytes=4-7", "bytes=8-9", "bytes=1-4")
+        .inOrder();
+  }
+
+  @Test
+  public void read_withBlockCache_servesDataFromCacheForAnotherChannel() throws Exception {
+    byte[] testData = new byte[10];
+    new Random().nextBytes(testData);
+    StorageObject object =
+        newStorageObject(BUCKET_NAME, OBJECT_NAME).setSize(BigInteger.valueOf(testData.length));
+
+    List<HttpRequest> requests = new ArrayList<>();
+    Storage storage =
+        new Storage(
+            mockTransport(
+                jsonDataResponse(object),
+                dataRangeResponse(testData, 0, testData.length),
+                jsonDataResponse(object)),
+            JSON_FACTORY,
+            requests::add);
+
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder().setBlockCacheMaxSize(16 * 1024 * 1024).build();
+    GoogleCloudStorageBlockCache blockCache = GoogleCloudStorageBlockCache.getShared(options);
+    long hitCountBefore = blockCache.getHitCount();
+
+    GoogleCloudStorageReadChannel readChannel1 = createReadChannel(storage, options);
+    ByteBuffer buffer1 = ByteBuffer.allocate(testData.length);
+    assertThat(readChannel1.read(buffer1)).isEqualTo(testData.length);
+    assertThat(buffer1.array()).isEqualTo(testData);
+
+    GoogleCloudStorageReadChannel readChannel2 = createReadChannel(storage, options);
+    readChannel2.position(3);
+    ByteBuffer buffer2 = ByteBuffer.allocate(testData.length - 3);
+    assertThat(readChannel2.read(buffer2)).isEqualTo(testData.length - 3);
+    assertThat(buffer2.array()).isEqualTo(Arrays.copyOfRange(testData, 3, testData.length));
+
+    assertThat(blockCache.getHitCount() - hitCountBefore).isEqualTo(1);
+    List<String> rangeHeaders =
+        requests.stream().map(r -> r.getHeaders().getRange()).collect(toList());
+    assertThat(rangeHeaders).containsExactly(null, "bytes=0-9", null).inOrder();
+  }
+
+  @Test
+  public void read_withChecksumValidation_validatesChecksumOfSequentialRead() throws IOException {
+    byte[] testData = {0x00, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09};
+    StorageObject object =
+        newStorageObject(BUCKET_NAME, OBJECT_NAME)
+            .setSize(BigInteger.valueOf(testData.length))
+            .setCrc32c(crc32c(testData));
+    MockHttpTransport transport = mockTransport(jsonDataResponse(object), dataResponse(testData));
+    Storage storage = new Storage(transport, JSON_FACTORY, r -> {});
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder().setChecksumValidationEnabled(true).build();
+
+    GoogleCloudStorageReadChannel readChannel = createReadChannel(storage, options);
+    ByteBuffer buffer = ByteBuffer.allocate(testData.length);
+    buffer.limit(4);
+    assertThat(readChannel.read(buffer)).isEqualTo(4);
+    buffer.limit(testData.length);
+    assertThat(readChannel.read(buffer)).isEqualTo(testData.length - 4);
+
+    assertThat(buffer.array()).isEqualTo(testData);
+    assertThat(readChannel.getChecksumValidatedBytes()).isEqualTo(testData.length);
+    assertThat(readChannel.getChecksumMismatchCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void read_withChecksumValidation_failsOnChecksumMismatch() throws IOException {
+    byte[] testData = {0x00, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09};
+    byte[] corruptedData = testData.clone();
+    corruptedData[5] = 0x42;
+    MockHttpTransport transport =
+        mockTransport(
+            dataResponse(
+                ImmutableMap.of(
+                    "Content-Length", testData.length,
+                    "x-goog-hash", "crc32c=" + crc32c(testData) + ",md5=AAAAAAAAAAAAAAAAAAAAAA=="),
+                corruptedData));
+    Storage storage = new Storage(transport, JSON_FACTORY, r -> {});
+    GoogleCloudStorageReadOptions options =
+        newLazyReadOptionsBuilder().setChecksumValidationEnabled(true).build();
+
+    GoogleCloudStorageReadChannel readChannel = createReadChannel(storage, options);
+
+    IOException e =
+        assertThrows(
+            IOException.class, () -> readChannel.read(ByteBuffer.allocate(testData.length)));
+    assertThat(e).hasMessageThat().contains("didn't match expected checksum");
+    assertThat(readChannel.getChecksumMismatchCount()).isEqualTo(1);
+    assertThat(readChannel.getChecksumValidatedBytes()).isEqualTo(0);
+  }
+
+  private static String crc32c(byte[] data) {
+    return BaseEncoding.base64()
+        .encode(Ints.toByteArray(Hashing.crc32c().hashBytes(data).asInt()));
+  }
+
   private static GoogleCloudStorageReadOptions.Builder newLazyReadOptionsBuilder() {
     return GoogleCloudStorageReadOptions.builder().setFastFailOnNotFound(false);
   }
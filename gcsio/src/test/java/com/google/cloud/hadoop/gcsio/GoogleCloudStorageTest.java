@@ -28,6 +28,7 @@ import static com.google.cloud.hadoop.gcsio.TrackingHttpRequestInitializer.copyR
 import static com.google.cloud.hadoop.gcsio.TrackingHttpRequestInitializer.createBucketRequestString;
 import static com.google.cloud.hadoop.gcsio.TrackingHttpRequestInitializer.deleteBucketRequestString;
 import static com.google.cloud.hadoop.gcsio.TrackingHttpRequestInitializer.deleteRequestString;
+import static com.google.cloud.hadoop.gcsio.TrackingHttpRequestInitializer.directUploadRequestString;
 import static com.google.cloud.hadoop.gcsio.TrackingHttpRequestInitializer.getBucketRequestString;
 import static com.google.cloud.hadoop.gcsio.TrackingHttpRequestInitializer.getMediaRequestString;
 import static com.google.cloud.hadoop.gcsio.TrackingHttpRequestInitializer.getRequestString;
@@ -45,6 +46,7 @@ import static com.google.cloud.hadoop.util.testing.MockHttpTransportHelper.mockB
 import static com.google.cloud.hadoop.util.testing.MockHttpTransportHelper.mockTransport;
 import static com.google.common.net.HttpHeaders.CONTENT_LENGTH;
 import static com.google.common.truth.Truth.assertThat;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.Assert.assertThrows;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doThrow;
@@ -58,7 +60,11 @@ import com.google.api.client.http.HttpRequest;
 import com.google.api.client.http.HttpRequestInitializer;
 import com.google.api.client.http.HttpStatusCodes;
 import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
 import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
 import com.google.api.client.util.BackOff;
 import com.google.api.client.util.DateTime;
 import com.google.api.client.util.NanoClock;
@@ -85,6 +91,7 @@ import java.io.EOFException;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.math.BigInteger;
 import java.net.SocketTimeoutException;
 import java.nio.ByteBuffer;
@@ -93,6 +100,7 @@ import java.nio.channels.SeekableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
@@ -101,6 +109,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.zip.GZIPOutputStream;
@@ -228,6 +237,73 @@ public class GoogleCloudStorageTest {
     }
   }
 
+  @Test
+  public void create_smallerThanDirectUploadThreshold_usesDirectUpload() throws Exception {
+    byte[] testData = {0x01, 0x02, 0x03, 0x05, 0x08, 0x09};
+
+    MockHttpTransport transport =
+        mockTransport(
+            jsonErrorResponse(ErrorResponses.NOT_FOUND),
+            jsonDataResponse(
+                newStorageObject(BUCKET_NAME, OBJECT_NAME)
+                    .setSize(BigInteger.valueOf(testData.length))));
+
+    GoogleCloudStorage gcs = mockedGcs(withDirectUploadThreshold(testData.length), transport);
+
+    try (WritableByteChannel writeChannel = gcs.create(RESOURCE_ID)) {
+      writeChannel.write(ByteBuffer.wrap(testData, 0, 2));
+      writeChannel.write(ByteBuffer.wrap(testData, 2, testData.length - 2));
+    }
+
+    assertThat(trackingRequestInitializerWithRetries.getAllRequestStrings())
+        .containsExactly(
+            getRequestString(BUCKET_NAME, OBJECT_NAME),
+            directUploadRequestString(
+                BUCKET_NAME, OBJECT_NAME, /* generationId= */ 0, /* replaceGenerationId= */ false))
+        .inOrder();
+  }
+
+  @Test
+  public void create_largerThanDirectUploadThreshold_usesResumableUpload() throws Exception {
+    byte[] testData = {0x01, 0x02, 0x03, 0x05, 0x08, 0x09};
+
+    MockHttpTransport transport =
+        mockTransport(
+            jsonErrorResponse(ErrorResponses.NOT_FOUND),
+            resumableUploadResponse(BUCKET_NAME, OBJECT_NAME),
+            jsonDataResponse(
+                newStorageObject(BUCKET_NAME, OBJECT_NAME)
+                    .setSize(BigInteger.valueOf(testData.length))));
+
+    GoogleCloudStorage gcs = mockedGcs(withDirectUploadThreshold(testData.length - 1), transport);
+
+    try (WritableByteChannel writeChannel = gcs.create(RESOURCE_ID)) {
+      writeChannel.write(ByteBuffer.wrap(testData, 0, 2));
+      writeChannel.write(ByteBuffer.wrap(testData, 2, testData.length - 2));
+    }
+
+    assertThat(trackingRequestInitializerWithRetries.getAllRequestStrings())
+        .containsExactly(
+            getRequestString(BUCKET_NAME, OBJECT_NAME),
+            resumableUploadRequestString(
+                BUCKET_NAME, OBJECT_NAME, /* generationId= */ 0, /* replaceGenerationId= */ false),
+            resumableUploadChunkRequestString(BUCKET_NAME, OBJECT_NAME, /* uploadId= */ 1))
+        .inOrder();
+
+    HttpRequest chunkUploadRequest = trackingRequestInitializerWithRetries.getAllRequests().get(2);
+    try (ByteArrayOutputStream writtenData = new ByteArrayOutputStream(testData.length)) {
+      chunkUploadRequest.getContent().writeTo(writtenData);
+      assertThat(writtenData.toByteArray()).isEqualTo(testData);
+    }
+  }
+
+  private static GoogleCloudStorageOptions withDirectUploadThreshold(int threshold) {
+    return GCS_OPTIONS.toBuilder()
+        .setWriteChannelOptions(
+            AsyncWriteChannelOptions.builder().setDirectUploadThreshold(threshold).build())
+        .build();
+  }
+
   /** Test successful operation of GoogleCloudStorage.create(2) with generationId. */
   @Test
   public void testCreateObjectWithGenerationId() throws Exception {
@@ -1829,6 +1905,99 @@ public class GoogleCloudStorageTest {
         .inOrder();
   }
 
+  /** Test that multi-call rewrite is continued outside of batch until it completes. */
+  @Test
+  public void testCopyObjectsWithRewriteMultipleCalls() throws IOException {
+    String dstObject = OBJECT_NAME + "-copy";
+    MockHttpTransport transport =
+        mockTransport(
+            dataResponse(
+                ("{\"done\": false, \"rewriteToken\": \"token1\","
+                        + " \"objectSize\": \"30\", \"totalBytesRewritten\": \"10\"}")
+                    .getBytes(StandardCharsets.UTF_8)),
+            dataResponse(
+                ("{\"done\": false, \"rewriteToken\": \"token2\","
+                        + " \"objectSize\": \"30\", \"totalBytesRewritten\": \"20\"}")
+                    .getBytes(StandardCharsets.UTF_8)),
+            dataResponse(
+                "{\"done\": true, \"objectSize\": \"30\", \"totalBytesRewritten\": \"30\"}"
+                    .getBytes(StandardCharsets.UTF_8)));
+
+    GoogleCloudStorage gcs =
+        mockedGcs(GCS_OPTIONS.toBuilder().setCopyWithRewriteEnabled(true).build(), transport);
+
+    gcs.copy(BUCKET_NAME, ImmutableList.of(OBJECT_NAME), BUCKET_NAME, ImmutableList.of(dstObject));
+
+    assertThat(trackingRequestInitializerWithRetries.getAllRequestStrings())
+        .containsExactly(
+            copyRequestString(BUCKET_NAME, OBJECT_NAME, BUCKET_NAME, dstObject, "rewriteTo"),
+            copyRequestString(BUCKET_NAME, OBJECT_NAME, BUCKET_NAME, dstObject, "rewriteTo")
+                + "?rewriteToken=token1",
+            copyRequestString(BUCKET_NAME, OBJECT_NAME, BUCKET_NAME, dstObject, "rewriteTo")
+                + "?rewriteToken=token2")
+        .inOrder();
+  }
+
+  /** Test that multi-call rewrite is continued without waiting for the rest of the batch. */
+  @Test
+  public void testCopyObjectsWithRewriteMultipleCalls_continuedBeforeBatchCompletes()
+      throws IOException {
+    String largeObject = "large-object";
+    List<String> srcObjects = ImmutableList.of(largeObject, "small-object-1", "small-object-2");
+    List<String> dstObjects = ImmutableList.of("large-copy", "small-copy-1", "small-copy-2");
+    CountDownLatch largeRewriteContinued = new CountDownLatch(1);
+    List<Boolean> smallCopiesAfterContinuation = Collections.synchronizedList(new ArrayList<>());
+    MockHttpTransport transport =
+        new MockHttpTransport() {
+          @Override
+          public LowLevelHttpRequest buildRequest(String method, String url) {
+            return new MockLowLevelHttpRequest(url) {
+              @Override
+              public LowLevelHttpResponse execute() throws IOException {
+                if (url.contains("rewriteToken=")) {
+                  largeRewriteContinued.countDown();
+                  return rewriteResponse(/* done= */ true);
+                }
+                if (url.contains("/o/" + largeObject + "/rewriteTo/")) {
+                  return rewriteResponse(/* done= */ false);
+                }
+                // Small objects are copied in the subsequent batches, that should not block
+                // continuation of the large object rewrite.
+                try {
+                  smallCopiesAfterContinuation.add(largeRewriteContinued.await(5, SECONDS));
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                  throw new InterruptedIOException("Interrupted while waiting for rewrite");
+                }
+                return rewriteResponse(/* done= */ true);
+              }
+            };
+          }
+        };
+
+    GoogleCloudStorage gcs =
+        mockedGcs(
+            GCS_OPTIONS.toBuilder()
+                .setCopyWithRewriteEnabled(true)
+                .setMaxRequestsPerBatch(1)
+                .setBatchThreads(0)
+                .build(),
+            transport);
+
+    gcs.copy(BUCKET_NAME, srcObjects, BUCKET_NAME, dstObjects);
+
+    assertThat(smallCopiesAfterContinuation).containsExactly(true, true);
+  }
+
+  private static MockLowLevelHttpResponse rewriteResponse(boolean done) {
+    return dataResponse(
+        (done
+                ? "{\"done\": true, \"objectSize\": \"30\", \"totalBytesRewritten\": \"30\"}"
+                : "{\"done\": false, \"rewriteToken\": \"token1\","
+                    + " \"objectSize\": \"30\", \"totalBytesRewritten\": \"10\"}")
+            .getBytes(StandardCharsets.UTF_8));
+  }
+
   /**
    * Test handling of various types of exceptions thrown during JSON API call for
    * GoogleCloudStorage.copy(4) where srcBucketName != dstBucketName.
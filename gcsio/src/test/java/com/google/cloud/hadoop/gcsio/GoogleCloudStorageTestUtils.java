@@ -14,6 +14,8 @@
 
 package com.google.cloud.hadoop.gcsio;
 
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+
 import com.google.api.client.http.HttpTransport;
 import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.JsonFactory;
@@ -25,6 +27,7 @@ import com.google.cloud.hadoop.util.ApiErrorExtractor;
 import com.google.cloud.hadoop.util.ClientRequestHelper;
 import java.io.IOException;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 
 /** Utility class with helper methods for GCS IO tests. */
 public final class GoogleCloudStorageTestUtils {
@@ -56,6 +59,34 @@ public final class GoogleCloudStorageTestUtils {
         options);
   }
 
+  public static GoogleCloudStorageReadChannel createReadChannel(
+      Storage storage,
+      GoogleCloudStorageReadOptions options,
+      GoogleCloudStorageFooterCache footerCache)
+      throws IOException {
+    return new GoogleCloudStorageReadChannel(
+        storage,
+        new StorageResourceId(BUCKET_NAME, OBJECT_NAME),
+        ERROR_EXTRACTOR,
+        REQUEST_HELPER,
+        options,
+        newDirectExecutorService(),
+        footerCache);
+  }
+
+  public static GoogleCloudStorageReadChannel createReadChannel(
+      Storage storage, GoogleCloudStorageReadOptions options, ExecutorService executor)
+      throws IOException {
+    return new GoogleCloudStorageReadChannel(
+        storage,
+        new StorageResourceId(BUCKET_NAME, OBJECT_NAME),
+        ERROR_EXTRACTOR,
+        REQUEST_HELPER,
+        options,
+        executor,
+        /* footerCache= */ null);
+  }
+
   public static GoogleCloudStorageReadChannel createReadChannel(
       Storage storage, GoogleCloudStorageReadOptions options, long generation) throws IOException {
     return new GoogleCloudStorageReadChannel(
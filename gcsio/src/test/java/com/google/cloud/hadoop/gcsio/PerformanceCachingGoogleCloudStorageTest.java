@@ -23,6 +23,8 @@ import com.google.api.client.util.Clock;
 import com.google.cloud.hadoop.gcsio.testing.GcsItemInfoTestBuilder;
 import com.google.cloud.hadoop.gcsio.testing.InMemoryGoogleCloudStorage;
 import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
@@ -30,6 +32,8 @@ import com.google.common.collect.Lists;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.Hashing;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.time.Duration;
 import java.util.List;
 import org.junit.Before;
@@ -323,6 +327,55 @@ public class PerformanceCachingGoogleCloudStorageTest {
     assertThat(cache.getItem(ITEM_A_A.getResourceId())).isEqualTo(ITEM_A_A);
   }
 
+  @Test
+  public void testGetItemInfoMissing_negativeCache() throws IOException {
+    Cache<StorageResourceId, GoogleCloudStorageItemInfo> negativeCache =
+        CacheBuilder.newBuilder().recordStats().build();
+    gcs = new PerformanceCachingGoogleCloudStorage(gcsDelegate, cache, negativeCache);
+    StorageResourceId resourceId = new StorageResourceId(BUCKET_A, "_SUCCESS");
+
+    GoogleCloudStorageItemInfo result = gcs.getItemInfo(resourceId);
+    GoogleCloudStorageItemInfo cachedResult = gcs.getItemInfo(resourceId);
+
+    // Verify that "not found" result was cached.
+    verify(gcsDelegate).getItemInfo(eq(resourceId));
+    assertThat(result.exists()).isFalse();
+    assertThat(cachedResult).isEqualTo(result);
+    assertThat(gcs.getNegativeCacheHitCount()).isEqualTo(1);
+
+    // Verify that creation of the object invalidates "not found" result.
+    gcs.createEmptyObject(resourceId);
+    result = gcs.getItemInfo(resourceId);
+
+    verify(gcsDelegate, times(2)).getItemInfo(eq(resourceId));
+    assertThat(result.exists()).isTrue();
+    assertThat(negativeCache.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void testGetItemInfoDuringWrite_negativeCache() throws IOException {
+    Cache<StorageResourceId, GoogleCloudStorageItemInfo> negativeCache =
+        CacheBuilder.newBuilder().recordStats().build();
+    gcs = new PerformanceCachingGoogleCloudStorage(gcsDelegate, cache, negativeCache);
+    StorageResourceId resourceId = new StorageResourceId(BUCKET_A, "_SUCCESS");
+
+    WritableByteChannel channel = gcs.create(resourceId, CreateObjectOptions.DEFAULT_NO_OVERWRITE);
+    channel.write(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+
+    // Probe the object while it is written, this caches "not found" result.
+    assertThat(gcs.getItemInfo(resourceId).exists()).isFalse();
+    assertThat(negativeCache.size()).isEqualTo(1);
+
+    channel.close();
+    GoogleCloudStorageItemInfo result = gcs.getItemInfo(resourceId);
+
+    // Verify that commit of the object invalidated "not found" result.
+    assertThat(result.exists()).isTrue();
+    assertThat(result.getSize()).isEqualTo(3);
+    assertThat(negativeCache.size()).isEqualTo(0);
+    assertThat(channel).isInstanceOf(GoogleCloudStorageItemInfo.Provider.class);
+  }
+
   @Test
   public void testGetItemInfosAllCached() throws IOException {
     List<StorageResourceId> requestedIds =
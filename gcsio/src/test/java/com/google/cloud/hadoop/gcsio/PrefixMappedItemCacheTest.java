@@ -18,6 +18,11 @@ import static com.google.common.truth.Truth.assertThat;
 
 import com.google.common.base.Ticker;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import org.junit.Before;
 import org.junit.Test;
@@ -116,6 +121,90 @@ public class PrefixMappedItemCacheTest {
     assertThat(cache.getAllItemsRaw()).isEmpty();
   }
 
+  /** Test least recently used items are evicted when max entries bound is exceeded. */
+  @Test
+  public void testPutItemEvictsLeastRecentlyUsedItems() {
+    cache = new PrefixMappedItemCache(ticker, Duration.ofMillis(100), /* maxEntries= */ 10);
+    List<GoogleCloudStorageItemInfo> items = new ArrayList<>();
+    for (int i = 0; i <= 10; i++) {
+      items.add(createObjectItemInfo(BUCKET_A, "object-" + i));
+    }
+
+    for (int i = 0; i < 10; i++) {
+      ticker.setTimeMillis(i);
+      cache.putItem(items.get(i));
+    }
+    ticker.setTimeMillis(10);
+    cache.getItem(items.get(0).getResourceId());
+    ticker.setTimeMillis(11);
+    cache.putItem(items.get(10));
+
+    // Cache is shrunk to 90% of max entries by evicting 2 least recently used items.
+    assertThat(cache.getAllItemsRaw()).containsNoneOf(items.get(1), items.get(2));
+    assertThat(cache.getAllItemsRaw()).containsAtLeast(items.get(0), items.get(10));
+    assertThat(cache.size()).isEqualTo(9);
+    assertThat(cache.getEvictionCount()).isEqualTo(2);
+  }
+
+  /** Test hits and misses are counted. */
+  @Test
+  public void testGetItemCountsHitsAndMisses() {
+    cache.putItem(ITEM_A_A);
+
+    cache.getItem(ITEM_A_A.getResourceId());
+    cache.getItem(ITEM_A_AA.getResourceId());
+    ticker.setTimeMillis(11);
+    cache.getItem(ITEM_A_A.getResourceId());
+
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    assertThat(cache.getMissCount()).isEqualTo(2);
+    assertThat(cache.size()).isEqualTo(0);
+  }
+
+  /** Test concurrent updates and prefix invalidations of the different prefixes are isolated. */
+  @Test
+  public void testConcurrentAccess() throws Exception {
+    int threads = 8;
+    int itemsPerThread = 1_000;
+    ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        String prefix = "thread-" + t + "/";
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < itemsPerThread; i++) {
+                    GoogleCloudStorageItemInfo item = createObjectItemInfo(BUCKET_A, prefix + i);
+                    cache.putItem(item);
+                    assertThat(cache.getItem(item.getResourceId())).isEqualTo(item);
+                  }
+                  cache.removeItem(new StorageResourceId(BUCKET_A, prefix));
+                  assertThat(cache.isPrefixCached(new StorageResourceId(BUCKET_A, prefix)))
+                      .isFalse();
+                  return null;
+                }));
+      }
+      futures.add(
+          executor.submit(
+              () -> {
+                for (int i = 0; i < itemsPerThread; i++) {
+                  cache.putItem(createObjectItemInfo("beta", "object-" + i));
+                  cache.invalidateBucket("beta");
+                }
+                return null;
+              }));
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(cache.getAllItemsRaw()).isEmpty();
+    assertThat(cache.size()).isEqualTo(0);
+  }
+
   /** Ticker with a manual time value used for testing the cache. */
   private static class TestTicker extends Ticker {
 
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ReadPatternTrackerTest {
+
+  @Test
+  public void contiguousReads_areSequential() {
+    ReadPatternTracker tracker =
+        new ReadPatternTracker(/* windowSize= */ 4, 10, /* maxRunLength= */ 100);
+
+    tracker.recordRead(0, 5);
+    tracker.recordRead(5, 5);
+    tracker.recordRead(15, 5);
+
+    assertThat(tracker.isRandomAccess()).isFalse();
+    // Current run is not completed yet
+    assertThat(tracker.getAverageRunLength()).isEqualTo(0);
+
+    tracker.recordRead(0, 5);
+
+    assertThat(tracker.getAverageRunLength()).isEqualTo(20);
+  }
+
+  @Test
+  public void backwardAndLongForwardSeeks_areRandom() {
+    ReadPatternTracker tracker =
+        new ReadPatternTracker(/* windowSize= */ 4, 10, /* maxRunLength= */ 100);
+
+    tracker.recordRead(100, 5);
+    tracker.recordRead(0, 5);
+    tracker.recordRead(50, 5);
+
+    assertThat(tracker.isRandomAccess()).isTrue();
+    assertThat(tracker.getAverageRunLength()).isEqualTo(5);
+  }
+
+  @Test
+  public void switchesBackToSequential_whenRandomReadsLeaveWindow() {
+    ReadPatternTracker tracker =
+        new ReadPatternTracker(/* windowSize= */ 2, 10, /* maxRunLength= */ 100);
+
+    tracker.recordRead(100, 5);
+    tracker.recordRead(0, 5);
+    assertThat(tracker.isRandomAccess()).isTrue();
+
+    tracker.recordRead(5, 5);
+    assertThat(tracker.isRandomAccess()).isTrue();
+
+    tracker.recordRead(10, 5);
+    assertThat(tracker.isRandomAccess()).isFalse();
+  }
+
+  @Test
+  public void averageRunLength_excludesCurrentRun() {
+    ReadPatternTracker tracker =
+        new ReadPatternTracker(/* windowSize= */ 4, 10, /* maxRunLength= */ 100);
+
+    tracker.recordRead(100, 5);
+    tracker.recordRead(0, 10);
+    tracker.recordRead(10, 50);
+
+    assertThat(tracker.getAverageRunLength()).isEqualTo(5);
+  }
+
+  @Test
+  public void averageRunLength_isCappedAtMaxRunLength() {
+    ReadPatternTracker tracker =
+        new ReadPatternTracker(/* windowSize= */ 4, 10, /* maxRunLength= */ 100);
+
+    // Long sequential scan followed by random reads
+    for (long position = 0; position < 10_000; position += 1_000) {
+      tracker.recordRead(position, 1_000);
+    }
+    tracker.recordRead(0, 10);
+    tracker.recordRead(5_000, 10);
+
+    assertThat(tracker.getAverageRunLength()).isEqualTo((100 + 10) / 2);
+  }
+
+  @Test
+  public void averageRunLength_isZero_withoutReads() {
+    ReadPatternTracker tracker =
+        new ReadPatternTracker(/* windowSize= */ 2, 10, /* maxRunLength= */ 100);
+
+    assertThat(tracker.isRandomAccess()).isFalse();
+    assertThat(tracker.getAverageRunLength()).isEqualTo(0);
+  }
+}
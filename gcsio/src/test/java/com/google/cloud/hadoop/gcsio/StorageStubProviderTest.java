@@ -0,0 +1,343 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertThrows;
+
+import com.google.cloud.hadoop.gcsio.StorageStubProvider.ChannelStats;
+import com.google.common.testing.FakeTicker;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.google.storage.v1.GetObjectMediaRequest;
+import com.google.google.storage.v1.GetObjectMediaResponse;
+import com.google.google.storage.v1.GetObjectRequest;
+import com.google.google.storage.v1.InsertObjectRequest;
+import com.google.google.storage.v1.Object;
+import com.google.google.storage.v1.StorageGrpc.StorageImplBase;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.AbstractStub;
+import io.grpc.stub.StreamObserver;
+import io.grpc.testing.GrpcCleanupRule;
+import java.util.concurrent.ExecutorService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class StorageStubProviderTest {
+
+  private static final Object TEST_OBJECT =
+      Object.newBuilder().setBucket("test-bucket").setName("test-object").setSize(42).build();
+
+  private static final GetObjectRequest GET_OBJECT_REQUEST =
+      GetObjectRequest.newBuilder()
+          .setBucket(TEST_OBJECT.getBucket())
+          .setObject(TEST_OBJECT.getName())
+          .build();
+
+  private static final GetObjectMediaRequest STREAMING_MEDIA_REQUEST =
+      GetObjectMediaRequest.newBuilder().setObject("streaming-object").build();
+
+  @Rule public final GrpcCleanupRule grpcCleanup = new GrpcCleanupRule();
+
+  private final ExecutorService executor = MoreExecutors.newDirectExecutorService();
+  private final FakeTicker ticker = new FakeTicker();
+
+  private FakeService fakeService;
+  private String serverName;
+  private StorageStubProvider stubProvider;
+
+  @Before
+  public void setUp() throws Exception {
+    fakeService = new FakeService();
+    serverName = InProcessServerBuilder.generateName();
+    grpcCleanup.register(
+        InProcessServerBuilder.forName(serverName)
+            .directExecutor()
+            .addService(fakeService)
+            .build()
+            .start());
+  }
+
+  @After
+  public void tearDown() {
+    if (stubProvider != null) {
+      stubProvider.shutdown();
+    }
+  }
+
+  @Test
+  public void newBlockingStub_createsChannelsUpToPoolSize() {
+    stubProvider = newStubProvider(GoogleCloudStorageOptions.builder().setGrpcChannelPoolSize(3));
+
+    for (int i = 0; i < 10; i++) {
+      stubProvider.newBlockingStub();
+    }
+
+    assertThat(stubProvider.getChannelStats()).hasSize(3);
+    assertThat(stubProvider.getReplacedChannelCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void newBlockingStub_tracksChannelStats() {
+    stubProvider = newStubProvider(GoogleCloudStorageOptions.builder().setGrpcChannelPoolSize(1));
+
+    stubProvider.newBlockingStub().getObject(GET_OBJECT_REQUEST);
+    fakeService.failure = Status.NOT_FOUND;
+    assertThrows(
+        StatusRuntimeException.class,
+        () -> stubProvider.newBlockingStub().getObject(GET_OBJECT_REQUEST));
+
+    ChannelStats stats = stubProvider.getChannelStats().get(0);
+    assertThat(stats.getActiveRequests()).isEqualTo(0);
+    assertThat(stats.getCompletedRequests()).isEqualTo(2);
+    assertThat(stats.getFailedRequests()).isEqualTo(1);
+    // NOT_FOUND does not indicate a broken channel
+    assertThat(stats.getConsecutiveFailures()).isEqualTo(0);
+    assertThat(stats.getPendingResponses()).isEqualTo(0);
+    assertThat(stats.getReceivedBytes()).isEqualTo(TEST_OBJECT.getSerializedSize());
+  }
+
+  @Test
+  public void newBlockingStub_replacesFailingChannel() {
+    stubProvider =
+        newStubProvider(
+            GoogleCloudStorageOptions.builder()
+                .setGrpcChannelPoolSize(1)
+                .setGrpcChannelMaxConsecutiveFailures(2));
+
+    fakeService.failure = Status.UNAVAILABLE;
+    for (int i = 0; i < 2; i++) {
+      assertThrows(
+          StatusRuntimeException.class,
+          () -> stubProvider.newBlockingStub().getObject(GET_OBJECT_REQUEST));
+    }
+    assertThat(stubProvider.getChannelStats().get(0).getConsecutiveFailures()).isEqualTo(2);
+
+    fakeService.failure = null;
+    stubProvider.newBlockingStub().getObject(GET_OBJECT_REQUEST);
+
+    assertThat(stubProvider.getReplacedChannelCount()).isEqualTo(1);
+    ChannelStats stats = stubProvider.getChannelStats().get(0);
+    assertThat(stats.getCompletedRequests()).isEqualTo(1);
+    assertThat(stats.getFailedRequests()).isEqualTo(0);
+  }
+
+  @Test
+  public void newAsyncStub_replacesStalledChannel() {
+    long stallTimeoutMillis = 1_000;
+    stubProvider =
+        newStubProvider(
+            GoogleCloudStorageOptions.builder()
+                .setGrpcChannelPoolSize(1)
+                .setGrpcChannelStallTimeoutMillis(stallTimeoutMillis));
+
+    // Server never responds to the media request, so it waits for the response indefinitely
+    RecordingStreamObserver<GetObjectMediaResponse> responseObserver =
+        new RecordingStreamObserver<>();
+    stubProvider
+        .newAsyncStub()
+        .getObjectMedia(GetObjectMediaRequest.getDefaultInstance(), responseObserver);
+
+    ChannelStats stats = stubProvider.getChannelStats().get(0);
+    assertThat(stats.getActiveRequests()).isEqualTo(1);
+    assertThat(stats.getPendingResponses()).isEqualTo(1);
+
+    ticker.advance(stallTimeoutMillis, MILLISECONDS);
+    stubProvider.newBlockingStub();
+    assertThat(stubProvider.getReplacedChannelCount()).isEqualTo(0);
+
+    ticker.advance(1, MILLISECONDS);
+    stubProvider.newBlockingStub();
+    assertThat(stubProvider.getReplacedChannelCount()).isEqualTo(1);
+    assertThat(stubProvider.getChannelStats().get(0).getActiveRequests()).isEqualTo(0);
+    // Stuck request is cancelled, so it can be retried
+    assertThat(Status.fromThrowable(responseObserver.error).getCode())
+        .isEqualTo(Status.Code.UNAVAILABLE);
+  }
+
+  @Test
+  public void newAsyncStub_stalledRequestNextToProgressingRequest_replacesChannel() {
+    long stallTimeoutMillis = 1_000;
+    stubProvider =
+        newStubProvider(
+            GoogleCloudStorageOptions.builder()
+                .setGrpcChannelPoolSize(1)
+                .setGrpcChannelStallTimeoutMillis(stallTimeoutMillis));
+
+    RecordingStreamObserver<GetObjectMediaResponse> stalledObserver =
+        new RecordingStreamObserver<>();
+    stubProvider
+        .newAsyncStub()
+        .getObjectMedia(GetObjectMediaRequest.getDefaultInstance(), stalledObserver);
+    RecordingStreamObserver<GetObjectMediaResponse> streamingObserver =
+        new RecordingStreamObserver<>();
+    stubProvider.newAsyncStub().getObjectMedia(STREAMING_MEDIA_REQUEST, streamingObserver);
+
+    ticker.advance(stallTimeoutMillis / 2 + 1, MILLISECONDS);
+    fakeService.streamingResponseObserver.onNext(GetObjectMediaResponse.getDefaultInstance());
+    stubProvider.newBlockingStub();
+    assertThat(stubProvider.getReplacedChannelCount()).isEqualTo(0);
+
+    // Responses of the streaming request do not hide that the other request is stuck
+    ticker.advance(stallTimeoutMillis / 2 + 1, MILLISECONDS);
+    fakeService.streamingResponseObserver.onNext(GetObjectMediaResponse.getDefaultInstance());
+    stubProvider.newBlockingStub();
+    assertThat(stubProvider.getReplacedChannelCount()).isEqualTo(1);
+    assertThat(Status.fromThrowable(stalledObserver.error).getCode())
+        .isEqualTo(Status.Code.UNAVAILABLE);
+  }
+
+  @Test
+  public void getChannelPoolStats_aggregatesChannelStats() {
+    stubProvider = newStubProvider(GoogleCloudStorageOptions.builder().setGrpcChannelPoolSize(2));
+
+    stubProvider.newBlockingStub().getObject(GET_OBJECT_REQUEST);
+    stubProvider
+        .newAsyncStub()
+        .getObjectMedia(
+            GetObjectMediaRequest.getDefaultInstance(), new RecordingStreamObserver<>());
+    fakeService.failure = Status.NOT_FOUND;
+    assertThrows(
+        StatusRuntimeException.class,
+        () -> stubProvider.newBlockingStub().getObject(GET_OBJECT_REQUEST));
+
+    GrpcChannelPoolStats stats = stubProvider.getChannelPoolStats();
+    assertThat(stats.getChannels()).isEqualTo(2);
+    assertThat(stats.getReplacedChannels()).isEqualTo(0);
+    assertThat(stats.getActiveRequests()).isEqualTo(1);
+    assertThat(stats.getCompletedRequests()).isEqualTo(2);
+    assertThat(stats.getFailedRequests()).isEqualTo(1);
+    assertThat(stats.getPendingResponses()).isEqualTo(1);
+    assertThat(stats.getReceivedBytes()).isEqualTo(TEST_OBJECT.getSerializedSize());
+  }
+
+  @Test
+  public void newAsyncStub_longRunningUpload_doesNotReplaceChannel() {
+    long stallTimeoutMillis = 1_000;
+    stubProvider =
+        newStubProvider(
+            GoogleCloudStorageOptions.builder()
+                .setGrpcChannelPoolSize(1)
+                .setGrpcChannelStallTimeoutMillis(stallTimeoutMillis));
+
+    // Server responds to the upload only after all requests were sent
+    RecordingStreamObserver<Object> responseObserver = new RecordingStreamObserver<>();
+    StreamObserver<InsertObjectRequest> requestObserver =
+        stubProvider.newAsyncStub().insertObject(responseObserver);
+    requestObserver.onNext(InsertObjectRequest.getDefaultInstance());
+
+    ticker.advance(10 * stallTimeoutMillis, MILLISECONDS);
+    stubProvider.newBlockingStub();
+    assertThat(stubProvider.getReplacedChannelCount()).isEqualTo(0);
+    assertThat(stubProvider.getChannelStats().get(0).getPendingResponses()).isEqualTo(0);
+
+    requestObserver.onCompleted();
+
+    assertThat(responseObserver.completed).isTrue();
+    ChannelStats stats = stubProvider.getChannelStats().get(0);
+    assertThat(stats.getCompletedRequests()).isEqualTo(1);
+    // Upload duration is not recorded as response latency
+    assertThat(stats.getResponseLatencyMillis()).isEqualTo(0);
+  }
+
+  private StorageStubProvider newStubProvider(GoogleCloudStorageOptions.Builder options) {
+    return new StorageStubProvider(
+        options.setAppName("test-app").build(), executor, new InProcessGrpcDecorator(), ticker);
+  }
+
+  private class InProcessGrpcDecorator implements StorageStubProvider.GrpcDecorator {
+
+    @Override
+    public ManagedChannelBuilder<?> createChannelBuilder(String target) {
+      return InProcessChannelBuilder.forName(serverName).directExecutor();
+    }
+
+    @Override
+    public AbstractStub<?> applyCallOption(AbstractStub<?> stub) {
+      return stub;
+    }
+  }
+
+  private static class RecordingStreamObserver<T> implements StreamObserver<T> {
+
+    private volatile Throwable error;
+    private volatile boolean completed;
+
+    @Override
+    public void onNext(T value) {}
+
+    @Override
+    public void onError(Throwable t) {
+      error = t;
+    }
+
+    @Override
+    public void onCompleted() {
+      completed = true;
+    }
+  }
+
+  private static class FakeService extends StorageImplBase {
+
+    private volatile Status failure;
+    private volatile StreamObserver<GetObjectMediaResponse> streamingResponseObserver;
+
+    @Override
+    public void getObject(GetObjectRequest request, StreamObserver<Object> responseObserver) {
+      if (failure != null) {
+        responseObserver.onError(failure.asException());
+        return;
+      }
+      responseObserver.onNext(TEST_OBJECT);
+      responseObserver.onCompleted();
+    }
+
+    @Override
+    public StreamObserver<InsertObjectRequest> insertObject(
+        StreamObserver<Object> responseObserver) {
+      return new StreamObserver<InsertObjectRequest>() {
+        @Override
+        public void onNext(InsertObjectRequest request) {}
+
+        @Override
+        public void onError(Throwable t) {}
+
+        @Override
+        public void onCompleted() {
+          responseObserver.onNext(TEST_OBJECT);
+          responseObserver.onCompleted();
+        }
+      };
+    }
+
+    @Override
+    public void getObjectMedia(
+        GetObjectMediaRequest request, StreamObserver<GetObjectMediaResponse> responseObserver) {
+      // Responds only when test sends responses to the streaming request
+      if (request.getObject().equals(STREAMING_MEDIA_REQUEST.getObject())) {
+        streamingResponseObserver = responseObserver;
+      }
+    }
+  }
+}
@@ -58,6 +58,11 @@ public class TrackingHttpRequestInitializer implements HttpRequestInitializer {
           + GOOGLEAPIS_ENDPOINT
           + "/upload/storage/v1/b/%s/o?ifGenerationMatch=%s&uploadType=multipart:%s";
 
+  private static final String DIRECT_UPLOAD_REQUEST_FORMAT =
+      "POST:"
+          + GOOGLEAPIS_ENDPOINT
+          + "/upload/storage/v1/b/%s/o?ifGenerationMatch=%s&name=%s&uploadType=multipart:%s";
+
   private static final String RESUMABLE_UPLOAD_REQUEST_FORMAT =
       "POST:"
           + GOOGLEAPIS_ENDPOINT
@@ -277,6 +282,18 @@ public class TrackingHttpRequestInitializer implements HttpRequestInitializer {
     return generationId == null ? request.replaceAll("ifGenerationMatch=[^&]+&", "") : request;
   }
 
+  public static String directUploadRequestString(
+      String bucketName, String object, Integer generationId, boolean replaceGenerationId) {
+    String request =
+        String.format(
+            DIRECT_UPLOAD_REQUEST_FORMAT,
+            bucketName,
+            replaceGenerationId ? "generationId_" + generationId : generationId,
+            object,
+            object);
+    return generationId == null ? request.replaceAll("ifGenerationMatch=[^&]+&", "") : request;
+  }
+
   public static String resumableUploadRequestString(
       String bucketName, String object, Integer generationId, boolean replaceGenerationId) {
     String request =
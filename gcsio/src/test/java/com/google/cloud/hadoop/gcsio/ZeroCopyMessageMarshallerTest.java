@@ -0,0 +1,93 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.google.storage.v1.ChecksummedData;
+import com.google.google.storage.v1.GetObjectMediaResponse;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UInt32Value;
+import io.grpc.KnownLength;
+import io.grpc.StatusRuntimeException;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ZeroCopyMessageMarshallerTest {
+
+  private final ZeroCopyMessageMarshaller<GetObjectMediaResponse> marshaller =
+      new ZeroCopyMessageMarshaller<>(GetObjectMediaResponse.getDefaultInstance());
+
+  @Test
+  public void parse_knownLengthStream_returnsEqualMessage() {
+    GetObjectMediaResponse response = newResponse(/* contentSize= */ 64 * 1024);
+
+    // Streams created by the protobuf marshaller implement KnownLength
+    GetObjectMediaResponse parsed = marshaller.parse(marshaller.stream(response));
+
+    assertThat(parsed).isEqualTo(response);
+  }
+
+  @Test
+  public void parse_unknownLengthStream_returnsEqualMessage() {
+    GetObjectMediaResponse response = newResponse(/* contentSize= */ 1024);
+
+    InputStream stream = new ByteArrayInputStream(response.toByteArray());
+
+    assertThat(marshaller.parse(stream)).isEqualTo(response);
+  }
+
+  @Test
+  public void parse_emptyMessage_returnsDefaultInstance() {
+    GetObjectMediaResponse parsed =
+        marshaller.parse(marshaller.stream(GetObjectMediaResponse.getDefaultInstance()));
+
+    assertThat(parsed).isEqualTo(GetObjectMediaResponse.getDefaultInstance());
+  }
+
+  @Test
+  public void parse_invalidMessage_throwsStatusException() {
+    byte[] bytes = new byte[16];
+    bytes[0] = (byte) 0xFF;
+
+    assertThrows(
+        StatusRuntimeException.class, () -> marshaller.parse(new KnownLengthInputStream(bytes)));
+  }
+
+  private static GetObjectMediaResponse newResponse(int contentSize) {
+    byte[] content = new byte[contentSize];
+    new Random(42).nextBytes(content);
+    return GetObjectMediaResponse.newBuilder()
+        .setChecksummedData(
+            ChecksummedData.newBuilder()
+                .setContent(ByteString.copyFrom(content))
+                .setCrc32C(UInt32Value.newBuilder().setValue(42)))
+        .build();
+  }
+
+  /** Stream of the given bytes that implements {@link KnownLength}. */
+  private static class KnownLengthInputStream extends ByteArrayInputStream
+      implements KnownLength {
+    KnownLengthInputStream(byte[] bytes) {
+      super(bytes);
+    }
+  }
+}
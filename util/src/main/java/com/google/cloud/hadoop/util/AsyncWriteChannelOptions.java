@@ -19,6 +19,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import com.google.api.client.googleapis.media.MediaHttpUploader;
 import com.google.auto.value.AutoValue;
 import com.google.common.flogger.GoogleLogger;
+import javax.annotation.Nullable;
 
 /** Options for the {@link AbstractGoogleAsyncWriteChannel}. */
 @AutoValue
@@ -30,6 +31,7 @@ public abstract class AsyncWriteChannelOptions {
   public enum PipeType {
     NIO_CHANNEL_PIPE,
     IO_STREAM_PIPE,
+    BUFFER_QUEUE_PIPE,
   }
 
   /** Default upload buffer size. */
@@ -38,6 +40,9 @@ public abstract class AsyncWriteChannelOptions {
   /** Default pipe buffer size. */
   public static final int PIPE_BUFFER_SIZE_DEFAULT = 1024 * 1024;
 
+  /** Default number of pipe buffers in the {@link PipeType#BUFFER_QUEUE_PIPE} pipe. */
+  public static final int PIPE_BUFFER_QUEUE_CAPACITY_DEFAULT = 8;
+
   /** Upload chunk size granularity */
   public static final int UPLOAD_CHUNK_SIZE_GRANULARITY = 8 * 1024 * 1024;
 
@@ -50,9 +55,15 @@ public abstract class AsyncWriteChannelOptions {
   /** Default upload cache size. */
   public static final int UPLOAD_CACHE_SIZE_DEFAULT = 0;
 
+  /** Default maximum size of the upload cache spill file. */
+  public static final long UPLOAD_CACHE_SPILL_MAX_SIZE_DEFAULT = 1024 * 1024 * 1024;
+
   /** Default of whether to use direct upload. */
   public static final boolean DIRECT_UPLOAD_ENABLED_DEFAULT = false;
 
+  /** Default maximum size of the objects uploaded with direct upload, 0 disables it. */
+  public static final int DIRECT_UPLOAD_THRESHOLD_DEFAULT = 0;
+
   /** Default of whether to enabled checksums for gRPC. */
   public static final boolean GRPC_CHECKSUMS_ENABLED_DEFAULT = false;
 
@@ -64,19 +75,30 @@ public abstract class AsyncWriteChannelOptions {
 
   public static final PipeType PIPE_TYPE_DEFAULT = PipeType.IO_STREAM_PIPE;
 
+  /** Default number of parts uploaded concurrently by parallel composite upload, 0 disables it. */
+  public static final int PARALLEL_COMPOSITE_UPLOAD_CONCURRENCY_DEFAULT = 0;
+
+  /** Default size of the parts uploaded by parallel composite upload. */
+  public static final int PARALLEL_COMPOSITE_UPLOAD_PART_SIZE_DEFAULT = 32 * 1024 * 1024;
+
   public static final AsyncWriteChannelOptions DEFAULT = builder().build();
 
   public static Builder builder() {
     return new AutoValue_AsyncWriteChannelOptions.Builder()
         .setBufferSize(BUFFER_SIZE_DEFAULT)
         .setPipeBufferSize(PIPE_BUFFER_SIZE_DEFAULT)
+        .setPipeBufferQueueCapacity(PIPE_BUFFER_QUEUE_CAPACITY_DEFAULT)
         .setPipeType(PIPE_TYPE_DEFAULT)
         .setUploadChunkSize(UPLOAD_CHUNK_SIZE_DEFAULT)
         .setUploadCacheSize(UPLOAD_CACHE_SIZE_DEFAULT)
+        .setUploadCacheSpillMaxSize(UPLOAD_CACHE_SPILL_MAX_SIZE_DEFAULT)
         .setDirectUploadEnabled(DIRECT_UPLOAD_ENABLED_DEFAULT)
+        .setDirectUploadThreshold(DIRECT_UPLOAD_THRESHOLD_DEFAULT)
         .setGrpcChecksumsEnabled(GRPC_CHECKSUMS_ENABLED_DEFAULT)
         .setGrpcWriteTimeout(DEFAULT_GRPC_WRITE_TIMEOUT)
-        .setNumberOfBufferedRequests(DEFAULT_NUM_REQUESTS_BUFFERED_GRPC);
+        .setNumberOfBufferedRequests(DEFAULT_NUM_REQUESTS_BUFFERED_GRPC)
+        .setParallelCompositeUploadConcurrency(PARALLEL_COMPOSITE_UPLOAD_CONCURRENCY_DEFAULT)
+        .setParallelCompositeUploadPartSize(PARALLEL_COMPOSITE_UPLOAD_PART_SIZE_DEFAULT);
   }
 
   public abstract Builder toBuilder();
@@ -85,20 +107,33 @@ public abstract class AsyncWriteChannelOptions {
 
   public abstract int getPipeBufferSize();
 
+  public abstract int getPipeBufferQueueCapacity();
+
   public abstract PipeType getPipeType();
 
   public abstract int getUploadChunkSize();
 
   public abstract int getUploadCacheSize();
 
+  @Nullable
+  public abstract String getUploadCacheSpillDirectory();
+
+  public abstract long getUploadCacheSpillMaxSize();
+
   public abstract boolean isDirectUploadEnabled();
 
+  public abstract int getDirectUploadThreshold();
+
   public abstract boolean isGrpcChecksumsEnabled();
 
   public abstract long getGrpcWriteTimeout();
 
   public abstract long getNumberOfBufferedRequests();
 
+  public abstract int getParallelCompositeUploadConcurrency();
+
+  public abstract int getParallelCompositeUploadPartSize();
+
   /** Mutable builder for the GoogleCloudStorageWriteChannelOptions class. */
   @AutoValue.Builder
   public abstract static class Builder {
@@ -107,18 +142,54 @@ public abstract class AsyncWriteChannelOptions {
 
     public abstract Builder setPipeBufferSize(int pipeBufferSize);
 
+    /**
+     * Maximum number of pipe buffers filled by writer and not yet consumed by uploader in the
+     * {@link PipeType#BUFFER_QUEUE_PIPE} pipe.
+     */
+    public abstract Builder setPipeBufferQueueCapacity(int pipeBufferQueueCapacity);
+
     public abstract Builder setPipeType(PipeType pipeType);
 
     public abstract Builder setUploadChunkSize(int uploadChunkSize);
 
     public abstract Builder setUploadCacheSize(int uploadCacheSize);
 
+    /**
+     * Local directory to which upload cache spills data that does not fit into the in-memory upload
+     * cache. If not set, then upload cache is not used for objects larger than the upload cache
+     * size.
+     */
+    public abstract Builder setUploadCacheSpillDirectory(String uploadCacheSpillDirectory);
+
+    /**
+     * Maximum size of the upload cache spill file of one stream, so an upload of a large object can
+     * not fill up the local disk. Upload cache is not used for the objects that do not fit into the
+     * in-memory upload cache and the spill file.
+     */
+    public abstract Builder setUploadCacheSpillMaxSize(long uploadCacheSpillMaxSize);
+
     public abstract Builder setDirectUploadEnabled(boolean directUploadEnabled);
 
+    /**
+     * Maximum size of the objects that are uploaded in a single direct upload request instead of a
+     * resumable upload session. Written data is buffered in memory up to this size, and if the
+     * object is closed before it exceeds this size, then it is uploaded with direct upload. If 0,
+     * then objects are uploaded according to the {@link #setDirectUploadEnabled} setting.
+     */
+    public abstract Builder setDirectUploadThreshold(int directUploadThreshold);
+
     public abstract Builder setGrpcWriteTimeout(long grpcWriteTimeout);
 
     public abstract Builder setNumberOfBufferedRequests(long numberOfBufferedRequests);
 
+    /**
+     * Number of parts uploaded concurrently by parallel composite upload. If 0, then objects are
+     * uploaded without parallel composite upload.
+     */
+    public abstract Builder setParallelCompositeUploadConcurrency(int concurrency);
+
+    public abstract Builder setParallelCompositeUploadPartSize(int partSize);
+
     /**
      * Enable gRPC checksumming. On by default. It is strongly recommended to leave this enabled, to
      * protect against possible data corruption caused by software bugs.
@@ -130,6 +201,22 @@ public abstract class AsyncWriteChannelOptions {
     public AsyncWriteChannelOptions build() {
       AsyncWriteChannelOptions options = autoBuild();
       checkUploadChunkSize(options.getUploadChunkSize());
+      checkArgument(
+          options.getUploadCacheSpillMaxSize() > 0,
+          "Upload cache spill max size must be greater than 0, but was %s",
+          options.getUploadCacheSpillMaxSize());
+      checkArgument(
+          options.getDirectUploadThreshold() >= 0,
+          "Direct upload threshold must not be negative, but was %s",
+          options.getDirectUploadThreshold());
+      checkArgument(
+          options.getParallelCompositeUploadConcurrency() >= 0,
+          "Parallel composite upload concurrency must not be negative, but was %s",
+          options.getParallelCompositeUploadConcurrency());
+      checkArgument(
+          options.getParallelCompositeUploadPartSize() > 0,
+          "Parallel composite upload part size must be greater than 0, but was %s",
+          options.getParallelCompositeUploadPartSize());
       return options;
     }
 
@@ -15,6 +15,7 @@
 package com.google.cloud.hadoop.util;
 
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Strings.isNullOrEmpty;
 
 import com.google.common.flogger.GoogleLogger;
 import java.io.BufferedInputStream;
@@ -28,6 +29,7 @@ import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.Pipe;
 import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -56,7 +58,7 @@ public abstract class BaseAbstractGoogleAsyncWriteChannel<T> implements Writable
 
   private WritableByteChannel pipeSink;
 
-  private ByteBuffer uploadCache = null;
+  private UploadCache uploadCache = null;
 
   /** Construct a new channel using the given ExecutorService to run background uploads. */
   public BaseAbstractGoogleAsyncWriteChannel(
@@ -64,7 +66,12 @@ public abstract class BaseAbstractGoogleAsyncWriteChannel<T> implements Writable
     this.threadPool = threadPool;
     this.channelOptions = channelOptions;
     if (channelOptions.getUploadCacheSize() > 0) {
-      this.uploadCache = ByteBuffer.allocate(channelOptions.getUploadCacheSize());
+      String spillDirectory = channelOptions.getUploadCacheSpillDirectory();
+      this.uploadCache =
+          new UploadCache(
+              channelOptions.getUploadCacheSize(),
+              isNullOrEmpty(spillDirectory) ? null : Paths.get(spillDirectory),
+              channelOptions.getUploadCacheSpillMaxSize());
     }
   }
 
@@ -121,12 +128,8 @@ public abstract class BaseAbstractGoogleAsyncWriteChannel<T> implements Writable
       waitForCompletionAndThrowIfUploadFailed();
     }
 
-    if (uploadCache != null && uploadCache.remaining() >= buffer.remaining()) {
-      int position = buffer.position();
-      uploadCache.put(buffer);
-      buffer.position(position);
-    } else {
-      uploadCache = null;
+    if (uploadCache != null && !uploadCache.put(buffer)) {
+      releaseUploadCache();
     }
 
     try {
@@ -174,6 +177,7 @@ public abstract class BaseAbstractGoogleAsyncWriteChannel<T> implements Writable
       reuploadFromCache();
     } finally {
       closeInternal();
+      releaseUploadCache();
     }
   }
 
@@ -184,18 +188,24 @@ public abstract class BaseAbstractGoogleAsyncWriteChannel<T> implements Writable
     initialize();
 
     // Set cache to null so it will not be re-cached during retry.
-    ByteBuffer reuploadData = uploadCache;
+    UploadCache reuploadData = uploadCache;
     uploadCache = null;
 
-    reuploadData.flip();
-
     try {
-      write(reuploadData);
+      reuploadData.writeTo(this);
     } finally {
+      reuploadData.close();
       close();
     }
   }
 
+  private void releaseUploadCache() {
+    if (uploadCache != null) {
+      uploadCache.close();
+      uploadCache = null;
+    }
+  }
+
   private void closeInternal() {
     pipeSink = null;
     if (uploadOperation != null && !uploadOperation.isDone()) {
@@ -228,6 +238,12 @@ public abstract class BaseAbstractGoogleAsyncWriteChannel<T> implements Writable
         PipedOutputStream internalPipeSink = new PipedOutputStream(internalPipeSource);
         pipeSink = Channels.newChannel(internalPipeSink);
         return internalPipeSource;
+      case BUFFER_QUEUE_PIPE:
+        ByteBufferQueuePipe bufferQueuePipe =
+            new ByteBufferQueuePipe(
+                channelOptions.getPipeBufferSize(), channelOptions.getPipeBufferQueueCapacity());
+        pipeSink = bufferQueuePipe.sink();
+        return bufferQueuePipe.source();
     }
     throw new IllegalStateException("Unknown PipeType: " + channelOptions.getPipeType());
   }
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Pipe that passes written data to the reader through a bounded queue of pooled {@link ByteBuffer}
+ * chunks.
+ *
+ * <p>Compared to the {@link java.io.PipedInputStream}/{@link java.io.PipedOutputStream} pipe, data
+ * is copied from the caller's buffer directly into a chunk and from the chunk directly into the
+ * reader's array, writer does not hand off every write to the reader, and it blocks only when all
+ * {@code queueCapacity} chunks are filled and not yet consumed by the reader. Consumed chunks are
+ * reused for subsequent writes.
+ *
+ * <p>Written data becomes visible to the reader when the current chunk is full or the sink is
+ * closed.
+ */
+class ByteBufferQueuePipe {
+
+  // Marks end of data in the filled chunks queue and closed source in the free chunks queue.
+  private static final ByteBuffer EOF = ByteBuffer.allocate(0);
+
+  private final int chunkSize;
+  private final int queueCapacity;
+
+  private final BlockingQueue<ByteBuffer> filledChunks = new LinkedBlockingQueue<>();
+  private final BlockingQueue<ByteBuffer> freeChunks = new LinkedBlockingQueue<>();
+
+  private final Sink sink = new Sink();
+  private final Source source = new Source();
+
+  // Accessed only by the writer thread.
+  private int allocatedChunks = 0;
+
+  ByteBufferQueuePipe(int chunkSize, int queueCapacity) {
+    checkArgument(chunkSize > 0, "chunkSize must be positive, but was %s", chunkSize);
+    checkArgument(queueCapacity > 0, "queueCapacity must be positive, but was %s", queueCapacity);
+    this.chunkSize = chunkSize;
+    this.queueCapacity = queueCapacity;
+  }
+
+  /** Returns write end of this pipe. */
+  WritableByteChannel sink() {
+    return sink;
+  }
+
+  /** Returns read end of this pipe. */
+  InputStream source() {
+    return source;
+  }
+
+  private class Sink implements WritableByteChannel {
+
+    private ByteBuffer chunk;
+    private volatile boolean open = true;
+
+    @Override
+    public synchronized int write(ByteBuffer src) throws IOException {
+      if (!open) {
+        throw new ClosedChannelException();
+      }
+      int written = src.remaining();
+      while (src.hasRemaining()) {
+        if (chunk == null) {
+          chunk = takeFreeChunk();
+        }
+        if (src.remaining() <= chunk.remaining()) {
+          chunk.put(src);
+        } else {
+          ByteBuffer slice = src.duplicate();
+          slice.limit(slice.position() + chunk.remaining());
+          src.position(slice.limit());
+          chunk.put(slice);
+        }
+        if (!chunk.hasRemaining()) {
+          publishChunk();
+        }
+      }
+      return written;
+    }
+
+    private ByteBuffer takeFreeChunk() throws IOException {
+      if (source.closed) {
+        throw new IOException("Pipe closed");
+      }
+      ByteBuffer freeChunk = freeChunks.poll();
+      if (freeChunk == null && allocatedChunks < queueCapacity) {
+        allocatedChunks++;
+        return ByteBuffer.allocate(chunkSize);
+      }
+      try {
+        freeChunk = freeChunk == null ? freeChunks.take() : freeChunk;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        IOException exception = new ClosedByInterruptException();
+        exception.addSuppressed(e);
+        throw exception;
+      }
+      if (freeChunk == EOF) {
+        throw new IOException("Pipe closed");
+      }
+      freeChunk.clear();
+      return freeChunk;
+    }
+
+    private void publishChunk() {
+      chunk.flip();
+      filledChunks.add(chunk);
+      chunk = null;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return open;
+    }
+
+    @Override
+    public synchronized void close() {
+      if (!open) {
+        return;
+      }
+      open = false;
+      if (chunk != null && chunk.position() > 0) {
+        publishChunk();
+      }
+      chunk = null;
+      filledChunks.add(EOF);
+    }
+  }
+
+  private class Source extends InputStream {
+
+    private ByteBuffer chunk;
+    private boolean eof = false;
+    private volatile boolean closed = false;
+
+    @Override
+    public int read() throws IOException {
+      byte[] b = new byte[1];
+      int read = read(b, 0, 1);
+      return read < 0 ? read : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      checkPositionIndexes(off, off + len, b.length);
+      if (closed) {
+        throw new IOException("Stream closed");
+      }
+      if (len == 0) {
+        return 0;
+      }
+      int read = 0;
+      // Read from all available chunks, but block only if nothing was read yet
+      while (read < len && takeFilledChunk(/* block= */ read == 0)) {
+        int length = Math.min(len - read, chunk.remaining());
+        chunk.get(b, off + read, length);
+        read += length;
+        if (!chunk.hasRemaining()) {
+          freeChunks.add(chunk);
+          chunk = null;
+        }
+      }
+      return read == 0 ? -1 : read;
+    }
+
+    /** Returns true if there is a current chunk with remaining data. */
+    private boolean takeFilledChunk(boolean block) throws IOException {
+      if (chunk != null) {
+        return true;
+      }
+      if (eof) {
+        return false;
+      }
+      try {
+        chunk = block ? filledChunks.take() : filledChunks.poll();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw (IOException) new InterruptedIOException("Interrupted pipe read").initCause(e);
+      }
+      if (chunk == EOF) {
+        chunk = null;
+        eof = true;
+      }
+      return chunk != null;
+    }
+
+    @Override
+    public int available() {
+      return chunk == null ? 0 : chunk.remaining();
+    }
+
+    @Override
+    public void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      chunk = null;
+      filledChunks.clear();
+      // Unblock writer waiting for a free chunk.
+      freeChunks.add(EOF);
+    }
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import com.google.common.flogger.GoogleLogger;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.annotation.Nullable;
+
+/**
+ * Cache of the uploaded data that is used to re-upload an object after upload failure.
+ *
+ * <p>Recently written data is kept in the in-memory buffer. If spill directory is specified, then
+ * when the in-memory buffer is full, its content is appended to the spill file in this directory,
+ * so at most the in-memory buffer size of data is held in memory and at most {@code maxSpillSize}
+ * bytes are stored on the local disk.
+ */
+class UploadCache implements Closeable {
+
+  private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
+
+  private static final String SPILL_FILE_PREFIX = "gcs-upload-cache-";
+
+  private final ByteBuffer memoryBuffer;
+  @Nullable private final Path spillDirectory;
+  private final long maxSpillSize;
+
+  private Path spillFile;
+  private FileChannel spillChannel;
+
+  /**
+   * @param memorySize size of the in-memory buffer
+   * @param spillDirectory directory for the spill file, or {@code null} to cache data only in
+   *     memory
+   * @param maxSpillSize maximum size of the spill file
+   */
+  UploadCache(int memorySize, @Nullable Path spillDirectory, long maxSpillSize) {
+    checkArgument(memorySize > 0, "memorySize should be positive, but was %s", memorySize);
+    checkArgument(maxSpillSize > 0, "maxSpillSize should be positive, but was %s", maxSpillSize);
+    this.memoryBuffer = ByteBuffer.allocate(memorySize);
+    this.spillDirectory = spillDirectory;
+    this.maxSpillSize = maxSpillSize;
+  }
+
+  /**
+   * Caches remaining bytes of the given buffer without changing its position.
+   *
+   * @return {@code false} if the cache does not have capacity to store the data or failed to spill
+   *     it, in which case cache should not be used anymore
+   */
+  boolean put(ByteBuffer buffer) {
+    if (memoryBuffer.remaining() >= buffer.remaining()) {
+      memoryBuffer.put(buffer.duplicate());
+      return true;
+    }
+    if (spillDirectory == null) {
+      return false;
+    }
+    try {
+      if (getSpilledSize() + memoryBuffer.position() + buffer.remaining() > maxSpillSize) {
+        return false;
+      }
+      // Spill older data from the memory to keep the most recent data in memory
+      memoryBuffer.flip();
+      writeFully(getSpillChannel(), memoryBuffer);
+      memoryBuffer.clear();
+      if (memoryBuffer.remaining() >= buffer.remaining()) {
+        memoryBuffer.put(buffer.duplicate());
+      } else {
+        writeFully(spillChannel, buffer.duplicate());
+      }
+      return true;
+    } catch (IOException e) {
+      logger.atWarning().withCause(e).log("Failed to spill upload cache to %s", spillDirectory);
+      return false;
+    }
+  }
+
+  /** Writes all cached data into the given channel. */
+  void writeTo(WritableByteChannel channel) throws IOException {
+    if (spillChannel != null) {
+      ByteBuffer readBuffer = ByteBuffer.allocate(Math.min(memoryBuffer.capacity(), 1024 * 1024));
+      for (long position = 0; position < spillChannel.size(); ) {
+        readBuffer.clear();
+        int bytesRead = spillChannel.read(readBuffer, position);
+        position += bytesRead;
+        readBuffer.flip();
+        writeFully(channel, readBuffer);
+      }
+    }
+    ByteBuffer memoryData = memoryBuffer.duplicate();
+    memoryData.flip();
+    writeFully(channel, memoryData);
+  }
+
+  /** Releases cached data and deletes spill file. */
+  @Override
+  public void close() {
+    memoryBuffer.clear();
+    if (spillChannel == null) {
+      return;
+    }
+    try {
+      spillChannel.close();
+      Files.deleteIfExists(spillFile);
+    } catch (IOException e) {
+      logger.atWarning().withCause(e).log("Failed to delete upload cache spill file %s", spillFile);
+    } finally {
+      spillChannel = null;
+      spillFile = null;
+    }
+  }
+
+  private long getSpilledSize() throws IOException {
+    return spillChannel == null ? 0 : spillChannel.size();
+  }
+
+  private FileChannel getSpillChannel() throws IOException {
+    if (spillChannel == null) {
+      Files.createDirectories(spillDirectory);
+      spillFile = Files.createTempFile(spillDirectory, SPILL_FILE_PREFIX, ".tmp");
+      spillChannel = FileChannel.open(spillFile, READ, WRITE);
+      logger.atFine().log("Spilling upload cache to %s", spillFile);
+    }
+    return spillChannel;
+  }
+
+  private static void writeFully(WritableByteChannel channel, ByteBuffer buffer)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.io.ByteStreams;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ByteBufferQueuePipeTest {
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void read_returnsWrittenData() throws Exception {
+    ByteBufferQueuePipe pipe = new ByteBufferQueuePipe(/* chunkSize= */ 7, /* queueCapacity= */ 2);
+    byte[] data = new byte[1000];
+    new Random(42).nextBytes(data);
+
+    Future<byte[]> readFuture = executor.submit(() -> ByteStreams.toByteArray(pipe.source()));
+    try (WritableByteChannel sink = pipe.sink()) {
+      for (int offset = 0; offset < data.length; offset += 17) {
+        ByteBuffer buffer = ByteBuffer.wrap(data, offset, Math.min(17, data.length - offset));
+        assertThat(sink.write(buffer)).isEqualTo(Math.min(17, data.length - offset));
+        assertThat(buffer.hasRemaining()).isFalse();
+      }
+    }
+
+    assertThat(readFuture.get()).isEqualTo(data);
+  }
+
+  @Test
+  public void write_blocksWhenQueueIsFull_untilChunkIsRead() throws Exception {
+    ByteBufferQueuePipe pipe = new ByteBufferQueuePipe(/* chunkSize= */ 4, /* queueCapacity= */ 2);
+    WritableByteChannel sink = pipe.sink();
+    sink.write(ByteBuffer.wrap(new byte[8]));
+
+    Future<Integer> writeFuture = executor.submit(() -> sink.write(ByteBuffer.wrap(new byte[4])));
+    assertThrows(TimeoutException.class, () -> writeFuture.get(100, TimeUnit.MILLISECONDS));
+
+    InputStream source = pipe.source();
+    assertThat(source.read(new byte[4])).isEqualTo(4);
+
+    assertThat(writeFuture.get()).isEqualTo(4);
+  }
+
+  @Test
+  public void write_afterSourceClosed_throwsIOException() throws Exception {
+    ByteBufferQueuePipe pipe = new ByteBufferQueuePipe(/* chunkSize= */ 4, /* queueCapacity= */ 1);
+    WritableByteChannel sink = pipe.sink();
+    sink.write(ByteBuffer.wrap(new byte[4]));
+
+    Future<Integer> writeFuture = executor.submit(() -> sink.write(ByteBuffer.wrap(new byte[4])));
+    pipe.source().close();
+
+    ExecutionException e = assertThrows(ExecutionException.class, writeFuture::get);
+    assertThat(e).hasCauseThat().isInstanceOf(IOException.class);
+    assertThrows(IOException.class, () -> sink.write(ByteBuffer.wrap(new byte[1])));
+  }
+
+  @Test
+  public void read_partialChunk_availableAfterSinkClosed() throws IOException {
+    ByteBufferQueuePipe pipe = new ByteBufferQueuePipe(/* chunkSize= */ 4, /* queueCapacity= */ 2);
+    WritableByteChannel sink = pipe.sink();
+    sink.write(ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5}));
+    sink.close();
+
+    InputStream source = pipe.source();
+    byte[] buffer = new byte[10];
+    assertThat(source.read(buffer)).isEqualTo(5);
+    assertThat(source.read(buffer)).isEqualTo(-1);
+    assertThat(buffer).asList().containsExactly(
+        (byte) 1, (byte) 2, (byte) 3, (byte) 4, (byte) 5, (byte) 0, (byte) 0, (byte) 0, (byte) 0,
+        (byte) 0).inOrder();
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class UploadCacheTest {
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void put_withoutSpillDirectory_failsWhenMemoryIsFull() throws IOException {
+    UploadCache cache =
+        new UploadCache(/* memorySize= */ 10, /* spillDirectory= */ null, /* maxSpillSize= */ 100);
+
+    assertThat(cache.put(ByteBuffer.wrap(new byte[6]))).isTrue();
+    assertThat(cache.put(ByteBuffer.wrap(new byte[6]))).isFalse();
+  }
+
+  @Test
+  public void put_withSpillDirectory_spillsOlderDataAndWritesAllData() throws IOException {
+    File spillDirectory = tempFolder.newFolder();
+    UploadCache cache =
+        new UploadCache(/* memorySize= */ 10, spillDirectory.toPath(), /* maxSpillSize= */ 10_000);
+    byte[] data = new byte[1000];
+    new Random(42).nextBytes(data);
+
+    for (int offset = 0; offset < data.length; offset += 7) {
+      ByteBuffer buffer = ByteBuffer.wrap(data, offset, Math.min(7, data.length - offset));
+      assertThat(cache.put(buffer)).isTrue();
+      assertThat(buffer.position()).isEqualTo(offset);
+    }
+    // Write buffer that is larger than memory directly to the spill file
+    assertThat(cache.put(ByteBuffer.wrap(data))).isTrue();
+
+    assertThat(spillDirectory.list()).hasLength(1);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    cache.writeTo(Channels.newChannel(output));
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    expected.write(data);
+    expected.write(data);
+    assertThat(output.toByteArray()).isEqualTo(expected.toByteArray());
+
+    cache.close();
+
+    assertThat(spillDirectory.list()).isEmpty();
+  }
+
+  @Test
+  public void put_exceedingMaxSpillSize_fails() throws IOException {
+    UploadCache cache =
+        new UploadCache(
+            /* memorySize= */ 10, tempFolder.newFolder().toPath(), /* maxSpillSize= */ 20);
+
+    assertThat(cache.put(ByteBuffer.wrap(new byte[15]))).isTrue();
+    assertThat(cache.put(ByteBuffer.wrap(new byte[6]))).isTrue();
+    assertThat(cache.put(ByteBuffer.wrap(new byte[6]))).isFalse();
+
+    cache.close();
+  }
+
+  @Test
+  public void new_withoutMaxSpillSize_fails() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            new UploadCache(
+                /* memorySize= */ 10, tempFolder.getRoot().toPath(), /* maxSpillSize= */ 0));
+  }
+}